@@ -0,0 +1,119 @@
+package graph;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Products of a 10M edge uniform graph with {@code vectors} interleaved vectors, against the same
+ * product summed over {@link Graph#iterator()}. Besides products per second, the counters report
+ * the rate of floating point operations, two per entry and vector, and of bytes moved: every
+ * column entry, every gathered input element and every written output element counted once.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx3g")
+@State(Scope.Benchmark)
+public class AdjacencyMatrixBenchmark {
+  private static final int EDGES = 10_000_000;
+
+  @Param({"1", "8"})
+  public int vectors;
+
+  @Param({"false", "true"})
+  public boolean incomingIndex;
+
+  private Graph graph;
+  private AdjacencyMatrix matrix;
+  private float[] x;
+  private float[] y;
+  private double[] doubleX;
+  private double[] doubleY;
+
+  @State(Scope.Thread)
+  @AuxCounters(AuxCounters.Type.OPERATIONS)
+  public static class Traffic {
+    public long flops;
+    public long bytes;
+
+    @Setup(Level.Iteration)
+    public void clear() {
+      flops = 0;
+      bytes = 0;
+    }
+
+    void add(AdjacencyMatrix matrix, int vectors, int elementBytes) {
+      flops += 2L * matrix.nonZeros() * vectors;
+      bytes += 12L * matrix.nonZeros() + (long) elementBytes * vectors
+          * (matrix.nonZeros() + matrix.dimension());
+    }
+  }
+
+  @Setup
+  public void setUp() {
+    GeneratedGraph generated = GeneratedGraph.generate(EdgeDistribution.UNIFORM, EDGES, 42);
+    graph = generated.fill(new Graph.Builder(generated.size).incomingIndex(incomingIndex))
+        .build();
+    matrix = new AdjacencyMatrix(graph);
+    int length = matrix.dimension() * vectors;
+    Random random = new Random(7);
+    x = new float[length];
+    y = new float[length];
+    doubleX = new double[length];
+    doubleY = new double[length];
+    for (int i = 0; i < length; i++) {
+      x[i] = random.nextFloat();
+      doubleX[i] = x[i];
+    }
+  }
+
+  @Benchmark
+  public float[] multiply(Traffic traffic) {
+    matrix.multiply(x, y, vectors);
+    traffic.add(matrix, vectors, Float.BYTES);
+    return y;
+  }
+
+  @Benchmark
+  public double[] multiplyDouble(Traffic traffic) {
+    matrix.multiply(doubleX, doubleY, vectors);
+    traffic.add(matrix, vectors, Double.BYTES);
+    return doubleY;
+  }
+
+  @Benchmark
+  public float[] multiplyTransposed(Traffic traffic) {
+    matrix.multiplyTransposed(x, y, vectors);
+    traffic.add(matrix, vectors, Float.BYTES);
+    return y;
+  }
+
+  @Benchmark
+  public float[] iterator(Traffic traffic) {
+    Arrays.fill(y, 0);
+    for (Edge edge : graph) {
+      int row = edge.getVertex1() * vectors;
+      int column = edge.getVertex2() * vectors;
+      for (int j = 0; j < vectors; j++) {
+        y[row + j] += edge.getValue() * x[column + j];
+      }
+    }
+    traffic.add(matrix, vectors, Float.BYTES);
+    return y;
+  }
+}
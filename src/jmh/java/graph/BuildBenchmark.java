@@ -0,0 +1,78 @@
+package graph;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * {@link Graph.Builder} ingestion and {@link Graph.Builder#build()}, which sorts the columns,
+ * checks for duplicate edges and builds the source index.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class BuildBenchmark {
+
+  @Param({"1000", "100000", "10000000"})
+  public int edges;
+
+  @Param({"UNIFORM", "POWER_LAW", "HUB", "SORTED", "REVERSE_SORTED"})
+  public EdgeDistribution distribution;
+
+  private GeneratedGraph generated;
+
+  @Setup
+  public void generate() {
+    generated = GeneratedGraph.generate(distribution, edges, 42);
+  }
+
+  @State(Scope.Thread)
+  public static class FilledBuilder {
+    private Graph.Builder builder;
+
+    @Setup(Level.Invocation)
+    public void fill(BuildBenchmark benchmark) {
+      builder = benchmark.generated.newBuilder();
+    }
+  }
+
+  @Benchmark
+  public Graph build(FilledBuilder filled) {
+    return filled.builder.build();
+  }
+
+  /** The same edges folded by a {@link DuplicatePolicy} sweep instead of the duplicate check. */
+  @Benchmark
+  public Graph buildSummingDuplicates(FilledBuilder filled) {
+    return filled.builder.duplicatePolicy(DuplicatePolicy.SUM).build();
+  }
+
+  @Benchmark
+  public Graph buildWithIncomingIndex(FilledBuilder filled) {
+    return filled.builder.incomingIndex(true).build();
+  }
+
+  @Benchmark
+  public Graph.Builder addEdge() {
+    return generated.newBuilder();
+  }
+
+  @Benchmark
+  public Graph.Builder addEdgesBulk() {
+    return new Graph.Builder().addEdges(generated.vertices1, generated.vertices2,
+        generated.values, 0, generated.size);
+  }
+}
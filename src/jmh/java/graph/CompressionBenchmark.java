@@ -0,0 +1,92 @@
+package graph;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Decode throughput of {@link CompressedGraph} against the plain columns: full scans report
+ * time per edge, lookups time per probe over random existing edges.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CompressionBenchmark {
+  private static final int SCAN_EDGES = 10_000_000;
+  private static final int PROBES = 1 << 20;
+
+  @Param({"UNIFORM", "POWER_LAW"})
+  public EdgeDistribution distribution;
+
+  @Param({"32", "8"})
+  public int valueBits;
+
+  private Graph graph;
+  private CompressedGraph compressed;
+  private int[] vertices1;
+  private int[] vertices2;
+
+  @Setup
+  public void setUp() {
+    graph = GeneratedGraph.generate(distribution, SCAN_EDGES, 42).build();
+    compressed = CompressedGraph.compress(graph, valueBits);
+    Random random = new Random(11);
+    vertices1 = new int[PROBES];
+    vertices2 = new int[PROBES];
+    for (int i = 0; i < PROBES; i++) {
+      int edge = random.nextInt(graph.size());
+      vertices1[i] = graph.vertices1().get(edge);
+      vertices2[i] = graph.vertices2().get(edge);
+    }
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(SCAN_EDGES)
+  public double scanGraph() {
+    double[] sum = {0};
+    graph.forEachEdge((vertex1, vertex2, value) -> sum[0] += vertex2 + value);
+    return sum[0];
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(SCAN_EDGES)
+  public double scanCompressed() {
+    double[] sum = {0};
+    compressed.forEachEdge((vertex1, vertex2, value) -> sum[0] += vertex2 + value);
+    return sum[0];
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(PROBES)
+  public float lookupGraph() {
+    float sum = 0;
+    for (int i = 0; i < PROBES; i++) {
+      sum += graph.getEdgeValueOrDefault(vertices1[i], vertices2[i], 0);
+    }
+    return sum;
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(PROBES)
+  public float lookupCompressed() {
+    float sum = 0;
+    for (int i = 0; i < PROBES; i++) {
+      sum += compressed.getEdgeValueOrDefault(vertices1[i], vertices2[i], 0);
+    }
+    return sum;
+  }
+}
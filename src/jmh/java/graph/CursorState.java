@@ -0,0 +1,19 @@
+package graph;
+
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+/** Per-thread reusable cursor over the graph of a {@link GraphState}. */
+@State(Scope.Thread)
+public class CursorState {
+  private Graph graph;
+  private Graph.Cursor cursor;
+
+  Graph.Cursor get(GraphState state) {
+    if (graph != state.graph) {
+      graph = state.graph;
+      cursor = graph.cursor();
+    }
+    return cursor;
+  }
+}
@@ -0,0 +1,14 @@
+package graph;
+
+public enum EdgeDistribution {
+  /** Every edge picks its source uniformly, input order is shuffled. */
+  UNIFORM,
+  /** Source popularity decays polynomially with the id, input order is shuffled. */
+  POWER_LAW,
+  /** Half of the edges leave vertex 0, the rest are uniform, input order is shuffled. */
+  HUB,
+  /** Uniform sources emitted in {@code (vertex1, vertex2)} order. */
+  SORTED,
+  /** Uniform sources emitted in descending {@code (vertex1, vertex2)} order. */
+  REVERSE_SORTED
+}
@@ -0,0 +1,78 @@
+package graph;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Lookups of absent and existing edges on a 10M edge uniform graph with edge filters of
+ * {@code bitsPerEdge} bits per edge, 0 for no filter. Absent edges pair an existing source with a
+ * random target, which is almost never one of its 16 neighbors.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+@State(Scope.Benchmark)
+public class EdgeFilterBenchmark {
+  private static final int EDGES = 10_000_000;
+  private static final int PROBES = 1 << 20;
+
+  @Param({"0", "8", "12"})
+  private int bitsPerEdge;
+
+  private Graph graph;
+  private int[] hitVertices1;
+  private int[] hitVertices2;
+  private int[] missVertices1;
+  private int[] missVertices2;
+  private int probe;
+
+  @Setup
+  public void setUp() {
+    GeneratedGraph generated = GeneratedGraph.generate(EdgeDistribution.UNIFORM, EDGES, 42);
+    graph = generated.fill(new Graph.Builder(EDGES).edgeFilter(bitsPerEdge)).build();
+
+    Random random = new Random(7);
+    hitVertices1 = new int[PROBES];
+    hitVertices2 = new int[PROBES];
+    missVertices1 = new int[PROBES];
+    missVertices2 = new int[PROBES];
+    for (int i = 0; i < PROBES; i++) {
+      int edge = random.nextInt(EDGES);
+      hitVertices1[i] = generated.vertices1[edge];
+      hitVertices2[i] = generated.vertices2[edge];
+      missVertices1[i] = generated.vertices1[random.nextInt(EDGES)];
+      missVertices2[i] = random.nextInt(generated.vertices);
+    }
+  }
+
+  @TearDown
+  public void tearDown() {
+    graph.release();
+  }
+
+  @Benchmark
+  public boolean containsMiss() {
+    int i = probe++ & (PROBES - 1);
+    return graph.containsEdge(missVertices1[i], missVertices2[i]);
+  }
+
+  @Benchmark
+  public boolean containsHit() {
+    int i = probe++ & (PROBES - 1);
+    return graph.containsEdge(hitVertices1[i], hitVertices2[i]);
+  }
+}
@@ -0,0 +1,75 @@
+package graph;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Reading a 10M-edge TSV edge list into a {@link Graph.Builder} with {@link EdgeListReader},
+ * against {@code BufferedReader}, {@code String.split} and {@code Float.parseFloat}. Scores are
+ * per edge; building the graph is not included.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@State(Scope.Benchmark)
+public class EdgeListBenchmark {
+  private static final int EDGES = 10_000_000;
+
+  private Path path;
+
+  @Setup
+  public void setUp() throws IOException {
+    GeneratedGraph generated = GeneratedGraph.generate(EdgeDistribution.UNIFORM, EDGES, 42);
+    path = Files.createTempFile("edges-benchmark", ".tsv");
+    try (Writer writer = Files.newBufferedWriter(path, StandardCharsets.US_ASCII)) {
+      for (int i = 0; i < EDGES; i++) {
+        writer.write(generated.vertices1[i] + "\t" + generated.vertices2[i] + "\t"
+            + generated.values[i] + "\n");
+      }
+    }
+  }
+
+  @TearDown
+  public void tearDown() throws IOException {
+    Files.deleteIfExists(path);
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(EDGES)
+  public Graph.Builder reader() throws IOException {
+    return new EdgeListReader().read(path, new Graph.Builder());
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(EDGES)
+  public Graph.Builder split() throws IOException {
+    Graph.Builder builder = new Graph.Builder();
+    try (BufferedReader reader = Files.newBufferedReader(path, StandardCharsets.US_ASCII)) {
+      for (String line = reader.readLine(); line != null; line = reader.readLine()) {
+        String[] fields = line.split("\t");
+        builder.addEdge(Integer.parseInt(fields[0]), Integer.parseInt(fields[1]),
+            Float.parseFloat(fields[2]));
+      }
+    }
+    return builder;
+  }
+}
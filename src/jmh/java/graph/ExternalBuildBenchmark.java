@@ -0,0 +1,65 @@
+package graph;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Writing a graph file of 10M unsorted edges with {@link ExternalGraphBuilder} under a memory
+ * budget, against building the graph on the heap and writing it with {@link Graph#writeTo(Path)}.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@State(Scope.Benchmark)
+public class ExternalBuildBenchmark {
+  private static final int EDGES = 10_000_000;
+
+  /** 16 MB spills 15 runs, 1 GB keeps all edges in one buffer. */
+  @Param({"16777216", "1073741824"})
+  public long memoryBudget;
+
+  private GeneratedGraph generated;
+  private Path path;
+
+  @Setup
+  public void setUp() throws IOException {
+    generated = GeneratedGraph.generate(EdgeDistribution.UNIFORM, EDGES, 42);
+    path = Files.createTempFile("graph-benchmark", ".bin");
+  }
+
+  @TearDown
+  public void tearDown() throws IOException {
+    Files.deleteIfExists(path);
+  }
+
+  @Benchmark
+  public Graph external() throws IOException {
+    try (ExternalGraphBuilder builder = new ExternalGraphBuilder(path)
+        .memoryBudget(memoryBudget)) {
+      builder.addEdges(generated.vertices1, generated.vertices2, generated.values, 0, EDGES);
+      return builder.build();
+    }
+  }
+
+  @Benchmark
+  public Graph heap() throws IOException {
+    generated.build().writeTo(path);
+    return Graph.map(path);
+  }
+}
@@ -0,0 +1,122 @@
+package graph;
+
+import java.util.Random;
+
+/**
+ * Generated edge list without duplicate {@code (vertex1, vertex2)} pairs. Sources follow the
+ * given {@link EdgeDistribution}, the targets of a source are a run of distinct ids starting at a
+ * pseudo-random offset in the target id space.
+ */
+final class GeneratedGraph {
+  static final int AVERAGE_DEGREE = 16;
+
+  final int[] vertices1;
+  final int[] vertices2;
+  final float[] values;
+  final int size;
+  final int vertices;
+
+  private GeneratedGraph(int size, int vertices) {
+    this.vertices1 = new int[size];
+    this.vertices2 = new int[size];
+    this.values = new float[size];
+    this.size = size;
+    this.vertices = vertices;
+  }
+
+  static GeneratedGraph generate(EdgeDistribution distribution, int edges, long seed) {
+    Random random = new Random(seed);
+    int vertices = Math.max(1, edges / AVERAGE_DEGREE);
+    int[] degrees = degrees(distribution, edges, vertices, random);
+
+    int targets = vertices;
+    for (int degree : degrees) {
+      targets = Math.max(targets, degree);
+    }
+
+    GeneratedGraph generated = new GeneratedGraph(edges, targets);
+    int index = 0;
+    for (int source = 0; source < vertices; source++) {
+      int degree = degrees[source];
+      int offset = (int) ((source * 0x9E3779B97F4A7C15L >>> 33) % targets);
+      int wrapped = Math.max(0, offset + degree - targets);
+      for (int j = 0; j < wrapped; j++) {
+        generated.set(index++, source, j, random);
+      }
+      for (int j = offset; j < offset + degree - wrapped; j++) {
+        generated.set(index++, source, j, random);
+      }
+    }
+
+    if (distribution == EdgeDistribution.REVERSE_SORTED) {
+      generated.reverse();
+    } else if (distribution != EdgeDistribution.SORTED) {
+      generated.shuffle(random);
+    }
+    return generated;
+  }
+
+  private static int[] degrees(EdgeDistribution distribution, int edges, int vertices,
+      Random random) {
+    int[] degrees = new int[vertices];
+    int hubEdges = distribution == EdgeDistribution.HUB ? edges / 2 : 0;
+    degrees[0] = hubEdges;
+
+    for (int i = hubEdges; i < edges; i++) {
+      int source;
+      if (distribution == EdgeDistribution.POWER_LAW) {
+        double u = random.nextDouble();
+        source = (int) (vertices * u * u * u);
+      } else {
+        source = random.nextInt(vertices);
+      }
+      degrees[source]++;
+    }
+    return degrees;
+  }
+
+  Graph.Builder newBuilder() {
+    return fill(new Graph.Builder(size));
+  }
+
+  Graph.Builder fill(Graph.Builder builder) {
+    for (int i = 0; i < size; i++) {
+      builder.addEdge(vertices1[i], vertices2[i], values[i]);
+    }
+    return builder;
+  }
+
+  Graph build() {
+    return newBuilder().build();
+  }
+
+  private void set(int index, int vertex1, int vertex2, Random random) {
+    vertices1[index] = vertex1;
+    vertices2[index] = vertex2;
+    values[index] = random.nextFloat();
+  }
+
+  private void reverse() {
+    for (int i = 0, j = size - 1; i < j; i++, j--) {
+      swap(i, j);
+    }
+  }
+
+  private void shuffle(Random random) {
+    for (int i = size - 1; i > 0; i--) {
+      swap(i, random.nextInt(i + 1));
+    }
+  }
+
+  private void swap(int i, int j) {
+    int vertex1 = vertices1[i];
+    int vertex2 = vertices2[i];
+    float value = values[i];
+    vertices1[i] = vertices1[j];
+    vertices2[i] = vertices2[j];
+    values[i] = values[j];
+    vertices1[j] = vertex1;
+    vertices2[j] = vertex2;
+    values[j] = value;
+  }
+}
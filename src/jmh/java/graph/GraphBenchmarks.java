@@ -0,0 +1,38 @@
+package graph;
+
+import java.io.IOException;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Entry point of {@code benchmarks.jar}. Accepts the usual JMH command line and always attaches
+ * the GC profiler, so every run reports allocation rate next to throughput and the sample time
+ * percentiles. For example:
+ *
+ * <pre>
+ * mvn -P jmh package -DskipTests
+ * java -jar target/benchmarks.jar LookupBenchmark -p distribution=HUB -rf json
+ * java -jar target/benchmarks.jar BuildBenchmark -p edges=100000000 -jvmArgsAppend -Xmx16g
+ * </pre>
+ */
+public class GraphBenchmarks {
+
+  public static void main(String[] args)
+      throws IOException, RunnerException, CommandLineOptionException {
+    CommandLineOptions commandLine = new CommandLineOptions(args);
+    if (commandLine.shouldHelp() || commandLine.shouldList()) {
+      org.openjdk.jmh.Main.main(args);
+      return;
+    }
+
+    new Runner(new OptionsBuilder()
+        .parent(commandLine)
+        .addProfiler(GCProfiler.class)
+        .build())
+        .run();
+  }
+}
@@ -0,0 +1,72 @@
+package graph;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/** Opening a graph file with {@link Graph#map(Path)} and looking up edges in the mapped graph. */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class GraphFileBenchmark {
+  private static final int PROBES = 1 << 16;
+
+  @Param({"1000000", "10000000"})
+  public int edges;
+
+  private Path path;
+  private Graph mapped;
+  private int[] probeVertices1;
+  private int[] probeVertices2;
+  private int probe;
+
+  @Setup
+  public void setUp() throws IOException {
+    GeneratedGraph generated = GeneratedGraph.generate(EdgeDistribution.UNIFORM, edges, 42);
+    path = Files.createTempFile("graph-benchmark", ".bin");
+    generated.build().writeTo(path);
+    mapped = Graph.map(path);
+
+    Random random = new Random(7);
+    probeVertices1 = new int[PROBES];
+    probeVertices2 = new int[PROBES];
+    for (int i = 0; i < PROBES; i++) {
+      int edge = random.nextInt(edges);
+      probeVertices1[i] = generated.vertices1[edge];
+      probeVertices2[i] = generated.vertices2[edge];
+    }
+  }
+
+  @TearDown
+  public void tearDown() throws IOException {
+    Files.deleteIfExists(path);
+  }
+
+  @Benchmark
+  public Graph map() throws IOException {
+    return Graph.map(path);
+  }
+
+  @Benchmark
+  public float getEdgeValueOrDefault() {
+    int i = probe++ & (PROBES - 1);
+    return mapped.getEdgeValueOrDefault(probeVertices1[i], probeVertices2[i], 0);
+  }
+}
@@ -0,0 +1,81 @@
+package graph;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Lookups of existing edges of a 10M-edge off-heap graph from several threads, through a
+ * {@link GraphHolder} snapshot acquired per lookup, against a plain volatile reference.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx6g")
+@Threads(4)
+@State(Scope.Benchmark)
+public class GraphHolderBenchmark {
+  private static final int EDGES = 10_000_000;
+  private static final int PROBES = 1 << 16;
+
+  private volatile Graph graph;
+  private GraphHolder holder;
+  private int[] vertices1;
+  private int[] vertices2;
+
+  @Setup
+  public void setUp() {
+    GeneratedGraph generated = GeneratedGraph.generate(EdgeDistribution.UNIFORM, EDGES, 42);
+    graph = generated.fill(new Graph.Builder(EDGES).storage(Storage.OFF_HEAP)).build();
+    holder = new GraphHolder(graph);
+
+    Random random = new Random(11);
+    vertices1 = new int[PROBES];
+    vertices2 = new int[PROBES];
+    for (int i = 0; i < PROBES; i++) {
+      int edge = random.nextInt(EDGES);
+      vertices1[i] = generated.vertices1[edge];
+      vertices2[i] = generated.vertices2[edge];
+    }
+  }
+
+  @TearDown
+  public void tearDown() {
+    holder.close();
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(PROBES)
+  public float volatileLookup() {
+    float sum = 0;
+    for (int i = 0; i < PROBES; i++) {
+      sum += graph.getEdgeValueOrDefault(vertices1[i], vertices2[i], 0);
+    }
+    return sum;
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(PROBES)
+  public float snapshotPerLookup() {
+    float sum = 0;
+    for (int i = 0; i < PROBES; i++) {
+      try (GraphHolder.Snapshot snapshot = holder.acquire()) {
+        sum += snapshot.graph().getEdgeValueOrDefault(vertices1[i], vertices2[i], 0);
+      }
+    }
+    return sum;
+  }
+}
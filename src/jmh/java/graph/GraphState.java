@@ -0,0 +1,53 @@
+package graph;
+
+import java.util.Random;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Built graph shared by the lookup and iteration benchmarks, plus probes for existing edges and
+ * for pairs whose source exists but whose target does not.
+ */
+@State(Scope.Benchmark)
+public class GraphState {
+  static final int PROBES = 1 << 16;
+
+  @Param({"1000", "100000", "10000000"})
+  public int edges;
+
+  @Param({"UNIFORM", "POWER_LAW", "HUB", "SORTED", "REVERSE_SORTED"})
+  public EdgeDistribution distribution;
+
+  Graph graph;
+  int[] hitVertices1;
+  int[] hitVertices2;
+  int[] missVertices1;
+  int[] missVertices2;
+
+  private int probe;
+
+  @Setup
+  public void setUp() {
+    GeneratedGraph generated = GeneratedGraph.generate(distribution, edges, 42);
+    graph = generated.build();
+
+    Random random = new Random(7);
+    hitVertices1 = new int[PROBES];
+    hitVertices2 = new int[PROBES];
+    missVertices1 = new int[PROBES];
+    missVertices2 = new int[PROBES];
+    for (int i = 0; i < PROBES; i++) {
+      int edge = random.nextInt(generated.size);
+      hitVertices1[i] = generated.vertices1[edge];
+      hitVertices2[i] = generated.vertices2[edge];
+      missVertices1[i] = generated.vertices1[random.nextInt(generated.size)];
+      missVertices2[i] = generated.vertices + random.nextInt(generated.vertices);
+    }
+  }
+
+  int nextProbe() {
+    return probe++ & (PROBES - 1);
+  }
+}
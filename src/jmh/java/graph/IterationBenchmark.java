@@ -0,0 +1,70 @@
+package graph;
+
+import java.util.Spliterators;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.StreamSupport;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/** Full passes over all edges of the graph. */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class IterationBenchmark {
+
+  @Benchmark
+  public void iterator(GraphState state, Blackhole blackhole) {
+    for (Edge edge : state.graph) {
+      blackhole.consume(edge);
+    }
+  }
+
+  @Benchmark
+  public void forEachEdge(GraphState state, Blackhole blackhole) {
+    state.graph.forEachEdge((vertex1, vertex2, value) -> {
+      blackhole.consume(vertex1);
+      blackhole.consume(vertex2);
+      blackhole.consume(value);
+    });
+  }
+
+  @Benchmark
+  public void cursor(GraphState state, CursorState cursor, Blackhole blackhole) {
+    Graph.Cursor c = cursor.get(state).reset();
+    while (c.next()) {
+      blackhole.consume(c.vertex1());
+      blackhole.consume(c.vertex2());
+      blackhole.consume(c.value());
+    }
+  }
+
+  @Benchmark
+  public double parallelEdges(GraphState state) {
+    return state.graph.parallelEdges().mapToDouble(Edge::getValue).sum();
+  }
+
+  /** The parallel stream that {@code Iterable} provides by default, as a baseline. */
+  @Benchmark
+  public double parallelIterator(GraphState state) {
+    return StreamSupport.stream(Spliterators.spliteratorUnknownSize(state.graph.iterator(), 0),
+        true).mapToDouble(Edge::getValue).sum();
+  }
+
+  @Benchmark
+  public long parallelDistinctSources(GraphState state) {
+    return state.graph.sources().parallel().distinct().count();
+  }
+
+  @Benchmark
+  public int size(GraphState state) {
+    return state.graph.size();
+  }
+}
@@ -0,0 +1,124 @@
+package graph;
+
+import java.util.Iterator;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Single-vertex and single-edge operations. Each invocation uses the next probe, so the sample
+ * time mode reports per-call latency percentiles.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LookupBenchmark {
+
+  @Benchmark
+  public Object getEdgeValueHit(GraphState state) {
+    int i = state.nextProbe();
+    return state.graph.getEdgeValue(state.hitVertices1[i], state.hitVertices2[i]);
+  }
+
+  @Benchmark
+  public Object getEdgeValueMiss(GraphState state) {
+    int i = state.nextProbe();
+    return state.graph.getEdgeValue(state.missVertices1[i], state.missVertices2[i]);
+  }
+
+  @Benchmark
+  public float getEdgeValueOrDefault(GraphState state) {
+    int i = state.nextProbe();
+    return state.graph.getEdgeValueOrDefault(state.hitVertices1[i], state.hitVertices2[i], 0);
+  }
+
+  @Benchmark
+  public boolean containsEdge(GraphState state) {
+    int i = state.nextProbe();
+    return state.graph.containsEdge(state.missVertices1[i], state.missVertices2[i]);
+  }
+
+  @Benchmark
+  public void vertexIterator(GraphState state, Blackhole blackhole) {
+    Iterator<Edge> it = state.graph.vertexIterator(state.hitVertices1[state.nextProbe()]);
+    while (it.hasNext()) {
+      blackhole.consume(it.next());
+    }
+  }
+
+  @Benchmark
+  public void forEachNeighbor(GraphState state, Blackhole blackhole) {
+    state.graph.forEachNeighbor(state.hitVertices1[state.nextProbe()],
+        (vertex1, vertex2, value) -> {
+          blackhole.consume(vertex2);
+          blackhole.consume(value);
+        });
+  }
+
+  @Benchmark
+  public void cursor(GraphState state, CursorState cursor, Blackhole blackhole) {
+    Graph.Cursor c = cursor.get(state).reset(state.hitVertices1[state.nextProbe()]);
+    while (c.next()) {
+      blackhole.consume(c.vertex2());
+      blackhole.consume(c.value());
+    }
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(BatchState.BATCH)
+  public void getEdgeValueOrDefaultLoop(GraphState state, BatchState batch) {
+    for (int i = 0; i < BatchState.BATCH; i++) {
+      batch.values[i] = state.graph.getEdgeValueOrDefault(batch.vertices1[i], batch.vertices2[i],
+          0);
+    }
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(BatchState.BATCH)
+  public void getEdgeValuesBatch(GraphState state, BatchState batch) {
+    state.graph.getEdgeValues(batch.vertices1, batch.vertices2, batch.values, batch.found);
+  }
+
+  /**
+   * Random probes over the whole graph, half of them existing edges and half a random target
+   * paired with the source, which are mostly misses.
+   */
+  @State(Scope.Thread)
+  public static class BatchState {
+    static final int BATCH = 1 << 20;
+
+    int[] vertices1;
+    int[] vertices2;
+    float[] values;
+    boolean[] found;
+
+    @Setup
+    public void setUp(GraphState state) {
+      Random random = new Random(11);
+      vertices1 = new int[BATCH];
+      vertices2 = new int[BATCH];
+      values = new float[BATCH];
+      found = new boolean[BATCH];
+      Graph graph = state.graph;
+      int size = graph.size();
+      for (int i = 0; i < BATCH; i++) {
+        int edge = random.nextInt(size);
+        vertices1[i] = graph.vertices1().get(edge);
+        vertices2[i] = graph.vertices2().get(random.nextBoolean() ? edge : random.nextInt(size));
+      }
+    }
+  }
+}
@@ -0,0 +1,119 @@
+package graph;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * {@link MutableGraph} over a 10M-edge base with {@code updates} edges in the delta: lookups of
+ * existing edges, compaction of the delta, and the full rebuild from unsorted edges it replaces.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx6g")
+@State(Scope.Benchmark)
+public class MutableGraphBenchmark {
+  private static final int EDGES = 10_000_000;
+  private static final int PROBES = 1 << 20;
+
+  @Param({"0", "100000"})
+  public int updates;
+
+  private GeneratedGraph generated;
+  private Graph base;
+  private MutableGraph graph;
+  private int[] vertices1;
+  private int[] vertices2;
+
+  @Setup
+  public void setUp() {
+    generated = GeneratedGraph.generate(EdgeDistribution.UNIFORM, EDGES, 42);
+    base = generated.build();
+    graph = newGraph();
+
+    Random random = new Random(11);
+    vertices1 = new int[PROBES];
+    vertices2 = new int[PROBES];
+    for (int i = 0; i < PROBES; i++) {
+      int edge = random.nextInt(EDGES);
+      vertices1[i] = generated.vertices1[edge];
+      vertices2[i] = generated.vertices2[edge];
+    }
+  }
+
+  @TearDown
+  public void tearDown() {
+    graph.close();
+  }
+
+  /** Updates half of the delta edges in place and inserts the other half. */
+  MutableGraph newGraph() {
+    MutableGraph mutable = new MutableGraph(base, Integer.MAX_VALUE);
+    Random random = new Random(7);
+    for (int i = 0; i < updates; i++) {
+      int edge = random.nextInt(EDGES);
+      int vertex2 = i % 2 == 0 ? generated.vertices2[edge] : -1 - i;
+      mutable.putEdge(generated.vertices1[edge], vertex2, i);
+    }
+    return mutable;
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(PROBES)
+  @OutputTimeUnit(TimeUnit.NANOSECONDS)
+  public float lookup() {
+    float sum = 0;
+    for (int i = 0; i < PROBES; i++) {
+      sum += graph.getEdgeValueOrDefault(vertices1[i], vertices2[i], 0);
+    }
+    return sum;
+  }
+
+  @State(Scope.Thread)
+  public static class Updated {
+    private MutableGraph graph;
+    private Graph.Builder builder;
+
+    @Setup(Level.Invocation)
+    public void setUp(MutableGraphBenchmark benchmark) {
+      graph = benchmark.newGraph();
+      List<Edge> edges = new ArrayList<>();
+      graph.forEach(edges::add);
+      Collections.shuffle(edges, new Random(3));
+      builder = new Graph.Builder(edges.size()).addEdges(edges);
+    }
+
+    @TearDown(Level.Invocation)
+    public void tearDown() {
+      graph.close();
+    }
+  }
+
+  @Benchmark
+  public Graph compact(Updated updated) {
+    return updated.graph.compact();
+  }
+
+  @Benchmark
+  public Graph rebuild(Updated updated) {
+    return updated.builder.build();
+  }
+}
@@ -0,0 +1,52 @@
+package graph;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/** Ten PageRank iterations, pushing along the sorted edges or pulling from the incoming index. */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PageRankBenchmark {
+
+  @Param({"1000000", "10000000"})
+  public int edges;
+
+  @Param({"UNIFORM", "POWER_LAW"})
+  public EdgeDistribution distribution;
+
+  @Param({"PUSH", "PULL"})
+  public VertexComputation.Direction direction;
+
+  private Graph graph;
+  private PageRank pageRank;
+
+  @Setup
+  public void setUp() {
+    GeneratedGraph generated = GeneratedGraph.generate(distribution, edges, 42);
+    graph = generated.fill(new Graph.Builder(generated.size).incomingIndex(true)).build();
+    pageRank = new PageRank(graph, PageRank.DEFAULT_DAMPING);
+  }
+
+  @Benchmark
+  public VertexComputation pageRank() {
+    return new VertexComputation.Builder(graph)
+        .direction(direction)
+        .tolerance(0)
+        .maxIterations(10)
+        .run(pageRank);
+  }
+}
@@ -0,0 +1,82 @@
+package graph;
+
+import java.util.Iterator;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Compares the source-vertex lookup strategies: {@code NONE} is the original triple binary
+ * search, {@code SPARSE} and {@code DENSE} are the row offset indexes, {@code BTREE} searches the
+ * sparse sources through a static B-tree.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RowIndexBenchmark {
+  private static final int PROBES = 1 << 16;
+
+  @Param({"1000000", "10000000"})
+  private int edges;
+
+  @Param({"UNIFORM", "POWER_LAW"})
+  private EdgeDistribution distribution;
+
+  @Param({"NONE", "SPARSE", "DENSE", "BTREE"})
+  private SourceIndex sourceIndex;
+
+  private Graph graph;
+  private int[] probeVertices1;
+  private int[] probeVertices2;
+  private int probe;
+
+  @Setup
+  public void setUp() {
+    GeneratedGraph generated = GeneratedGraph.generate(distribution, edges, 42);
+    graph = generated.fill(new Graph.Builder(edges).sourceIndex(sourceIndex)).build();
+
+    Random random = new Random(7);
+    probeVertices1 = new int[PROBES];
+    probeVertices2 = new int[PROBES];
+    for (int i = 0; i < PROBES; i++) {
+      int edge = random.nextInt(edges);
+      probeVertices1[i] = generated.vertices1[edge];
+      probeVertices2[i] = generated.vertices2[edge];
+    }
+  }
+
+  @Benchmark
+  public Object getEdgeValue() {
+    int i = probe++ & (PROBES - 1);
+    return graph.getEdgeValue(probeVertices1[i], probeVertices2[i]);
+  }
+
+  @Benchmark
+  public Object getAbsentEdgeValue() {
+    int i = probe++ & (PROBES - 1);
+    return graph.getEdgeValue(probeVertices1[i], -1);
+  }
+
+  @Benchmark
+  public void vertexIterator(Blackhole blackhole) {
+    int i = probe++ & (PROBES - 1);
+    Iterator<Edge> it = graph.vertexIterator(probeVertices1[i]);
+    while (it.hasNext()) {
+      blackhole.consume(it.next());
+    }
+  }
+}
@@ -0,0 +1,98 @@
+package graph;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Routed lookups, scattered batches and parallel scans of a 1M edge uniform graph split into
+ * {@code shards} hash shards, called directly or over loopback TCP.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ShardedGraphBenchmark {
+  private static final int EDGES = 1_000_000;
+  private static final int PROBES = 1 << 16;
+  private static final int BATCH = 4096;
+
+  @Param({"1", "4"})
+  public int shards;
+
+  @Param({"false", "true"})
+  public boolean loopback;
+
+  private ShardedGraph graph;
+  private int[] vertices1;
+  private int[] vertices2;
+  private int[] batchVertices1;
+  private int[] batchVertices2;
+  private float[] batchValues;
+  private boolean[] batchFound;
+  private int probe;
+
+  @Setup
+  public void setUp() throws IOException {
+    GeneratedGraph generated = GeneratedGraph.generate(EdgeDistribution.UNIFORM, EDGES, 42);
+    ShardedGraph.Builder builder = new ShardedGraph.Builder(ShardPartitioner.hash(shards))
+        .transport(loopback ? ShardTransport.loopback() : ShardTransport.inProcess());
+    for (int i = 0; i < generated.size; i++) {
+      builder.addEdge(generated.vertices1[i], generated.vertices2[i], generated.values[i]);
+    }
+    graph = builder.build();
+
+    Random random = new Random(7);
+    vertices1 = new int[PROBES];
+    vertices2 = new int[PROBES];
+    for (int i = 0; i < PROBES; i++) {
+      int edge = random.nextInt(EDGES);
+      vertices1[i] = generated.vertices1[edge];
+      vertices2[i] = i % 2 == 0 ? generated.vertices2[edge] : random.nextInt(generated.vertices);
+    }
+    batchVertices1 = Arrays.copyOf(vertices1, BATCH);
+    batchVertices2 = Arrays.copyOf(vertices2, BATCH);
+    batchValues = new float[BATCH];
+    batchFound = new boolean[BATCH];
+  }
+
+  @TearDown
+  public void tearDown() {
+    graph.close();
+  }
+
+  @Benchmark
+  public float lookup() {
+    int i = probe++ & (PROBES - 1);
+    return graph.getEdgeValueOrDefault(vertices1[i], vertices2[i], -1);
+  }
+
+  @Benchmark
+  public boolean[] batchLookup() {
+    graph.getEdgeValues(batchVertices1, batchVertices2, batchValues, batchFound);
+    return batchFound;
+  }
+
+  @Benchmark
+  public long scan() {
+    LongAdder sum = new LongAdder();
+    graph.forEachEdge((vertex1, vertex2, value) -> sum.add(vertex2));
+    return sum.sum();
+  }
+}
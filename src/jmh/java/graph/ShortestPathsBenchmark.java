@@ -0,0 +1,50 @@
+package graph;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/** Single-source shortest paths from the first source of a generated graph. */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ShortestPathsBenchmark {
+
+  @Param({"1000000", "10000000"})
+  public int edges;
+
+  @Param({"UNIFORM", "POWER_LAW"})
+  public EdgeDistribution distribution;
+
+  private Graph graph;
+  private int source;
+
+  @Setup
+  public void setUp() {
+    GeneratedGraph generated = GeneratedGraph.generate(distribution, edges, 42);
+    graph = generated.build();
+    source = graph.vertices1().get(0);
+  }
+
+  @Benchmark
+  public ShortestPaths dijkstra() {
+    return ShortestPaths.dijkstra(graph, source);
+  }
+
+  @Benchmark
+  public ShortestPaths deltaStepping() {
+    return ShortestPaths.deltaStepping(graph, source);
+  }
+}
@@ -0,0 +1,115 @@
+package graph;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Latency percentiles of {@link Graph#getEdgeValueOrDefault} on memory-mapped graphs of 16 edges
+ * per source, whose sources are spread over 7 times their count so they get a sparse index. The
+ * graph file is written once per size with {@link ExternalGraphBuilder} and kept in the temporary
+ * directory for the other trials; the {@code NONE} and {@code SPARSE} graphs share its columns.
+ */
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+@State(Scope.Benchmark)
+public class SourceLookupBenchmark {
+  private static final int PROBES = 1 << 20;
+  private static final int DEGREE = 16;
+  private static final int SPREAD = 7;
+  private static final int TARGET_SPREAD = 65537;
+
+  @Param({"1000000", "100000000", "1000000000"})
+  private int edges;
+
+  @Param({"NONE", "SPARSE", "BTREE"})
+  private SourceIndex sourceIndex;
+
+  private Graph graph;
+  private int[] probeVertices1;
+  private int[] probeVertices2;
+  private int probe;
+
+  @Setup
+  public void setUp() throws IOException {
+    Path path = Paths.get(System.getProperty("java.io.tmpdir"),
+        "source-lookup-benchmark-" + edges + ".bin");
+    if (!Files.exists(path)) {
+      write(path);
+    }
+    Graph mapped = Graph.map(path);
+    RowIndex rowIndex = mapped.rowIndex();
+    if (sourceIndex == SourceIndex.BTREE) {
+      graph = mapped;
+    } else {
+      graph = new Graph(mapped.vertices1(), mapped.vertices2(), mapped.values(), edges,
+          sourceIndex == SourceIndex.NONE ? RowIndex.search(mapped.vertices1(), edges)
+              : RowIndex.sparse(rowIndex.sources(), rowIndex.offsets(), rowIndex.rows()));
+    }
+
+    Random random = new Random(7);
+    probeVertices1 = new int[PROBES];
+    probeVertices2 = new int[PROBES];
+    for (int i = 0; i < PROBES; i++) {
+      int edge = random.nextInt(edges);
+      probeVertices1[i] = vertex1(edge);
+      probeVertices2[i] = vertex2(edge);
+    }
+  }
+
+  @TearDown
+  public void tearDown() {
+    graph.release();
+  }
+
+  @Benchmark
+  public float getEdgeValue() {
+    int i = probe++ & (PROBES - 1);
+    return graph.getEdgeValueOrDefault(probeVertices1[i], probeVertices2[i], -1);
+  }
+
+  /** The source lookup alone, without the search of the target in the row. */
+  @Benchmark
+  public int findSource() {
+    int i = probe++ & (PROBES - 1);
+    return graph.rowIndex().find(probeVertices1[i]);
+  }
+
+  private void write(Path path) throws IOException {
+    Path partial = Paths.get(path + ".partial");
+    try (ExternalGraphBuilder builder = new ExternalGraphBuilder(partial)
+        .sourceIndex(SourceIndex.BTREE)) {
+      for (int edge = 0; edge < edges; edge++) {
+        builder.addEdge(vertex1(edge), vertex2(edge), edge);
+      }
+      builder.build().release();
+    }
+    Files.move(partial, path);
+  }
+
+  private static int vertex1(int edge) {
+    return edge / DEGREE * SPREAD;
+  }
+
+  private static int vertex2(int edge) {
+    return edge % DEGREE * TARGET_SPREAD + edge / DEGREE % TARGET_SPREAD;
+  }
+}
@@ -0,0 +1,134 @@
+package graph;
+
+import com.sun.management.GarbageCollectionNotificationInfo;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import javax.management.NotificationEmitter;
+import javax.management.NotificationListener;
+import javax.management.openmbean.CompositeData;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.infra.IterationParams;
+import org.openjdk.jmh.runner.IterationType;
+
+/**
+ * Lookups in a large graph while the application keeps allocating and promoting objects. With
+ * {@link Storage#HEAP} the collector has to scan and move the graph columns, with
+ * {@link Storage#OFF_HEAP} it does not. Besides the lookup latency percentiles, {@link Pauses}
+ * prints the number, total, 99th percentile and longest of the GC pauses of the measurement
+ * iterations of every run.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx1g", "-XX:MaxDirectMemorySize=1g"})
+@State(Scope.Benchmark)
+public class StorageBenchmark {
+  private static final int PROBES = 1 << 16;
+  private static final int RETAINED = 1 << 18;
+  private static final int CHURN_BYTES = 256;
+
+  @Param({"10000000"})
+  public int edges;
+
+  @Param({"HEAP", "OFF_HEAP"})
+  public Storage storage;
+
+  private Graph graph;
+  private int[] probeVertices1;
+  private int[] probeVertices2;
+  private byte[][] retained;
+  private int probe;
+
+  @Setup
+  public void setUp() {
+    GeneratedGraph generated = GeneratedGraph.generate(EdgeDistribution.UNIFORM, edges, 42);
+    graph = generated.fill(new Graph.Builder(generated.size).storage(storage)).build();
+
+    Random random = new Random(7);
+    probeVertices1 = new int[PROBES];
+    probeVertices2 = new int[PROBES];
+    for (int i = 0; i < PROBES; i++) {
+      int edge = random.nextInt(edges);
+      probeVertices1[i] = generated.vertices1[edge];
+      probeVertices2[i] = generated.vertices2[edge];
+    }
+    retained = new byte[RETAINED][];
+  }
+
+  /** Records the duration of every collection reported by the GC notifications. */
+  @State(Scope.Benchmark)
+  public static class Pauses {
+    private long[] pauses = new long[1024];
+    private int count;
+    private volatile boolean measuring;
+    private final NotificationListener listener = (notification, handback) -> {
+      if (measuring && notification.getType()
+          .equals(GarbageCollectionNotificationInfo.GARBAGE_COLLECTION_NOTIFICATION)) {
+        add(GarbageCollectionNotificationInfo.from((CompositeData) notification.getUserData())
+            .getGcInfo().getDuration());
+      }
+    };
+
+    @Setup(Level.Trial)
+    public void listen() {
+      for (GarbageCollectorMXBean collector : ManagementFactory.getGarbageCollectorMXBeans()) {
+        ((NotificationEmitter) collector).addNotificationListener(listener, null, null);
+      }
+    }
+
+    @Setup(Level.Iteration)
+    public void startIteration(IterationParams params) {
+      measuring = params.getType() == IterationType.MEASUREMENT;
+    }
+
+    @TearDown(Level.Trial)
+    public void report() throws Exception {
+      measuring = false;
+      for (GarbageCollectorMXBean collector : ManagementFactory.getGarbageCollectorMXBeans()) {
+        ((NotificationEmitter) collector).removeNotificationListener(listener);
+      }
+      long[] sorted;
+      synchronized (this) {
+        sorted = Arrays.copyOf(pauses, count);
+      }
+      Arrays.sort(sorted);
+      long total = Arrays.stream(sorted).sum();
+      System.out.println();
+      System.out.println("GC pauses: " + sorted.length + ", total " + total + " ms, p99 "
+          + (sorted.length == 0 ? 0 : sorted[(int) (0.99 * (sorted.length - 1))]) + " ms, max "
+          + (sorted.length == 0 ? 0 : sorted[sorted.length - 1]) + " ms");
+    }
+
+    private synchronized void add(long millis) {
+      if (count == pauses.length) {
+        pauses = Arrays.copyOf(pauses, 2 * count);
+      }
+      pauses[count++] = millis;
+    }
+  }
+
+  @Benchmark
+  public void lookupWithChurn(Blackhole blackhole, Pauses pauses) {
+    int i = probe++ & (PROBES - 1);
+    // Replacing a random slot keeps old objects alive long enough to be promoted.
+    retained[(i * 0x9E3779B1) >>> 14] = new byte[CHURN_BYTES];
+    blackhole.consume(graph.getEdgeValueOrDefault(probeVertices1[i], probeVertices2[i], 0));
+  }
+}
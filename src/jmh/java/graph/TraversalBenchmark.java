@@ -0,0 +1,57 @@
+package graph;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Breadth-first search and connected components. Without the incoming edge index BFS stays
+ * top-down and components link every edge.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TraversalBenchmark {
+
+  @Param({"1000000", "10000000"})
+  public int edges;
+
+  @Param({"UNIFORM", "POWER_LAW"})
+  public EdgeDistribution distribution;
+
+  @Param({"false", "true"})
+  public boolean incomingIndex;
+
+  private Graph graph;
+  private int source;
+
+  @Setup
+  public void setUp() {
+    GeneratedGraph generated = GeneratedGraph.generate(distribution, edges, 42);
+    graph = generated.fill(new Graph.Builder(generated.size).incomingIndex(incomingIndex))
+        .build();
+    source = graph.vertices1().get(0);
+  }
+
+  @Benchmark
+  public BreadthFirstSearch breadthFirstSearch() {
+    return BreadthFirstSearch.search(graph, source);
+  }
+
+  @Benchmark
+  public int[] weaklyConnectedComponents() {
+    return ConnectedComponents.weak(graph);
+  }
+}
@@ -0,0 +1,68 @@
+package graph;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Mapping the 64-bit hashed endpoints of 10M edges over 1M vertices to dense ids with a
+ * {@link LongVertexDictionary}, against a boxed {@code HashMap<Long, Integer>}. Scores are per
+ * endpoint.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@State(Scope.Benchmark)
+public class VertexDictionaryBenchmark {
+  private static final int VERTICES = 1 << 20;
+  private static final int ENDPOINTS = 10_000_000;
+
+  private long[] keys;
+
+  @Setup
+  public void setUp() {
+    Random random = new Random(42);
+    long[] vertices = new long[VERTICES];
+    for (int i = 0; i < VERTICES; i++) {
+      vertices[i] = random.nextLong();
+    }
+    keys = new long[ENDPOINTS];
+    for (int i = 0; i < ENDPOINTS; i++) {
+      keys[i] = vertices[random.nextInt(VERTICES)];
+    }
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(ENDPOINTS)
+  public LongVertexDictionary dictionary() {
+    LongVertexDictionary dictionary = new LongVertexDictionary();
+    for (long key : keys) {
+      dictionary.add(key);
+    }
+    return dictionary;
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(ENDPOINTS)
+  public Map<Long, Integer> hashMap() {
+    Map<Long, Integer> ids = new HashMap<>();
+    for (long key : keys) {
+      ids.computeIfAbsent(key, k -> ids.size());
+    }
+    return ids;
+  }
+}
@@ -0,0 +1,69 @@
+package graph;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Traversals of a 10M edge power-law graph built with each {@link VertexOrder}. Results are
+ * indexed by the original ids, so the translation at the boundary is part of the measurement.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx3g")
+@State(Scope.Benchmark)
+public class VertexOrderBenchmark {
+  private static final int EDGES = 10_000_000;
+
+  @Param({"NONE", "DEGREE", "BFS", "RCM"})
+  public VertexOrder vertexOrder;
+
+  private Graph graph;
+  private PageRank pageRank;
+  private int source;
+
+  @Setup
+  public void setUp() {
+    GeneratedGraph generated = GeneratedGraph.generate(EdgeDistribution.POWER_LAW, EDGES, 42);
+    graph = generated.fill(new Graph.Builder(generated.size).incomingIndex(true)
+        .vertexOrder(vertexOrder)).build();
+    pageRank = new PageRank(graph, PageRank.DEFAULT_DAMPING);
+    source = generated.vertices1[0];
+  }
+
+  @TearDown
+  public void tearDown() {
+    graph.release();
+  }
+
+  @Benchmark
+  public BreadthFirstSearch breadthFirstSearch() {
+    return BreadthFirstSearch.search(graph, source);
+  }
+
+  @Benchmark
+  public int[] weaklyConnectedComponents() {
+    return ConnectedComponents.weak(graph);
+  }
+
+  @Benchmark
+  public VertexComputation pageRank() {
+    return new VertexComputation.Builder(graph)
+        .direction(VertexComputation.Direction.PULL)
+        .tolerance(0)
+        .maxIterations(10)
+        .run(pageRank);
+  }
+}
@@ -0,0 +1,368 @@
+package graph;
+
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.IntConsumer;
+import java.util.stream.IntStream;
+
+/**
+ * A {@link Graph} read as a sparse square matrix: {@code vertices1} is the row, {@code vertices2}
+ * the column and the edge value the entry. The products read the sorted columns directly,
+ * without iterators or {@link Edge} objects, so vertex ids must be dense and non-negative and the
+ * dimension is one more than the largest id.
+ *
+ * <p>{@code y = A x} splits the edges into partitions that end on row boundaries, every
+ * partition writes its own rows of {@code y} without synchronization. {@code y = A^T x} does the
+ * same over the incoming edge index when the graph has one; otherwise every partition adds its
+ * products to the targets with a compare-and-set, like {@link VertexComputation.Direction#PUSH}.
+ *
+ * <p>The batch variants multiply {@code vectors} vectors at once in one pass over the edges. Their
+ * vectors are interleaved: element {@code i} of vector {@code j} is at {@code i * vectors + j}.
+ * A single vector is summed in double precision, batches and the compare-and-set path add in the
+ * precision of the vectors. The input and output arrays must be distinct, elements past
+ * {@code dimension() * vectors} are neither read nor written.
+ */
+public final class AdjacencyMatrix {
+  private final Graph graph;
+  private final int dimension;
+  private final int partitions;
+  private final Bounds rows;
+  /** Partitions of the incoming edge index, or null. */
+  private final Bounds columns;
+
+  public AdjacencyMatrix(Graph graph) {
+    this(graph, 4 * ForkJoinPool.getCommonPoolParallelism());
+  }
+
+  /**
+   * Splits the products into {@code partitions} fork-join tasks. Partitions end on row
+   * boundaries, so a row with many entries makes its partition larger.
+   */
+  public AdjacencyMatrix(Graph graph, int partitions) {
+    Objects.requireNonNull(graph, "Null graph");
+    if (graph.vertexOrder() != VertexOrder.NONE) {
+      throw new IllegalArgumentException("Graph should keep its vertex ids, given vertex order = "
+          + graph.vertexOrder());
+    }
+    if (partitions < 1) {
+      throw new IllegalArgumentException("Partitions should be >= 1, given partitions = "
+          + partitions);
+    }
+    this.graph = graph;
+    this.dimension = graph.vertexBound();
+    this.partitions = partitions;
+    this.rows = new Bounds(graph, dimension, partitions);
+    this.columns = graph.incoming() == null ? null
+        : new Bounds(graph.incoming(), dimension, partitions);
+  }
+
+  /** Number of rows and columns. */
+  public int dimension() {
+    return dimension;
+  }
+
+  /** Number of stored entries, the edges of the graph. */
+  public int nonZeros() {
+    return graph.size();
+  }
+
+  /** {@code y = A x}. */
+  public void multiply(float[] x, float[] y) {
+    multiply(x, y, 1);
+  }
+
+  /** {@code y = A x}. */
+  public void multiply(double[] x, double[] y) {
+    multiply(x, y, 1);
+  }
+
+  /** {@code y = A^T x}. */
+  public void multiplyTransposed(float[] x, float[] y) {
+    multiplyTransposed(x, y, 1);
+  }
+
+  /** {@code y = A^T x}. */
+  public void multiplyTransposed(double[] x, double[] y) {
+    multiplyTransposed(x, y, 1);
+  }
+
+  /** {@code Y = A X} for {@code vectors} interleaved vectors. */
+  public void multiply(float[] x, float[] y, int vectors) {
+    checkVectors(x, x == null ? 0 : x.length, y, y == null ? 0 : y.length, vectors);
+    forEachPartition(p -> rows(graph, rows, p, x, y, vectors));
+  }
+
+  /** {@code Y = A X} for {@code vectors} interleaved vectors. */
+  public void multiply(double[] x, double[] y, int vectors) {
+    checkVectors(x, x == null ? 0 : x.length, y, y == null ? 0 : y.length, vectors);
+    forEachPartition(p -> rows(graph, rows, p, x, y, vectors));
+  }
+
+  /** {@code Y = A^T X} for {@code vectors} interleaved vectors. */
+  public void multiplyTransposed(float[] x, float[] y, int vectors) {
+    checkVectors(x, x == null ? 0 : x.length, y, y == null ? 0 : y.length, vectors);
+    if (columns != null) {
+      forEachPartition(p -> rows(graph.incoming(), columns, p, x, y, vectors));
+    } else if (partitions == 1) {
+      scatter(x, y, vectors);
+    } else {
+      AtomicIntegerArray sums = new AtomicIntegerArray(dimension * vectors);
+      forEachPartition(p -> scatter(p, x, sums, vectors));
+      forEachPartition(p -> {
+        for (int i = rows.vertex(p) * vectors, to = rows.vertex(p + 1) * vectors; i < to; i++) {
+          y[i] = Float.intBitsToFloat(sums.get(i));
+        }
+      });
+    }
+  }
+
+  /** {@code Y = A^T X} for {@code vectors} interleaved vectors. */
+  public void multiplyTransposed(double[] x, double[] y, int vectors) {
+    checkVectors(x, x == null ? 0 : x.length, y, y == null ? 0 : y.length, vectors);
+    if (columns != null) {
+      forEachPartition(p -> rows(graph.incoming(), columns, p, x, y, vectors));
+    } else if (partitions == 1) {
+      scatter(x, y, vectors);
+    } else {
+      AtomicLongArray sums = new AtomicLongArray(dimension * vectors);
+      forEachPartition(p -> scatter(p, x, sums, vectors));
+      forEachPartition(p -> {
+        for (int i = rows.vertex(p) * vectors, to = rows.vertex(p + 1) * vectors; i < to; i++) {
+          y[i] = Double.longBitsToDouble(sums.get(i));
+        }
+      });
+    }
+  }
+
+  private void checkVectors(Object x, int xLength, Object y, int yLength, int vectors) {
+    Objects.requireNonNull(x, "Null x");
+    Objects.requireNonNull(y, "Null y");
+    if (vectors < 1) {
+      throw new IllegalArgumentException("Vectors should be >= 1, given vectors = " + vectors);
+    }
+    long length = (long) dimension * vectors;
+    if (length > Integer.MAX_VALUE) {
+      throw new CapacityExceededException("Vector length " + dimension + " * " + vectors
+          + " exceeds " + Integer.MAX_VALUE);
+    }
+    if (xLength < length || yLength < length) {
+      throw new IllegalArgumentException("Vector lengths should be >= " + length
+          + ", given lengths = " + xLength + ", " + yLength);
+    }
+    if (x == y) {
+      throw new IllegalArgumentException("Input and output vectors should be distinct arrays");
+    }
+  }
+
+  private void forEachPartition(IntConsumer action) {
+    IntStream range = IntStream.range(0, partitions);
+    (partitions > 1 ? range.parallel() : range).forEach(action);
+  }
+
+  /** Writes the rows of partition {@code p} of {@code edges}, clearing the rows without edges. */
+  private static void rows(Graph edges, Bounds bounds, int p, float[] x, float[] y, int vectors) {
+    IntColumn rows = edges.vertices1();
+    IntColumn columns = edges.vertices2();
+    FloatColumn values = edges.values();
+    int i = bounds.edge(p);
+    int to = bounds.edge(p + 1);
+    int row = bounds.vertex(p);
+    int toRow = bounds.vertex(p + 1);
+    if (vectors == 1) {
+      while (i < to) {
+        int edgeRow = rows.get(i);
+        for (; row < edgeRow; row++) {
+          y[row] = 0;
+        }
+        double sum = 0;
+        do {
+          sum += values.get(i) * x[columns.get(i)];
+          i++;
+        } while (i < to && rows.get(i) == edgeRow);
+        y[row++] = (float) sum;
+      }
+      for (; row < toRow; row++) {
+        y[row] = 0;
+      }
+      return;
+    }
+
+    while (i < to) {
+      int edgeRow = rows.get(i);
+      int base = edgeRow * vectors;
+      for (int k = row * vectors, end = base + vectors; k < end; k++) {
+        y[k] = 0;
+      }
+      do {
+        float value = values.get(i);
+        int column = columns.get(i) * vectors;
+        for (int j = 0; j < vectors; j++) {
+          y[base + j] += value * x[column + j];
+        }
+        i++;
+      } while (i < to && rows.get(i) == edgeRow);
+      row = edgeRow + 1;
+    }
+    for (int k = row * vectors, end = toRow * vectors; k < end; k++) {
+      y[k] = 0;
+    }
+  }
+
+  private static void rows(Graph edges, Bounds bounds, int p, double[] x, double[] y,
+      int vectors) {
+    IntColumn rows = edges.vertices1();
+    IntColumn columns = edges.vertices2();
+    FloatColumn values = edges.values();
+    int i = bounds.edge(p);
+    int to = bounds.edge(p + 1);
+    int row = bounds.vertex(p);
+    int toRow = bounds.vertex(p + 1);
+    if (vectors == 1) {
+      while (i < to) {
+        int edgeRow = rows.get(i);
+        for (; row < edgeRow; row++) {
+          y[row] = 0;
+        }
+        double sum = 0;
+        do {
+          sum += values.get(i) * x[columns.get(i)];
+          i++;
+        } while (i < to && rows.get(i) == edgeRow);
+        y[row++] = sum;
+      }
+      for (; row < toRow; row++) {
+        y[row] = 0;
+      }
+      return;
+    }
+
+    while (i < to) {
+      int edgeRow = rows.get(i);
+      int base = edgeRow * vectors;
+      for (int k = row * vectors, end = base + vectors; k < end; k++) {
+        y[k] = 0;
+      }
+      do {
+        double value = values.get(i);
+        int column = columns.get(i) * vectors;
+        for (int j = 0; j < vectors; j++) {
+          y[base + j] += value * x[column + j];
+        }
+        i++;
+      } while (i < to && rows.get(i) == edgeRow);
+      row = edgeRow + 1;
+    }
+    for (int k = row * vectors, end = toRow * vectors; k < end; k++) {
+      y[k] = 0;
+    }
+  }
+
+  /** Adds every entry to {@code y} on the calling thread. */
+  private void scatter(float[] x, float[] y, int vectors) {
+    IntColumn rows = graph.vertices1();
+    IntColumn columns = graph.vertices2();
+    FloatColumn values = graph.values();
+    Arrays.fill(y, 0, dimension * vectors, 0);
+    for (int i = 0, size = graph.size(); i < size; i++) {
+      float value = values.get(i);
+      int row = rows.get(i) * vectors;
+      int column = columns.get(i) * vectors;
+      for (int j = 0; j < vectors; j++) {
+        y[column + j] += value * x[row + j];
+      }
+    }
+  }
+
+  private void scatter(double[] x, double[] y, int vectors) {
+    IntColumn rows = graph.vertices1();
+    IntColumn columns = graph.vertices2();
+    FloatColumn values = graph.values();
+    Arrays.fill(y, 0, dimension * vectors, 0);
+    for (int i = 0, size = graph.size(); i < size; i++) {
+      double value = values.get(i);
+      int row = rows.get(i) * vectors;
+      int column = columns.get(i) * vectors;
+      for (int j = 0; j < vectors; j++) {
+        y[column + j] += value * x[row + j];
+      }
+    }
+  }
+
+  /** Adds the entries of partition {@code p} to {@code sums} with a compare-and-set. */
+  private void scatter(int p, float[] x, AtomicIntegerArray sums, int vectors) {
+    IntColumn rows = graph.vertices1();
+    IntColumn columns = graph.vertices2();
+    FloatColumn values = graph.values();
+    for (int i = this.rows.edge(p), to = this.rows.edge(p + 1); i < to; i++) {
+      float value = values.get(i);
+      int row = rows.get(i) * vectors;
+      int column = columns.get(i) * vectors;
+      for (int j = 0; j < vectors; j++) {
+        float product = value * x[row + j];
+        int current = sums.get(column + j);
+        while (!sums.compareAndSet(column + j, current,
+            Float.floatToRawIntBits(Float.intBitsToFloat(current) + product))) {
+          current = sums.get(column + j);
+        }
+      }
+    }
+  }
+
+  private void scatter(int p, double[] x, AtomicLongArray sums, int vectors) {
+    IntColumn rows = graph.vertices1();
+    IntColumn columns = graph.vertices2();
+    FloatColumn values = graph.values();
+    for (int i = this.rows.edge(p), to = this.rows.edge(p + 1); i < to; i++) {
+      double value = values.get(i);
+      int row = rows.get(i) * vectors;
+      int column = columns.get(i) * vectors;
+      for (int j = 0; j < vectors; j++) {
+        double product = value * x[row + j];
+        long current = sums.get(column + j);
+        while (!sums.compareAndSet(column + j, current,
+            Double.doubleToRawLongBits(Double.longBitsToDouble(current) + product))) {
+          current = sums.get(column + j);
+        }
+      }
+    }
+  }
+
+  @Override
+  public String toString() {
+    return "AdjacencyMatrix{" +
+        "dimension=" + dimension +
+        ", nonZeros=" + graph.size() +
+        '}';
+  }
+
+  /**
+   * Edge ranges that end on row boundaries, and the rows each range writes: partition {@code p}
+   * holds the edges {@code [edge(p), edge(p + 1))} and the rows {@code [vertex(p),
+   * vertex(p + 1))}, including the rows without edges.
+   */
+  private static final class Bounds {
+    private final int[] edges;
+    private final int[] vertices;
+
+    Bounds(Graph graph, int dimension, int partitions) {
+      IntColumn rows = graph.vertices1();
+      int size = graph.size();
+      edges = VertexComputation.partition(rows, size, partitions);
+      vertices = new int[partitions + 1];
+      for (int p = 1; p <= partitions; p++) {
+        vertices[p] = edges[p] < size ? rows.get(edges[p]) : dimension;
+      }
+    }
+
+    int edge(int p) {
+      return edges[p];
+    }
+
+    int vertex(int p) {
+      return vertices[p];
+    }
+  }
+}
@@ -0,0 +1,213 @@
+package graph;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.LongBinaryOperator;
+import java.util.stream.IntStream;
+
+/**
+ * Direction-optimizing breadth-first search over the out-edges of a {@link Graph}. Frontiers are
+ * bitsets over the vertex ids, levels are expanded by fork-join tasks over ranges of bitset
+ * words. A level is expanded top-down, from the frontier along out-edges, until the frontier
+ * has more edges than {@code 1 / ALPHA} of the unexplored ones; it is then expanded bottom-up,
+ * every unvisited vertex looking for a parent among its in-neighbors, until the frontier shrinks
+ * below {@code 1 / BETA} of the vertices. Bottom-up steps need a graph built with
+ * {@link Graph.Builder#incomingIndex(boolean)}, without it every level is expanded top-down.
+ * Vertex ids must be dense and non-negative.
+ */
+public final class BreadthFirstSearch {
+  private static final int ALPHA = 14;
+  private static final int BETA = 24;
+  private static final int TASK_WORDS = 64;
+  private static final LongBinaryOperator OR = (left, right) -> left | right;
+
+  private final int source;
+  private final int[] depths;
+  private final int[] parents;
+
+  private BreadthFirstSearch(int source, int[] depths, int[] parents) {
+    this.source = source;
+    this.depths = depths;
+    this.parents = parents;
+  }
+
+  public static BreadthFirstSearch search(Graph graph, int source) {
+    if (source < 0) {
+      throw new IllegalArgumentException("Source should be >= 0, given source = " + source);
+    }
+    VertexPermutation permutation = graph.permutation();
+    if (permutation != null) {
+      BreadthFirstSearch search = search(graph.internalGraph(), permutation.internal(source));
+      return new BreadthFirstSearch(source, permutation.toExternal(search.depths, false, -1),
+          permutation.toExternal(search.parents, true, -1));
+    }
+    int vertices = Math.max(graph.vertexBound(), source + 1);
+    int words = (vertices + Long.SIZE - 1) / Long.SIZE;
+    int[] depths = new int[vertices];
+    int[] parents = new int[vertices];
+    Arrays.fill(depths, -1);
+    Arrays.fill(parents, -1);
+
+    long[] frontier = new long[words];
+    AtomicLongArray next = new AtomicLongArray(words);
+    AtomicLongArray visited = new AtomicLongArray(words);
+    depths[source] = 0;
+    frontier[source >>> 6] = 1L << source;
+    visited.set(source >>> 6, 1L << source);
+
+    Level level = new Level(1, graph.outDegree(source));
+    long unexploredEdges = graph.size();
+    boolean bottomUp = false;
+    for (int depth = 1; level.vertices > 0; depth++) {
+      if (graph.incoming() != null) {
+        if (!bottomUp && level.edges > unexploredEdges / ALPHA) {
+          bottomUp = true;
+        } else if (bottomUp && level.vertices < vertices / BETA) {
+          bottomUp = false;
+        }
+      }
+      unexploredEdges -= level.edges;
+
+      level = bottomUp
+          ? bottomUpStep(graph, depth, vertices, frontier, next, visited, depths, parents)
+          : topDownStep(graph, depth, frontier, next, visited, depths, parents);
+      for (int word = 0; word < words; word++) {
+        frontier[word] = next.getAndSet(word, 0);
+      }
+    }
+
+    return new BreadthFirstSearch(source, depths, parents);
+  }
+
+  public int source() {
+    return source;
+  }
+
+  /** Number of edges on a shortest path from the source, -1 if unreachable. */
+  public int depth(int vertex) {
+    return vertex >= 0 && vertex < depths.length ? depths[vertex] : -1;
+  }
+
+  public int parent(int vertex) {
+    return vertex >= 0 && vertex < parents.length ? parents[vertex] : -1;
+  }
+
+  /** Depths indexed by vertex id. The array is not copied. */
+  public int[] depths() {
+    return depths;
+  }
+
+  /** Parents in the search tree indexed by vertex id. The array is not copied. */
+  public int[] parents() {
+    return parents;
+  }
+
+  private static Level topDownStep(Graph graph, int depth, long[] frontier,
+      AtomicLongArray next, AtomicLongArray visited, int[] depths, int[] parents) {
+    RowIndex rowIndex = graph.rowIndex();
+    IntColumn targets = graph.vertices2();
+
+    return forEachTask(frontier.length, (from, to) -> {
+      Level found = new Level(0, 0);
+      for (int word = from; word < to; word++) {
+        for (long bits = frontier[word]; bits != 0; bits &= bits - 1) {
+          int vertex = word << 6 | Long.numberOfTrailingZeros(bits);
+          int row = rowIndex.find(vertex);
+          if (row < 0) {
+            continue;
+          }
+          for (int i = rowIndex.start(row), end = rowIndex.end(row); i < end; i++) {
+            int target = targets.get(i);
+            long mask = 1L << target;
+            if ((visited.get(target >>> 6) & mask) != 0
+                || (visited.getAndAccumulate(target >>> 6, mask, OR) & mask) != 0) {
+              continue;
+            }
+            depths[target] = depth;
+            parents[target] = vertex;
+            next.getAndAccumulate(target >>> 6, mask, OR);
+            found.add(graph.outDegree(target));
+          }
+        }
+      }
+      return found;
+    });
+  }
+
+  private static Level bottomUpStep(Graph graph, int depth, int vertices, long[] frontier,
+      AtomicLongArray next, AtomicLongArray visited, int[] depths, int[] parents) {
+    Graph incoming = graph.incoming();
+    RowIndex rowIndex = incoming.rowIndex();
+    IntColumn sources = incoming.vertices2();
+
+    return forEachTask(frontier.length, (from, to) -> {
+      Level found = new Level(0, 0);
+      for (int word = from; word < to; word++) {
+        long seen = visited.get(word);
+        long unvisited = ~seen;
+        if (word == frontier.length - 1 && vertices % Long.SIZE != 0) {
+          unvisited &= (1L << vertices) - 1;
+        }
+        long discovered = 0;
+        for (long bits = unvisited; bits != 0; bits &= bits - 1) {
+          int vertex = word << 6 | Long.numberOfTrailingZeros(bits);
+          int row = rowIndex.find(vertex);
+          if (row < 0) {
+            continue;
+          }
+          for (int i = rowIndex.start(row), end = rowIndex.end(row); i < end; i++) {
+            int source = sources.get(i);
+            if ((frontier[source >>> 6] & 1L << source) != 0) {
+              depths[vertex] = depth;
+              parents[vertex] = source;
+              discovered |= 1L << vertex;
+              found.add(graph.outDegree(vertex));
+              break;
+            }
+          }
+        }
+        if (discovered != 0) {
+          next.set(word, discovered);
+          visited.set(word, seen | discovered);
+        }
+      }
+      return found;
+    });
+  }
+
+  private static Level forEachTask(int words, WordRange task) {
+    int tasks = (words + TASK_WORDS - 1) / TASK_WORDS;
+    Level[] levels = new Level[tasks];
+    IntStream range = IntStream.range(0, tasks);
+    (tasks > 1 ? range.parallel() : range).forEach(i ->
+        levels[i] = task.run(i * TASK_WORDS, Math.min(words, (i + 1) * TASK_WORDS)));
+
+    Level total = new Level(0, 0);
+    for (Level level : levels) {
+      total.vertices += level.vertices;
+      total.edges += level.edges;
+    }
+    return total;
+  }
+
+  @FunctionalInterface
+  private interface WordRange {
+    Level run(int from, int to);
+  }
+
+  /** Vertices discovered by a step and the sum of their out-degrees. */
+  private static final class Level {
+    private long vertices;
+    private long edges;
+
+    Level(long vertices, long edges) {
+      this.vertices = vertices;
+      this.edges = edges;
+    }
+
+    void add(int degree) {
+      vertices++;
+      edges += degree;
+    }
+  }
+}
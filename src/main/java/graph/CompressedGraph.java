@@ -0,0 +1,371 @@
+package graph;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * Read-only, compressed copy of a {@link Graph}. Sources are kept once per vertex in a row index
+ * like the one of {@link SourceIndex#AUTO}, targets as zigzag varint deltas to the previous
+ * target, which are small as targets increase within a source. The targets are cut into blocks of
+ * {@link #BLOCK_EDGES} edges; the first target and the byte offset of every block are kept
+ * uncompressed, so a lookup binary searches the blocks of a source and decodes at most one
+ * block. Values are either kept as floats or quantized linearly between the smallest and the
+ * largest value. Graphs whose vertices were renumbered by a {@link VertexOrder} are not supported.
+ */
+public final class CompressedGraph implements Iterable<Edge> {
+  static final int BLOCK_SHIFT = 4;
+  static final int BLOCK_EDGES = 1 << BLOCK_SHIFT;
+
+  private final int size;
+  private final RowIndex rowIndex;
+  /** First target and byte offset of every block, interleaved so a seek touches one line. */
+  private final int[] blocks;
+  private final byte[] targets;
+  private final int valueBits;
+  private final float[] values;
+  private final short[] shortValues;
+  private final byte[] byteValues;
+  private final float minValue;
+  private final float valueScale;
+
+  private CompressedGraph(Graph graph, int valueBits) {
+    IntColumn vertices1 = graph.vertices1();
+    IntColumn vertices2 = graph.vertices2();
+    FloatColumn graphValues = graph.values();
+    this.size = graph.size();
+    this.valueBits = valueBits;
+
+    int rows = 0;
+    for (int i = 0; i < size; i++) {
+      if (i == 0 || vertices1.get(i) != vertices1.get(i - 1)) {
+        rows++;
+      }
+    }
+    int[] sources = new int[rows];
+    int[] offsets = new int[rows + 1];
+    blocks = new int[2 * ((size + BLOCK_EDGES - 1) >>> BLOCK_SHIFT)];
+
+    ByteWriter writer = new ByteWriter(size);
+    int row = -1;
+    int previous = 0;
+    for (int i = 0; i < size; i++) {
+      int target = vertices2.get(i);
+      if (i == 0 || vertices1.get(i) != vertices1.get(i - 1)) {
+        row++;
+        sources[row] = vertices1.get(i);
+        offsets[row] = i;
+      }
+      if ((i & BLOCK_EDGES - 1) == 0) {
+        int block = i >>> BLOCK_SHIFT << 1;
+        blocks[block] = target;
+        blocks[block + 1] = writer.size;
+      } else {
+        int delta = target - previous;
+        writer.writeVarint(delta << 1 ^ delta >> 31);
+      }
+      previous = target;
+    }
+    offsets[rows] = size;
+    rowIndex = RowIndex.fromRows(sources, offsets, rows);
+    targets = Arrays.copyOf(writer.bytes, writer.size);
+
+    this.values = valueBits == Float.SIZE ? new float[size] : null;
+    this.shortValues = valueBits == Short.SIZE ? new short[size] : null;
+    this.byteValues = valueBits == Byte.SIZE ? new byte[size] : null;
+    if (values != null) {
+      for (int i = 0; i < size; i++) {
+        values[i] = graphValues.get(i);
+      }
+      this.minValue = 0;
+      this.valueScale = 0;
+      return;
+    }
+
+    float min = Float.POSITIVE_INFINITY;
+    float max = Float.NEGATIVE_INFINITY;
+    for (int i = 0; i < size; i++) {
+      float value = graphValues.get(i);
+      if (Float.isNaN(value) || Float.isInfinite(value)) {
+        throw new IllegalArgumentException("Quantized values should be finite, given value = "
+            + value);
+      }
+      min = Math.min(min, value);
+      max = Math.max(max, value);
+    }
+    int levels = (1 << valueBits) - 1;
+    this.minValue = size == 0 ? 0 : min;
+    this.valueScale = size == 0 ? 0 : (max - min) / levels;
+    for (int i = 0; i < size; i++) {
+      int level = valueScale == 0 ? 0
+          : Math.min(levels, Math.round((graphValues.get(i) - minValue) / valueScale));
+      if (shortValues != null) {
+        shortValues[i] = (short) level;
+      } else {
+        byteValues[i] = (byte) level;
+      }
+    }
+  }
+
+  /** Compresses the graph keeping the values as floats. */
+  public static CompressedGraph compress(Graph graph) {
+    return compress(graph, Float.SIZE);
+  }
+
+  /**
+   * Compresses the graph keeping {@code valueBits} bits per value: 32 keeps the floats, 16 and 8
+   * quantize them linearly, off by at most half a step of {@code (max - min) / (2^bits - 1)}.
+   */
+  public static CompressedGraph compress(Graph graph, int valueBits) {
+    Objects.requireNonNull(graph, "Null graph");
+    if (graph.vertexOrder() != VertexOrder.NONE) {
+      throw new IllegalArgumentException("Graph should keep its vertex ids, given vertex order = "
+          + graph.vertexOrder());
+    }
+    if (valueBits != Float.SIZE && valueBits != Short.SIZE && valueBits != Byte.SIZE) {
+      throw new IllegalArgumentException("Value bits should be 8, 16 or 32, given value bits = "
+          + valueBits);
+    }
+    return new CompressedGraph(graph, valueBits);
+  }
+
+  public int size() {
+    return size;
+  }
+
+  public int valueBits() {
+    return valueBits;
+  }
+
+  /** Bytes held by the arrays of this graph, about {@code size() * bytesPerEdge}. */
+  public long sizeInBytes() {
+    long valueBytes = (long) size * valueBits / Byte.SIZE;
+    long rowBytes = Integer.BYTES * (rowIndex.rows() + 1L
+        + (rowIndex.type() == SourceIndex.SPARSE ? rowIndex.rows() : 0));
+    return rowBytes + Integer.BYTES * (long) blocks.length
+        + targets.length + valueBytes;
+  }
+
+  /** Decompresses into a heap {@link Graph} without an incoming edge index. */
+  public Graph toGraph() {
+    int[] vertices1 = new int[size];
+    int[] vertices2 = new int[size];
+    float[] graphValues = new float[size];
+    int[] index = {0};
+    forEachEdge((vertex1, vertex2, value) -> {
+      vertices1[index[0]] = vertex1;
+      vertices2[index[0]] = vertex2;
+      graphValues[index[0]++] = value;
+    });
+    return new Graph(IntColumn.of(vertices1), IntColumn.of(vertices2),
+        FloatColumn.of(graphValues), size, rowIndex);
+  }
+
+  public Iterator<Edge> vertexIterator(int vertex) {
+    int row = rowIndex.find(vertex);
+    return row < 0 ? new EdgeIterator(0, 0, 0)
+        : new EdgeIterator(row, rowIndex.start(row), rowIndex.end(row));
+  }
+
+  @Override
+  public Iterator<Edge> iterator() {
+    return new EdgeIterator(0, 0, size);
+  }
+
+  public Optional<Float> getEdgeValue(int vertex1, int vertex2) {
+    int index = indexOf(vertex1, vertex2);
+    return index < 0 ? Optional.empty() : Optional.of(value(index));
+  }
+
+  public float getEdgeValueOrDefault(int vertex1, int vertex2, float defaultValue) {
+    int index = indexOf(vertex1, vertex2);
+    return index < 0 ? defaultValue : value(index);
+  }
+
+  public boolean containsEdge(int vertex1, int vertex2) {
+    return indexOf(vertex1, vertex2) >= 0;
+  }
+
+  public void forEachEdge(EdgeConsumer consumer) {
+    Objects.requireNonNull(consumer, "Null edge consumer");
+    Decoder decoder = new Decoder();
+    for (int row = 0, rows = rowIndex.rows(); row < rows; row++) {
+      int source = source(row);
+      for (int i = rowIndex.start(row), end = rowIndex.end(row); i < end; i++) {
+        consumer.accept(source, decoder.next(), value(i));
+      }
+    }
+  }
+
+  public void forEachNeighbor(int vertex, EdgeConsumer consumer) {
+    Objects.requireNonNull(consumer, "Null edge consumer");
+    int row = rowIndex.find(vertex);
+    if (row < 0) {
+      return;
+    }
+    Decoder decoder = new Decoder().seek(rowIndex.start(row));
+    for (int i = rowIndex.start(row), end = rowIndex.end(row); i < end; i++) {
+      consumer.accept(vertex, decoder.next(), value(i));
+    }
+  }
+
+  public int outDegree(int vertex) {
+    int row = rowIndex.find(vertex);
+    return row < 0 ? 0 : rowIndex.end(row) - rowIndex.start(row);
+  }
+
+  int indexOf(int vertex1, int vertex2) {
+    int row = rowIndex.find(vertex1);
+    if (row < 0) {
+      return -1;
+    }
+    int start = rowIndex.start(row);
+    int end = rowIndex.end(row);
+
+    int low = (start + BLOCK_EDGES - 1) >>> BLOCK_SHIFT;
+    int high = (end - 1) >>> BLOCK_SHIFT;
+    int from = start;
+    while (low <= high) {
+      int mid = (low + high) >>> 1;
+      if (blocks[mid << 1] <= vertex2) {
+        from = mid << BLOCK_SHIFT;
+        low = mid + 1;
+      } else {
+        high = mid - 1;
+      }
+    }
+
+    Decoder decoder = new Decoder().seek(from);
+    for (int i = from, blockEnd = Math.min(end, (i | BLOCK_EDGES - 1) + 1); i < blockEnd; i++) {
+      int target = decoder.next();
+      if (target >= vertex2) {
+        return target == vertex2 ? i : -1;
+      }
+    }
+    return -1;
+  }
+
+  private int source(int row) {
+    return rowIndex.type() == SourceIndex.SPARSE ? rowIndex.sources().get(row)
+        : rowIndex.first() + row;
+  }
+
+  float value(int index) {
+    if (values != null) {
+      return values[index];
+    }
+    int level = shortValues != null ? shortValues[index] & 0xFFFF : byteValues[index] & 0xFF;
+    return minValue + level * valueScale;
+  }
+
+  @Override
+  public String toString() {
+    return "CompressedGraph{" +
+        "size=" + size +
+        ", valueBits=" + valueBits +
+        '}';
+  }
+
+  /** Decodes the targets one edge after the other, starting at any edge. */
+  private final class Decoder {
+    private int index;
+    private int position;
+    private int target;
+
+    Decoder seek(int index) {
+      int block = index >>> BLOCK_SHIFT;
+      this.index = block << BLOCK_SHIFT;
+      this.position = blocks[(block << 1) + 1];
+      while (this.index < index) {
+        next();
+      }
+      return this;
+    }
+
+    /** The target of the edge at the current index, moving to the next edge. */
+    int next() {
+      if ((index & BLOCK_EDGES - 1) == 0) {
+        target = blocks[index >>> BLOCK_SHIFT << 1];
+      } else {
+        int delta = readVarint();
+        target += delta >>> 1 ^ -(delta & 1);
+      }
+      index++;
+      return target;
+    }
+
+    private int readVarint() {
+      int value = targets[position++];
+      if (value >= 0) {
+        return value;
+      }
+      value &= 0x7F;
+      for (int shift = 7; ; shift += 7) {
+        byte b = targets[position++];
+        value |= (b & 0x7F) << shift;
+        if (b >= 0) {
+          return value;
+        }
+      }
+    }
+  }
+
+  private final class EdgeIterator implements Iterator<Edge> {
+    private final Decoder decoder;
+    private int row;
+    private int index;
+    private final int end;
+
+    EdgeIterator(int row, int index, int end) {
+      this.decoder = index < end ? new Decoder().seek(index) : null;
+      this.row = row;
+      this.index = index;
+      this.end = end;
+    }
+
+    @Override
+    public boolean hasNext() {
+      return index < end;
+    }
+
+    @Override
+    public Edge next() {
+      if (!hasNext()) {
+        throw new NoSuchElementException();
+      }
+      while (index == rowIndex.end(row)) {
+        row++;
+      }
+      Edge res = new Edge(source(row), decoder.next(), value(index));
+      index++;
+      return res;
+    }
+  }
+
+  private static final class ByteWriter {
+    private byte[] bytes;
+    private int size;
+
+    ByteWriter(int capacity) {
+      this.bytes = new byte[Math.max(16, capacity)];
+    }
+
+    void writeVarint(int value) {
+      if (size + 5 > bytes.length) {
+        long grown = Math.max(size + 5L, 2L * bytes.length);
+        if (grown > Integer.MAX_VALUE - 8) {
+          throw new CapacityExceededException("Compressed targets exceed "
+              + (Integer.MAX_VALUE - 8) + " bytes");
+        }
+        bytes = Arrays.copyOf(bytes, (int) grown);
+      }
+      while ((value & ~0x7F) != 0) {
+        bytes[size++] = (byte) (value & 0x7F | 0x80);
+        value >>>= 7;
+      }
+      bytes[size++] = (byte) value;
+    }
+  }
+}
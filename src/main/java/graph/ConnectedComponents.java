@@ -0,0 +1,176 @@
+package graph;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.function.IntConsumer;
+import java.util.stream.IntStream;
+
+/**
+ * Weakly connected components with a parallel, lock-free union-find in the style of Afforest.
+ * The first {@link #NEIGHBOR_ROUNDS} out-edges of every vertex are linked first, which usually
+ * merges most vertices into one giant component. A sample of vertices then identifies that
+ * component, and only vertices outside of it link their remaining edges. Skipping the giant
+ * component needs the in-edges of the remaining vertices, so it is only done for graphs built
+ * with {@link Graph.Builder#incomingIndex(boolean)}. Vertex ids must be dense and non-negative.
+ */
+public final class ConnectedComponents {
+  private static final int NEIGHBOR_ROUNDS = 2;
+  private static final int SAMPLES = 1024;
+  private static final int TASK_VERTICES = 4096;
+
+  private ConnectedComponents() {
+  }
+
+  /**
+   * Returns the component of every vertex id, the smallest vertex id in its component. Ids
+   * without edges form components of their own.
+   */
+  public static int[] weak(Graph graph) {
+    VertexPermutation permutation = graph.permutation();
+    if (permutation != null) {
+      return toExternal(weak(graph.internalGraph()), permutation);
+    }
+    int vertices = graph.vertexBound();
+    AtomicIntegerArray parents = new AtomicIntegerArray(vertices);
+    for (int vertex = 0; vertex < vertices; vertex++) {
+      parents.set(vertex, vertex);
+    }
+    RowIndex rowIndex = graph.rowIndex();
+    IntColumn targets = graph.vertices2();
+
+    for (int round = 0; round < NEIGHBOR_ROUNDS; round++) {
+      int neighbor = round;
+      forEachVertex(vertices, vertex -> {
+        int row = rowIndex.find(vertex);
+        if (row >= 0 && rowIndex.start(row) + neighbor < rowIndex.end(row)) {
+          link(parents, vertex, targets.get(rowIndex.start(row) + neighbor));
+        }
+      });
+      forEachVertex(vertices, vertex -> find(parents, vertex));
+    }
+
+    Graph incoming = graph.incoming();
+    int giant = incoming == null ? -1 : sampleLargest(parents, vertices);
+    forEachVertex(vertices, vertex -> {
+      if (giant >= 0 && find(parents, vertex) == giant) {
+        return;
+      }
+      int row = rowIndex.find(vertex);
+      if (row >= 0) {
+        for (int i = rowIndex.start(row) + NEIGHBOR_ROUNDS, end = rowIndex.end(row); i < end;
+            i++) {
+          link(parents, vertex, targets.get(i));
+        }
+      }
+      if (incoming != null) {
+        int incomingRow = incoming.rowIndex().find(vertex);
+        if (incomingRow >= 0) {
+          for (int i = incoming.rowIndex().start(incomingRow),
+              end = incoming.rowIndex().end(incomingRow); i < end; i++) {
+            link(parents, vertex, incoming.vertices2().get(i));
+          }
+        }
+      }
+    });
+
+    int[] components = new int[vertices];
+    forEachVertex(vertices, vertex -> components[vertex] = find(parents, vertex));
+    return components;
+  }
+
+  /** Number of distinct components in the result of {@link #weak(Graph)}. */
+  public static int count(int[] components) {
+    int count = 0;
+    for (int vertex = 0; vertex < components.length; vertex++) {
+      if (components[vertex] == vertex) {
+        count++;
+      }
+    }
+    return count;
+  }
+
+  /**
+   * Re-indexes the components of a relabeled graph by external id, each named by its smallest
+   * external id. Internal ids past the end of {@code components} have no edges.
+   */
+  private static int[] toExternal(int[] components, VertexPermutation permutation) {
+    int[] smallest = new int[components.length];
+    Arrays.fill(smallest, Integer.MAX_VALUE);
+    for (int vertex = 0; vertex < components.length; vertex++) {
+      int component = components[vertex];
+      smallest[component] = Math.min(smallest[component], permutation.external(vertex));
+    }
+    int[] result = new int[Math.max(components.length, permutation.size())];
+    for (int vertex = 0; vertex < result.length; vertex++) {
+      result[vertex] = vertex;
+    }
+    for (int vertex = 0; vertex < components.length; vertex++) {
+      result[permutation.external(vertex)] = smallest[components[vertex]];
+    }
+    return result;
+  }
+
+  private static int sampleLargest(AtomicIntegerArray parents, int vertices) {
+    if (vertices == 0) {
+      return -1;
+    }
+    Random random = new Random(vertices);
+    Map<Integer, Integer> counts = new HashMap<>();
+    int largest = -1;
+    int largestCount = 0;
+    for (int i = 0; i < SAMPLES; i++) {
+      int component = find(parents, random.nextInt(vertices));
+      int count = counts.merge(component, 1, Integer::sum);
+      if (count > largestCount) {
+        largest = component;
+        largestCount = count;
+      }
+    }
+    return largest;
+  }
+
+  /** Links the roots of both vertices, the larger root pointing to the smaller one. */
+  private static void link(AtomicIntegerArray parents, int vertex1, int vertex2) {
+    while (true) {
+      int root1 = find(parents, vertex1);
+      int root2 = find(parents, vertex2);
+      if (root1 == root2) {
+        return;
+      }
+      int high = Math.max(root1, root2);
+      int low = Math.min(root1, root2);
+      if (parents.compareAndSet(high, high, low)) {
+        return;
+      }
+    }
+  }
+
+  /** Finds the root with path halving. */
+  private static int find(AtomicIntegerArray parents, int vertex) {
+    while (true) {
+      int parent = parents.get(vertex);
+      if (parent == vertex) {
+        return vertex;
+      }
+      int grandparent = parents.get(parent);
+      if (grandparent != parent) {
+        parents.compareAndSet(vertex, parent, grandparent);
+      }
+      vertex = grandparent;
+    }
+  }
+
+  private static void forEachVertex(int vertices, IntConsumer action) {
+    int tasks = (vertices + TASK_VERTICES - 1) / TASK_VERTICES;
+    IntStream range = IntStream.range(0, tasks);
+    (tasks > 1 ? range.parallel() : range).forEach(task -> {
+      for (int vertex = task * TASK_VERTICES, to = Math.min(vertices, vertex + TASK_VERTICES);
+          vertex < to; vertex++) {
+        action.accept(vertex);
+      }
+    });
+  }
+}
@@ -0,0 +1,24 @@
+package graph;
+
+/**
+ * What {@link Graph.Builder#build()} does with edges that have the same vertices. The sorted
+ * edges are swept once in place: every run of duplicates is folded into its first edge by
+ * combining the value kept so far with the value of the next duplicate, in the order the edges
+ * were added. Edges added to a builder come before the edges of its sub-builders, which come in
+ * the order the sub-builders were created.
+ */
+@FunctionalInterface
+public interface DuplicatePolicy {
+  /** Throws {@link IllegalArgumentException} on the first duplicate, the default. */
+  DuplicatePolicy REJECT = (kept, duplicate) -> {
+    throw new IllegalArgumentException("Edges with same vertices are not allowed");
+  };
+  DuplicatePolicy KEEP_FIRST = (kept, duplicate) -> kept;
+  DuplicatePolicy KEEP_LAST = (kept, duplicate) -> duplicate;
+  DuplicatePolicy SUM = (kept, duplicate) -> kept + duplicate;
+  DuplicatePolicy MIN = Math::min;
+  DuplicatePolicy MAX = Math::max;
+
+  /** The value of the edge that replaces two edges with the same vertices. */
+  float combine(float kept, float duplicate);
+}
@@ -0,0 +1,152 @@
+package graph;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Append-only edge columns stored in chunks. A fixed buffer is a single chunk of exactly
+ * {@code capacity} rows, so its arrays can become the graph columns without a copy. A growable
+ * buffer allocates chunks of doubling size up to {@link #MAX_CHUNK}, growing never copies edges,
+ * only the small arrays of chunk references.
+ */
+final class EdgeBuffer {
+  static final int MAX_SIZE = Integer.MAX_VALUE - 8;
+
+  private static final int FIRST_CHUNK = 1 << 10;
+  private static final int MAX_CHUNK = 1 << 20;
+
+  private final boolean growable;
+  private final int capacity;
+  private int[][] vertices1;
+  private int[][] vertices2;
+  private float[][] values;
+  private int chunks;
+  private int position;
+  private int size;
+
+  private EdgeBuffer(boolean growable, int capacity, int firstChunk) {
+    this.growable = growable;
+    this.capacity = capacity;
+    this.vertices1 = new int[][] {new int[firstChunk]};
+    this.vertices2 = new int[][] {new int[firstChunk]};
+    this.values = new float[][] {new float[firstChunk]};
+    this.chunks = 1;
+  }
+
+  static EdgeBuffer fixed(int capacity) {
+    return new EdgeBuffer(false, capacity, capacity);
+  }
+
+  static EdgeBuffer growable() {
+    return new EdgeBuffer(true, MAX_SIZE, FIRST_CHUNK);
+  }
+
+  int size() {
+    return size;
+  }
+
+  void add(int vertex1, int vertex2, float value) {
+    ensureCapacity(1);
+    if (position == vertices1[chunks - 1].length) {
+      addChunk();
+    }
+
+    int chunk = chunks - 1;
+    vertices1[chunk][position] = vertex1;
+    vertices2[chunk][position] = vertex2;
+    values[chunk][position] = value;
+    position++;
+    size++;
+  }
+
+  void add(int[] vertices1, int[] vertices2, float[] values, int offset, int length) {
+    ensureCapacity(length);
+
+    while (length > 0) {
+      int chunk = chunks - 1;
+      int free = this.vertices1[chunk].length - position;
+      if (free == 0) {
+        addChunk();
+        continue;
+      }
+
+      int count = Math.min(free, length);
+      System.arraycopy(vertices1, offset, this.vertices1[chunk], position, count);
+      System.arraycopy(vertices2, offset, this.vertices2[chunk], position, count);
+      System.arraycopy(values, offset, this.values[chunk], position, count);
+      position += count;
+      size += count;
+      offset += count;
+      length -= count;
+    }
+  }
+
+  boolean isSingleChunk() {
+    return chunks == 1;
+  }
+
+  int[] vertices1() {
+    return vertices1[0];
+  }
+
+  int[] vertices2() {
+    return vertices2[0];
+  }
+
+  float[] values() {
+    return values[0];
+  }
+
+  /**
+   * Copies the edges of all buffers, in order, into the given columns. Every chunk is copied by
+   * its own task when {@code parallel} is set.
+   */
+  static void concat(List<EdgeBuffer> buffers, int[] vertices1, int[] vertices2, float[] values,
+      boolean parallel) {
+    List<Runnable> copies = new ArrayList<>();
+    int offset = 0;
+    for (EdgeBuffer buffer : buffers) {
+      for (int chunk = 0; chunk < buffer.chunks; chunk++) {
+        int length = chunk == buffer.chunks - 1 ? buffer.position : buffer.vertices1[chunk].length;
+        int destination = offset;
+        int[] chunk1 = buffer.vertices1[chunk];
+        int[] chunk2 = buffer.vertices2[chunk];
+        float[] chunkValues = buffer.values[chunk];
+        copies.add(() -> {
+          System.arraycopy(chunk1, 0, vertices1, destination, length);
+          System.arraycopy(chunk2, 0, vertices2, destination, length);
+          System.arraycopy(chunkValues, 0, values, destination, length);
+        });
+        offset += length;
+      }
+    }
+
+    (parallel ? copies.parallelStream() : copies.stream()).forEach(Runnable::run);
+  }
+
+  private void ensureCapacity(int length) {
+    if ((long) size + length > capacity) {
+      throw new CapacityExceededException("Capacity = " + capacity + " exceeded");
+    }
+  }
+
+  private void addChunk() {
+    if (!growable) {
+      throw new CapacityExceededException("Capacity = " + capacity + " exceeded");
+    }
+
+    if (chunks == vertices1.length) {
+      vertices1 = Arrays.copyOf(vertices1, 2 * chunks);
+      vertices2 = Arrays.copyOf(vertices2, 2 * chunks);
+      values = Arrays.copyOf(values, 2 * chunks);
+    }
+
+    int length = Math.min(2 * vertices1[chunks - 1].length, MAX_CHUNK);
+    vertices1[chunks] = new int[length];
+    vertices2[chunks] = new int[length];
+    values[chunks] = new float[length];
+    chunks++;
+    position = 0;
+  }
+}
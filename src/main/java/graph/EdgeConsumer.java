@@ -0,0 +1,6 @@
+package graph;
+
+@FunctionalInterface
+public interface EdgeConsumer {
+  void accept(int vertex1, int vertex2, float value);
+}
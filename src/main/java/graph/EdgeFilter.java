@@ -0,0 +1,158 @@
+package graph;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Blocked Bloom filter over the {@code (vertex1, vertex2)} pairs of a graph, which rejects most
+ * absent edges before any search. The bits are split into blocks of 512 bits, one cache line:
+ * the hash of a pair picks a block and sets or tests {@link #hashes()} bits inside it only, so a
+ * lookup reads a single cache line.
+ */
+final class EdgeFilter {
+  static final int BLOCK_BITS = 512;
+  static final int BLOCK_INTS = BLOCK_BITS / Integer.SIZE;
+  static final int MAX_BITS_PER_EDGE = 32;
+  static final int MAX_HASHES = 16;
+
+  private final IntColumn bits;
+  private final int blocks;
+  private final int hashes;
+  private final LongAdder rejected = new LongAdder();
+  private final LongAdder passed = new LongAdder();
+  private final LongAdder falsePositives = new LongAdder();
+
+  EdgeFilter(IntColumn bits, int blocks, int hashes) {
+    this.bits = bits;
+    this.blocks = blocks;
+    this.hashes = hashes;
+  }
+
+  static EdgeFilter build(int[] vertices1, int[] vertices2, int size, int bitsPerEdge,
+      Storage storage) {
+    long blocks = Math.max(1, ((long) size * bitsPerEdge + BLOCK_BITS - 1) / BLOCK_BITS);
+    if (blocks * BLOCK_INTS > EdgeBuffer.MAX_SIZE) {
+      throw new CapacityExceededException("Edge filter of " + size + " edges and "
+          + bitsPerEdge + " bits per edge exceeds " + EdgeBuffer.MAX_SIZE + " ints");
+    }
+    int hashes = hashes(bitsPerEdge);
+    int[] array = new int[(int) blocks * BLOCK_INTS];
+    for (int i = 0; i < size; i++) {
+      long hash = hash(vertices1[i], vertices2[i]);
+      int base = block(hash, (int) blocks) * BLOCK_INTS;
+      for (int j = 0; j < hashes; j++) {
+        hash = next(hash);
+        int position = position(hash);
+        array[base + (position >>> 5)] |= 1 << position;
+      }
+    }
+    return new EdgeFilter(storage.ints(array, array.length), (int) blocks, hashes);
+  }
+
+  /** Number of bits set per edge that minimizes the false positive rate, {@code bits * ln 2}. */
+  static int hashes(int bitsPerEdge) {
+    return (int) Math.max(1, Math.min(MAX_HASHES, Math.round(bitsPerEdge * Math.log(2))));
+  }
+
+  /** Fewest bits per edge whose expected false positive rate is at most the given one. */
+  static int bitsPerEdge(double falsePositiveRate) {
+    int bitsPerEdge = 1;
+    while (bitsPerEdge < MAX_BITS_PER_EDGE
+        && falsePositiveRate(bitsPerEdge) > falsePositiveRate) {
+      bitsPerEdge++;
+    }
+    return bitsPerEdge;
+  }
+
+  /**
+   * Expected false positive rate, averaging the rate of a 512-bit Bloom filter over the Poisson
+   * distributed number of edges hashed into a block. It is above the rate of an unblocked filter
+   * of the same size, as the crowded blocks weigh more than the sparse ones.
+   */
+  static double falsePositiveRate(int bitsPerEdge) {
+    int hashes = hashes(bitsPerEdge);
+    double mean = (double) BLOCK_BITS / bitsPerEdge;
+    double probability = Math.exp(-mean);
+    double rate = 0;
+    for (int edges = 0; edges < 4 * BLOCK_BITS; edges++) {
+      double set = 1 - Math.pow(1 - 1.0 / BLOCK_BITS, (double) hashes * edges);
+      rate += probability * Math.pow(set, hashes);
+      probability *= mean / (edges + 1);
+    }
+    return rate;
+  }
+
+  /** False when the graph certainly has no such edge, counting the rejection. */
+  boolean mightContain(int vertex1, int vertex2) {
+    long hash = hash(vertex1, vertex2);
+    long base = (long) block(hash, blocks) * BLOCK_INTS;
+    for (int j = 0; j < hashes; j++) {
+      hash = next(hash);
+      int position = position(hash);
+      if ((bits.get(base + (position >>> 5)) & 1 << position) == 0) {
+        rejected.increment();
+        return false;
+      }
+    }
+    passed.increment();
+    return true;
+  }
+
+  /** Counts a lookup that passed the filter but found no edge. */
+  void falsePositive() {
+    falsePositives.increment();
+  }
+
+  IntColumn bits() {
+    return bits;
+  }
+
+  int blocks() {
+    return blocks;
+  }
+
+  int hashes() {
+    return hashes;
+  }
+
+  /**
+   * Bits per edge of a filter with as many hashes as this one, to build a filter like it over
+   * other edges; mapped filters do not record the bits per edge they were built with. Off by one
+   * at most from the original up to 23 bits per edge, where the hashes reach
+   * {@link #MAX_HASHES}.
+   */
+  int bitsPerEdge() {
+    return (int) Math.min(MAX_BITS_PER_EDGE, Math.round(hashes / Math.log(2)));
+  }
+
+  Graph.FilterMetrics metrics() {
+    return new Graph.FilterMetrics(rejected.sum(), passed.sum(), falsePositives.sum(),
+        (long) blocks * BLOCK_BITS, hashes);
+  }
+
+  void release() {
+    bits.release();
+  }
+
+  /** Mixes the pair with the finalizer of SplitMix64. */
+  private static long hash(int vertex1, int vertex2) {
+    long hash = (long) vertex1 << 32 | vertex2 & 0xFFFFFFFFL;
+    hash = (hash ^ hash >>> 30) * 0xBF58476D1CE4E5B9L;
+    hash = (hash ^ hash >>> 27) * 0x94D049BB133111EBL;
+    return hash ^ hash >>> 31;
+  }
+
+  /** Maps the high half of the hash to a block without a division. */
+  private static int block(long hash, int blocks) {
+    return (int) ((hash >>> 32) * blocks >>> 32);
+  }
+
+  /** Steps a linear congruential sequence seeded by the hash, for the bits inside the block. */
+  private static long next(long hash) {
+    return hash * 0x5851F42D4C957F2DL + 0x14057B7EF767814FL;
+  }
+
+  /** The top 9 bits, whose period in the sequence is the longest. */
+  private static int position(long hash) {
+    return (int) (hash >>> (Long.SIZE - 9));
+  }
+}
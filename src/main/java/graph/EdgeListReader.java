@@ -0,0 +1,348 @@
+package graph;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Objects;
+import java.util.stream.IntStream;
+
+/**
+ * Reads text edge lists, one {@code vertex1 vertex2 [value]} edge per line, separated by tabs,
+ * spaces or commas. Edges without a value get the {@link #defaultValue(float)}, empty lines and
+ * lines starting with {@code #} or {@code %} are skipped. The file is memory-mapped in chunks
+ * that end on line boundaries; every chunk is parsed by a fork-join task from the mapped bytes,
+ * without creating strings, into batches of primitive columns added to a sub-builder of its own.
+ */
+public final class EdgeListReader {
+  static final int DEFAULT_CHUNK_SIZE = 1 << 26;
+  /** Longest line a chunk may end in, read past the end of the chunk. */
+  static final int MAX_LINE = 1 << 16;
+
+  private static final int BLOCK_SIZE = 1 << 20;
+  private static final int BATCH_SIZE = 1 << 13;
+  private static final long MAX_EXACT_MANTISSA = 1L << 53;
+  /** Digits of a mantissa that can not overflow a long. */
+  private static final int MAX_EXACT_DIGITS = 18;
+  private static final double[] POWERS_OF_TEN = {
+      1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+      1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22};
+
+  private float defaultValue = 1;
+  private int chunkSize = DEFAULT_CHUNK_SIZE;
+
+  /** Value of the edges whose line has no value, 1 by default. */
+  public EdgeListReader defaultValue(float defaultValue) {
+    this.defaultValue = defaultValue;
+    return this;
+  }
+
+  EdgeListReader chunkSize(int chunkSize) {
+    if (chunkSize < 1) {
+      throw new IllegalArgumentException("Chunk size should be >= 1, given chunk size = "
+          + chunkSize);
+    }
+    this.chunkSize = chunkSize;
+    return this;
+  }
+
+  public Graph read(Path path) throws IOException {
+    return read(path, new Graph.Builder()).build();
+  }
+
+  /** Adds the edges of the file to the builder, through one sub-builder per chunk. */
+  public Graph.Builder read(Path path, Graph.Builder builder) throws IOException {
+    Objects.requireNonNull(path, "Null path");
+    Objects.requireNonNull(builder, "Null builder");
+    try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+      long size = channel.size();
+      int chunks = (int) ((size + chunkSize - 1) / chunkSize);
+      IntStream range = IntStream.range(0, chunks);
+      (chunks > 1 ? range.parallel() : range).forEach(chunk -> {
+        try {
+          readChunk(channel, size, chunk, builder.newSubBuilder());
+        } catch (IOException e) {
+          throw new UncheckedIOException(e);
+        }
+      });
+    } catch (UncheckedIOException e) {
+      throw e.getCause();
+    }
+    return builder;
+  }
+
+  /**
+   * Parses the lines starting in {@code [chunk * chunkSize, (chunk + 1) * chunkSize)}. The
+   * mapping starts one byte early to tell whether the chunk starts a line, and ends up to
+   * {@link #MAX_LINE} bytes late to finish its last line.
+   */
+  private void readChunk(FileChannel channel, long size, int chunk, Graph.Builder builder)
+      throws IOException {
+    long start = (long) chunk * chunkSize;
+    long end = Math.min(size, start + chunkSize);
+    long mapStart = Math.max(0, start - 1);
+    long mapEnd = Math.min(size, end + MAX_LINE);
+    ByteBuffer buffer = channel.map(MapMode.READ_ONLY, mapStart, mapEnd - mapStart);
+    try {
+      int position = 0;
+      if (start > 0) {
+        while (position < buffer.limit() && buffer.get(position) != '\n') {
+          position++;
+        }
+        position++;
+      }
+      if (position < buffer.limit()) {
+        buffer.position(position);
+        new Parser(buffer, mapStart + position, end, mapEnd == size, builder).parse();
+      }
+    } finally {
+      Storage.release(new ByteBuffer[] {buffer});
+    }
+  }
+
+  /**
+   * Parses the lines of a mapped chunk into batches added to a builder. The mapped bytes are
+   * copied in blocks to an array, which is faster to scan than the buffer; the lines of a block
+   * are parsed up to its last line end and the rest is carried to the next block.
+   */
+  private final class Parser {
+    private final ByteBuffer buffer;
+    private final long end;
+    private final boolean last;
+    private final Graph.Builder builder;
+    private final byte[] bytes;
+    private final int[] vertices1 = new int[BATCH_SIZE];
+    private final int[] vertices2 = new int[BATCH_SIZE];
+    private final float[] values = new float[BATCH_SIZE];
+    private int batched;
+    /** File offset of the first byte of the block. */
+    private long offset;
+    private int position;
+    private int limit;
+
+    /** Parses the lines of {@code buffer} from its position, starting at {@code offset}. */
+    Parser(ByteBuffer buffer, long offset, long end, boolean last, Graph.Builder builder) {
+      this.buffer = buffer;
+      this.bytes = new byte[Math.min(BLOCK_SIZE + MAX_LINE, buffer.remaining())];
+      this.offset = offset;
+      this.end = end;
+      this.last = last;
+      this.builder = builder;
+    }
+
+    /** Parses the lines starting before {@code end}. */
+    void parse() throws IOException {
+      int carried = 0;
+      while (offset < end) {
+        int length = Math.min(bytes.length - carried, buffer.remaining());
+        buffer.get(bytes, carried, length);
+        int filled = carried + length;
+        boolean complete = last && !buffer.hasRemaining();
+        limit = filled;
+        while (!complete && limit > 0 && bytes[limit - 1] != '\n') {
+          limit--;
+        }
+
+        position = 0;
+        while (position < limit && offset + position < end) {
+          parseLine();
+        }
+        if (position < limit || offset + limit >= end || complete) {
+          break;
+        }
+        if (limit == 0 || !buffer.hasRemaining()) {
+          throw new IOException("Line at byte " + (offset + limit) + " is longer than "
+              + MAX_LINE + " bytes");
+        }
+        carried = filled - limit;
+        System.arraycopy(bytes, limit, bytes, 0, carried);
+        offset += limit;
+      }
+      flush();
+    }
+
+    private void parseLine() throws IOException {
+      skipSeparators();
+      if (position == limit || isLineEnd(bytes[position])) {
+        nextLine();
+        return;
+      }
+      byte first = bytes[position];
+      if (first == '#' || first == '%') {
+        while (position < limit && bytes[position] != '\n') {
+          position++;
+        }
+        nextLine();
+        return;
+      }
+
+      int vertex1 = parseInt();
+      if (position == limit || !isSeparator(bytes[position])) {
+        throw malformed("Expected separator");
+      }
+      skipSeparators();
+      int vertex2 = parseInt();
+      skipSeparators();
+      float value = defaultValue;
+      if (position < limit && !isLineEnd(bytes[position])) {
+        value = parseFloat();
+        skipSeparators();
+      }
+      nextLine();
+
+      vertices1[batched] = vertex1;
+      vertices2[batched] = vertex2;
+      values[batched] = value;
+      if (++batched == BATCH_SIZE) {
+        flush();
+      }
+    }
+
+    private void flush() {
+      builder.addEdges(vertices1, vertices2, values, 0, batched);
+      batched = 0;
+    }
+
+    private int parseInt() throws IOException {
+      boolean negative = false;
+      if (position < limit && (bytes[position] == '-' || bytes[position] == '+')) {
+        negative = bytes[position++] == '-';
+      }
+      int from = position;
+      long value = 0;
+      while (position < limit) {
+        int digit = bytes[position] - '0';
+        if (digit < 0 || digit > 9) {
+          break;
+        }
+        value = value * 10 + digit;
+        if (value > Integer.MAX_VALUE + 1L) {
+          throw malformed("Vertex out of int range");
+        }
+        position++;
+      }
+      if (position == from) {
+        throw malformed("Expected vertex");
+      }
+      value = negative ? -value : value;
+      if (value > Integer.MAX_VALUE) {
+        throw malformed("Vertex out of int range");
+      }
+      return (int) value;
+    }
+
+    /**
+     * Parses decimal values whose digits fit a double exactly with one correctly rounded
+     * division or multiplication; the rare values that would round differently as a double
+     * then as a float, and all other forms, go through {@link Float#parseFloat(String)}.
+     */
+    private float parseFloat() throws IOException {
+      int from = position;
+      boolean negative = false;
+      if (bytes[position] == '-' || bytes[position] == '+') {
+        negative = bytes[position++] == '-';
+      }
+      int digitsFrom = position;
+      long mantissa = digits();
+      int digits = position - digitsFrom;
+      int scale = 0;
+      if (position < limit && bytes[position] == '.') {
+        position++;
+        int fractionFrom = position;
+        mantissa = digits(mantissa);
+        scale = fractionFrom - position;
+        digits -= scale;
+      }
+      boolean exact = digits <= MAX_EXACT_DIGITS;
+      byte b = position < limit ? bytes[position] : 0;
+      if ((b == 'e' || b == 'E') && digits > 0) {
+        position++;
+        boolean negativeExponent = false;
+        if (position < limit && (bytes[position] == '-' || bytes[position] == '+')) {
+          negativeExponent = bytes[position++] == '-';
+        }
+        int exponentFrom = position;
+        int exponent = 0;
+        while (position < limit && bytes[position] >= '0' && bytes[position] <= '9'
+            && exponent < 1000) {
+          exponent = exponent * 10 + bytes[position++] - '0';
+        }
+        exact &= position > exponentFrom;
+        scale += negativeExponent ? -exponent : exponent;
+      }
+      while (position < limit && !isSeparator(bytes[position])
+          && !isLineEnd(bytes[position])) {
+        position++;
+        exact = false;
+      }
+
+      if (exact && digits > 0 && mantissa <= MAX_EXACT_MANTISSA
+          && scale >= -22 && scale <= 22) {
+        double value = scale < 0 ? mantissa / POWERS_OF_TEN[-scale]
+            : mantissa * POWERS_OF_TEN[scale];
+        if ((Double.doubleToRawLongBits(value) & 0x1FFFFFFFL) != 0x10000000L) {
+          return (float) (negative ? -value : value);
+        }
+      }
+      try {
+        return Float.parseFloat(new String(bytes, from, position - from,
+            StandardCharsets.US_ASCII));
+      } catch (NumberFormatException e) {
+        position = from;
+        throw malformed("Expected value");
+      }
+    }
+
+    /** Parses a run of digits, which may overflow when longer than 18 digits. */
+    private long digits() {
+      return digits(0);
+    }
+
+    private long digits(long value) {
+      while (position < limit) {
+        int digit = bytes[position] - '0';
+        if (digit < 0 || digit > 9) {
+          break;
+        }
+        value = value * 10 + digit;
+        position++;
+      }
+      return value;
+    }
+
+    private void skipSeparators() {
+      while (position < limit && isSeparator(bytes[position])) {
+        position++;
+      }
+    }
+
+    /** Moves past the end of the current line, at a {@code '\r'}, {@code '\n'} or the end. */
+    private void nextLine() throws IOException {
+      if (position < limit && bytes[position] == '\r') {
+        position++;
+      }
+      if (position < limit && bytes[position] == '\n') {
+        position++;
+      } else if (position < limit) {
+        throw malformed("Unexpected character");
+      }
+    }
+
+    private IOException malformed(String message) {
+      return new IOException(message + " at byte " + (offset + position) + ": '"
+          + (position < limit ? (char) bytes[position] : "end of file") + "'");
+    }
+  }
+
+  private static boolean isSeparator(byte b) {
+    return b == ' ' || b == '\t' || b == ',';
+  }
+
+  private static boolean isLineEnd(byte b) {
+    return b == '\n' || b == '\r';
+  }
+}
@@ -0,0 +1,246 @@
+package graph;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.IntConsumer;
+import java.util.stream.IntStream;
+
+/**
+ * Sorts the parallel edge columns by {@code (vertex1, vertex2)} with a stable LSD radix sort.
+ * Each key column is processed in 8 bit digits starting from the least significant digit of
+ * {@code vertex2}, digits on which all keys agree are skipped. Input that is already sorted is
+ * left untouched and strictly descending input is reversed in place. Large inputs are counted
+ * and scattered in blocks on the common fork-join pool.
+ */
+final class EdgeSorter {
+  static final int PARALLEL_THRESHOLD = 1 << 17;
+
+  private static final int INSERTION_THRESHOLD = 32;
+  private static final int RADIX_BITS = 8;
+  private static final int BUCKETS = 1 << RADIX_BITS;
+  private static final int MIN_BLOCK_SIZE = 1 << 14;
+  private static final int SIGN_BIT = 0x80000000;
+
+  private EdgeSorter() {
+  }
+
+  static void sort(int[] vertices1, int[] vertices2, float[] values, int size) {
+    sort(vertices1, vertices2, values, size, PARALLEL_THRESHOLD);
+  }
+
+  static void sort(int[] vertices1, int[] vertices2, float[] values, int size,
+      int parallelThreshold) {
+    if (size < 2) {
+      return;
+    }
+
+    Blocks blocks = new Blocks(size, size >= parallelThreshold);
+    Order order = scan(vertices1, vertices2, blocks);
+
+    if (order.sorted) {
+      return;
+    }
+    if (order.strictlyDescending) {
+      reverse(vertices1, vertices2, values, size);
+      return;
+    }
+    if (size <= INSERTION_THRESHOLD) {
+      insertionSort(vertices1, vertices2, values, size);
+      return;
+    }
+
+    radixSort(vertices1, vertices2, values, blocks, order);
+  }
+
+  static int compare(int[] vertices1, int[] vertices2, int i, int j) {
+    int res = Integer.compare(vertices1[i], vertices1[j]);
+    return res != 0 ? res : Integer.compare(vertices2[i], vertices2[j]);
+  }
+
+  private static Order scan(int[] vertices1, int[] vertices2, Blocks blocks) {
+    Order[] parts = new Order[blocks.count];
+    blocks.forEach(block -> {
+      int from = blocks.from(block);
+      int to = blocks.to(block);
+      Order part = new Order();
+      for (int i = from; i < to; i++) {
+        int u1 = vertices1[i] ^ SIGN_BIT;
+        int u2 = vertices2[i] ^ SIGN_BIT;
+        part.or1 |= u1;
+        part.and1 &= u1;
+        part.or2 |= u2;
+        part.and2 &= u2;
+        if (i > 0) {
+          int cmp = compare(vertices1, vertices2, i - 1, i);
+          part.sorted &= cmp <= 0;
+          part.strictlyDescending &= cmp > 0;
+        }
+      }
+      parts[block] = part;
+    });
+
+    Order order = parts[0];
+    for (int block = 1; block < parts.length; block++) {
+      order.merge(parts[block]);
+    }
+    return order;
+  }
+
+  private static void radixSort(int[] vertices1, int[] vertices2, float[] values,
+      Blocks blocks, Order order) {
+    int size = blocks.size;
+    int[] src1 = vertices1;
+    int[] src2 = vertices2;
+    float[] srcValues = values;
+    int[] dst1 = new int[size];
+    int[] dst2 = new int[size];
+    float[] dstValues = new float[size];
+    int[][] counts = new int[blocks.count][BUCKETS];
+
+    for (int pass = 0; pass < 2 * Integer.SIZE / RADIX_BITS; pass++) {
+      boolean secondaryKey = pass < Integer.SIZE / RADIX_BITS;
+      int shift = (pass % (Integer.SIZE / RADIX_BITS)) * RADIX_BITS;
+      int varying = secondaryKey ? order.or2 ^ order.and2 : order.or1 ^ order.and1;
+      if (((varying >>> shift) & (BUCKETS - 1)) == 0) {
+        continue;
+      }
+
+      int[] keys = secondaryKey ? src2 : src1;
+      blocks.forEach(block -> countDigits(keys, shift, blocks.from(block), blocks.to(block),
+          counts[block]));
+      toOffsets(counts);
+
+      int[] s1 = src1;
+      int[] s2 = src2;
+      float[] sValues = srcValues;
+      int[] d1 = dst1;
+      int[] d2 = dst2;
+      float[] dValues = dstValues;
+      blocks.forEach(block -> {
+        int[] offsets = counts[block];
+        for (int i = blocks.from(block); i < blocks.to(block); i++) {
+          int position = offsets[digit(keys[i], shift)]++;
+          d1[position] = s1[i];
+          d2[position] = s2[i];
+          dValues[position] = sValues[i];
+        }
+      });
+
+      dst1 = src1;
+      dst2 = src2;
+      dstValues = srcValues;
+      src1 = d1;
+      src2 = d2;
+      srcValues = dValues;
+    }
+
+    if (src1 != vertices1) {
+      int[] sorted1 = src1;
+      int[] sorted2 = src2;
+      float[] sortedValues = srcValues;
+      blocks.forEach(block -> {
+        int from = blocks.from(block);
+        int length = blocks.to(block) - from;
+        System.arraycopy(sorted1, from, vertices1, from, length);
+        System.arraycopy(sorted2, from, vertices2, from, length);
+        System.arraycopy(sortedValues, from, values, from, length);
+      });
+    }
+  }
+
+  private static void countDigits(int[] keys, int shift, int from, int to, int[] counts) {
+    Arrays.fill(counts, 0);
+    for (int i = from; i < to; i++) {
+      counts[digit(keys[i], shift)]++;
+    }
+  }
+
+  private static void toOffsets(int[][] counts) {
+    int offset = 0;
+    for (int bucket = 0; bucket < BUCKETS; bucket++) {
+      for (int[] blockCounts : counts) {
+        int count = blockCounts[bucket];
+        blockCounts[bucket] = offset;
+        offset += count;
+      }
+    }
+  }
+
+  private static int digit(int key, int shift) {
+    return ((key ^ SIGN_BIT) >>> shift) & (BUCKETS - 1);
+  }
+
+  private static void reverse(int[] vertices1, int[] vertices2, float[] values, int size) {
+    for (int i = 0, j = size - 1; i < j; i++, j--) {
+      swapRows(vertices1, vertices2, values, i, j);
+    }
+  }
+
+  private static void insertionSort(int[] vertices1, int[] vertices2, float[] values, int size) {
+    for (int i = 1; i < size; i++) {
+      for (int j = i; j > 0 && compare(vertices1, vertices2, j - 1, j) > 0; j--) {
+        swapRows(vertices1, vertices2, values, j - 1, j);
+      }
+    }
+  }
+
+  private static void swapRows(int[] vertices1, int[] vertices2, float[] values,
+      int row1Index, int row2Index) {
+    int vertex1tmp = vertices1[row1Index];
+    int vertex2tmp = vertices2[row1Index];
+    float valuetmp = values[row1Index];
+
+    vertices1[row1Index] = vertices1[row2Index];
+    vertices2[row1Index] = vertices2[row2Index];
+    values[row1Index] = values[row2Index];
+    vertices1[row2Index] = vertex1tmp;
+    vertices2[row2Index] = vertex2tmp;
+    values[row2Index] = valuetmp;
+  }
+
+  private static final class Order {
+    private boolean sorted = true;
+    private boolean strictlyDescending = true;
+    private int or1;
+    private int and1 = -1;
+    private int or2;
+    private int and2 = -1;
+
+    void merge(Order other) {
+      sorted &= other.sorted;
+      strictlyDescending &= other.strictlyDescending;
+      or1 |= other.or1;
+      and1 &= other.and1;
+      or2 |= other.or2;
+      and2 &= other.and2;
+    }
+  }
+
+  static final class Blocks {
+    final int size;
+    final int count;
+    private final boolean parallel;
+
+    Blocks(int size, boolean parallel) {
+      this.size = size;
+      this.parallel = parallel;
+      this.count = parallel
+          ? Math.max(1, Math.min(4 * ForkJoinPool.getCommonPoolParallelism(),
+              size / MIN_BLOCK_SIZE))
+          : 1;
+    }
+
+    int from(int block) {
+      return (int) ((long) size * block / count);
+    }
+
+    int to(int block) {
+      return (int) ((long) size * (block + 1) / count);
+    }
+
+    void forEach(IntConsumer action) {
+      IntStream blocks = IntStream.range(0, count);
+      (parallel ? blocks.parallel() : blocks).forEach(action);
+    }
+  }
+}
@@ -0,0 +1,169 @@
+package graph;
+
+import java.util.Objects;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+import java.util.function.IntConsumer;
+
+/**
+ * Spliterator over the edge index range {@code [index, end)} of a graph. Splits fall on the
+ * source vertex boundary nearest to the middle of the range, so every out-edge list ends up in a
+ * single split unless one vertex owns the whole range. The vertices of a relabeled graph are
+ * translated back to their external ids.
+ */
+final class EdgeSpliterator implements Spliterator<Edge> {
+  private static final int CHARACTERISTICS = ORDERED | DISTINCT | SIZED | SUBSIZED | IMMUTABLE
+      | NONNULL;
+
+  private final IntColumn vertices1;
+  private final IntColumn vertices2;
+  private final FloatColumn values;
+  private final VertexPermutation permutation;
+  private int index;
+  private final int end;
+
+  EdgeSpliterator(IntColumn vertices1, IntColumn vertices2, FloatColumn values,
+      VertexPermutation permutation, int index, int end) {
+    this.vertices1 = vertices1;
+    this.vertices2 = vertices2;
+    this.values = values;
+    this.permutation = permutation;
+    this.index = index;
+    this.end = end;
+  }
+
+  @Override
+  public boolean tryAdvance(Consumer<? super Edge> action) {
+    Objects.requireNonNull(action, "Null action");
+    if (index >= end) {
+      return false;
+    }
+    action.accept(edge(index));
+    index++;
+    return true;
+  }
+
+  @Override
+  public void forEachRemaining(Consumer<? super Edge> action) {
+    Objects.requireNonNull(action, "Null action");
+    for (; index < end; index++) {
+      action.accept(edge(index));
+    }
+  }
+
+  @Override
+  public Spliterator<Edge> trySplit() {
+    int split = split(vertices1, index, end);
+    if (split < 0) {
+      return null;
+    }
+    Spliterator<Edge> prefix = new EdgeSpliterator(vertices1, vertices2, values, permutation,
+        index, split);
+    index = split;
+    return prefix;
+  }
+
+  @Override
+  public long estimateSize() {
+    return end - index;
+  }
+
+  @Override
+  public int characteristics() {
+    return CHARACTERISTICS;
+  }
+
+  private Edge edge(int index) {
+    return new Edge(external(permutation, vertices1.get(index)),
+        external(permutation, vertices2.get(index)), values.get(index));
+  }
+
+  private static int external(VertexPermutation permutation, int vertex) {
+    return permutation == null ? vertex : permutation.external(vertex);
+  }
+
+  /**
+   * Index in {@code (from, to)} where a range of the sorted {@code vertices1} column is split, or
+   * -1 when it is too small. Prefers the start of a source run closest to the middle and falls
+   * back to the middle when a single source spans the range.
+   */
+  static int split(IntColumn vertices1, int from, int to) {
+    if (to - from < 2) {
+      return -1;
+    }
+
+    int mid = (from + to) >>> 1;
+    int vertex = vertices1.get(mid);
+    if (vertices1.get(mid - 1) != vertex) {
+      return mid;
+    }
+
+    int runStart = Graph.findVertexIndex(vertices1, vertex, from, mid, false);
+    int runEnd = Graph.findVertexIndex(vertices1, vertex, mid, to - 1, true) + 1;
+    boolean startSplits = runStart > from;
+    boolean endSplits = runEnd < to;
+    if (startSplits && (!endSplits || mid - runStart <= runEnd - mid)) {
+      return runStart;
+    }
+    return endSplits ? runEnd : mid;
+  }
+
+  /** Splits like {@link EdgeSpliterator} and yields the source or target vertices of the edges. */
+  static final class OfVertices implements Spliterator.OfInt {
+    private static final int CHARACTERISTICS = ORDERED | SIZED | SUBSIZED | IMMUTABLE | NONNULL;
+
+    private final IntColumn vertices1;
+    private final IntColumn column;
+    private final VertexPermutation permutation;
+    private int index;
+    private final int end;
+
+    OfVertices(IntColumn vertices1, IntColumn column, VertexPermutation permutation, int index,
+        int end) {
+      this.vertices1 = vertices1;
+      this.column = column;
+      this.permutation = permutation;
+      this.index = index;
+      this.end = end;
+    }
+
+    @Override
+    public boolean tryAdvance(IntConsumer action) {
+      Objects.requireNonNull(action, "Null action");
+      if (index >= end) {
+        return false;
+      }
+      action.accept(external(permutation, column.get(index++)));
+      return true;
+    }
+
+    @Override
+    public void forEachRemaining(IntConsumer action) {
+      Objects.requireNonNull(action, "Null action");
+      for (; index < end; index++) {
+        action.accept(external(permutation, column.get(index)));
+      }
+    }
+
+    @Override
+    public Spliterator.OfInt trySplit() {
+      int split = split(vertices1, index, end);
+      if (split < 0) {
+        return null;
+      }
+      Spliterator.OfInt prefix = new OfVertices(vertices1, column, permutation, index, split);
+      index = split;
+      return prefix;
+    }
+
+    @Override
+    public long estimateSize() {
+      return end - index;
+    }
+
+    @Override
+    public int characteristics() {
+      return CHARACTERISTICS;
+    }
+  }
+}
@@ -0,0 +1,722 @@
+package graph;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Builds a graph file, like {@link Graph#writeTo(Path)}, from more edges than fit in memory.
+ * Edges are collected in a buffer sized by the memory budget; every full buffer is sorted and
+ * spilled as a run to a temporary file. {@link #build()} merges the runs, applying the
+ * {@link DuplicatePolicy} to edges with the same vertices, and writes the sorted columns and the
+ * source index straight into the graph file, which is then memory-mapped. When the runs are too
+ * many to merge at once within the budget, groups of them are first merged into longer runs.
+ * Graphs built this way have no incoming edge index.
+ */
+public final class ExternalGraphBuilder implements AutoCloseable {
+  public static final long DEFAULT_MEMORY_BUDGET = 1L << 30;
+  static final long MIN_MEMORY_BUDGET = 1 << 20;
+
+  /** Bytes per edge in a run, and per buffered edge including the scratch space of the sort. */
+  private static final int RUN_EDGE_BYTES = 12;
+  private static final int BUFFER_EDGE_BYTES = 2 * RUN_EDGE_BYTES;
+  /** Edges of the first buffer, which doubles up to the budget so small graphs stay small. */
+  private static final int INITIAL_BUFFER = 1 << 16;
+  private static final int MIN_IO_BUFFER = 1 << 16;
+  private static final int MAX_IO_BUFFER = 1 << 23;
+  /** Output buffers of the final merge: three columns, the row sources and the row offsets. */
+  private static final int OUTPUTS = 5;
+
+  private final Path path;
+  private Path temporaryDirectory;
+  private long memoryBudget = DEFAULT_MEMORY_BUDGET;
+  private SourceIndex sourceIndex = SourceIndex.AUTO;
+  private DuplicatePolicy duplicatePolicy = DuplicatePolicy.REJECT;
+
+  private int[] vertices1;
+  private int[] vertices2;
+  private float[] values;
+  private int buffered;
+  private long size;
+  private final List<Run> runs = new ArrayList<>();
+  private final List<Path> temporaryFiles = new ArrayList<>();
+  private boolean built;
+
+  /** Creates a builder of the graph file at {@code path}. */
+  public ExternalGraphBuilder(Path path) {
+    this.path = Objects.requireNonNull(path, "Null path");
+  }
+
+  /**
+   * Bytes of memory used for buffering and merging edges, {@link #DEFAULT_MEMORY_BUDGET}: the
+   * edge buffer and the scratch space of its sort on the heap, and the I/O buffers of the runs
+   * and of the graph file, which are direct buffers outside of the heap.
+   */
+  public ExternalGraphBuilder memoryBudget(long memoryBudget) {
+    if (memoryBudget < MIN_MEMORY_BUDGET) {
+      throw new IllegalArgumentException("Memory budget should be >= " + MIN_MEMORY_BUDGET
+          + ", given memory budget = " + memoryBudget);
+    }
+    requireNoEdges();
+    this.memoryBudget = memoryBudget;
+    return this;
+  }
+
+  /** Directory of the runs, the default temporary directory when not set. */
+  public ExternalGraphBuilder temporaryDirectory(Path temporaryDirectory) {
+    this.temporaryDirectory = Objects.requireNonNull(temporaryDirectory,
+        "Null temporary directory");
+    return this;
+  }
+
+  public ExternalGraphBuilder sourceIndex(SourceIndex sourceIndex) {
+    this.sourceIndex = Objects.requireNonNull(sourceIndex, "Null source index");
+    return this;
+  }
+
+  /** Applied while merging, see {@link Graph.Builder#duplicatePolicy(DuplicatePolicy)}. */
+  public ExternalGraphBuilder duplicatePolicy(DuplicatePolicy duplicatePolicy) {
+    this.duplicatePolicy = Objects.requireNonNull(duplicatePolicy, "Null duplicate policy");
+    return this;
+  }
+
+  public ExternalGraphBuilder addEdges(Iterable<Edge> edges) throws IOException {
+    edges = Objects.requireNonNull(edges, "Null iterator at size = " + size);
+    for (Edge edge : edges) {
+      addEdge(edge);
+    }
+    return this;
+  }
+
+  public ExternalGraphBuilder addEdges(int[] vertices1, int[] vertices2, float[] values,
+      int offset, int length) throws IOException {
+    Objects.requireNonNull(vertices1, "Null vertices1 at size = " + size);
+    Objects.requireNonNull(vertices2, "Null vertices2 at size = " + size);
+    Objects.requireNonNull(values, "Null values at size = " + size);
+    if (offset < 0 || length < 0 || offset + length < 0 || offset + length > vertices1.length
+        || offset + length > vertices2.length || offset + length > values.length) {
+      throw new IndexOutOfBoundsException("Range [" + offset + ", " + offset + " + " + length
+          + ") out of bounds for lengths " + vertices1.length + ", " + vertices2.length + ", "
+          + values.length);
+    }
+
+    while (length > 0) {
+      int count = Math.min(length, ensureBuffer());
+      System.arraycopy(vertices1, offset, this.vertices1, buffered, count);
+      System.arraycopy(vertices2, offset, this.vertices2, buffered, count);
+      System.arraycopy(values, offset, this.values, buffered, count);
+      buffered += count;
+      size += count;
+      offset += count;
+      length -= count;
+    }
+    return this;
+  }
+
+  public ExternalGraphBuilder addEdge(Edge edge) throws IOException {
+    edge = Objects.requireNonNull(edge, "Adding null edge at size = " + size);
+    return addEdge(edge.getVertex1(), edge.getVertex2(), edge.getValue());
+  }
+
+  public ExternalGraphBuilder addEdge(int vertex1, int vertex2, float value) throws IOException {
+    ensureBuffer();
+    vertices1[buffered] = vertex1;
+    vertices2[buffered] = vertex2;
+    values[buffered] = value;
+    buffered++;
+    size++;
+    return this;
+  }
+
+  /**
+   * Merges the edges into the graph file and maps it, see {@link Graph#map(Path)}. The runs are
+   * deleted whether the build succeeds or not, and so is the graph file when writing it fails,
+   * for instance on edges with the same vertices under {@link DuplicatePolicy#REJECT}.
+   */
+  public Graph build() throws IOException {
+    if (built) {
+      throw new IllegalStateException("Graph file is already built");
+    }
+    built = true;
+    try {
+      try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE,
+          StandardOpenOption.READ, StandardOpenOption.WRITE,
+          StandardOpenOption.TRUNCATE_EXISTING)) {
+        if (runs.isEmpty()) {
+          if (buffered > 0) {
+            EdgeSorter.sort(vertices1, vertices2, values, buffered);
+          }
+          try (GraphWriter writer = new GraphWriter(channel, ioBuffer(OUTPUTS))) {
+            for (int i = 0; i < buffered; i++) {
+              writer.accept(vertices1[i], vertices2[i], values[i]);
+            }
+            releaseBuffer();
+            writer.finish();
+          }
+        } else {
+          spill();
+          releaseBuffer();
+          mergeRuns(OUTPUTS);
+          try (GraphWriter writer = new GraphWriter(channel, ioBuffer(runs.size() + OUTPUTS))) {
+            merge(runs, writer, ioBuffer(runs.size() + OUTPUTS));
+            writer.finish();
+          }
+        }
+      } catch (UncheckedIOException e) {
+        throw e.getCause();
+      }
+    } catch (IOException | RuntimeException | Error e) {
+      try {
+        Files.deleteIfExists(path);
+      } catch (IOException suppressed) {
+        e.addSuppressed(suppressed);
+      }
+      throw e;
+    } finally {
+      close();
+    }
+    return Graph.map(path);
+  }
+
+  /** Deletes the runs and frees the buffer, the graph file can not be built afterwards. */
+  @Override
+  public void close() throws IOException {
+    built = true;
+    releaseBuffer();
+    IOException failure = null;
+    for (Path file : temporaryFiles) {
+      try {
+        Files.deleteIfExists(file);
+      } catch (IOException e) {
+        failure = e;
+      }
+    }
+    temporaryFiles.clear();
+    runs.clear();
+    if (failure != null) {
+      throw failure;
+    }
+  }
+
+  /** Number of runs spilled so far. */
+  int runs() {
+    return runs.size();
+  }
+
+  @Override
+  public String toString() {
+    return "ExternalGraphBuilder{" +
+        "path=" + path +
+        ", size=" + size +
+        ", runs=" + runs.size() +
+        '}';
+  }
+
+  /** Free space in the buffer, allocating it or spilling it as a run when needed. */
+  private int ensureBuffer() throws IOException {
+    if (built) {
+      throw new IllegalStateException("Adding edge after build()");
+    }
+    if (size >= EdgeBuffer.MAX_SIZE) {
+      throw new CapacityExceededException("Size = " + size + " reaches " + EdgeBuffer.MAX_SIZE);
+    }
+    int capacity = (int) Math.min(EdgeBuffer.MAX_SIZE, memoryBudget / BUFFER_EDGE_BYTES);
+    if (vertices1 == null) {
+      int initial = Math.min(capacity, INITIAL_BUFFER);
+      vertices1 = new int[initial];
+      vertices2 = new int[initial];
+      values = new float[initial];
+    }
+    if (buffered == vertices1.length) {
+      if (buffered < capacity) {
+        // The old and the new arrays are both alive while copying
+        int grown = (int) Math.min(Math.min(capacity, 2L * buffered),
+            memoryBudget / RUN_EDGE_BYTES - buffered);
+        vertices1 = Arrays.copyOf(vertices1, grown);
+        vertices2 = Arrays.copyOf(vertices2, grown);
+        values = Arrays.copyOf(values, grown);
+      } else {
+        spill();
+      }
+    }
+    return (int) Math.min(vertices1.length - buffered, EdgeBuffer.MAX_SIZE - size);
+  }
+
+  private void requireNoEdges() {
+    if (size > 0 || built) {
+      throw new IllegalStateException("Changing memory budget after adding edges");
+    }
+  }
+
+  private void spill() throws IOException {
+    EdgeSorter.sort(vertices1, vertices2, values, buffered);
+    Run run = newRun(buffered);
+    runs.add(run);
+    try (FileChannel channel = FileChannel.open(run.path, StandardOpenOption.WRITE)) {
+      Output output = new Output(channel, 0, ioBuffer(1));
+      for (int i = 0; i < buffered; i++) {
+        output.putInt(vertices1[i]);
+        output.putInt(vertices2[i]);
+        output.putFloat(values[i]);
+      }
+      output.close();
+    }
+    buffered = 0;
+  }
+
+  private void releaseBuffer() {
+    vertices1 = null;
+    vertices2 = null;
+    values = null;
+    buffered = 0;
+  }
+
+  private Run newRun(long edges) throws IOException {
+    return new Run(newTemporaryFile("edges"), edges);
+  }
+
+  private Path newTemporaryFile(String prefix) throws IOException {
+    Path file = temporaryDirectory == null ? Files.createTempFile(prefix, ".run")
+        : Files.createTempFile(temporaryDirectory, prefix, ".run");
+    temporaryFiles.add(file);
+    return file;
+  }
+
+  /**
+   * Merges consecutive groups of runs into longer runs until all fit in the budget with the
+   * outputs. Runs stay in the order their edges were added.
+   */
+  private void mergeRuns(int outputs) throws IOException {
+    int fanIn = (int) Math.max(2, memoryBudget / MIN_IO_BUFFER - outputs);
+    while (runs.size() > fanIn) {
+      List<Run> merged = new ArrayList<>();
+      for (int from = 0; from < runs.size(); from += fanIn) {
+        List<Run> group = runs.subList(from, Math.min(runs.size(), from + fanIn));
+        merged.add(group.size() == 1 ? group.get(0) : mergeGroup(group, fanIn));
+      }
+      runs.clear();
+      runs.addAll(merged);
+    }
+  }
+
+  private Run mergeGroup(List<Run> group, int fanIn) throws IOException {
+    long edges = 0;
+    for (Run run : group) {
+      edges += run.edges;
+    }
+    Run merged = newRun(edges);
+    try (FileChannel channel = FileChannel.open(merged.path, StandardOpenOption.WRITE)) {
+      Output output = new Output(channel, 0, ioBuffer(fanIn + 1));
+      merge(group, (vertex1, vertex2, value) -> {
+        output.putInt(vertex1);
+        output.putInt(vertex2);
+        output.putFloat(value);
+      }, ioBuffer(fanIn + 1));
+      output.close();
+    }
+    for (Run run : group) {
+      Files.deleteIfExists(run.path);
+      temporaryFiles.remove(run.path);
+    }
+    return merged;
+  }
+
+  /**
+   * Size of each of {@code buffers} I/O buffers sharing the budget left by the edge buffer, a
+   * multiple of an edge. The edge buffer takes at most half of the budget once sorted.
+   */
+  private int ioBuffer(int buffers) {
+    long available = memoryBudget
+        - (vertices1 == null ? 0 : (long) RUN_EDGE_BYTES * vertices1.length);
+    long bytes = Math.min(MAX_IO_BUFFER, Math.max(MIN_IO_BUFFER, available / buffers));
+    return (int) (bytes / RUN_EDGE_BYTES * RUN_EDGE_BYTES);
+  }
+
+  /**
+   * Streams the edges of the runs in {@code (vertex1, vertex2)} order through a binary heap.
+   * Edges with the same vertices come in the order of their runs.
+   */
+  private static void merge(List<Run> runs, EdgeConsumer consumer, int bufferSize)
+      throws IOException {
+    int count = runs.size();
+    FileChannel[] channels = new FileChannel[count];
+    try {
+      Input[] inputs = new Input[count];
+      int[] heap = new int[count];
+      int heapSize = 0;
+      for (int i = 0; i < count; i++) {
+        channels[i] = FileChannel.open(runs.get(i).path, StandardOpenOption.READ);
+        inputs[i] = new Input(channels[i], runs.get(i).edges, bufferSize);
+        if (inputs[i].next()) {
+          heap[heapSize++] = i;
+        }
+      }
+      for (int i = heapSize / 2 - 1; i >= 0; i--) {
+        siftDown(inputs, heap, heapSize, i);
+      }
+
+      while (heapSize > 0) {
+        Input top = inputs[heap[0]];
+        consumer.accept(top.vertex1, top.vertex2, top.value);
+        if (!top.next()) {
+          top.close();
+          heap[0] = heap[--heapSize];
+        }
+        siftDown(inputs, heap, heapSize, 0);
+      }
+    } finally {
+      for (FileChannel channel : channels) {
+        if (channel != null) {
+          channel.close();
+        }
+      }
+    }
+  }
+
+  private static void siftDown(Input[] inputs, int[] heap, int heapSize, int index) {
+    int item = heap[index];
+    while (true) {
+      int child = 2 * index + 1;
+      if (child >= heapSize) {
+        break;
+      }
+      if (child + 1 < heapSize && less(inputs, heap[child + 1], heap[child])) {
+        child++;
+      }
+      if (!less(inputs, heap[child], item)) {
+        break;
+      }
+      heap[index] = heap[child];
+      index = child;
+    }
+    heap[index] = item;
+  }
+
+  private static boolean less(Input[] inputs, int run1, int run2) {
+    int res = inputs[run1].compareTo(inputs[run2]);
+    return res != 0 ? res < 0 : run1 < run2;
+  }
+
+  private static final class Run {
+    final Path path;
+    final long edges;
+
+    Run(Path path, long edges) {
+      this.path = path;
+      this.edges = edges;
+    }
+  }
+
+  /**
+   * Writes sorted edges into the graph file: the columns at their final sections, the distinct
+   * sources and their offsets to temporary files, turned into the source index sections once
+   * the number of rows is known.
+   */
+  private final class GraphWriter implements EdgeConsumer, AutoCloseable {
+    private final FileChannel channel;
+    private final int bufferSize;
+    private final long[] columnOffsets = new long[3];
+    private final Output vertices1;
+    private final Output vertices2;
+    private final Output values;
+    private final Path sourcesPath;
+    private final Path offsetsPath;
+    private final FileChannel sourcesChannel;
+    private final FileChannel offsetsChannel;
+    private final Output sources;
+    private final Output offsets;
+    private int index;
+    private int rows;
+    private int firstSource;
+    private int lastSource;
+    private boolean pending;
+    private int previous1;
+    private int previous2;
+    private float previousValue;
+
+    GraphWriter(FileChannel channel, int bufferSize) throws IOException {
+      this.channel = channel;
+      this.bufferSize = bufferSize;
+      long offset = GraphFile.dataOffset(OUTPUTS);
+      for (int column = 0; column < columnOffsets.length; column++) {
+        columnOffsets[column] = offset;
+        offset = GraphFile.align(offset + size * Integer.BYTES);
+      }
+      vertices1 = new Output(channel, columnOffsets[0], bufferSize);
+      vertices2 = new Output(channel, columnOffsets[1], bufferSize);
+      values = new Output(channel, columnOffsets[2], bufferSize);
+
+      boolean indexed = sourceIndex != SourceIndex.NONE;
+      sourcesPath = indexed ? newTemporaryFile("sources") : null;
+      offsetsPath = indexed ? newTemporaryFile("offsets") : null;
+      sourcesChannel = indexed ? FileChannel.open(sourcesPath, StandardOpenOption.READ,
+          StandardOpenOption.WRITE) : null;
+      offsetsChannel = indexed ? FileChannel.open(offsetsPath, StandardOpenOption.READ,
+          StandardOpenOption.WRITE) : null;
+      sources = indexed ? new Output(sourcesChannel, 0, bufferSize) : null;
+      offsets = indexed ? new Output(offsetsChannel, 0, bufferSize) : null;
+    }
+
+    /** Holds every edge back until the next one shows it has no duplicate left. */
+    @Override
+    public void accept(int vertex1, int vertex2, float value) {
+      if (pending && vertex1 == previous1 && vertex2 == previous2) {
+        if (duplicatePolicy == DuplicatePolicy.REJECT) {
+          throw Graph.sameVertices(new Edge(previous1, previous2, previousValue),
+              new Edge(vertex1, vertex2, value));
+        }
+        previousValue = duplicatePolicy.combine(previousValue, value);
+        return;
+      }
+      if (pending) {
+        write(previous1, previous2, previousValue);
+      }
+      previous1 = vertex1;
+      previous2 = vertex2;
+      previousValue = value;
+      pending = true;
+    }
+
+    private void write(int vertex1, int vertex2, float value) {
+      if (sources != null && (index == 0 || vertex1 != lastSource)) {
+        if (rows == 0) {
+          firstSource = vertex1;
+        }
+        sources.putInt(vertex1);
+        offsets.putInt(index);
+        rows++;
+      }
+      vertices1.putInt(vertex1);
+      vertices2.putInt(vertex2);
+      values.putFloat(value);
+      lastSource = vertex1;
+      index++;
+    }
+
+    void finish() throws IOException {
+      if (pending) {
+        write(previous1, previous2, previousValue);
+        pending = false;
+      }
+      vertices1.close();
+      vertices2.close();
+      values.close();
+
+      List<GraphFile.Section> sections = new ArrayList<>();
+      sections.add(new GraphFile.Section(GraphFile.VERTICES1, 0, columnOffsets[0],
+          (long) index * Integer.BYTES));
+      sections.add(new GraphFile.Section(GraphFile.VERTICES2, 0, columnOffsets[1],
+          (long) index * Integer.BYTES));
+      sections.add(new GraphFile.Section(GraphFile.VALUES, 0, columnOffsets[2],
+          (long) index * Float.BYTES));
+      long end = GraphFile.align(columnOffsets[2] + (long) index * Float.BYTES);
+
+      if (sources != null) {
+        offsets.putInt(index);
+        sources.close();
+        offsets.close();
+        long range = rows == 0 ? 0 : (long) lastSource - firstSource + 1;
+        boolean dense = sourceIndex == SourceIndex.DENSE || sourceIndex == SourceIndex.AUTO
+            && rows > 0 && range < Integer.MAX_VALUE - 1
+            && range <= (long) RowIndex.DENSE_MAX_OVERHEAD * rows;
+        if (dense) {
+          if (range >= Integer.MAX_VALUE - 1) {
+            throw new IllegalArgumentException("Source ids span " + range
+                + " values, too many for a dense index");
+          }
+          long length = (range + 1) * Integer.BYTES;
+          sections.add(new GraphFile.Section(GraphFile.ROW_OFFSETS, rows == 0 ? 0 : firstSource,
+              end, length));
+          writeDenseOffsets(end, (int) range);
+          end = GraphFile.align(end + length);
+        } else {
+          long sourcesLength = (long) rows * Integer.BYTES;
+          long offsetsLength = sourcesLength + Integer.BYTES;
+          sections.add(new GraphFile.Section(GraphFile.ROW_SOURCES, 0, end, sourcesLength));
+          transfer(sourcesChannel, end, sourcesLength);
+          end = GraphFile.align(end + sourcesLength);
+          sections.add(new GraphFile.Section(GraphFile.ROW_OFFSETS, 0, end, offsetsLength));
+          transfer(offsetsChannel, end, offsetsLength);
+          end = GraphFile.align(end + offsetsLength);
+          if (sourceIndex == SourceIndex.BTREE) {
+            long treeLength = RowIndex.treeLength(rows) * Integer.BYTES;
+            sections.add(new GraphFile.Section(GraphFile.ROW_TREE, 0, end, treeLength));
+            writeTree(end, sourcesLength);
+            end = GraphFile.align(end + treeLength);
+          }
+        }
+      }
+
+      GraphFile.writeHeader(channel, index, sections);
+      channel.truncate(end);
+    }
+
+    /** Expands the offsets of the distinct sources to one offset per id of the range. */
+    private void writeDenseOffsets(long position, int range) throws IOException {
+      Input rowSources = new Input(sourcesChannel, rows, bufferSize);
+      Input rowOffsets = new Input(offsetsChannel, rows + 1L, bufferSize);
+      Output output = new Output(channel, position, bufferSize);
+      int row = 0;
+      for (int i = 0; i < rows; i++) {
+        int current = rowSources.getInt() - firstSource;
+        int offset = rowOffsets.getInt();
+        while (row <= current) {
+          output.putInt(offset);
+          row++;
+        }
+      }
+      output.putInt(index);
+      output.close();
+      rowSources.close();
+      rowOffsets.close();
+    }
+
+    /** Builds the B-tree levels over the sources, mapped from their temporary file. */
+    private void writeTree(long position, long sourcesLength) throws IOException {
+      ByteBuffer[] segments = GraphFile.map(sourcesChannel,
+          new GraphFile.Section(GraphFile.ROW_SOURCES, 0, 0, sourcesLength),
+          IntColumn.SEGMENT_SHIFT);
+      IntColumn rowSources = IntColumn.of(segments, IntColumn.SEGMENT_SHIFT);
+      int[] tree = RowIndex.buildTree(rowSources, rows);
+      rowSources.release();
+      Output output = new Output(channel, position, bufferSize);
+      for (int key : tree) {
+        output.putInt(key);
+      }
+      output.close();
+    }
+
+    private void transfer(FileChannel source, long position, long length) throws IOException {
+      for (long done = 0; done < length; ) {
+        done += source.transferTo(done, length - done, channel.position(position + done));
+      }
+    }
+
+    @Override
+    public void close() throws IOException {
+      if (sourcesChannel != null) {
+        sourcesChannel.close();
+        offsetsChannel.close();
+      }
+    }
+  }
+
+  /** Buffered little-endian writes to a channel, from a position on. */
+  private static final class Output {
+    private final FileChannel channel;
+    private final ByteBuffer buffer;
+    private long position;
+
+    Output(FileChannel channel, long position, int bufferSize) {
+      this.channel = channel;
+      this.position = position;
+      this.buffer = ByteBuffer.allocateDirect(bufferSize).order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    void putInt(int value) {
+      if (!buffer.hasRemaining()) {
+        flush();
+      }
+      buffer.putInt(value);
+    }
+
+    void putFloat(float value) {
+      if (!buffer.hasRemaining()) {
+        flush();
+      }
+      buffer.putFloat(value);
+    }
+
+    /** Flushes the buffer and frees it. */
+    void close() {
+      flush();
+      Storage.release(new ByteBuffer[] {buffer});
+    }
+
+    void flush() {
+      buffer.flip();
+      try {
+        while (buffer.hasRemaining()) {
+          position += channel.write(buffer, position);
+        }
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+      buffer.clear();
+    }
+  }
+
+  /** Buffered little-endian reads of edges or ints from the start of a channel. */
+  private static final class Input implements Comparable<Input> {
+    private final FileChannel channel;
+    private final ByteBuffer buffer;
+    private long remaining;
+    private long position;
+    int vertex1;
+    int vertex2;
+    float value;
+
+    /** {@code records} edges, or ints when only {@link #getInt()} is used. */
+    Input(FileChannel channel, long records, int bufferSize) {
+      this.channel = channel;
+      this.buffer = ByteBuffer.allocateDirect(bufferSize).order(ByteOrder.LITTLE_ENDIAN);
+      this.buffer.limit(0);
+      this.remaining = records;
+    }
+
+    /** Reads the next edge into the fields, false at the end of the run. */
+    boolean next() throws IOException {
+      if (remaining == 0) {
+        return false;
+      }
+      fill(RUN_EDGE_BYTES);
+      vertex1 = buffer.getInt();
+      vertex2 = buffer.getInt();
+      value = buffer.getFloat();
+      remaining--;
+      return true;
+    }
+
+    int getInt() throws IOException {
+      fill(Integer.BYTES);
+      remaining--;
+      return buffer.getInt();
+    }
+
+    void close() {
+      Storage.release(new ByteBuffer[] {buffer});
+    }
+
+    /** Makes at least {@code bytes} bytes available in the buffer. */
+    private void fill(int bytes) throws IOException {
+      if (buffer.remaining() >= bytes) {
+        return;
+      }
+      buffer.compact();
+      int read = 0;
+      while (buffer.hasRemaining() && read >= 0) {
+        read = channel.read(buffer, position);
+        position += Math.max(0, read);
+      }
+      buffer.flip();
+      if (buffer.remaining() < bytes) {
+        throw new IOException("Truncated run");
+      }
+    }
+
+    @Override
+    public int compareTo(Input other) {
+      int res = Integer.compare(vertex1, other.vertex1);
+      return res != 0 ? res : Integer.compare(vertex2, other.vertex2);
+    }
+  }
+}
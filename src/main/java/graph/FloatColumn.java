@@ -0,0 +1,75 @@
+package graph;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * Read-only column of floats, the float counterpart of {@link IntColumn}.
+ */
+abstract class FloatColumn {
+  abstract float get(long index);
+
+  /** Frees off-heap or mapped memory, after which the column must not be read. */
+  void release() {
+  }
+
+  static FloatColumn of(float[] array) {
+    return new HeapFloatColumn(array);
+  }
+
+  /**
+   * Copies the first {@code length} elements of the array into direct byte buffers outside of the
+   * Java heap.
+   */
+  static FloatColumn offHeap(float[] array, int length) {
+    int segmentSize = IntColumn.SEGMENT_SIZE;
+    ByteBuffer[] segments = new ByteBuffer[(int) ((length + segmentSize - 1L) / segmentSize)];
+    for (int i = 0; i < segments.length; i++) {
+      int offset = i * segmentSize;
+      int count = Math.min(segmentSize, length - offset);
+      segments[i] = ByteBuffer.allocateDirect(count * Integer.BYTES)
+          .order(ByteOrder.LITTLE_ENDIAN);
+      segments[i].asFloatBuffer().put(array, offset, count);
+    }
+    return of(segments, IntColumn.SEGMENT_SHIFT);
+  }
+
+  static FloatColumn of(ByteBuffer[] segments, int segmentShift) {
+    return new BufferFloatColumn(segments, segmentShift);
+  }
+
+  private static final class HeapFloatColumn extends FloatColumn {
+    private final float[] array;
+
+    HeapFloatColumn(float[] array) {
+      this.array = array;
+    }
+
+    @Override
+    float get(long index) {
+      return array[(int) index];
+    }
+  }
+
+  private static final class BufferFloatColumn extends FloatColumn {
+    private final ByteBuffer[] segments;
+    private final int segmentShift;
+    private final long segmentMask;
+
+    BufferFloatColumn(ByteBuffer[] segments, int segmentShift) {
+      this.segments = segments;
+      this.segmentShift = segmentShift;
+      this.segmentMask = (1L << segmentShift) - 1;
+    }
+
+    @Override
+    float get(long index) {
+      return segments[(int) (index >>> segmentShift)].getFloat((int) (index & segmentMask) << 2);
+    }
+
+    @Override
+    void release() {
+      Storage.release(segments);
+    }
+  }
+}
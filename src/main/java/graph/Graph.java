@@ -1,37 +1,146 @@
 package graph;
 
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Iterator;
+import java.util.List;
 import java.util.NoSuchElementException;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.Spliterator;
+import java.util.concurrent.ForkJoinTask;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 public class Graph implements Iterable<Edge> {
-  private final int[] vertices1;
-  private final int[] vertices2;
-  private final float[] values;
+  private static final int MAX_BATCH_BUCKETS = 1 << 10;
+  private static final int BATCH_BUCKET_EDGES = 1 << 16;
+  private static final int BATCH_BUCKET_PROBES = 1 << 4;
+
+  private final IntColumn vertices1;
+  private final IntColumn vertices2;
+  private final FloatColumn values;
   private final int size;
+  private final RowIndex rowIndex;
+  private final Graph incoming;
+  private final EdgeFilter filter;
+  private final VertexPermutation permutation;
+
+  private Graph(int[] vertices1, int[] vertices2, float[] values, int size,
+      SourceIndex sourceIndex, Storage storage, boolean incomingIndex,
+      DuplicatePolicy duplicatePolicy, int filterBitsPerEdge, VertexOrder vertexOrder) {
+    this.permutation = vertexOrder == VertexOrder.NONE ? null
+        : VertexPermutation.relabel(vertexOrder, vertices1, vertices2, size, storage);
+    ForkJoinTask<Graph> incoming = null;
+    if (incomingIndex) {
+      int[] targets = Arrays.copyOf(vertices2, size);
+      int[] sources = Arrays.copyOf(vertices1, size);
+      float[] incomingValues = Arrays.copyOf(values, size);
+      int edges = size;
+      incoming = ForkJoinTask.adapt(() -> new Graph(targets, sources, incomingValues, edges,
+          sourceIndex, storage, false, duplicatePolicy, 0, VertexOrder.NONE)).fork();
+    }
+
+    EdgeSorter.sort(vertices1, vertices2, values, size);
+    if (duplicatePolicy == DuplicatePolicy.REJECT) {
+      verifyEdgesWithSameVerticesAreAbsent(vertices1, vertices2, values, size, permutation);
+    } else {
+      size = removeDuplicates(vertices1, vertices2, values, size, duplicatePolicy);
+    }
+
+    this.vertices1 = storage.ints(vertices1, size);
+    this.vertices2 = storage.ints(vertices2, size);
+    this.values = storage.floats(values, size);
+    this.size = size;
+    this.rowIndex = RowIndex.build(sourceIndex, vertices1, this.vertices1, size, storage);
+    this.filter = filterBitsPerEdge == 0 ? null
+        : EdgeFilter.build(vertices1, vertices2, size, filterBitsPerEdge, storage);
+    this.incoming = incoming == null ? null : incoming.join();
+  }
+
+  Graph(IntColumn vertices1, IntColumn vertices2, FloatColumn values, int size,
+      RowIndex rowIndex) {
+    this(vertices1, vertices2, values, size, rowIndex, null);
+  }
+
+  /** {@code incoming} holds the same edges with swapped vertices, sorted by target. */
+  Graph(IntColumn vertices1, IntColumn vertices2, FloatColumn values, int size,
+      RowIndex rowIndex, Graph incoming) {
+    this(vertices1, vertices2, values, size, rowIndex, incoming, null);
+  }
 
-  private Graph(Builder builder) {
-    this.vertices1 = builder.vertices1;
-    this.vertices2 = builder.vertices2;
-    this.values = builder.values;
-    this.size = builder.size;
+  Graph(IntColumn vertices1, IntColumn vertices2, FloatColumn values, int size,
+      RowIndex rowIndex, Graph incoming, EdgeFilter filter) {
+    this(vertices1, vertices2, values, size, rowIndex, incoming, filter, null);
+  }
 
-    sortGraph();
-    verifyEdgesWithSameVerticesAreAbsent();
+  /** The columns and indexes of a graph relabeled by {@code permutation} hold internal ids. */
+  Graph(IntColumn vertices1, IntColumn vertices2, FloatColumn values, int size,
+      RowIndex rowIndex, Graph incoming, EdgeFilter filter, VertexPermutation permutation) {
+    this.vertices1 = vertices1;
+    this.vertices2 = vertices2;
+    this.values = values;
+    this.size = size;
+    this.rowIndex = rowIndex;
+    this.incoming = incoming;
+    this.filter = filter;
+    this.permutation = permutation;
+  }
+
+  /**
+   * Opens a graph written by {@link #writeTo(Path)}. The columns and the source index stay in the
+   * memory-mapped file and are not copied onto the heap.
+   */
+  public static Graph map(Path path) throws IOException {
+    return GraphFile.map(path);
   }
 
   public int size() {
     return size;
   }
 
+  public void writeTo(Path path) throws IOException {
+    GraphFile.write(this, path);
+  }
+
+  /**
+   * Writes the graph with the dictionary of the keys of its vertices, which is read back by
+   * {@link LongVertexDictionary#read(Path)} or {@link StringVertexDictionary#read(Path)}.
+   */
+  public void writeTo(Path path, VertexDictionary dictionary) throws IOException {
+    GraphFile.write(this, Objects.requireNonNull(dictionary, "Null dictionary"), path);
+  }
+
   public Iterator<Edge> vertexIterator(int vertex) {
+    return rowIterator(this, vertex, false);
+  }
+
+  /**
+   * Iterates over the edges pointing to {@code vertex}, ordered by source. Requires a graph built
+   * with {@link Builder#incomingIndex(boolean)}.
+   */
+  public Iterator<Edge> incomingIterator(int vertex) {
+    return rowIterator(requireIncoming(), vertex, true);
+  }
+
+  /** Iterates over a row of {@code rows}, this graph or its incoming index. */
+  private Iterator<Edge> rowIterator(Graph rows, int vertex, boolean transposed) {
+    RowIndex rowIndex = rows.rowIndex;
+    IntColumn vertices2 = rows.vertices2;
+    FloatColumn values = rows.values;
+    int row = rowIndex.find(internal(vertex));
+    int start = row < 0 ? 0 : rowIndex.start(row);
+    int end = row < 0 ? 0 : rowIndex.end(row);
+
     return new Iterator<Edge>() {
-      private int index = findVertexIndex(vertices1, vertex, 0, size - 1, false);
+      private int index = start;
 
       @Override
       public boolean hasNext() {
-        return index >= 0 && index < size && vertices1[index] == vertex;
+        return index < end;
       }
 
       @Override
@@ -39,7 +148,9 @@ public class Graph implements Iterable<Edge> {
         if (!hasNext()) {
           throw new NoSuchElementException();
         }
-        Edge res = new Edge(vertex, vertices2[index], values[index]);
+        Edge res = transposed
+            ? new Edge(external(vertices2.get(index)), vertex, values.get(index))
+            : new Edge(vertex, external(vertices2.get(index)), values.get(index));
         index++;
         return res;
       }
@@ -61,39 +172,247 @@ public class Graph implements Iterable<Edge> {
         if (!hasNext()) {
           throw new NoSuchElementException();
         }
-        Edge res = new Edge(vertices1[index], vertices2[index], values[index]);
+        Edge res = new Edge(external(vertices1.get(index)), external(vertices2.get(index)),
+            values.get(index));
         index++;
         return res;
       }
     };
   }
 
+  /**
+   * Sized spliterator over all edges in sorted order. Splits keep the out-edges of a vertex
+   * together whenever possible, so parallel per-vertex aggregations need no merging across splits.
+   */
+  @Override
+  public Spliterator<Edge> spliterator() {
+    return new EdgeSpliterator(vertices1, vertices2, values, permutation, 0, size);
+  }
+
+  public Stream<Edge> edges() {
+    return StreamSupport.stream(spliterator(), false);
+  }
+
+  public Stream<Edge> parallelEdges() {
+    return StreamSupport.stream(spliterator(), true);
+  }
+
+  /** Source vertex of every edge, in edge order. Splits like {@link #spliterator()}. */
+  public IntStream sources() {
+    return StreamSupport.intStream(
+        new EdgeSpliterator.OfVertices(vertices1, vertices1, permutation, 0, size), false);
+  }
+
+  /** Target vertex of every edge, in edge order. Splits like {@link #spliterator()}. */
+  public IntStream targets() {
+    return StreamSupport.intStream(
+        new EdgeSpliterator.OfVertices(vertices1, vertices2, permutation, 0, size), false);
+  }
+
   public Optional<Float> getEdgeValue(int vertex1, int vertex2) {
-    int vertex1FirstIndex = findVertexIndex(vertices1, vertex1, 0, size - 1, false);
+    int index = indexOf(internal(vertex1), internal(vertex2));
 
-    if (vertex1FirstIndex < 0) {
+    if (index < 0) {
       return Optional.empty();
     }
 
-    int vertex1LastIndex = findVertexIndex(vertices1, vertex1, 0, size - 1, true);
-    int vertex2Index = findVertexIndex(vertices2, vertex2, vertex1FirstIndex, vertex1LastIndex, false);
+    return Optional.of(values.get(index));
+  }
+
+  public float getEdgeValueOrDefault(int vertex1, int vertex2, float defaultValue) {
+    int index = indexOf(internal(vertex1), internal(vertex2));
+    return index < 0 ? defaultValue : values.get(index);
+  }
 
-    if (vertex2Index < 0) {
-      return Optional.empty();
+  public boolean containsEdge(int vertex1, int vertex2) {
+    return indexOf(internal(vertex1), internal(vertex2)) >= 0;
+  }
+
+  /**
+   * Looks up the edges {@code (vertices1[i], vertices2[i])} of a batch. For every probe
+   * {@code found[i]} tells whether the edge exists and {@code values[i]} receives its value, a
+   * missing edge leaves {@code values[i]} unchanged. On large graphs the probes are first
+   * bucketed by ranges of source ids, so that consecutive lookups read nearby parts of the
+   * columns; every probe is still looked up on its own, like {@link #getEdgeValue}. Large
+   * batches run on the common fork-join pool.
+   */
+  public void getEdgeValues(int[] vertices1, int[] vertices2, float[] values, boolean[] found) {
+    getEdgeValues(vertices1, vertices2, values, found, EdgeSorter.PARALLEL_THRESHOLD);
+  }
+
+  void getEdgeValues(int[] vertices1, int[] vertices2, float[] values, boolean[] found,
+      int parallelThreshold) {
+    Objects.requireNonNull(vertices1, "Null vertices1");
+    Objects.requireNonNull(vertices2, "Null vertices2");
+    Objects.requireNonNull(values, "Null values");
+    Objects.requireNonNull(found, "Null found");
+    int count = vertices1.length;
+    if (vertices2.length != count || values.length != count || found.length != count) {
+      throw new IllegalArgumentException("Batch arrays have different lengths: "
+          + vertices1.length + ", " + vertices2.length + ", " + values.length + ", "
+          + found.length);
+    }
+    if (count == 0) {
+      return;
+    }
+    if (permutation != null) {
+      vertices1 = internal(vertices1);
+      vertices2 = internal(vertices2);
+    }
+
+    int buckets = Math.min(size / BATCH_BUCKET_EDGES, count / BATCH_BUCKET_PROBES);
+    buckets = Integer.highestOneBit(Math.max(1, Math.min(MAX_BATCH_BUCKETS, buckets)));
+    if (buckets == 1) {
+      lookUp(vertices1, vertices2, null, values, found, parallelThreshold);
+      return;
     }
 
-    return Optional.of(values[vertex2Index]);
+    int min = Integer.MAX_VALUE;
+    int max = Integer.MIN_VALUE;
+    for (int vertex : vertices1) {
+      min = Math.min(min, vertex);
+      max = Math.max(max, vertex);
+    }
+    int rangeBits = Long.SIZE - Long.numberOfLeadingZeros((long) max - min);
+    int shift = Math.max(0, rangeBits - Integer.numberOfTrailingZeros(buckets));
+
+    int[] offsets = new int[buckets + 1];
+    for (int vertex : vertices1) {
+      offsets[(int) (((long) vertex - min) >>> shift) + 1]++;
+    }
+    for (int bucket = 0; bucket < buckets; bucket++) {
+      offsets[bucket + 1] += offsets[bucket];
+    }
+
+    int[] probes1 = new int[count];
+    int[] probes2 = new int[count];
+    int[] positions = new int[count];
+    for (int i = 0; i < count; i++) {
+      int position = offsets[(int) (((long) vertices1[i] - min) >>> shift)]++;
+      probes1[position] = vertices1[i];
+      probes2[position] = vertices2[i];
+      positions[position] = i;
+    }
+
+    lookUp(probes1, probes2, positions, values, found, parallelThreshold);
   }
 
-  private static int findVertexIndex(int[] vertices, int vertex, int low, int high, boolean last) {
+  /**
+   * Looks up the probes one by one in their order, {@code positions} maps them back to the
+   * batch.
+   */
+  private void lookUp(int[] probes1, int[] probes2, int[] positions, float[] values,
+      boolean[] found, int parallelThreshold) {
+    int count = probes1.length;
+    EdgeSorter.Blocks blocks = new EdgeSorter.Blocks(count, count >= parallelThreshold);
+    blocks.forEach(block -> {
+      for (int i = blocks.from(block), to = blocks.to(block); i < to; i++) {
+        int position = positions == null ? i : positions[i];
+        int index = indexOf(probes1[i], probes2[i]);
+        found[position] = index >= 0;
+        if (index >= 0) {
+          values[position] = this.values.get(index);
+        }
+      }
+    });
+  }
+
+  public void forEachEdge(EdgeConsumer consumer) {
+    Objects.requireNonNull(consumer, "Null edge consumer");
+    for (int i = 0; i < size; i++) {
+      consumer.accept(external(vertices1.get(i)), external(vertices2.get(i)), values.get(i));
+    }
+  }
+
+  public void forEachNeighbor(int vertex, EdgeConsumer consumer) {
+    Objects.requireNonNull(consumer, "Null edge consumer");
+    int row = rowIndex.find(internal(vertex));
+    if (row < 0) {
+      return;
+    }
+    for (int i = rowIndex.start(row), end = rowIndex.end(row); i < end; i++) {
+      consumer.accept(vertex, external(vertices2.get(i)), values.get(i));
+    }
+  }
+
+  /**
+   * Visits the edges pointing to {@code vertex} as {@code (source, vertex, value)}. Requires a
+   * graph built with {@link Builder#incomingIndex(boolean)}.
+   */
+  public void forEachIncoming(int vertex, EdgeConsumer consumer) {
+    Objects.requireNonNull(consumer, "Null edge consumer");
+    Graph incoming = requireIncoming();
+    int row = incoming.rowIndex.find(internal(vertex));
+    if (row < 0) {
+      return;
+    }
+    for (int i = incoming.rowIndex.start(row), end = incoming.rowIndex.end(row); i < end; i++) {
+      consumer.accept(external(incoming.vertices2.get(i)), vertex, incoming.values.get(i));
+    }
+  }
+
+  public int outDegree(int vertex) {
+    int row = rowIndex.find(internal(vertex));
+    return row < 0 ? 0 : rowIndex.end(row) - rowIndex.start(row);
+  }
+
+  /** Requires a graph built with {@link Builder#incomingIndex(boolean)}. */
+  public int inDegree(int vertex) {
+    return requireIncoming().outDegree(internal(vertex));
+  }
+
+  public boolean hasIncomingIndex() {
+    return incoming != null;
+  }
+
+  public boolean hasEdgeFilter() {
+    return filter != null;
+  }
+
+  /** The order the vertices were renumbered in, {@link VertexOrder#NONE} when they were not. */
+  public VertexOrder vertexOrder() {
+    return permutation == null ? VertexOrder.NONE : permutation.order();
+  }
+
+  /**
+   * Counters of the lookups through the edge filter, to size it with
+   * {@link Builder#edgeFilter(int)}. Requires a graph built with an edge filter.
+   */
+  public FilterMetrics filterMetrics() {
+    if (filter == null) {
+      throw new IllegalStateException("Graph was built without an edge filter");
+    }
+    return filter.metrics();
+  }
+
+  public Cursor cursor() {
+    return new Cursor();
+  }
+
+  int indexOf(int vertex1, int vertex2) {
+    if (filter != null && !filter.mightContain(vertex1, vertex2)) {
+      return -1;
+    }
+
+    int row = rowIndex.find(vertex1);
+    int index = row < 0 ? -1
+        : findVertexIndex(vertices2, vertex2, rowIndex.start(row), rowIndex.end(row) - 1, false);
+    if (index < 0 && filter != null) {
+      filter.falsePositive();
+    }
+    return index;
+  }
+
+  static int findVertexIndex(IntColumn vertices, int vertex, int low, int high, boolean last) {
     int res = -1;
 
     while (low <= high) {
       int mid = (low + high) / 2;
 
-      if (vertices[mid] > vertex) {
+      int current = vertices.get(mid);
+      if (current > vertex) {
         high = mid - 1;
-      } else if (vertices[mid] < vertex) {
+      } else if (current < vertex) {
         low = mid + 1;
       } else {
         res = mid;
@@ -108,6 +427,116 @@ public class Graph implements Iterable<Edge> {
     return res;
   }
 
+  IntColumn vertices1() {
+    return vertices1;
+  }
+
+  IntColumn vertices2() {
+    return vertices2;
+  }
+
+  FloatColumn values() {
+    return values;
+  }
+
+  RowIndex rowIndex() {
+    return rowIndex;
+  }
+
+  /**
+   * One more than the largest vertex id, for algorithms that index arrays by vertex. Such
+   * algorithms need dense, non-negative ids.
+   */
+  int vertexBound() {
+    if (permutation != null) {
+      return permutation.size();
+    }
+    if (size == 0) {
+      return 0;
+    }
+    int min = vertices1.get(0);
+    int max = vertices1.get(size - 1);
+    for (int i = 0; i < size; i++) {
+      int vertex = vertices2.get(i);
+      min = Math.min(min, vertex);
+      max = Math.max(max, vertex);
+    }
+    if (min < 0) {
+      throw new IllegalArgumentException("Vertex ids should be >= 0, given vertex = " + min);
+    }
+    if (max == Integer.MAX_VALUE) {
+      throw new IllegalArgumentException("Vertex id " + max + " is too large");
+    }
+    return max + 1;
+  }
+
+  /** The edge filter, or null. */
+  EdgeFilter filter() {
+    return filter;
+  }
+
+  /** The renumbering of the vertices, or null. The columns and indexes hold internal ids. */
+  VertexPermutation permutation() {
+    return permutation;
+  }
+
+  /**
+   * The same columns and indexes without the permutation, whose ids are the internal ones, for
+   * algorithms that translate their input and result. This graph when it is not relabeled.
+   */
+  Graph internalGraph() {
+    return permutation == null ? this
+        : new Graph(vertices1, vertices2, values, size, rowIndex, incoming, filter);
+  }
+
+  /** The transposed graph behind the incoming edge index, or null. */
+  Graph incoming() {
+    return incoming;
+  }
+
+  /**
+   * Frees the off-heap or mapped memory of the columns, indexes and edge filter now
+   * instead of on garbage collection. The graph must not be read afterwards.
+   */
+  void release() {
+    vertices1.release();
+    vertices2.release();
+    values.release();
+    rowIndex.release();
+    if (filter != null) {
+      filter.release();
+    }
+    if (incoming != null) {
+      incoming.release();
+    }
+    if (permutation != null) {
+      permutation.release();
+    }
+  }
+
+  private int internal(int vertex) {
+    return permutation == null ? vertex : permutation.internal(vertex);
+  }
+
+  private int external(int vertex) {
+    return permutation == null ? vertex : permutation.external(vertex);
+  }
+
+  private int[] internal(int[] vertices) {
+    int[] internal = new int[vertices.length];
+    for (int i = 0; i < vertices.length; i++) {
+      internal[i] = permutation.internal(vertices[i]);
+    }
+    return internal;
+  }
+
+  private Graph requireIncoming() {
+    if (incoming == null) {
+      throw new IllegalStateException("Graph was built without an incoming edge index");
+    }
+    return incoming;
+  }
+
   @Override
   public String toString() {
     return "Graph{" +
@@ -115,126 +544,361 @@ public class Graph implements Iterable<Edge> {
         '}';
   }
 
-  private void sortGraph() {
-    qsort(vertices1, 0, size - 1);
+  private static void verifyEdgesWithSameVerticesAreAbsent(int[] vertices1, int[] vertices2,
+      float[] values, int size, VertexPermutation permutation) {
+    for (int i = 0; i < size - 1; i++) {
+      if (vertices1[i] == vertices1[i+1] && vertices2[i] == vertices2[i+1]) {
+        int vertex1 = permutation == null ? vertices1[i] : permutation.external(vertices1[i]);
+        int vertex2 = permutation == null ? vertices2[i] : permutation.external(vertices2[i]);
+        throw sameVertices(new Edge(vertex1, vertex2, values[i]),
+            new Edge(vertex1, vertex2, values[i+1]));
+      }
+    }
+  }
 
-    int low = 0;
-    int high = 0;
-    while (high < size - 1) {
-      high++;
-      if (vertices1[high - 1] != vertices1[high]) {
-        qsort(vertices2, low, high - 1);
-        low = high;
+  /**
+   * Folds every run of sorted edges with the same vertices into its first edge, moving the
+   * remaining edges down in place. Returns the number of remaining edges.
+   */
+  static int removeDuplicates(int[] vertices1, int[] vertices2, float[] values, int size,
+      DuplicatePolicy duplicatePolicy) {
+    int kept = size > 0 ? 1 : 0;
+    for (int i = 1; i < size; i++) {
+      if (vertices1[i] == vertices1[kept - 1] && vertices2[i] == vertices2[kept - 1]) {
+        values[kept - 1] = duplicatePolicy.combine(values[kept - 1], values[i]);
+      } else {
+        vertices1[kept] = vertices1[i];
+        vertices2[kept] = vertices2[i];
+        values[kept] = values[i];
+        kept++;
       }
     }
+    return kept;
+  }
 
-    qsort(vertices2, low, high);
+  static IllegalArgumentException sameVertices(Edge edge1, Edge edge2) {
+    return new IllegalArgumentException("Edges with same vertices are not allowed. "
+        + edge1 + " has same vertices as " + edge2);
   }
 
-  private void qsort(int[] array, int begin, int end) {
-    if (begin < end) {
-      int partitionIndex = partition(array, begin, end);
+  /** Counters of the lookups through the edge filter since the graph was built or mapped. */
+  public static final class FilterMetrics {
+    private final long rejected;
+    private final long passed;
+    private final long falsePositives;
+    private final long bits;
+    private final int hashes;
+
+    FilterMetrics(long rejected, long passed, long falsePositives, long bits, int hashes) {
+      this.rejected = rejected;
+      this.passed = passed;
+      this.falsePositives = falsePositives;
+      this.bits = bits;
+      this.hashes = hashes;
+    }
 
-      qsort(array, begin, partitionIndex - 1);
-      qsort(array, partitionIndex + 1, end);
+    public long lookups() {
+      return rejected + passed;
     }
-  }
 
-  private int partition(int[] array, int begin, int end) {
-    int pivot = array[end];
-    int i = (begin - 1);
+    /** Lookups of absent edges answered by the filter alone. */
+    public long rejected() {
+      return rejected;
+    }
 
-    for (int j = begin; j < end; j++) {
-      if (array[j] <= pivot) {
-        i++;
+    /** Lookups that passed the filter, for existing edges or false positives. */
+    public long passed() {
+      return passed;
+    }
 
-        swapRows(i, j);
-      }
+    /** Lookups that passed the filter but found no edge. */
+    public long falsePositives() {
+      return falsePositives;
     }
 
-    swapRows(i+1, end);
+    /** Share of the lookups of absent edges that passed the filter, NaN before any miss. */
+    public double falsePositiveRate() {
+      return (double) falsePositives / (rejected + falsePositives);
+    }
 
-    return i+1;
+    public long bits() {
+      return bits;
+    }
+
+    public int hashes() {
+      return hashes;
+    }
+
+    @Override
+    public String toString() {
+      return "FilterMetrics{" +
+          "rejected=" + rejected +
+          ", passed=" + passed +
+          ", falsePositives=" + falsePositives +
+          ", bits=" + bits +
+          ", hashes=" + hashes +
+          '}';
+    }
   }
 
-  private void verifyEdgesWithSameVerticesAreAbsent() {
-    for (int i = 0; i < size - 1; i++) {
-      if (vertices1[i] == vertices1[i+1] && vertices2[i] == vertices2[i+1]) {
-        Edge edge1 = new Edge(vertices1[i], vertices2[i], values[i]);
-        Edge edge2 = new Edge(vertices1[i+1], vertices2[i+1], values[i+1]);
-        throw new IllegalArgumentException("Edges with same vertices are not allowed. "
-            + edge1 + " has same vertices as " + edge2);
+  /**
+   * Reusable position over a range of edges. A fresh cursor walks all edges, {@link #reset(int)}
+   * repositions it on the out-edges of a vertex without allocating.
+   */
+  public final class Cursor {
+    private int start;
+    private int index;
+    private int end;
+
+    private Cursor() {
+      reset();
+    }
+
+    public Cursor reset() {
+      return position(0, size);
+    }
+
+    public Cursor reset(int vertex) {
+      int row = rowIndex.find(internal(vertex));
+      return row < 0 ? position(0, 0) : position(rowIndex.start(row), rowIndex.end(row));
+    }
+
+    private Cursor position(int start, int end) {
+      this.start = start;
+      this.index = start - 1;
+      this.end = end;
+      return this;
+    }
+
+    public boolean next() {
+      if (index < end) {
+        index++;
       }
+      return index < end;
+    }
+
+    public int vertex1() {
+      return external(vertices1.get(position()));
+    }
+
+    public int vertex2() {
+      return external(vertices2.get(position()));
     }
-  }
 
-  private void swapRows(int row1Index, int row2Index) {
-    int vertex1tmp = vertices1[row1Index];
-    int vertex2tmp = vertices2[row1Index];
-    float valuetmp = values[row1Index];
+    public float value() {
+      return values.get(position());
+    }
 
-    vertices1[row1Index] = vertices1[row2Index];
-    vertices2[row1Index] = vertices2[row2Index];
-    values[row1Index] = values[row2Index];
-    vertices1[row2Index] = vertex1tmp;
-    vertices2[row2Index] = vertex2tmp;
-    values[row2Index] = valuetmp;
+    private int position() {
+      if (index < start || index >= end) {
+        throw new NoSuchElementException();
+      }
+      return index;
+    }
   }
 
   public static class Builder {
-    private int[] vertices1;
-    private int[] vertices2;
-    private float[] values;
-    private final int capacity;
-    private int size;
+    private EdgeBuffer edges;
+    private final Builder parent;
+    private final List<Builder> subBuilders = new ArrayList<>();
+    private SourceIndex sourceIndex = SourceIndex.AUTO;
+    private Storage storage = Storage.HEAP;
+    private boolean incomingIndex;
+    private DuplicatePolicy duplicatePolicy = DuplicatePolicy.REJECT;
+    private int filterBitsPerEdge;
+    private VertexOrder vertexOrder = VertexOrder.NONE;
 
     public Builder(int capacity) {
       if (capacity < 0) {
         throw new IllegalArgumentException("Capacity should be >= 0, given capacity = " + capacity);
       }
 
-      this.capacity = capacity;
-      this.vertices1 = new int[capacity];
-      this.vertices2 = new int[capacity];
-      this.values = new float[capacity];
+      this.edges = EdgeBuffer.fixed(capacity);
+      this.parent = null;
+    }
+
+    /**
+     * Creates a builder without a capacity limit. Edges are kept in chunks that are allocated as
+     * the builder grows and copied once, into the graph columns, by {@link #build()}.
+     */
+    public Builder() {
+      this(null);
+    }
+
+    private Builder(Builder parent) {
+      this.edges = EdgeBuffer.growable();
+      this.parent = parent;
     }
 
     public Builder addEdges(Iterable<Edge> edges) {
-      edges = Objects.requireNonNull(edges, "Null iterator at size = " + size);
+      edges = Objects.requireNonNull(edges, "Null iterator at size = " + size());
       for (Edge edge : edges) {
         addEdge(edge);
       }
       return this;
     }
 
+    public Builder addEdges(int[] vertices1, int[] vertices2, float[] values, int offset,
+        int length) {
+      Objects.requireNonNull(vertices1, "Null vertices1 at size = " + size());
+      Objects.requireNonNull(vertices2, "Null vertices2 at size = " + size());
+      Objects.requireNonNull(values, "Null values at size = " + size());
+      if (offset < 0 || length < 0 || offset + length < 0 || offset + length > vertices1.length
+          || offset + length > vertices2.length || offset + length > values.length) {
+        throw new IndexOutOfBoundsException("Range [" + offset + ", " + offset + " + " + length
+            + ") out of bounds for lengths " + vertices1.length + ", " + vertices2.length + ", "
+            + values.length);
+      }
+
+      buffer().add(vertices1, vertices2, values, offset, length);
+      return this;
+    }
+
     public Builder addEdge(Edge edge) {
-      edge = Objects.requireNonNull(edge, "Adding null edge at size = " + size);
+      edge = Objects.requireNonNull(edge, "Adding null edge at size = " + size());
       return addEdge(edge.getVertex1(), edge.getVertex2(),  edge.getValue());
     }
 
     public Builder addEdge(int vertex1, int vertex2, float value) {
-      if (size >= capacity) {
-        throw new CapacityExceededException("Capacity = " + capacity + " exceeded");
+      buffer().add(vertex1, vertex2, value);
+      return this;
+    }
+
+    public Builder sourceIndex(SourceIndex sourceIndex) {
+      this.sourceIndex = Objects.requireNonNull(sourceIndex, "Null source index");
+      return this;
+    }
+
+    /**
+     * Also indexes the edges by target, for {@link Graph#incomingIterator(int)},
+     * {@link Graph#forEachIncoming(int, EdgeConsumer)} and {@link Graph#inDegree(int)}. The
+     * index is a transposed copy of the columns sorted concurrently with the graph itself.
+     */
+    public Builder incomingIndex(boolean incomingIndex) {
+      this.incomingIndex = incomingIndex;
+      return this;
+    }
+
+    /**
+     * Adds a blocked Bloom filter of {@code bitsPerEdge} bits per edge, which lets
+     * {@link Graph#getEdgeValue}, {@link Graph#containsEdge} and the other edge lookups reject
+     * most absent edges without searching the columns. 0, the default, builds no filter; 10 bits
+     * per edge give about 1% of false positives, every 5 more bits divide them by about 10.
+     * Existing edges pay for one more cache line read, so the filter suits lookups that mostly
+     * miss.
+     */
+    public Builder edgeFilter(int bitsPerEdge) {
+      if (bitsPerEdge < 0 || bitsPerEdge > EdgeFilter.MAX_BITS_PER_EDGE) {
+        throw new IllegalArgumentException("Bits per edge should be in [0, "
+            + EdgeFilter.MAX_BITS_PER_EDGE + "], given bits per edge = " + bitsPerEdge);
       }
+      this.filterBitsPerEdge = bitsPerEdge;
+      return this;
+    }
 
-      if (vertices1 == null || vertices2 == null || values == null) {
-        throw new IllegalStateException("Adding edge after build()");
+    /** Adds an edge filter sized for about {@code falsePositiveRate} of false positives. */
+    public Builder edgeFilter(double falsePositiveRate) {
+      if (!(falsePositiveRate > 0 && falsePositiveRate < 1)) {
+        throw new IllegalArgumentException("False positive rate should be in (0, 1), given "
+            + "false positive rate = " + falsePositiveRate);
       }
+      this.filterBitsPerEdge = EdgeFilter.bitsPerEdge(falsePositiveRate);
+      return this;
+    }
 
-      vertices1[size] = vertex1;
-      vertices2[size] = vertex2;
-      values[size] = value;
-      size++;
+    /**
+     * Renumbers the vertices in the given order before sorting the edges, defaults to
+     * {@link VertexOrder#NONE}. The ids must be non-negative and dense, like the ids of a
+     * {@link VertexDictionary}: the permutation takes two ints per id up to the largest one.
+     */
+    public Builder vertexOrder(VertexOrder vertexOrder) {
+      this.vertexOrder = Objects.requireNonNull(vertexOrder, "Null vertex order");
+      return this;
+    }
+
+    /** Defaults to {@link DuplicatePolicy#REJECT}. */
+    public Builder duplicatePolicy(DuplicatePolicy duplicatePolicy) {
+      this.duplicatePolicy = Objects.requireNonNull(duplicatePolicy, "Null duplicate policy");
+      return this;
+    }
 
+    public Builder storage(Storage storage) {
+      this.storage = Objects.requireNonNull(storage, "Null storage");
       return this;
     }
 
+    /**
+     * Creates a growable builder whose edges are merged into the graph built by this builder.
+     * Every sub-builder may be filled by its own thread, concurrently with this builder and
+     * the other sub-builders. All of them have to be filled before {@link #build()} is called,
+     * and they can not be built on their own.
+     */
+    public Builder newSubBuilder() {
+      if (parent != null) {
+        return parent.newSubBuilder();
+      }
+
+      Builder subBuilder = new Builder(this);
+      synchronized (subBuilders) {
+        if (edges == null) {
+          throw new IllegalStateException("Creating sub-builder after build()");
+        }
+        subBuilders.add(subBuilder);
+      }
+      return subBuilder;
+    }
+
     public Graph build() {
-      Graph graph = new Graph(this);
-      vertices1 = null;
-      vertices2 = null;
-      values = null;
-      return graph;
+      if (parent != null) {
+        throw new IllegalStateException("Sub-builder is built by its parent builder");
+      }
+
+      List<EdgeBuffer> buffers = new ArrayList<>();
+      synchronized (subBuilders) {
+        buffers.add(buffer());
+        for (Builder subBuilder : subBuilders) {
+          buffers.add(subBuilder.buffer());
+          subBuilder.edges = null;
+        }
+        edges = null;
+      }
+
+      long total = 0;
+      for (EdgeBuffer buffer : buffers) {
+        total += buffer.size();
+      }
+      if (total > EdgeBuffer.MAX_SIZE) {
+        throw new CapacityExceededException("Merged size = " + total + " exceeds "
+            + EdgeBuffer.MAX_SIZE);
+      }
+
+      int size = (int) total;
+      EdgeBuffer first = buffers.get(0);
+      if (buffers.size() == 1 && first.isSingleChunk()) {
+        return new Graph(first.vertices1(), first.vertices2(), first.values(), size, sourceIndex,
+            storage, incomingIndex, duplicatePolicy, filterBitsPerEdge, vertexOrder);
+      }
+
+      int[] vertices1 = new int[size];
+      int[] vertices2 = new int[size];
+      float[] values = new float[size];
+      EdgeBuffer.concat(buffers, vertices1, vertices2, values,
+          size >= EdgeSorter.PARALLEL_THRESHOLD);
+      return new Graph(vertices1, vertices2, values, size, sourceIndex, storage, incomingIndex,
+          duplicatePolicy, filterBitsPerEdge, vertexOrder);
+    }
+
+    private int size() {
+      EdgeBuffer buffer = edges;
+      return buffer == null ? 0 : buffer.size();
+    }
+
+    private EdgeBuffer buffer() {
+      EdgeBuffer buffer = edges;
+      if (buffer == null) {
+        throw new IllegalStateException("Adding edge after build()");
+      }
+      return buffer;
     }
   }
 }
@@ -0,0 +1,475 @@
+package graph;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Binary graph file. All numbers are little-endian. The file starts with a header:
+ *
+ * <pre>
+ * long  magic
+ * int   version
+ * int   section count
+ * long  edge count
+ * section count * {int type, int parameter, long offset, long length}
+ * </pre>
+ *
+ * followed by the sections, each starting at a multiple of {@link #ALIGNMENT} bytes. The sorted
+ * {@code vertices1}, {@code vertices2} and {@code values} columns are mandatory, the source index
+ * sections are present when the graph has one, the {@link #INCOMING} sections when it has an
+ * incoming edge index, the {@link #EDGE_FILTER} section when it has an edge filter and the
+ * {@link #EXTERNAL_IDS} and {@link #INTERNAL_IDS} sections when its vertices were renumbered. A
+ * {@link VertexDictionary} written with the graph is stored in a {@link #LONG_KEYS} or
+ * {@link #STRING_KEYS} section. Readers skip section types they do not know, so optional sections
+ * can be added without a version change.
+ */
+final class GraphFile {
+  static final long MAGIC = 0x4C4F434850415247L;
+  static final int VERSION = 1;
+
+  static final int VERTICES1 = 1;
+  static final int VERTICES2 = 2;
+  static final int VALUES = 3;
+  /** Distinct sources of a sparse index. */
+  static final int ROW_SOURCES = 4;
+  /** Row offsets of a sparse or dense index, the parameter is the first row of a dense one. */
+  static final int ROW_OFFSETS = 5;
+  /** Inner levels of the static B-tree of a {@link SourceIndex#BTREE} index. */
+  static final int ROW_TREE = 6;
+  /** Blocks of the {@link EdgeFilter}, the parameter is its number of hashes. */
+  static final int EDGE_FILTER = 7;
+  /**
+   * Added to the six index types above for the sections of the incoming edge index, which is stored
+   * like a graph whose vertices are swapped.
+   */
+  static final int INCOMING = 8;
+  /** Keys of a {@link LongVertexDictionary} in id order. */
+  static final int LONG_KEYS = 16;
+  /** Keys of a {@link StringVertexDictionary} in id order, the parameter is their count. */
+  static final int STRING_KEYS = 17;
+  /**
+   * External id of every internal id of a {@link VertexPermutation}, the parameter is the ordinal
+   * of its {@link VertexOrder}.
+   */
+  static final int EXTERNAL_IDS = 18;
+  /** Internal id of every external id of a {@link VertexPermutation}. */
+  static final int INTERNAL_IDS = 19;
+
+  private static final int HEADER_SIZE = 24;
+  private static final int SECTION_SIZE = 24;
+  private static final int ALIGNMENT = 64;
+  private static final int MAX_SECTIONS = 1024;
+  private static final int WRITE_BUFFER_SIZE = 1 << 20;
+  private static final int READ_BUFFER_SIZE = 1 << 16;
+
+  private GraphFile() {
+  }
+
+  static void write(Graph graph, Path path) throws IOException {
+    write(graph, null, path);
+  }
+
+  static void write(Graph graph, VertexDictionary dictionary, Path path) throws IOException {
+    int size = graph.size();
+    List<Section> sections = new ArrayList<>();
+    addSections(sections, graph, 0);
+    if (graph.incoming() != null) {
+      addSections(sections, graph.incoming(), INCOMING);
+    }
+    EdgeFilter filter = graph.filter();
+    if (filter != null) {
+      sections.add(Section.ints(EDGE_FILTER, filter.hashes(), filter.bits(),
+          (long) filter.blocks() * EdgeFilter.BLOCK_INTS));
+    }
+    VertexPermutation permutation = graph.permutation();
+    if (permutation != null) {
+      sections.add(Section.ints(EXTERNAL_IDS, permutation.order().ordinal(),
+          permutation.externals(), permutation.size()));
+      sections.add(Section.ints(INTERNAL_IDS, 0, permutation.internals(), permutation.size()));
+    }
+    if (dictionary != null) {
+      sections.add(new Section(dictionary.sectionType(), dictionary.size(), 0,
+          dictionary.sectionLength(), dictionary));
+    }
+
+    long offset = dataOffset(sections.size());
+    for (Section section : sections) {
+      section.offset = offset;
+      offset = align(offset + section.length);
+    }
+
+    try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE,
+        StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+      writeHeader(channel, size, sections);
+      ByteBuffer buffer = ByteBuffer.allocateDirect(WRITE_BUFFER_SIZE)
+          .order(ByteOrder.LITTLE_ENDIAN);
+
+      for (Section section : sections) {
+        channel.position(section.offset);
+        if (section.dictionary != null) {
+          section.dictionary.write(channel, buffer);
+          flush(channel, buffer);
+          continue;
+        }
+        for (long i = 0; i < section.count; i++) {
+          if (buffer.remaining() < Integer.BYTES) {
+            flush(channel, buffer);
+          }
+          if (section.ints != null) {
+            buffer.putInt(section.ints.get(i));
+          } else {
+            buffer.putFloat(section.floats.get(i));
+          }
+        }
+        flush(channel, buffer);
+      }
+
+      channel.truncate(offset);
+    }
+  }
+
+  /** Writes the header and the section table at the start of the channel. */
+  static void writeHeader(FileChannel channel, long size, List<Section> sections)
+      throws IOException {
+    ByteBuffer buffer = ByteBuffer.allocate(HEADER_SIZE + SECTION_SIZE * sections.size())
+        .order(ByteOrder.LITTLE_ENDIAN);
+    buffer.putLong(MAGIC).putInt(VERSION).putInt(sections.size()).putLong(size);
+    for (Section section : sections) {
+      buffer.putInt(section.type).putInt(section.parameter)
+          .putLong(section.offset).putLong(section.length);
+    }
+    buffer.flip();
+    long position = 0;
+    while (buffer.hasRemaining()) {
+      position += channel.write(buffer, position);
+    }
+  }
+
+  /** Offset of the first section of a file with at most {@code sections} sections. */
+  static long dataOffset(int sections) {
+    return align(HEADER_SIZE + (long) SECTION_SIZE * sections);
+  }
+
+  private static void addSections(List<Section> sections, Graph graph, int base) {
+    int size = graph.size();
+    RowIndex rowIndex = graph.rowIndex();
+    sections.add(Section.ints(base + VERTICES1, 0, graph.vertices1(), size));
+    sections.add(Section.ints(base + VERTICES2, 0, graph.vertices2(), size));
+    sections.add(Section.floats(base + VALUES, graph.values(), size));
+    if (rowIndex.sources() != null) {
+      sections.add(Section.ints(base + ROW_SOURCES, 0, rowIndex.sources(), rowIndex.rows()));
+    }
+    if (rowIndex.offsets() != null) {
+      sections.add(Section.ints(base + ROW_OFFSETS, rowIndex.first(), rowIndex.offsets(),
+          rowIndex.rows() + 1L));
+    }
+    if (rowIndex.tree() != null) {
+      sections.add(Section.ints(base + ROW_TREE, 0, rowIndex.tree(),
+          RowIndex.treeLength(rowIndex.rows())));
+    }
+  }
+
+  static Graph map(Path path) throws IOException {
+    return map(path, IntColumn.SEGMENT_SHIFT);
+  }
+
+  static Graph map(Path path, int segmentShift) throws IOException {
+    try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+      List<Section> table = new ArrayList<>();
+      int size = readHeader(channel, table, path);
+      Section[] sections = new Section[INTERNAL_IDS + 1];
+      for (Section section : table) {
+        if (section.type > 0 && section.type < sections.length) {
+          sections[section.type] = section;
+        }
+      }
+
+      Graph incoming = null;
+      if (sections[INCOMING + VERTICES1] != null) {
+        incoming = mapGraph(channel, sections, INCOMING, size, null, path, segmentShift);
+      }
+      return mapGraph(channel, sections, 0, size, incoming, path, segmentShift);
+    }
+  }
+
+  /** Reads the vertex dictionary stored with the graph onto the heap. */
+  static VertexDictionary readDictionary(Path path) throws IOException {
+    try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+      List<Section> sections = new ArrayList<>();
+      readHeader(channel, sections, path);
+      for (Section section : sections) {
+        if (section.type == LONG_KEYS || section.type == STRING_KEYS) {
+          long size = section.type == LONG_KEYS ? section.length / Long.BYTES : section.parameter;
+          if (size < 0 || size > VertexDictionary.MAX_SIZE) {
+            throw new IOException("Corrupted vertex dictionary: " + path);
+          }
+          SectionReader reader = new SectionReader(channel, section, path);
+          return section.type == LONG_KEYS ? LongVertexDictionary.read(reader, (int) size)
+              : StringVertexDictionary.read(reader, (int) size);
+        }
+      }
+      throw new IOException("No vertex dictionary in graph file: " + path);
+    }
+  }
+
+  /** Reads the section table into {@code sections} and returns the edge count. */
+  private static int readHeader(FileChannel channel, List<Section> sections, Path path)
+      throws IOException {
+    long fileSize = channel.size();
+    ByteBuffer header = read(channel, 0, HEADER_SIZE, path);
+
+    if (header.getLong() != MAGIC) {
+      throw new IOException("Not a graph file: " + path);
+    }
+    int version = header.getInt();
+    if (version != VERSION) {
+      throw new IOException("Unsupported graph file version " + version + ": " + path);
+    }
+    int sectionCount = header.getInt();
+    long edgeCount = header.getLong();
+    if (sectionCount < 0 || sectionCount > MAX_SECTIONS
+        || edgeCount < 0 || edgeCount > EdgeBuffer.MAX_SIZE) {
+      throw new IOException("Corrupted graph file header: " + path);
+    }
+
+    ByteBuffer table = read(channel, HEADER_SIZE, SECTION_SIZE * sectionCount, path);
+    for (int i = 0; i < sectionCount; i++) {
+      Section section = new Section(table.getInt(), table.getInt(), table.getLong(),
+          table.getLong());
+      if (section.offset < 0 || section.length < 0
+          || section.length > fileSize - section.offset) {
+        throw new IOException("Section " + section.type + " is out of file bounds: " + path);
+      }
+      sections.add(section);
+    }
+    return (int) edgeCount;
+  }
+
+  private static Graph mapGraph(FileChannel channel, Section[] sections, int base, int size,
+      Graph incoming, Path path, int segmentShift) throws IOException {
+    IntColumn vertices1 = mapInts(channel, required(sections, base + VERTICES1, size, path),
+        segmentShift);
+    IntColumn vertices2 = mapInts(channel, required(sections, base + VERTICES2, size, path),
+        segmentShift);
+    FloatColumn values = FloatColumn.of(
+        map(channel, required(sections, base + VALUES, size, path), segmentShift), segmentShift);
+
+    RowIndex rowIndex;
+    Section offsets = sections[base + ROW_OFFSETS];
+    if (offsets == null) {
+      rowIndex = RowIndex.search(vertices1, size);
+    } else {
+      int rows = (int) (offsets.length / Integer.BYTES) - 1;
+      if (rows < 0) {
+        throw new IOException("Corrupted source index: " + path);
+      }
+      IntColumn offsetsColumn = mapInts(channel, offsets, segmentShift);
+      Section sources = sections[base + ROW_SOURCES];
+      if (sources == null) {
+        rowIndex = RowIndex.dense(offsets.parameter, offsetsColumn, rows);
+      } else if (sections[base + ROW_TREE] != null) {
+        rowIndex = RowIndex.btree(mapInts(channel,
+            required(sections, base + ROW_SOURCES, rows, path), segmentShift), offsetsColumn,
+            mapInts(channel, required(sections, base + ROW_TREE, RowIndex.treeLength(rows), path),
+                segmentShift), rows);
+      } else {
+        rowIndex = RowIndex.sparse(mapInts(channel,
+            required(sections, base + ROW_SOURCES, rows, path), segmentShift), offsetsColumn,
+            rows);
+      }
+    }
+
+    EdgeFilter filter = null;
+    Section filterSection = base == 0 ? sections[EDGE_FILTER] : null;
+    if (filterSection != null) {
+      long blocks = filterSection.length / (EdgeFilter.BLOCK_BITS / Byte.SIZE);
+      if (blocks < 1 || blocks * EdgeFilter.BLOCK_INTS > EdgeBuffer.MAX_SIZE
+          || filterSection.parameter < 1 || filterSection.parameter > EdgeFilter.MAX_HASHES) {
+        throw new IOException("Corrupted edge filter: " + path);
+      }
+      filter = new EdgeFilter(mapInts(channel, required(sections, EDGE_FILTER,
+          blocks * EdgeFilter.BLOCK_INTS, path), segmentShift), (int) blocks,
+          filterSection.parameter);
+    }
+
+    VertexPermutation permutation = null;
+    Section externals = base == 0 ? sections[EXTERNAL_IDS] : null;
+    if (externals != null) {
+      long vertices = externals.length / Integer.BYTES;
+      if (vertices > Integer.MAX_VALUE || externals.parameter <= VertexOrder.NONE.ordinal()
+          || externals.parameter >= VertexOrder.values().length) {
+        throw new IOException("Corrupted vertex permutation: " + path);
+      }
+      permutation = new VertexPermutation(VertexOrder.values()[externals.parameter],
+          mapInts(channel, required(sections, EXTERNAL_IDS, vertices, path), segmentShift),
+          mapInts(channel, required(sections, INTERNAL_IDS, vertices, path), segmentShift),
+          (int) vertices);
+    }
+
+    return new Graph(vertices1, vertices2, values, size, rowIndex, incoming, filter, permutation);
+  }
+
+  private static Section required(Section[] sections, int type, long count, Path path)
+      throws IOException {
+    Section section = sections[type];
+    if (section == null) {
+      throw new IOException("Missing section " + type + ": " + path);
+    }
+    if (section.length != count * Integer.BYTES) {
+      throw new IOException("Section " + type + " has " + section.length + " bytes, expected "
+          + count * Integer.BYTES + ": " + path);
+    }
+    return section;
+  }
+
+  private static IntColumn mapInts(FileChannel channel, Section section, int segmentShift)
+      throws IOException {
+    return IntColumn.of(map(channel, section, segmentShift), segmentShift);
+  }
+
+  static ByteBuffer[] map(FileChannel channel, Section section, int segmentShift)
+      throws IOException {
+    long segmentBytes = (long) Integer.BYTES << segmentShift;
+    int segments = (int) ((section.length + segmentBytes - 1) / segmentBytes);
+    ByteBuffer[] buffers = new ByteBuffer[segments];
+    for (int i = 0; i < segments; i++) {
+      long position = section.offset + i * segmentBytes;
+      long length = Math.min(segmentBytes, section.length - i * segmentBytes);
+      buffers[i] = channel.map(MapMode.READ_ONLY, position, length)
+          .order(ByteOrder.LITTLE_ENDIAN);
+    }
+    return buffers;
+  }
+
+  private static ByteBuffer read(FileChannel channel, long position, int length, Path path)
+      throws IOException {
+    ByteBuffer buffer = ByteBuffer.allocate(length).order(ByteOrder.LITTLE_ENDIAN);
+    while (buffer.hasRemaining()) {
+      if (channel.read(buffer, position + buffer.position()) < 0) {
+        throw new IOException("Truncated graph file: " + path);
+      }
+    }
+    buffer.flip();
+    return buffer;
+  }
+
+  static void flush(FileChannel channel, ByteBuffer buffer) throws IOException {
+    buffer.flip();
+    while (buffer.hasRemaining()) {
+      channel.write(buffer);
+    }
+    buffer.clear();
+  }
+
+  static long align(long offset) {
+    return (offset + ALIGNMENT - 1) / ALIGNMENT * ALIGNMENT;
+  }
+
+  static final class Section {
+    final int type;
+    final int parameter;
+    long offset;
+    final long length;
+    final long count;
+    final IntColumn ints;
+    final FloatColumn floats;
+    final VertexDictionary dictionary;
+
+    Section(int type, int parameter, long offset, long length) {
+      this(type, parameter, offset, length, null, null, null);
+    }
+
+    private Section(int type, int parameter, long offset, long length,
+        VertexDictionary dictionary) {
+      this(type, parameter, offset, length, null, null, dictionary);
+    }
+
+    private Section(int type, int parameter, long offset, long length, IntColumn ints,
+        FloatColumn floats, VertexDictionary dictionary) {
+      this.type = type;
+      this.parameter = parameter;
+      this.offset = offset;
+      this.length = length;
+      this.count = length / Integer.BYTES;
+      this.ints = ints;
+      this.floats = floats;
+      this.dictionary = dictionary;
+    }
+
+    static Section ints(int type, int parameter, IntColumn column, long count) {
+      return new Section(type, parameter, 0, count * Integer.BYTES, column, null, null);
+    }
+
+    static Section floats(int type, FloatColumn column, long count) {
+      return new Section(type, 0, 0, count * Float.BYTES, null, column, null);
+    }
+  }
+
+  /** Reads a section sequentially through a heap buffer. */
+  static final class SectionReader {
+    private final FileChannel channel;
+    private final Path path;
+    private final long end;
+    /** File offset of the first byte not read into the buffer. */
+    private long position;
+    private ByteBuffer buffer;
+
+    SectionReader(FileChannel channel, Section section, Path path) {
+      this.channel = channel;
+      this.path = path;
+      this.position = section.offset;
+      this.end = section.offset + section.length;
+      this.buffer = ByteBuffer.allocate((int) Math.min(READ_BUFFER_SIZE, section.length))
+          .order(ByteOrder.LITTLE_ENDIAN);
+      buffer.limit(0);
+    }
+
+    long getLong() throws IOException {
+      fill(Long.BYTES);
+      return buffer.getLong();
+    }
+
+    int getInt() throws IOException {
+      fill(Integer.BYTES);
+      return buffer.getInt();
+    }
+
+    byte[] getBytes(int length) throws IOException {
+      byte[] bytes = new byte[length];
+      fill(length);
+      buffer.get(bytes);
+      return bytes;
+    }
+
+    /** Makes sure the buffer has {@code bytes} remaining bytes. */
+    private void fill(int bytes) throws IOException {
+      if (buffer.remaining() >= bytes) {
+        return;
+      }
+      if (buffer.remaining() + end - position < bytes) {
+        throw new IOException("Vertex dictionary section is truncated: " + path);
+      }
+      if (bytes > buffer.capacity()) {
+        buffer = ByteBuffer.allocate(bytes).order(ByteOrder.LITTLE_ENDIAN).put(buffer);
+      } else {
+        buffer.compact();
+      }
+      buffer.limit((int) Math.min(buffer.capacity(), buffer.position() + end - position));
+      while (buffer.hasRemaining()) {
+        int read = channel.read(buffer, position);
+        if (read < 0) {
+          throw new IOException("Truncated graph file: " + path);
+        }
+        position += read;
+      }
+      buffer.flip();
+    }
+  }
+}
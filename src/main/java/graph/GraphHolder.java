@@ -0,0 +1,281 @@
+package graph;
+
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Holds the current version of a {@link Graph} that is rebuilt from time to time while many
+ * threads read it. Readers {@link #acquire()} a snapshot of the current version, which stays
+ * readable until they close it, even after a newer version is published. Every version counts
+ * its readers in cache line padded stripes chosen by thread id, so readers of the same version do
+ * not contend. Once a version is replaced and its last reader closes it, its off-heap or mapped
+ * storage is released right away instead of on garbage collection, so at most the versions still
+ * being read are live besides the current one.
+ *
+ * <p>The holder owns the published graphs: they must not be read other than through a snapshot,
+ * and must not be published twice.
+ */
+public final class GraphHolder implements AutoCloseable {
+  /** Longs per stripe, so that every stripe sits on its own cache line. */
+  private static final int PADDING = 8;
+  private static final int STRIPES = Math.min(64,
+      Integer.highestOneBit(Runtime.getRuntime().availableProcessors() * 2 - 1));
+
+  private volatile Snapshot current;
+  private long version;
+
+  private long publishes;
+  private long lastBuildNanos;
+  private long maxBuildNanos;
+  private long totalBuildNanos;
+  private long lastPublishNanos;
+  private final AtomicLong lastReleaseDelayNanos = new AtomicLong();
+  private final AtomicInteger retainedVersions = new AtomicInteger();
+
+  public GraphHolder(Graph graph) {
+    this.current = new Snapshot(Objects.requireNonNull(graph, "Null graph"), 0);
+  }
+
+  /**
+   * The snapshot of the current version, which must be closed exactly once when done. All
+   * acquires of the same version return the same snapshot. Only retries when a new version is
+   * published at the same time.
+   */
+  public Snapshot acquire() {
+    int stripe = (int) Thread.currentThread().getId() & STRIPES - 1;
+    while (true) {
+      Snapshot snapshot = current;
+      if (snapshot == null) {
+        throw new IllegalStateException("Graph holder is closed");
+      }
+      snapshot.readers.getAndIncrement(stripe * PADDING);
+      if (!snapshot.retired) {
+        return snapshot;
+      }
+      snapshot.exit(stripe);
+    }
+  }
+
+  /** Applies the function to the current version, acquiring and closing a snapshot around it. */
+  public <T> T read(Function<Graph, T> function) {
+    Objects.requireNonNull(function, "Null function");
+    try (Snapshot snapshot = acquire()) {
+      return function.apply(snapshot.graph());
+    }
+  }
+
+  /** Number of the current version, 0 for the graph given to the constructor. */
+  public long version() {
+    Snapshot snapshot = current;
+    if (snapshot == null) {
+      throw new IllegalStateException("Graph holder is closed");
+    }
+    return snapshot.version;
+  }
+
+  /** Builds a graph and publishes it, recording how long the build took. */
+  public long publish(Supplier<Graph> builder) {
+    Objects.requireNonNull(builder, "Null builder");
+    long start = System.nanoTime();
+    Graph graph = builder.get();
+    return publish(graph, System.nanoTime() - start);
+  }
+
+  /**
+   * Makes the graph the current version and returns its number. The replaced version is
+   * released when its last snapshot is closed.
+   */
+  public long publish(Graph graph) {
+    return publish(graph, -1);
+  }
+
+  private synchronized long publish(Graph graph, long buildNanos) {
+    Objects.requireNonNull(graph, "Null graph");
+    long start = System.nanoTime();
+    Snapshot previous = current;
+    if (previous == null) {
+      throw new IllegalStateException("Graph holder is closed");
+    }
+    if (previous.graph == graph) {
+      throw new IllegalArgumentException("Graph is already published");
+    }
+    current = new Snapshot(graph, ++version);
+    previous.retire();
+
+    publishes++;
+    lastPublishNanos = System.nanoTime() - start;
+    if (buildNanos >= 0) {
+      lastBuildNanos = buildNanos;
+      maxBuildNanos = Math.max(maxBuildNanos, buildNanos);
+      totalBuildNanos += buildNanos;
+    }
+    return version;
+  }
+
+  public synchronized Metrics metrics() {
+    return new Metrics(publishes, lastBuildNanos, maxBuildNanos, totalBuildNanos,
+        lastPublishNanos, lastReleaseDelayNanos.get(), retainedVersions.get());
+  }
+
+  /**
+   * Retires the current version, which is released when its last snapshot is closed. Acquiring
+   * or publishing afterwards throws {@link IllegalStateException}.
+   */
+  @Override
+  public synchronized void close() {
+    Snapshot previous = current;
+    if (previous != null) {
+      current = null;
+      previous.retire();
+    }
+  }
+
+  @Override
+  public String toString() {
+    Snapshot snapshot = current;
+    return "GraphHolder{" +
+        "version=" + (snapshot == null ? "closed" : snapshot.version) +
+        ", retainedVersions=" + retainedVersions.get() +
+        '}';
+  }
+
+  /** A version of the graph, readable until closed. */
+  public final class Snapshot implements AutoCloseable {
+    private final Graph graph;
+    private final long version;
+    private final AtomicLongArray readers = new AtomicLongArray(STRIPES * PADDING);
+    private final AtomicBoolean released = new AtomicBoolean();
+    private long retiredAt;
+    private volatile boolean retired;
+
+    private Snapshot(Graph graph, long version) {
+      this.graph = graph;
+      this.version = version;
+    }
+
+    public Graph graph() {
+      return graph;
+    }
+
+    public long version() {
+      return version;
+    }
+
+    @Override
+    public void close() {
+      exit((int) Thread.currentThread().getId() & STRIPES - 1);
+    }
+
+    private void exit(int stripe) {
+      readers.getAndDecrement(stripe * PADDING);
+      if (retired) {
+        tryRelease();
+      }
+    }
+
+    private void retire() {
+      retiredAt = System.nanoTime();
+      retainedVersions.incrementAndGet();
+      retired = true;
+      tryRelease();
+    }
+
+    /**
+     * Releases the graph once no reader is left. Readers increment their stripe before they
+     * check {@link #retired}, so a reader either backs off or is counted here; a stripe can only
+     * be read too high, by a reader that then releases itself when it exits.
+     */
+    private void tryRelease() {
+      long count = 0;
+      for (int stripe = 0; stripe < STRIPES; stripe++) {
+        count += readers.get(stripe * PADDING);
+      }
+      if (count == 0 && released.compareAndSet(false, true)) {
+        graph.release();
+        lastReleaseDelayNanos.set(System.nanoTime() - retiredAt);
+        retainedVersions.decrementAndGet();
+      }
+    }
+
+    @Override
+    public String toString() {
+      return "Snapshot{" +
+          "version=" + version +
+          ", size=" + graph.size() +
+          '}';
+    }
+  }
+
+  /** Counters of the holder, in nanoseconds for durations. */
+  public static final class Metrics {
+    private final long publishes;
+    private final long lastBuildNanos;
+    private final long maxBuildNanos;
+    private final long totalBuildNanos;
+    private final long lastPublishNanos;
+    private final long lastReleaseDelayNanos;
+    private final int retainedVersions;
+
+    private Metrics(long publishes, long lastBuildNanos, long maxBuildNanos,
+        long totalBuildNanos, long lastPublishNanos, long lastReleaseDelayNanos,
+        int retainedVersions) {
+      this.publishes = publishes;
+      this.lastBuildNanos = lastBuildNanos;
+      this.maxBuildNanos = maxBuildNanos;
+      this.totalBuildNanos = totalBuildNanos;
+      this.lastPublishNanos = lastPublishNanos;
+      this.lastReleaseDelayNanos = lastReleaseDelayNanos;
+      this.retainedVersions = retainedVersions;
+    }
+
+    public long publishes() {
+      return publishes;
+    }
+
+    /** Build time of the last graph published with {@link #publish(Supplier)}. */
+    public long lastBuildNanos() {
+      return lastBuildNanos;
+    }
+
+    public long maxBuildNanos() {
+      return maxBuildNanos;
+    }
+
+    public long totalBuildNanos() {
+      return totalBuildNanos;
+    }
+
+    /** Time the last publish took to swap the versions, without building. */
+    public long lastPublishNanos() {
+      return lastPublishNanos;
+    }
+
+    /** Time between the retirement and the release of the last released version. */
+    public long lastReleaseDelayNanos() {
+      return lastReleaseDelayNanos;
+    }
+
+    /** Versions replaced but not released yet because snapshots of them are still open. */
+    public int retainedVersions() {
+      return retainedVersions;
+    }
+
+    @Override
+    public String toString() {
+      return "Metrics{" +
+          "publishes=" + publishes +
+          ", lastBuildNanos=" + lastBuildNanos +
+          ", maxBuildNanos=" + maxBuildNanos +
+          ", totalBuildNanos=" + totalBuildNanos +
+          ", lastPublishNanos=" + lastPublishNanos +
+          ", lastReleaseDelayNanos=" + lastReleaseDelayNanos +
+          ", retainedVersions=" + retainedVersions +
+          '}';
+    }
+  }
+}
@@ -0,0 +1,92 @@
+package graph;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * Read-only column of ints addressed by a {@code long} index. Backed either by a heap array or by
+ * little-endian byte buffers of {@link #SEGMENT_SIZE} elements each (the last one may be shorter),
+ * so a column can exceed the 2 GB limit of a single buffer.
+ */
+abstract class IntColumn {
+  static final int SEGMENT_SHIFT = 28;
+  static final int SEGMENT_SIZE = 1 << SEGMENT_SHIFT;
+
+  abstract int get(long index);
+
+  /** Where the column is kept, memory-mapped columns count as {@link Storage#OFF_HEAP}. */
+  abstract Storage storage();
+
+  /** Frees off-heap or mapped memory, after which the column must not be read. */
+  void release() {
+  }
+
+  static IntColumn of(int[] array) {
+    return new HeapIntColumn(array);
+  }
+
+  /**
+   * Copies the first {@code length} elements of the array into direct byte buffers outside of the
+   * Java heap.
+   */
+  static IntColumn offHeap(int[] array, int length) {
+    ByteBuffer[] segments = new ByteBuffer[(int) ((length + SEGMENT_SIZE - 1L) / SEGMENT_SIZE)];
+    for (int i = 0; i < segments.length; i++) {
+      int offset = i * SEGMENT_SIZE;
+      int count = Math.min(SEGMENT_SIZE, length - offset);
+      segments[i] = ByteBuffer.allocateDirect(count * Integer.BYTES)
+          .order(ByteOrder.LITTLE_ENDIAN);
+      segments[i].asIntBuffer().put(array, offset, count);
+    }
+    return of(segments, SEGMENT_SHIFT);
+  }
+
+  static IntColumn of(ByteBuffer[] segments, int segmentShift) {
+    return new BufferIntColumn(segments, segmentShift);
+  }
+
+  private static final class HeapIntColumn extends IntColumn {
+    private final int[] array;
+
+    HeapIntColumn(int[] array) {
+      this.array = array;
+    }
+
+    @Override
+    int get(long index) {
+      return array[(int) index];
+    }
+
+    @Override
+    Storage storage() {
+      return Storage.HEAP;
+    }
+  }
+
+  private static final class BufferIntColumn extends IntColumn {
+    private final ByteBuffer[] segments;
+    private final int segmentShift;
+    private final long segmentMask;
+
+    BufferIntColumn(ByteBuffer[] segments, int segmentShift) {
+      this.segments = segments;
+      this.segmentShift = segmentShift;
+      this.segmentMask = (1L << segmentShift) - 1;
+    }
+
+    @Override
+    int get(long index) {
+      return segments[(int) (index >>> segmentShift)].getInt((int) (index & segmentMask) << 2);
+    }
+
+    @Override
+    Storage storage() {
+      return Storage.OFF_HEAP;
+    }
+
+    @Override
+    void release() {
+      Storage.release(segments);
+    }
+  }
+}
@@ -0,0 +1,58 @@
+package graph;
+
+import java.util.Iterator;
+import java.util.Optional;
+
+/** Shard graph in this JVM, called directly. Closing it releases the graph. */
+final class LocalShard implements Shard {
+  private final Graph graph;
+
+  LocalShard(Graph graph) {
+    this.graph = graph;
+  }
+
+  @Override
+  public int size() {
+    return graph.size();
+  }
+
+  @Override
+  public Optional<Float> getEdgeValue(int vertex1, int vertex2) {
+    return graph.getEdgeValue(vertex1, vertex2);
+  }
+
+  @Override
+  public boolean containsEdge(int vertex1, int vertex2) {
+    return graph.containsEdge(vertex1, vertex2);
+  }
+
+  @Override
+  public void getEdgeValues(int[] vertices1, int[] vertices2, float[] values, boolean[] found) {
+    graph.getEdgeValues(vertices1, vertices2, values, found);
+  }
+
+  @Override
+  public int outDegree(int vertex) {
+    return graph.outDegree(vertex);
+  }
+
+  @Override
+  public Iterator<Edge> vertexIterator(int vertex) {
+    return graph.vertexIterator(vertex);
+  }
+
+  @Override
+  public void forEachEdge(EdgeConsumer consumer) {
+    graph.forEachEdge(consumer);
+  }
+
+  @Override
+  public void close() {
+    graph.release();
+  }
+
+  @Override
+  public String toString() {
+    return "LocalShard{size=" + graph.size() + "}";
+  }
+}
@@ -0,0 +1,140 @@
+package graph;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+/**
+ * {@link VertexDictionary} of {@code long} keys. Every table slot holds a key next to its id, so
+ * a probe reads a single cache line.
+ */
+public final class LongVertexDictionary extends VertexDictionary {
+  private static final long GOLDEN_RATIO = 0x9E3779B97F4A7C15L;
+
+  /** Pairs of a key and its id plus one, empty slots have a 0 id. */
+  private long[] table;
+  private int shift;
+  private int threshold;
+  private long[] keys;
+
+  public LongVertexDictionary() {
+    this(0);
+  }
+
+  public LongVertexDictionary(int expectedSize) {
+    int slots = slots(expectedSize);
+    this.table = new long[slots * 2];
+    this.shift = Long.numberOfLeadingZeros(slots) + 1;
+    this.threshold = threshold(slots);
+    this.keys = new long[Math.max(MIN_SLOTS, expectedSize)];
+  }
+
+  /**
+   * Reads the dictionary stored with a graph by {@link Graph#writeTo(Path, VertexDictionary)}.
+   * The keys are copied onto the heap.
+   */
+  public static LongVertexDictionary read(Path path) throws IOException {
+    VertexDictionary dictionary = GraphFile.readDictionary(path);
+    if (!(dictionary instanceof LongVertexDictionary)) {
+      throw new IOException("No long vertex dictionary in graph file: " + path);
+    }
+    return (LongVertexDictionary) dictionary;
+  }
+
+  /** Returns the id of {@code key}, adding it with the next id when it is not in the dictionary. */
+  public int add(long key) {
+    int mask = table.length - 1;
+    int index = index(key);
+    for (long id = table[index + 1]; id != 0; id = table[index + 1]) {
+      if (table[index] == key) {
+        return (int) id - 1;
+      }
+      index = (index + 2) & mask;
+    }
+
+    checkSizeLimit();
+    if (size == keys.length) {
+      keys = Arrays.copyOf(keys, grow(size));
+    }
+    int id = size++;
+    keys[id] = key;
+    table[index] = key;
+    table[index + 1] = id + 1;
+    if (size > threshold) {
+      rehash();
+    }
+    return id;
+  }
+
+  /** Returns the id of {@code key}, or -1 when it is not in the dictionary. */
+  public int id(long key) {
+    int mask = table.length - 1;
+    int index = index(key);
+    for (long id = table[index + 1]; id != 0; id = table[index + 1]) {
+      if (table[index] == key) {
+        return (int) id - 1;
+      }
+      index = (index + 2) & mask;
+    }
+    return -1;
+  }
+
+  public long key(int id) {
+    checkId(id);
+    return keys[id];
+  }
+
+  /** Index of the first slot probed for {@code key}. */
+  private int index(long key) {
+    return (int) ((key * GOLDEN_RATIO) >>> shift) << 1;
+  }
+
+  private void rehash() {
+    int slots = table.length;
+    table = new long[slots * 2];
+    shift--;
+    threshold = threshold(slots);
+    int mask = table.length - 1;
+    for (int id = 0; id < size; id++) {
+      int index = index(keys[id]);
+      while (table[index + 1] != 0) {
+        index = (index + 2) & mask;
+      }
+      table[index] = keys[id];
+      table[index + 1] = id + 1;
+    }
+  }
+
+  @Override
+  int sectionType() {
+    return GraphFile.LONG_KEYS;
+  }
+
+  @Override
+  long sectionLength() {
+    return (long) size * Long.BYTES;
+  }
+
+  @Override
+  void write(FileChannel channel, ByteBuffer buffer) throws IOException {
+    for (int id = 0; id < size; id++) {
+      if (buffer.remaining() < Long.BYTES) {
+        GraphFile.flush(channel, buffer);
+      }
+      buffer.putLong(keys[id]);
+    }
+  }
+
+  static LongVertexDictionary read(GraphFile.SectionReader reader, int size) throws IOException {
+    LongVertexDictionary dictionary = new LongVertexDictionary(size);
+    for (int id = 0; id < size; id++) {
+      long key = reader.getLong();
+      if (dictionary.add(key) != id) {
+        throw new IOException("Duplicate key " + key + " in vertex dictionary");
+      }
+    }
+    return dictionary;
+  }
+}
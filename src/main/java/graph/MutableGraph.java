@@ -0,0 +1,504 @@
+package graph;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Updatable graph on top of an immutable, sorted base {@link Graph}. Inserts, updates and deletes
+ * go to a concurrent sorted delta that overrides the base; lookups and iterators merge the two.
+ * Once the delta holds {@code compactionThreshold} edges a background thread freezes it, starts
+ * a new delta for further updates and merges the frozen one with the base into a new base, in one
+ * linear pass over both. Readers work on an immutable snapshot of base and deltas and never
+ * block; updates only wait while a delta is being frozen. Compaction keeps the storage and the
+ * edge filter of the base, but neither uses nor keeps its incoming edge index. The base graph
+ * must keep its vertex ids, see {@link Graph.Builder#vertexOrder(VertexOrder)}.
+ */
+public final class MutableGraph implements Iterable<Edge>, AutoCloseable {
+  static final int DEFAULT_COMPACTION_THRESHOLD = 1 << 20;
+  private static final int MIN_FILTER_BITS = 1 << 16;
+  private static final int MAX_FILTER_BITS = 1 << 26;
+
+  private final int compactionThreshold;
+  private final SourceIndex sourceIndex;
+  private final Storage storage;
+  private final int filterBitsPerEdge;
+  private final ReadWriteLock deltaLock = new ReentrantReadWriteLock();
+  private final Object compactionLock = new Object();
+  private final AtomicBoolean compactionScheduled = new AtomicBoolean();
+  private final ExecutorService compactor = Executors.newSingleThreadExecutor(runnable -> {
+    Thread thread = new Thread(runnable, "graph-compaction");
+    thread.setDaemon(true);
+    return thread;
+  });
+  private volatile Snapshot snapshot;
+  private volatile Throwable compactionFailure;
+
+  public MutableGraph(Graph base) {
+    this(base, DEFAULT_COMPACTION_THRESHOLD);
+  }
+
+  /**
+   * Compacts with the source index type of {@code base}, except that a {@link SourceIndex#DENSE}
+   * index, possibly picked by {@link SourceIndex#AUTO}, is rebuilt as {@link SourceIndex#AUTO}:
+   * a source far from the others then gets a sparse index instead of a huge dense one.
+   */
+  public MutableGraph(Graph base, int compactionThreshold) {
+    this(base, compactionThreshold, base == null || base.rowIndex().type() == SourceIndex.DENSE
+        ? SourceIndex.AUTO : base.rowIndex().type());
+  }
+
+  /** Compacts with the given source index type, see {@link Graph.Builder#sourceIndex}. */
+  public MutableGraph(Graph base, int compactionThreshold, SourceIndex sourceIndex) {
+    Objects.requireNonNull(base, "Null base graph");
+    Objects.requireNonNull(sourceIndex, "Null source index");
+    if (base.vertexOrder() != VertexOrder.NONE) {
+      throw new IllegalArgumentException("Base graph should keep its vertex ids, given vertex "
+          + "order = " + base.vertexOrder());
+    }
+    if (compactionThreshold < 1) {
+      throw new IllegalArgumentException("Compaction threshold should be >= 1, given threshold = "
+          + compactionThreshold);
+    }
+    this.compactionThreshold = compactionThreshold;
+    this.sourceIndex = sourceIndex;
+    this.storage = base.vertices1().storage();
+    this.filterBitsPerEdge = base.filter() == null ? 0 : base.filter().bitsPerEdge();
+    this.snapshot = new Snapshot(base, null, new Delta(compactionThreshold));
+  }
+
+  /** Inserts the edge or updates its value. */
+  public void putEdge(int vertex1, int vertex2, float value) {
+    update(vertex1, vertex2, new Update(value, false));
+  }
+
+  /** Removes the edge if present. */
+  public void removeEdge(int vertex1, int vertex2) {
+    update(vertex1, vertex2, new Update(0, true));
+  }
+
+  private void update(int vertex1, int vertex2, Update update) {
+    int deltaSize;
+    deltaLock.readLock().lock();
+    try {
+      Delta delta = snapshot.active;
+      delta.put(key(vertex1, vertex2), update);
+      deltaSize = delta.size.get();
+    } finally {
+      deltaLock.readLock().unlock();
+    }
+
+    if (deltaSize >= compactionThreshold && compactionFailure == null
+        && compactionScheduled.compareAndSet(false, true)) {
+      try {
+        compactor.execute(() -> {
+          try {
+            compact();
+          } catch (RuntimeException | Error e) {
+            compactionFailure = e;
+          } finally {
+            compactionScheduled.set(false);
+          }
+        });
+      } catch (RejectedExecutionException e) {
+        compactionScheduled.set(false);
+      }
+    }
+  }
+
+  public Optional<Float> getEdgeValue(int vertex1, int vertex2) {
+    Snapshot current = snapshot;
+    Update update = current.find(key(vertex1, vertex2));
+    if (update != null) {
+      return update.removed ? Optional.empty() : Optional.of(update.value);
+    }
+    return current.base.getEdgeValue(vertex1, vertex2);
+  }
+
+  public float getEdgeValueOrDefault(int vertex1, int vertex2, float defaultValue) {
+    Snapshot current = snapshot;
+    Update update = current.find(key(vertex1, vertex2));
+    if (update != null) {
+      return update.removed ? defaultValue : update.value;
+    }
+    return current.base.getEdgeValueOrDefault(vertex1, vertex2, defaultValue);
+  }
+
+  public boolean containsEdge(int vertex1, int vertex2) {
+    Snapshot current = snapshot;
+    Update update = current.find(key(vertex1, vertex2));
+    return update != null ? !update.removed : current.base.containsEdge(vertex1, vertex2);
+  }
+
+  /** Out-edges of the vertex in the current snapshot, ordered by target. */
+  public Iterator<Edge> vertexIterator(int vertex) {
+    Snapshot current = snapshot;
+    RowIndex rowIndex = current.base.rowIndex();
+    int row = rowIndex.find(vertex);
+    long from = key(vertex, Integer.MIN_VALUE);
+    long to = key(vertex, Integer.MAX_VALUE);
+    return new MergingIterator(current.base, row < 0 ? 0 : rowIndex.start(row),
+        row < 0 ? 0 : rowIndex.end(row), current.deltas(from, to));
+  }
+
+  /** All edges of the current snapshot in sorted order. */
+  @Override
+  public Iterator<Edge> iterator() {
+    Snapshot current = snapshot;
+    return new MergingIterator(current.base, 0, current.base.size(),
+        current.deltas(Long.MIN_VALUE, Long.MAX_VALUE));
+  }
+
+  /**
+   * Number of edges in the current snapshot. Looks up every delta edge in the base, so it costs
+   * time in the size of the deltas.
+   */
+  public int size() {
+    Snapshot current = snapshot;
+    int size = current.base.size();
+    Iterator<Map.Entry<Long, Update>> deltas = current.deltas(Long.MIN_VALUE, Long.MAX_VALUE);
+    while (deltas.hasNext()) {
+      Map.Entry<Long, Update> entry = deltas.next();
+      long key = entry.getKey();
+      boolean inBase = current.base.containsEdge(vertex1(key), vertex2(key));
+      if (inBase && entry.getValue().removed) {
+        size--;
+      } else if (!inBase && !entry.getValue().removed) {
+        size++;
+      }
+    }
+    return size;
+  }
+
+  /** Edges in the deltas that are not compacted yet. */
+  public int deltaSize() {
+    Snapshot current = snapshot;
+    return current.active.size.get() + (current.frozen == null ? 0 : current.frozen.size.get());
+  }
+
+  /** The current base graph, without the updates in the deltas. */
+  public Graph base() {
+    return snapshot.base;
+  }
+
+  /**
+   * Why the last background compaction failed, empty if it did not. Background compaction stops
+   * after a failure, as it would fail again on the same edges: the deltas keep growing until a
+   * call to {@link #compact()} succeeds, which resumes it.
+   */
+  public Optional<Throwable> compactionFailure() {
+    return Optional.ofNullable(compactionFailure);
+  }
+
+  /**
+   * Merges the current delta into a new base graph and returns it. Runs in the calling thread;
+   * updates made meanwhile go to a new delta. If merging fails the frozen delta is folded back
+   * into the new one, so no update is lost.
+   */
+  public Graph compact() {
+    synchronized (compactionLock) {
+      Snapshot frozen;
+      deltaLock.writeLock().lock();
+      try {
+        Snapshot current = snapshot;
+        if (current.active.size.get() == 0) {
+          compactionFailure = null;
+          return current.base;
+        }
+        frozen = new Snapshot(current.base, current.active, new Delta(compactionThreshold));
+        snapshot = frozen;
+      } finally {
+        deltaLock.writeLock().unlock();
+      }
+
+      Graph merged;
+      try {
+        merged = merge(frozen.base, frozen.frozen);
+      } catch (RuntimeException | Error e) {
+        for (Map.Entry<Long, Update> entry : frozen.frozen.edges.entrySet()) {
+          frozen.active.putIfAbsent(entry.getKey(), entry.getValue());
+        }
+        snapshot = new Snapshot(frozen.base, null, frozen.active);
+        throw e;
+      }
+      snapshot = new Snapshot(merged, null, frozen.active);
+      compactionFailure = null;
+      return merged;
+    }
+  }
+
+  /**
+   * Stops the background compaction, waiting for a running one to finish. The graph stays
+   * usable, further compactions only run through {@link #compact()}.
+   */
+  @Override
+  public void close() {
+    compactor.shutdown();
+    try {
+      compactor.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  private Graph merge(Graph base, Delta delta) {
+    IntColumn baseVertices1 = base.vertices1();
+    IntColumn baseVertices2 = base.vertices2();
+    FloatColumn baseValues = base.values();
+    int baseSize = base.size();
+    long capacity = (long) baseSize + delta.size.get();
+    if (capacity > Integer.MAX_VALUE - 8) {
+      throw new CapacityExceededException("Merged size = " + capacity + " exceeds "
+          + (Integer.MAX_VALUE - 8));
+    }
+    int[] vertices1 = new int[(int) capacity];
+    int[] vertices2 = new int[(int) capacity];
+    float[] values = new float[(int) capacity];
+
+    int size = 0;
+    int index = 0;
+    for (Map.Entry<Long, Update> entry : delta.edges.entrySet()) {
+      long key = entry.getKey();
+      for (; index < baseSize
+          && key(baseVertices1.get(index), baseVertices2.get(index)) < key; index++) {
+        vertices1[size] = baseVertices1.get(index);
+        vertices2[size] = baseVertices2.get(index);
+        values[size++] = baseValues.get(index);
+      }
+      if (index < baseSize && key(baseVertices1.get(index), baseVertices2.get(index)) == key) {
+        index++;
+      }
+      Update update = entry.getValue();
+      if (!update.removed) {
+        vertices1[size] = vertex1(key);
+        vertices2[size] = vertex2(key);
+        values[size++] = update.value;
+      }
+    }
+    for (; index < baseSize; index++) {
+      vertices1[size] = baseVertices1.get(index);
+      vertices2[size] = baseVertices2.get(index);
+      values[size++] = baseValues.get(index);
+    }
+
+    IntColumn column = storage.ints(vertices1, size);
+    return new Graph(column, storage.ints(vertices2, size), storage.floats(values, size), size,
+        RowIndex.build(sourceIndex, vertices1, column, size, storage), null,
+        filterBitsPerEdge == 0 ? null
+            : EdgeFilter.build(vertices1, vertices2, size, filterBitsPerEdge, storage));
+  }
+
+  /** Orders like the sorted columns: by source, then by target, both signed. */
+  static long key(int vertex1, int vertex2) {
+    return (long) vertex1 << 32 | (vertex2 ^ Integer.MIN_VALUE) & 0xFFFFFFFFL;
+  }
+
+  static int vertex1(long key) {
+    return (int) (key >> 32);
+  }
+
+  static int vertex2(long key) {
+    return (int) key ^ Integer.MIN_VALUE;
+  }
+
+  private static final class Update {
+    private final float value;
+    private final boolean removed;
+
+    Update(float value, boolean removed) {
+      this.value = value;
+      this.removed = removed;
+    }
+  }
+
+  /**
+   * Sorted updates with a one-hash filter over their keys, so lookups of edges that were not
+   * updated, the common case, skip the skip list. The filter bit is set before the update is
+   * put, a lookup that sees the update also sees the bit.
+   */
+  private static final class Delta {
+    private final ConcurrentSkipListMap<Long, Update> edges = new ConcurrentSkipListMap<>();
+    private final AtomicInteger size = new AtomicInteger();
+    private final AtomicLongArray filter;
+    private final int filterMask;
+
+    Delta(int compactionThreshold) {
+      int bits = Integer.highestOneBit(
+          (int) Math.min(MAX_FILTER_BITS, Math.max(MIN_FILTER_BITS, 8L * compactionThreshold)));
+      this.filter = new AtomicLongArray(bits / Long.SIZE);
+      this.filterMask = bits - 1;
+    }
+
+    void put(long key, Update update) {
+      mark(key);
+      if (edges.put(key, update) == null) {
+        size.incrementAndGet();
+      }
+    }
+
+    void putIfAbsent(long key, Update update) {
+      mark(key);
+      if (edges.putIfAbsent(key, update) == null) {
+        size.incrementAndGet();
+      }
+    }
+
+    private void mark(long key) {
+      int bit = bit(key);
+      long mask = 1L << bit;
+      if ((filter.get(bit >>> 6) & mask) == 0) {
+        filter.getAndAccumulate(bit >>> 6, mask, (left, right) -> left | right);
+      }
+    }
+
+    Update get(long key) {
+      int bit = bit(key);
+      return (filter.get(bit >>> 6) & 1L << bit) == 0 ? null : edges.get(key);
+    }
+
+    private int bit(long key) {
+      long hash = key * 0x9E3779B97F4A7C15L;
+      return (int) (hash ^ hash >>> 32) & filterMask;
+    }
+  }
+
+  /** The base, the delta being compacted, if any, and the delta taking updates. */
+  private static final class Snapshot {
+    private final Graph base;
+    private final Delta frozen;
+    private final Delta active;
+
+    Snapshot(Graph base, Delta frozen, Delta active) {
+      this.base = base;
+      this.frozen = frozen;
+      this.active = active;
+    }
+
+    Update find(long key) {
+      Update update = active.get(key);
+      return update != null || frozen == null ? update : frozen.get(key);
+    }
+
+    /** Updates with keys in {@code [from, to]}, the active delta winning over the frozen one. */
+    Iterator<Map.Entry<Long, Update>> deltas(long from, long to) {
+      Iterator<Map.Entry<Long, Update>> newer = range(active, from, to);
+      return frozen == null ? newer : new MergingDeltas(newer, range(frozen, from, to));
+    }
+
+    private static Iterator<Map.Entry<Long, Update>> range(Delta delta, long from, long to) {
+      return delta.edges.subMap(from, true, to, true).entrySet().iterator();
+    }
+  }
+
+  private static final class MergingDeltas implements Iterator<Map.Entry<Long, Update>> {
+    private final Iterator<Map.Entry<Long, Update>> newer;
+    private final Iterator<Map.Entry<Long, Update>> older;
+    private Map.Entry<Long, Update> nextNewer;
+    private Map.Entry<Long, Update> nextOlder;
+
+    MergingDeltas(Iterator<Map.Entry<Long, Update>> newer,
+        Iterator<Map.Entry<Long, Update>> older) {
+      this.newer = newer;
+      this.older = older;
+      this.nextNewer = newer.hasNext() ? newer.next() : null;
+      this.nextOlder = older.hasNext() ? older.next() : null;
+    }
+
+    @Override
+    public boolean hasNext() {
+      return nextNewer != null || nextOlder != null;
+    }
+
+    @Override
+    public Map.Entry<Long, Update> next() {
+      if (!hasNext()) {
+        throw new NoSuchElementException();
+      }
+      Map.Entry<Long, Update> res;
+      if (nextOlder == null || nextNewer != null && nextNewer.getKey() <= nextOlder.getKey()) {
+        res = nextNewer;
+        if (nextOlder != null && nextOlder.getKey().equals(nextNewer.getKey())) {
+          nextOlder = older.hasNext() ? older.next() : null;
+        }
+        nextNewer = newer.hasNext() ? newer.next() : null;
+      } else {
+        res = nextOlder;
+        nextOlder = older.hasNext() ? older.next() : null;
+      }
+      return res;
+    }
+  }
+
+  /** Merges the base range {@code [index, end)} with updates, dropping removed edges. */
+  private static final class MergingIterator implements Iterator<Edge> {
+    private final Graph base;
+    private int index;
+    private final int end;
+    private final Iterator<Map.Entry<Long, Update>> deltas;
+    private Map.Entry<Long, Update> nextDelta;
+    private Edge next;
+
+    MergingIterator(Graph base, int index, int end, Iterator<Map.Entry<Long, Update>> deltas) {
+      this.base = base;
+      this.index = index;
+      this.end = end;
+      this.deltas = deltas;
+      this.nextDelta = deltas.hasNext() ? deltas.next() : null;
+      advance();
+    }
+
+    @Override
+    public boolean hasNext() {
+      return next != null;
+    }
+
+    @Override
+    public Edge next() {
+      if (!hasNext()) {
+        throw new NoSuchElementException();
+      }
+      Edge res = next;
+      advance();
+      return res;
+    }
+
+    private void advance() {
+      while (true) {
+        if (index >= end && nextDelta == null) {
+          next = null;
+          return;
+        }
+        int vertex1 = index < end ? base.vertices1().get(index) : 0;
+        int vertex2 = index < end ? base.vertices2().get(index) : 0;
+        long baseKey = key(vertex1, vertex2);
+        if (nextDelta == null || index < end && baseKey < nextDelta.getKey()) {
+          next = new Edge(vertex1, vertex2, base.values().get(index++));
+          return;
+        }
+
+        long key = nextDelta.getKey();
+        Update update = nextDelta.getValue();
+        nextDelta = deltas.hasNext() ? deltas.next() : null;
+        if (index < end && baseKey == key) {
+          index++;
+        }
+        if (!update.removed) {
+          next = new Edge(vertex1(key), vertex2(key), update.value);
+          return;
+        }
+      }
+    }
+  }
+}
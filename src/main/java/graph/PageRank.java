@@ -0,0 +1,77 @@
+package graph;
+
+/**
+ * Weighted PageRank as a {@link VertexProgram}. A vertex passes its rank to its out-neighbors in
+ * proportion to the values of its out-edges; the rank of vertices without out-edges, or whose
+ * out-edges all have value zero, is spread evenly over all vertices. Ranks sum to one. Vertex ids
+ * must be dense and non-negative, edge values non-negative. The weights are read from the
+ * columns of the graph, so on a relabeled graph the program works over the internal ids.
+ */
+public final class PageRank implements VertexProgram {
+  public static final double DEFAULT_DAMPING = 0.85;
+
+  private final double damping;
+  private final int vertices;
+  private final double[] inverseWeights;
+  private double base;
+
+  public PageRank(Graph graph, double damping) {
+    if (!(damping >= 0 && damping <= 1)) {
+      throw new IllegalArgumentException("Damping should be in [0, 1], given damping = "
+          + damping);
+    }
+    this.damping = damping;
+    this.vertices = graph.vertexBound();
+    this.inverseWeights = new double[vertices];
+
+    IntColumn sources = graph.vertices1();
+    FloatColumn values = graph.values();
+    for (int i = 0; i < graph.size(); i++) {
+      float value = values.get(i);
+      if (!(value >= 0)) {
+        throw new IllegalArgumentException("Edge values should be >= 0, given value = " + value);
+      }
+      inverseWeights[sources.get(i)] += value;
+    }
+    for (int vertex = 0; vertex < vertices; vertex++) {
+      double weight = inverseWeights[vertex];
+      inverseWeights[vertex] = weight > 0 ? 1 / weight : 0;
+    }
+  }
+
+  /** PageRank with the default damping, the default {@link VertexComputation.Builder}. */
+  public static VertexComputation compute(Graph graph) {
+    return new VertexComputation.Builder(graph).run(new PageRank(graph, DEFAULT_DAMPING));
+  }
+
+  @Override
+  public boolean internalIds() {
+    return true;
+  }
+
+  @Override
+  public double initialValue(int vertex) {
+    return 1.0 / vertices;
+  }
+
+  @Override
+  public void beforeIteration(double[] ranks) {
+    double dangling = 0;
+    for (int vertex = 0; vertex < vertices; vertex++) {
+      if (inverseWeights[vertex] == 0) {
+        dangling += ranks[vertex];
+      }
+    }
+    base = (1 - damping + damping * dangling) / vertices;
+  }
+
+  @Override
+  public double message(int source, double rank, float edgeValue) {
+    return rank * edgeValue * inverseWeights[source];
+  }
+
+  @Override
+  public double apply(int vertex, double messages, double rank) {
+    return base + damping * messages;
+  }
+}
@@ -0,0 +1,490 @@
+package graph;
+
+import java.util.Arrays;
+
+/**
+ * Maps a source vertex to the {@code [start, end)} range of its edges in the sorted columns.
+ * {@link #find(int)} returns an opaque row handle, or -1 when the vertex has no out-edges.
+ */
+abstract class RowIndex {
+  static final int DENSE_MAX_OVERHEAD = 4;
+  /** Keys of a {@link SourceIndex#BTREE} node, 64 bytes. */
+  static final int NODE_KEYS = 16;
+
+  abstract int find(int vertex);
+
+  abstract int start(int row);
+
+  abstract int end(int row);
+
+  abstract SourceIndex type();
+
+  /**
+   * Distinct sources of a {@link SourceIndex#SPARSE} or {@link SourceIndex#BTREE} index, null for
+   * other types.
+   */
+  IntColumn sources() {
+    return null;
+  }
+
+  /** Row offsets, {@code rows() + 1} of them, null for {@link SourceIndex#NONE}. */
+  IntColumn offsets() {
+    return null;
+  }
+
+  int rows() {
+    return 0;
+  }
+
+  /** Source of the first row of a {@link SourceIndex#DENSE} index. */
+  int first() {
+    return 0;
+  }
+
+  /** Inner nodes of a {@link SourceIndex#BTREE} index, see {@link #buildTree}. */
+  IntColumn tree() {
+    return null;
+  }
+
+  /** Releases the columns owned by the index, see {@link IntColumn#release()}. */
+  void release() {
+    if (sources() != null) {
+      sources().release();
+    }
+    if (offsets() != null) {
+      offsets().release();
+    }
+    if (tree() != null) {
+      tree().release();
+    }
+  }
+
+  static RowIndex build(SourceIndex type, int[] vertices1, int size) {
+    return build(type, vertices1, IntColumn.of(vertices1), size, Storage.HEAP);
+  }
+
+  /**
+   * Builds the index over the sorted {@code vertices1} array, {@code column} holds the same
+   * values in the graph's storage and backs the {@link SourceIndex#NONE} search.
+   */
+  static RowIndex build(SourceIndex type, int[] vertices1, IntColumn column, int size,
+      Storage storage) {
+    switch (type) {
+      case NONE:
+        return search(column, size);
+      case SPARSE:
+        return buildSparse(vertices1, size, storage);
+      case DENSE:
+        return buildDense(vertices1, size, storage);
+      case AUTO:
+        return buildAuto(vertices1, size, storage);
+      case BTREE:
+        return buildBTree(vertices1, size, storage);
+      default:
+        throw new IllegalArgumentException("Unknown source index " + type);
+    }
+  }
+
+  static RowIndex search(IntColumn vertices1, int size) {
+    return new SearchRowIndex(vertices1, size);
+  }
+
+  static RowIndex sparse(IntColumn sources, IntColumn offsets, int rows) {
+    return new SparseRowIndex(sources, offsets, rows);
+  }
+
+  static RowIndex dense(int first, IntColumn offsets, int rows) {
+    return new DenseRowIndex(first, offsets, rows);
+  }
+
+  static RowIndex btree(IntColumn sources, IntColumn offsets, IntColumn tree, int rows) {
+    return new BTreeRowIndex(sources, offsets, tree, rows);
+  }
+
+  /**
+   * Lengths of the levels of the static B-tree over {@code rows} sources, from the sorted
+   * sources themselves at index 0 up to the root level of at most {@link #NODE_KEYS} keys.
+   */
+  static int[] treeLevels(int rows) {
+    int levels = 1;
+    for (int length = rows; length > NODE_KEYS; length = (length + NODE_KEYS - 1) / NODE_KEYS) {
+      levels++;
+    }
+    int[] lengths = new int[levels];
+    lengths[0] = rows;
+    for (int level = 1; level < levels; level++) {
+      lengths[level] = (lengths[level - 1] + NODE_KEYS - 1) / NODE_KEYS;
+    }
+    return lengths;
+  }
+
+  /** Number of ints of the inner levels of the static B-tree over {@code rows} sources. */
+  static long treeLength(int rows) {
+    int[] lengths = treeLevels(rows);
+    long length = 0;
+    for (int level = 1; level < lengths.length; level++) {
+      length += nodeKeys(lengths[level]);
+    }
+    return length;
+  }
+
+  /**
+   * Builds the inner levels of the static B-tree over the distinct sorted {@code sources}. Every
+   * level holds the largest key of each node of {@link #NODE_KEYS} keys of the level below, its
+   * last node padded with {@link Integer#MAX_VALUE}; the levels are stored from the root down, so
+   * the top of the tree shares a few cache lines.
+   */
+  static int[] buildTree(IntColumn sources, int rows) {
+    int[] lengths = treeLevels(rows);
+    int[] offsets = treeOffsets(lengths);
+    int[] tree = new int[(int) treeLength(rows)];
+    Arrays.fill(tree, Integer.MAX_VALUE);
+    for (int level = 1; level < lengths.length; level++) {
+      int below = lengths[level - 1];
+      for (int i = 0; i < lengths[level]; i++) {
+        int last = Math.min((i + 1) * NODE_KEYS, below) - 1;
+        tree[offsets[level] + i] = level == 1 ? sources.get(last)
+            : tree[offsets[level - 1] + last];
+      }
+    }
+    return tree;
+  }
+
+  /** Offsets of the inner levels in the tree, the root level first. */
+  private static int[] treeOffsets(int[] lengths) {
+    int[] offsets = new int[lengths.length];
+    int offset = 0;
+    for (int level = lengths.length - 1; level > 0; level--) {
+      offsets[level] = offset;
+      offset += nodeKeys(lengths[level]);
+    }
+    return offsets;
+  }
+
+  /** Keys of the nodes holding {@code length} keys, rounded up to whole nodes. */
+  private static int nodeKeys(int length) {
+    return (length + NODE_KEYS - 1) / NODE_KEYS * NODE_KEYS;
+  }
+
+  /**
+   * Number of keys smaller than {@code vertex} in the full sorted node starting at {@code start},
+   * found with branchless halving steps inside its cache line.
+   */
+  private static int countSmaller(IntColumn keys, long start, int vertex) {
+    int index = 0;
+    for (int half = NODE_KEYS / 2; half > 0; half >>= 1) {
+      index += keys.get(start + index + half - 1) < vertex ? half : 0;
+    }
+    return index + (keys.get(start + index) < vertex ? 1 : 0);
+  }
+
+  /**
+   * Builds a heap index from the distinct sorted {@code sources} and their {@code rows + 1} edge
+   * offsets, dense under the same rule as {@link SourceIndex#AUTO}.
+   */
+  static RowIndex fromRows(int[] sources, int[] offsets, int rows) {
+    long range = rows == 0 ? 0 : (long) sources[rows - 1] - sources[0] + 1;
+    if (rows == 0 || range >= Integer.MAX_VALUE - 1 || range > (long) DENSE_MAX_OVERHEAD * rows) {
+      return sparse(IntColumn.of(sources), IntColumn.of(offsets), rows);
+    }
+
+    int[] denseOffsets = new int[(int) range + 1];
+    int row = 0;
+    for (int i = 0; i < rows; i++) {
+      int current = sources[i] - sources[0];
+      while (row <= current) {
+        denseOffsets[row++] = offsets[i];
+      }
+    }
+    denseOffsets[row] = offsets[rows];
+    return dense(sources[0], IntColumn.of(denseOffsets), (int) range);
+  }
+
+  private static RowIndex buildAuto(int[] vertices1, int size, Storage storage) {
+    if (size == 0) {
+      return buildSparse(vertices1, size, storage);
+    }
+
+    long range = (long) vertices1[size - 1] - vertices1[0] + 1;
+    int distinct = countDistinct(vertices1, size);
+
+    if (range < Integer.MAX_VALUE - 1 && range <= (long) DENSE_MAX_OVERHEAD * distinct) {
+      return buildDense(vertices1, size, storage);
+    }
+    return buildSparse(vertices1, size, storage);
+  }
+
+  static int countDistinct(int[] vertices1, int size) {
+    int distinct = size > 0 ? 1 : 0;
+    for (int i = 1; i < size; i++) {
+      if (vertices1[i] != vertices1[i - 1]) {
+        distinct++;
+      }
+    }
+    return distinct;
+  }
+
+  private static RowIndex buildSparse(int[] vertices1, int size, Storage storage) {
+    int distinct = countDistinct(vertices1, size);
+    int[] sources = new int[distinct];
+    int[] offsets = new int[distinct + 1];
+
+    int row = -1;
+    for (int i = 0; i < size; i++) {
+      if (i == 0 || vertices1[i] != vertices1[i - 1]) {
+        row++;
+        sources[row] = vertices1[i];
+        offsets[row] = i;
+      }
+    }
+    offsets[distinct] = size;
+
+    return sparse(storage.ints(sources, distinct), storage.ints(offsets, distinct + 1), distinct);
+  }
+
+  private static RowIndex buildBTree(int[] vertices1, int size, Storage storage) {
+    RowIndex sparse = buildSparse(vertices1, size, storage);
+    int[] tree = buildTree(sparse.sources(), sparse.rows());
+    return btree(sparse.sources(), sparse.offsets(), storage.ints(tree, tree.length),
+        sparse.rows());
+  }
+
+  private static RowIndex buildDense(int[] vertices1, int size, Storage storage) {
+    if (size == 0) {
+      return dense(0, storage.ints(new int[1], 1), 0);
+    }
+
+    int first = vertices1[0];
+    long range = (long) vertices1[size - 1] - first + 1;
+    if (range >= Integer.MAX_VALUE - 1) {
+      throw new IllegalArgumentException("Source ids span " + range
+          + " values, too many for a dense index");
+    }
+
+    int rows = (int) range;
+    int[] offsets = new int[rows + 1];
+    int row = 0;
+    for (int i = 0; i < size; i++) {
+      int current = vertices1[i] - first;
+      while (row <= current) {
+        offsets[row++] = i;
+      }
+    }
+    while (row <= rows) {
+      offsets[row++] = size;
+    }
+
+    return dense(first, storage.ints(offsets, rows + 1), rows);
+  }
+
+  private static final class SearchRowIndex extends RowIndex {
+    private final IntColumn vertices1;
+    private final int size;
+
+    SearchRowIndex(IntColumn vertices1, int size) {
+      this.vertices1 = vertices1;
+      this.size = size;
+    }
+
+    @Override
+    int find(int vertex) {
+      return Graph.findVertexIndex(vertices1, vertex, 0, size - 1, false);
+    }
+
+    @Override
+    int start(int row) {
+      return row;
+    }
+
+    @Override
+    int end(int row) {
+      return Graph.findVertexIndex(vertices1, vertices1.get(row), row, size - 1, true) + 1;
+    }
+
+    @Override
+    SourceIndex type() {
+      return SourceIndex.NONE;
+    }
+  }
+
+  private static final class SparseRowIndex extends RowIndex {
+    private final IntColumn sources;
+    private final IntColumn offsets;
+    private final int rows;
+
+    SparseRowIndex(IntColumn sources, IntColumn offsets, int rows) {
+      this.sources = sources;
+      this.offsets = offsets;
+      this.rows = rows;
+    }
+
+    @Override
+    int find(int vertex) {
+      return Graph.findVertexIndex(sources, vertex, 0, rows - 1, false);
+    }
+
+    @Override
+    int start(int row) {
+      return offsets.get(row);
+    }
+
+    @Override
+    int end(int row) {
+      return offsets.get(row + 1);
+    }
+
+    @Override
+    SourceIndex type() {
+      return SourceIndex.SPARSE;
+    }
+
+    @Override
+    IntColumn sources() {
+      return sources;
+    }
+
+    @Override
+    IntColumn offsets() {
+      return offsets;
+    }
+
+    @Override
+    int rows() {
+      return rows;
+    }
+  }
+
+  private static final class DenseRowIndex extends RowIndex {
+    private final int first;
+    private final IntColumn offsets;
+    private final int rows;
+
+    DenseRowIndex(int first, IntColumn offsets, int rows) {
+      this.first = first;
+      this.offsets = offsets;
+      this.rows = rows;
+    }
+
+    @Override
+    int find(int vertex) {
+      long row = (long) vertex - first;
+      if (row < 0 || row >= rows) {
+        return -1;
+      }
+      int r = (int) row;
+      return offsets.get(r) == offsets.get(r + 1) ? -1 : r;
+    }
+
+    @Override
+    int start(int row) {
+      return offsets.get(row);
+    }
+
+    @Override
+    int end(int row) {
+      return offsets.get(row + 1);
+    }
+
+    @Override
+    SourceIndex type() {
+      return SourceIndex.DENSE;
+    }
+
+    @Override
+    IntColumn offsets() {
+      return offsets;
+    }
+
+    @Override
+    int rows() {
+      return rows;
+    }
+
+    @Override
+    int first() {
+      return first;
+    }
+  }
+
+  /**
+   * Distinct sources and row offsets like {@link SparseRowIndex}, found by descending a static
+   * B-tree of 64-byte nodes instead of a binary search: every level costs one cache line, read
+   * with branchless comparisons, instead of a cache miss and a mispredicted branch per probe.
+   */
+  private static final class BTreeRowIndex extends RowIndex {
+    private final IntColumn sources;
+    private final IntColumn offsets;
+    private final IntColumn tree;
+    private final int rows;
+    private final int[] lengths;
+    private final int[] levelOffsets;
+
+    BTreeRowIndex(IntColumn sources, IntColumn offsets, IntColumn tree, int rows) {
+      this.sources = sources;
+      this.offsets = offsets;
+      this.tree = tree;
+      this.rows = rows;
+      this.lengths = treeLevels(rows);
+      this.levelOffsets = treeOffsets(lengths);
+    }
+
+    @Override
+    int find(int vertex) {
+      int node = 0;
+      for (int level = lengths.length - 1; level > 0; level--) {
+        node = node * NODE_KEYS
+            + countSmaller(tree, levelOffsets[level] + node * NODE_KEYS, vertex);
+        if (node >= lengths[level]) {
+          return -1;
+        }
+      }
+
+      int start = node * NODE_KEYS;
+      int row;
+      if (start + NODE_KEYS <= rows) {
+        row = start + countSmaller(sources, start, vertex);
+      } else {
+        row = start;
+        for (int i = start; i < rows; i++) {
+          row += sources.get(i) < vertex ? 1 : 0;
+        }
+      }
+      return row < rows && sources.get(row) == vertex ? row : -1;
+    }
+
+    @Override
+    int start(int row) {
+      return offsets.get(row);
+    }
+
+    @Override
+    int end(int row) {
+      return offsets.get(row + 1);
+    }
+
+    @Override
+    SourceIndex type() {
+      return SourceIndex.BTREE;
+    }
+
+    @Override
+    IntColumn sources() {
+      return sources;
+    }
+
+    @Override
+    IntColumn offsets() {
+      return offsets;
+    }
+
+    @Override
+    IntColumn tree() {
+      return tree;
+    }
+
+    @Override
+    int rows() {
+      return rows;
+    }
+  }
+}
@@ -0,0 +1,32 @@
+package graph;
+
+import java.util.Iterator;
+import java.util.Optional;
+
+/**
+ * One graph of a {@link ShardedGraph}, reached through a {@link ShardTransport}. The shard may
+ * live in this JVM or in another process; calls may come from many threads at once. Transport
+ * failures of a remote shard surface as {@link java.io.UncheckedIOException}.
+ */
+public interface Shard extends AutoCloseable {
+
+  int size();
+
+  Optional<Float> getEdgeValue(int vertex1, int vertex2);
+
+  boolean containsEdge(int vertex1, int vertex2);
+
+  /** Like {@link Graph#getEdgeValues(int[], int[], float[], boolean[])} for the whole arrays. */
+  void getEdgeValues(int[] vertices1, int[] vertices2, float[] values, boolean[] found);
+
+  int outDegree(int vertex);
+
+  Iterator<Edge> vertexIterator(int vertex);
+
+  /** Visits all edges of the shard in the order of its graph, on the calling thread. */
+  void forEachEdge(EdgeConsumer consumer);
+
+  /** Releases the shard graph, or the connection to it. */
+  @Override
+  void close();
+}
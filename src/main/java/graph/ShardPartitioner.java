@@ -0,0 +1,74 @@
+package graph;
+
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * Assigns every edge of a {@link ShardedGraph} to a shard by its source vertex, so the out-edges
+ * of a vertex always share a shard.
+ */
+public abstract class ShardPartitioner {
+  private static final int GOLDEN_RATIO = 0x9E3779B9;
+
+  private final int shards;
+
+  private ShardPartitioner(int shards) {
+    if (shards < 1) {
+      throw new IllegalArgumentException("Shards should be >= 1, given shards = " + shards);
+    }
+    this.shards = shards;
+  }
+
+  /**
+   * Spreads the vertices over {@code shards} shards by a multiplicative hash of their id, which
+   * also balances runs of consecutive ids.
+   */
+  public static ShardPartitioner hash(int shards) {
+    return new ShardPartitioner(shards) {
+      @Override
+      public int shard(int vertex) {
+        return (int) ((vertex * GOLDEN_RATIO & 0xFFFFFFFFL) * shards() >>> 32);
+      }
+
+      @Override
+      public String toString() {
+        return "hash(" + shards() + ")";
+      }
+    };
+  }
+
+  /**
+   * Splits the vertex ids into ranges at the given increasing bounds: shard 0 holds the ids below
+   * {@code bounds[0]}, shard {@code i} the ids in {@code [bounds[i - 1], bounds[i])} and the last
+   * shard the ids from the last bound on. Consecutive ids share a shard, so scans of the shards in
+   * turn visit the edges in sorted order.
+   */
+  public static ShardPartitioner range(int... bounds) {
+    int[] copy = Objects.requireNonNull(bounds, "Null bounds").clone();
+    for (int i = 1; i < copy.length; i++) {
+      if (copy[i] <= copy[i - 1]) {
+        throw new IllegalArgumentException("Bounds should be increasing, given bounds = "
+            + Arrays.toString(copy));
+      }
+    }
+    return new ShardPartitioner(copy.length + 1) {
+      @Override
+      public int shard(int vertex) {
+        int index = Arrays.binarySearch(copy, vertex);
+        return index >= 0 ? index + 1 : -index - 1;
+      }
+
+      @Override
+      public String toString() {
+        return "range" + Arrays.toString(copy);
+      }
+    };
+  }
+
+  public int shards() {
+    return shards;
+  }
+
+  /** The shard in {@code [0, shards())} holding the out-edges of {@code vertex}. */
+  public abstract int shard(int vertex);
+}
@@ -0,0 +1,213 @@
+package graph;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.ByteBuffer;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Serves a shard graph over TCP, so that a {@link ShardedGraph} in another process reaches it
+ * through {@link #connect(InetSocketAddress)}. Every connection gets its own thread and handles
+ * one request at a time: an opcode followed by big-endian ints and floats, answered the same way.
+ * The server does not release the graph, which has to outlive it.
+ */
+public final class ShardServer implements AutoCloseable {
+  static final int SIZE = 1;
+  static final int GET = 2;
+  static final int CONTAINS = 3;
+  static final int GET_BATCH = 4;
+  static final int OUT_DEGREE = 5;
+  static final int ROW = 6;
+  static final int SCAN = 7;
+  /** Scans encode the edges in blocks, one stream call per block instead of per value. */
+  static final int SCAN_BLOCK_EDGES = 4096;
+  static final int SCAN_EDGE_BYTES = 12;
+  /** Largest batch of one request, clients split larger ones and the server rejects them. */
+  static final int BATCH_PROBES = 1 << 16;
+  static final int PROBE_BYTES = 8;
+  static final int RESULT_BYTES = 5;
+
+  private final Graph graph;
+  private final ServerSocket serverSocket;
+  private final Set<Socket> connections = ConcurrentHashMap.newKeySet();
+  private volatile boolean closed;
+
+  private ShardServer(Graph graph, ServerSocket serverSocket) {
+    this.graph = graph;
+    this.serverSocket = serverSocket;
+  }
+
+  /** Starts serving {@code graph} on {@code address}, port 0 picks a free port. */
+  public static ShardServer start(Graph graph, InetSocketAddress address) throws IOException {
+    Objects.requireNonNull(graph, "Null graph");
+    Objects.requireNonNull(address, "Null address");
+    ServerSocket serverSocket = new ServerSocket();
+    try {
+      serverSocket.bind(address);
+    } catch (IOException e) {
+      serverSocket.close();
+      throw e;
+    }
+    ShardServer server = new ShardServer(graph, serverSocket);
+    Thread acceptor = new Thread(server::accept, "shard-server-" + serverSocket.getLocalPort());
+    acceptor.setDaemon(true);
+    acceptor.start();
+    return server;
+  }
+
+  /** Connects to the shard served at {@code address}. Closing the shard closes the connection. */
+  public static Shard connect(InetSocketAddress address) throws IOException {
+    return new SocketShard(Objects.requireNonNull(address, "Null address"), () -> { });
+  }
+
+  public InetSocketAddress address() {
+    return (InetSocketAddress) serverSocket.getLocalSocketAddress();
+  }
+
+  /** Stops accepting connections and closes the open ones. */
+  @Override
+  public void close() throws IOException {
+    closed = true;
+    serverSocket.close();
+    for (Socket socket : connections) {
+      socket.close();
+    }
+  }
+
+  private void accept() {
+    while (!closed) {
+      Socket socket;
+      try {
+        socket = serverSocket.accept();
+      } catch (IOException e) {
+        return;
+      }
+      connections.add(socket);
+      if (closed) {
+        closeQuietly(socket);
+        return;
+      }
+      Thread thread = new Thread(() -> serve(socket), "shard-connection-" + socket.getPort());
+      thread.setDaemon(true);
+      thread.start();
+    }
+  }
+
+  private void serve(Socket socket) {
+    try {
+      socket.setTcpNoDelay(true);
+      DataInputStream input = new DataInputStream(new BufferedInputStream(
+          socket.getInputStream()));
+      DataOutputStream output = new DataOutputStream(new BufferedOutputStream(
+          socket.getOutputStream()));
+      while (true) {
+        int request = input.read();
+        if (request < 0) {
+          return;
+        }
+        handle(request, input, output);
+        output.flush();
+      }
+    } catch (IOException | RuntimeException e) {
+      // The connection is dropped or broken, or a request was invalid: only this connection is
+      // closed and the client sees it fail
+    } finally {
+      connections.remove(socket);
+      closeQuietly(socket);
+    }
+  }
+
+  private void handle(int request, DataInputStream input, DataOutputStream output)
+      throws IOException {
+    switch (request) {
+      case SIZE:
+        output.writeInt(graph.size());
+        break;
+      case GET: {
+        Optional<Float> value = graph.getEdgeValue(input.readInt(), input.readInt());
+        output.writeBoolean(value.isPresent());
+        output.writeFloat(value.orElse(0f));
+        break;
+      }
+      case CONTAINS:
+        output.writeBoolean(graph.containsEdge(input.readInt(), input.readInt()));
+        break;
+      case GET_BATCH: {
+        int count = input.readInt();
+        if (count < 0 || count > BATCH_PROBES) {
+          throw new IOException("Invalid batch size " + count);
+        }
+        ByteBuffer probes = ByteBuffer.allocate(count * PROBE_BYTES);
+        input.readFully(probes.array());
+        int[] vertices1 = new int[count];
+        int[] vertices2 = new int[count];
+        for (int i = 0; i < count; i++) {
+          vertices1[i] = probes.getInt();
+          vertices2[i] = probes.getInt();
+        }
+        float[] values = new float[count];
+        boolean[] found = new boolean[count];
+        graph.getEdgeValues(vertices1, vertices2, values, found);
+        ByteBuffer results = ByteBuffer.allocate(count * RESULT_BYTES);
+        for (int i = 0; i < count; i++) {
+          results.put((byte) (found[i] ? 1 : 0)).putFloat(values[i]);
+        }
+        output.write(results.array());
+        break;
+      }
+      case OUT_DEGREE:
+        output.writeInt(graph.outDegree(input.readInt()));
+        break;
+      case ROW: {
+        int vertex = input.readInt();
+        output.writeInt(graph.outDegree(vertex));
+        Graph.Cursor cursor = graph.cursor().reset(vertex);
+        while (cursor.next()) {
+          output.writeInt(cursor.vertex2());
+          output.writeFloat(cursor.value());
+        }
+        break;
+      }
+      case SCAN: {
+        output.writeInt(graph.size());
+        ByteBuffer block = ByteBuffer.allocate(SCAN_BLOCK_EDGES * SCAN_EDGE_BYTES);
+        Graph.Cursor cursor = graph.cursor();
+        while (cursor.next()) {
+          block.putInt(cursor.vertex1()).putInt(cursor.vertex2()).putFloat(cursor.value());
+          if (!block.hasRemaining()) {
+            output.write(block.array(), 0, block.position());
+            block.clear();
+          }
+        }
+        output.write(block.array(), 0, block.position());
+        break;
+      }
+      default:
+        throw new IOException("Unknown request " + request);
+    }
+  }
+
+  private static void closeQuietly(Socket socket) {
+    try {
+      socket.close();
+    } catch (IOException e) {
+      // Nothing left to do with the connection
+    }
+  }
+
+  @Override
+  public String toString() {
+    return "ShardServer{" +
+        "address=" + serverSocket.getLocalSocketAddress() +
+        '}';
+  }
+}
@@ -0,0 +1,52 @@
+package graph;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+
+/**
+ * Places the shard graphs built by {@link ShardedGraph.Builder} and returns the handles the
+ * sharded graph queries them through. A transport to other processes ships the graph there, for
+ * example as a graph file served by a {@link ShardServer}, and connects to it.
+ */
+@FunctionalInterface
+public interface ShardTransport {
+
+  /**
+   * Places the graph of shard number {@code shard}. Once it returns the shard owns
+   * {@code graph}; when it throws, the caller still does.
+   */
+  Shard open(int shard, Graph graph) throws IOException;
+
+  /** Keeps the shards in this JVM and calls them directly. */
+  static ShardTransport inProcess() {
+    return (shard, graph) -> new LocalShard(graph);
+  }
+
+  /**
+   * Serves every shard from this JVM on its own loopback port and queries it over TCP, which runs
+   * the socket protocol of {@link ShardServer} end to end without other processes.
+   */
+  static ShardTransport loopback() {
+    return (shard, graph) -> {
+      ShardServer server = ShardServer.start(graph,
+          new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+      Runnable stop = () -> {
+        try {
+          server.close();
+        } catch (IOException e) {
+          throw new UncheckedIOException(e);
+        } finally {
+          graph.release();
+        }
+      };
+      try {
+        return new SocketShard(server.address(), stop);
+      } catch (IOException e) {
+        server.close();
+        throw e;
+      }
+    };
+  }
+}
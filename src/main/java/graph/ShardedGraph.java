@@ -0,0 +1,321 @@
+package graph;
+
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.function.IntConsumer;
+import java.util.function.Supplier;
+import java.util.stream.IntStream;
+
+/**
+ * Edges split by source vertex into independent {@link Graph} shards, which lifts the limits of a
+ * single graph to one JVM's memory and {@code int} edge positions. The {@link ShardPartitioner}
+ * routes the lookups of a vertex to the shard holding its out-edges, scans and batches fan out
+ * to all shards in parallel. The shards are reached through a {@link ShardTransport}, so they
+ * can live in other processes. The sharded graph owns its shards and closes them on
+ * {@link #close()}.
+ */
+public final class ShardedGraph implements AutoCloseable {
+  private final ShardPartitioner partitioner;
+  private final Shard[] shards;
+  private final long size;
+
+  private ShardedGraph(ShardPartitioner partitioner, Shard[] shards) {
+    this.partitioner = partitioner;
+    this.shards = shards;
+    long[] sizes = new long[shards.length];
+    forEachShard(shard -> sizes[shard] = shards[shard].size());
+    long total = 0;
+    for (long shardSize : sizes) {
+      total += shardSize;
+    }
+    this.size = total;
+  }
+
+  /**
+   * Queries shards that were built and placed elsewhere, for example served by
+   * {@link ShardServer}s and reached through {@link ShardServer#connect}. Shard {@code i} must
+   * hold the edges that {@code partitioner} assigns to {@code i}.
+   */
+  public static ShardedGraph connect(ShardPartitioner partitioner, List<Shard> shards) {
+    Objects.requireNonNull(partitioner, "Null partitioner");
+    Objects.requireNonNull(shards, "Null shards");
+    if (shards.size() != partitioner.shards()) {
+      throw new IllegalArgumentException("Shards should be " + partitioner.shards()
+          + " for " + partitioner + ", given shards = " + shards.size());
+    }
+    Shard[] array = new Shard[shards.size()];
+    for (int i = 0; i < array.length; i++) {
+      array[i] = Objects.requireNonNull(shards.get(i), "Null shard " + i);
+    }
+    return new ShardedGraph(partitioner, array);
+  }
+
+  /** Number of edges over all shards. */
+  public long size() {
+    return size;
+  }
+
+  public ShardPartitioner partitioner() {
+    return partitioner;
+  }
+
+  public int shards() {
+    return shards.length;
+  }
+
+  public Shard shard(int shard) {
+    return shards[shard];
+  }
+
+  public Optional<Float> getEdgeValue(int vertex1, int vertex2) {
+    return owner(vertex1).getEdgeValue(vertex1, vertex2);
+  }
+
+  public float getEdgeValueOrDefault(int vertex1, int vertex2, float defaultValue) {
+    return getEdgeValue(vertex1, vertex2).orElse(defaultValue);
+  }
+
+  public boolean containsEdge(int vertex1, int vertex2) {
+    return owner(vertex1).containsEdge(vertex1, vertex2);
+  }
+
+  public int outDegree(int vertex) {
+    return owner(vertex).outDegree(vertex);
+  }
+
+  public Iterator<Edge> vertexIterator(int vertex) {
+    return owner(vertex).vertexIterator(vertex);
+  }
+
+  /**
+   * Looks up a batch of edges like {@link Graph#getEdgeValues(int[], int[], float[], boolean[])}.
+   * The probes are scattered to their shards, which resolve their part in parallel, one call per
+   * shard, and the results are gathered back in batch order.
+   */
+  public void getEdgeValues(int[] vertices1, int[] vertices2, float[] values, boolean[] found) {
+    Objects.requireNonNull(vertices1, "Null vertices1");
+    Objects.requireNonNull(vertices2, "Null vertices2");
+    Objects.requireNonNull(values, "Null values");
+    Objects.requireNonNull(found, "Null found");
+    int count = vertices1.length;
+    if (vertices2.length != count || values.length != count || found.length != count) {
+      throw new IllegalArgumentException("Batch arrays have different lengths: "
+          + vertices1.length + ", " + vertices2.length + ", " + values.length + ", "
+          + found.length);
+    }
+
+    int[] owners = new int[count];
+    int[] offsets = new int[shards.length + 1];
+    for (int i = 0; i < count; i++) {
+      owners[i] = partitioner.shard(vertices1[i]);
+      offsets[owners[i] + 1]++;
+    }
+    for (int shard = 0; shard < shards.length; shard++) {
+      offsets[shard + 1] += offsets[shard];
+    }
+    int[] positions = new int[count];
+    int[] next = offsets.clone();
+    for (int i = 0; i < count; i++) {
+      positions[next[owners[i]]++] = i;
+    }
+
+    forEachShard(shard -> {
+      int from = offsets[shard];
+      int length = offsets[shard + 1] - from;
+      if (length == 0) {
+        return;
+      }
+      int[] shardVertices1 = new int[length];
+      int[] shardVertices2 = new int[length];
+      float[] shardValues = new float[length];
+      boolean[] shardFound = new boolean[length];
+      for (int i = 0; i < length; i++) {
+        int position = positions[from + i];
+        shardVertices1[i] = vertices1[position];
+        shardVertices2[i] = vertices2[position];
+      }
+      shards[shard].getEdgeValues(shardVertices1, shardVertices2, shardValues, shardFound);
+      for (int i = 0; i < length; i++) {
+        int position = positions[from + i];
+        found[position] = shardFound[i];
+        if (shardFound[i]) {
+          values[position] = shardValues[i];
+        }
+      }
+    });
+  }
+
+  /**
+   * Visits all edges, scanning the shards in parallel. The consumer is called from several
+   * threads at once, the edges of one shard come in order on one thread.
+   */
+  public void forEachEdge(EdgeConsumer consumer) {
+    Objects.requireNonNull(consumer, "Null consumer");
+    forEachShard(shard -> shards[shard].forEachEdge(consumer));
+  }
+
+  /** Closes every shard, even when closing some of them fails. */
+  @Override
+  public void close() {
+    closeAll(shards);
+  }
+
+  private Shard owner(int vertex) {
+    return shards[partitioner.shard(vertex)];
+  }
+
+  private void forEachShard(IntConsumer task) {
+    IntStream range = IntStream.range(0, shards.length);
+    (shards.length > 1 ? range.parallel() : range).forEach(task);
+  }
+
+  private static void closeAll(Shard[] shards) {
+    RuntimeException failure = null;
+    for (Shard shard : shards) {
+      if (shard == null) {
+        continue;
+      }
+      try {
+        shard.close();
+      } catch (RuntimeException e) {
+        if (failure == null) {
+          failure = e;
+        } else {
+          failure.addSuppressed(e);
+        }
+      }
+    }
+    if (failure != null) {
+      throw failure;
+    }
+  }
+
+  @Override
+  public String toString() {
+    return "ShardedGraph{" +
+        "partitioner=" + partitioner +
+        ", size=" + size +
+        '}';
+  }
+
+  /**
+   * Routes every edge to the builder of its shard. {@link #build()} builds the shards
+   * concurrently and hands each one to the transport.
+   */
+  public static final class Builder {
+    private final ShardPartitioner partitioner;
+    private final Graph.Builder[] builders;
+    private final Builder parent;
+    private ShardTransport transport = ShardTransport.inProcess();
+
+    public Builder(ShardPartitioner partitioner) {
+      this(partitioner, Graph.Builder::new);
+    }
+
+    /**
+     * Fills the shards through the builders created by {@code shardBuilder}, one per shard, which
+     * also sets their indexes, storage and duplicate policy.
+     */
+    public Builder(ShardPartitioner partitioner, Supplier<Graph.Builder> shardBuilder) {
+      this.partitioner = Objects.requireNonNull(partitioner, "Null partitioner");
+      Objects.requireNonNull(shardBuilder, "Null shard builder");
+      this.builders = new Graph.Builder[partitioner.shards()];
+      for (int shard = 0; shard < builders.length; shard++) {
+        builders[shard] = Objects.requireNonNull(shardBuilder.get(), "Null shard builder");
+      }
+      this.parent = null;
+    }
+
+    private Builder(Builder parent) {
+      this.partitioner = parent.partitioner;
+      this.builders = new Graph.Builder[parent.builders.length];
+      for (int shard = 0; shard < builders.length; shard++) {
+        builders[shard] = parent.builders[shard].newSubBuilder();
+      }
+      this.parent = parent;
+    }
+
+    public Builder addEdges(Iterable<Edge> edges) {
+      for (Edge edge : Objects.requireNonNull(edges, "Null edges")) {
+        addEdge(edge);
+      }
+      return this;
+    }
+
+    public Builder addEdge(Edge edge) {
+      Objects.requireNonNull(edge, "Adding null edge");
+      return addEdge(edge.getVertex1(), edge.getVertex2(), edge.getValue());
+    }
+
+    public Builder addEdge(int vertex1, int vertex2, float value) {
+      builders[partitioner.shard(vertex1)].addEdge(vertex1, vertex2, value);
+      return this;
+    }
+
+    /** Defaults to {@link ShardTransport#inProcess()}. */
+    public Builder transport(ShardTransport transport) {
+      this.transport = Objects.requireNonNull(transport, "Null transport");
+      return this;
+    }
+
+    /**
+     * Creates a builder whose edges go to the shards of this builder, like
+     * {@link Graph.Builder#newSubBuilder()}: every sub-builder may be filled by its own thread,
+     * and all of them have to be filled before {@link #build()} is called.
+     */
+    public Builder newSubBuilder() {
+      return new Builder(parent != null ? parent : this);
+    }
+
+    /**
+     * Builds the shards concurrently and opens them with the transport. When a shard fails to
+     * build or open, the shards opened so far are closed again.
+     */
+    public ShardedGraph build() throws IOException {
+      if (parent != null) {
+        throw new IllegalStateException("Sub-builder is built by its parent builder");
+      }
+
+      Shard[] shards = new Shard[builders.length];
+      Exception[] failures = new Exception[builders.length];
+      IntStream range = IntStream.range(0, builders.length);
+      (builders.length > 1 ? range.parallel() : range).forEach(shard -> {
+        try {
+          Graph graph = builders[shard].build();
+          try {
+            shards[shard] = transport.open(shard, graph);
+          } catch (IOException | RuntimeException e) {
+            graph.release();
+            throw e;
+          }
+        } catch (IOException | RuntimeException e) {
+          failures[shard] = e;
+        }
+      });
+
+      Exception failure = null;
+      for (Exception shardFailure : failures) {
+        if (failure == null) {
+          failure = shardFailure;
+        } else if (shardFailure != null) {
+          failure.addSuppressed(shardFailure);
+        }
+      }
+      if (failure == null) {
+        return new ShardedGraph(partitioner, shards);
+      }
+      try {
+        closeAll(shards);
+      } catch (RuntimeException e) {
+        failure.addSuppressed(e);
+      }
+      if (failure instanceof IOException) {
+        throw (IOException) failure;
+      }
+      throw (RuntimeException) failure;
+    }
+  }
+}
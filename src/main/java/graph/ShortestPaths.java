@@ -0,0 +1,364 @@
+package graph;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.stream.IntStream;
+
+/**
+ * Single-source shortest paths over the edge values of a {@link Graph}, read directly from the
+ * sorted columns. Vertex ids must be dense and non-negative, edge values non-negative. The result
+ * holds a distance and a predecessor per vertex id, {@link Float#POSITIVE_INFINITY} and -1 for
+ * unreachable vertices.
+ */
+public final class ShortestPaths {
+  private static final int TASK_VERTICES = 256;
+
+  private final int source;
+  private final float[] distances;
+  private final int[] predecessors;
+
+  private ShortestPaths(int source, float[] distances, int[] predecessors) {
+    this.source = source;
+    this.distances = distances;
+    this.predecessors = predecessors;
+  }
+
+  /** Sequential Dijkstra with an indexed binary heap. */
+  public static ShortestPaths dijkstra(Graph graph, int source) {
+    VertexPermutation permutation = graph.permutation();
+    if (permutation != null) {
+      return toExternal(dijkstra(graph.internalGraph(), permutation.internal(source)), source,
+          permutation);
+    }
+    int vertices = vertexBound(graph, source);
+    float[] distances = new float[vertices];
+    int[] predecessors = new int[vertices];
+    Arrays.fill(distances, Float.POSITIVE_INFINITY);
+    Arrays.fill(predecessors, -1);
+
+    RowIndex rowIndex = graph.rowIndex();
+    IntColumn targets = graph.vertices2();
+    FloatColumn values = graph.values();
+    IndexedHeap heap = new IndexedHeap(distances);
+    distances[source] = 0;
+    heap.update(source);
+
+    while (!heap.isEmpty()) {
+      int vertex = heap.poll();
+      int row = rowIndex.find(vertex);
+      if (row < 0) {
+        continue;
+      }
+      float distance = distances[vertex];
+      for (int i = rowIndex.start(row), end = rowIndex.end(row); i < end; i++) {
+        int target = targets.get(i);
+        float candidate = distance + values.get(i);
+        if (candidate < distances[target]) {
+          distances[target] = candidate;
+          predecessors[target] = vertex;
+          heap.update(target);
+        }
+      }
+    }
+
+    return new ShortestPaths(source, distances, predecessors);
+  }
+
+  /**
+   * Parallel delta-stepping with a bucket width of the largest edge value divided by the average
+   * out-degree.
+   */
+  public static ShortestPaths deltaStepping(Graph graph, int source) {
+    IntColumn vertices1 = graph.vertices1();
+    float maxValue = 0;
+    int sources = 0;
+    for (int i = 0; i < graph.size(); i++) {
+      maxValue = Math.max(maxValue, graph.values().get(i));
+      if (i == 0 || vertices1.get(i) != vertices1.get(i - 1)) {
+        sources++;
+      }
+    }
+    float delta = maxValue > 0 ? maxValue * sources / graph.size() : 1;
+    return deltaStepping(graph, source, delta);
+  }
+
+  /**
+   * Parallel delta-stepping. Vertices are kept in buckets of width {@code delta} by tentative
+   * distance; the smallest bucket is settled in phases that relax the out-edges of its vertices
+   * on the common fork-join pool until no distance in the bucket improves. Distances and
+   * predecessors are updated together with a compare-and-set on one packed long per vertex.
+   */
+  public static ShortestPaths deltaStepping(Graph graph, int source, float delta) {
+    if (!(delta > 0) || Float.isInfinite(delta)) {
+      throw new IllegalArgumentException("Delta should be positive and finite, given delta = "
+          + delta);
+    }
+    VertexPermutation permutation = graph.permutation();
+    if (permutation != null) {
+      return toExternal(deltaStepping(graph.internalGraph(), permutation.internal(source), delta),
+          source, permutation);
+    }
+    int vertices = vertexBound(graph, source);
+    AtomicLongArray state = new AtomicLongArray(vertices);
+    long unreached = pack(Float.POSITIVE_INFINITY, -1);
+    for (int vertex = 0; vertex < vertices; vertex++) {
+      state.set(vertex, unreached);
+    }
+    state.set(source, pack(0, -1));
+
+    TreeMap<Long, IntList> buckets = new TreeMap<>();
+    buckets.put(0L, new IntList().add(source));
+    int[] marks = new int[vertices];
+    int phase = 0;
+
+    while (!buckets.isEmpty()) {
+      Map.Entry<Long, IntList> entry = buckets.pollFirstEntry();
+      long bucket = entry.getKey();
+      IntList pending = entry.getValue();
+
+      while (pending.size > 0) {
+        phase++;
+        IntList frontier = new IntList();
+        for (int i = 0; i < pending.size; i++) {
+          int vertex = pending.values[i];
+          if (marks[vertex] != phase
+              && bucket(distance(state.get(vertex)), delta) == bucket) {
+            marks[vertex] = phase;
+            frontier.add(vertex);
+          }
+        }
+
+        IntList[] updates = relax(graph, state, frontier);
+
+        phase++;
+        pending = new IntList();
+        for (IntList updated : updates) {
+          for (int i = 0; i < updated.size; i++) {
+            int vertex = updated.values[i];
+            if (marks[vertex] == phase) {
+              continue;
+            }
+            marks[vertex] = phase;
+            long target = bucket(distance(state.get(vertex)), delta);
+            if (target == bucket) {
+              pending.add(vertex);
+            } else {
+              buckets.computeIfAbsent(target, key -> new IntList()).add(vertex);
+            }
+          }
+        }
+      }
+    }
+
+    float[] distances = new float[vertices];
+    int[] predecessors = new int[vertices];
+    for (int vertex = 0; vertex < vertices; vertex++) {
+      long packed = state.get(vertex);
+      distances[vertex] = distance(packed);
+      predecessors[vertex] = (int) packed;
+    }
+    return new ShortestPaths(source, distances, predecessors);
+  }
+
+  public int source() {
+    return source;
+  }
+
+  public float distance(int vertex) {
+    return vertex >= 0 && vertex < distances.length
+        ? distances[vertex] : Float.POSITIVE_INFINITY;
+  }
+
+  public int predecessor(int vertex) {
+    return vertex >= 0 && vertex < predecessors.length ? predecessors[vertex] : -1;
+  }
+
+  /** Distances indexed by vertex id. The array is not copied. */
+  public float[] distances() {
+    return distances;
+  }
+
+  /** Predecessors on a shortest path indexed by vertex id. The array is not copied. */
+  public int[] predecessors() {
+    return predecessors;
+  }
+
+  /** Vertices of a shortest path from the source to {@code target}, empty if unreachable. */
+  public int[] path(int target) {
+    if (distance(target) == Float.POSITIVE_INFINITY) {
+      return new int[0];
+    }
+    IntList reversed = new IntList();
+    for (int vertex = target; vertex != -1; vertex = predecessors[vertex]) {
+      reversed.add(vertex);
+    }
+    int[] path = new int[reversed.size];
+    for (int i = 0; i < path.length; i++) {
+      path[i] = reversed.values[reversed.size - 1 - i];
+    }
+    return path;
+  }
+
+  private static IntList[] relax(Graph graph, AtomicLongArray state, IntList frontier) {
+    RowIndex rowIndex = graph.rowIndex();
+    IntColumn targets = graph.vertices2();
+    FloatColumn values = graph.values();
+
+    int tasks = (frontier.size + TASK_VERTICES - 1) / TASK_VERTICES;
+    IntList[] updates = new IntList[tasks];
+    IntStream range = IntStream.range(0, tasks);
+    (tasks > 1 ? range.parallel() : range).forEach(task -> {
+      IntList updated = new IntList();
+      for (int i = task * TASK_VERTICES, to = Math.min(frontier.size, i + TASK_VERTICES); i < to;
+          i++) {
+        int vertex = frontier.values[i];
+        int row = rowIndex.find(vertex);
+        if (row < 0) {
+          continue;
+        }
+        float distance = distance(state.get(vertex));
+        for (int j = rowIndex.start(row), end = rowIndex.end(row); j < end; j++) {
+          int target = targets.get(j);
+          float candidate = distance + values.get(j);
+          long packed = pack(candidate, vertex);
+          long current = state.get(target);
+          while (candidate < distance(current)) {
+            if (state.compareAndSet(target, current, packed)) {
+              updated.add(target);
+              break;
+            }
+            current = state.get(target);
+          }
+        }
+      }
+      updates[task] = updated;
+    });
+    return updates;
+  }
+
+  private static ShortestPaths toExternal(ShortestPaths paths, int source,
+      VertexPermutation permutation) {
+    return new ShortestPaths(source,
+        permutation.toExternal(paths.distances, Float.POSITIVE_INFINITY),
+        permutation.toExternal(paths.predecessors, true, -1));
+  }
+
+  private static int vertexBound(Graph graph, int source) {
+    if (source < 0) {
+      throw new IllegalArgumentException("Source should be >= 0, given source = " + source);
+    }
+    FloatColumn values = graph.values();
+    for (int i = 0; i < graph.size(); i++) {
+      float value = values.get(i);
+      if (!(value >= 0)) {
+        throw new IllegalArgumentException("Edge values should be >= 0, given value = " + value);
+      }
+    }
+    return Math.max(graph.vertexBound(), source + 1);
+  }
+
+  /** Non-negative floats order like their bits, so the distance takes the high half. */
+  private static long pack(float distance, int predecessor) {
+    return (long) Float.floatToRawIntBits(distance) << 32 | predecessor & 0xFFFFFFFFL;
+  }
+
+  private static float distance(long packed) {
+    return Float.intBitsToFloat((int) (packed >>> 32));
+  }
+
+  private static long bucket(float distance, float delta) {
+    return (long) (distance / delta);
+  }
+
+  /** Binary min-heap of vertices keyed by their current distance. */
+  private static final class IndexedHeap {
+    private final float[] keys;
+    private final int[] positions;
+    private int[] heap = new int[16];
+    private int size;
+
+    IndexedHeap(float[] keys) {
+      this.keys = keys;
+      this.positions = new int[keys.length];
+      Arrays.fill(positions, -1);
+    }
+
+    boolean isEmpty() {
+      return size == 0;
+    }
+
+    /** Inserts the vertex or moves it up after its key decreased. */
+    void update(int vertex) {
+      int position = positions[vertex];
+      if (position < 0) {
+        if (size == heap.length) {
+          heap = Arrays.copyOf(heap, 2 * size);
+        }
+        position = size++;
+      }
+      siftUp(vertex, position);
+    }
+
+    int poll() {
+      int top = heap[0];
+      positions[top] = -1;
+      int last = heap[--size];
+      if (size > 0) {
+        siftDown(last, 0);
+      }
+      return top;
+    }
+
+    private void siftUp(int vertex, int position) {
+      float key = keys[vertex];
+      while (position > 0) {
+        int parent = (position - 1) >>> 1;
+        int parentVertex = heap[parent];
+        if (keys[parentVertex] <= key) {
+          break;
+        }
+        place(parentVertex, position);
+        position = parent;
+      }
+      place(vertex, position);
+    }
+
+    private void siftDown(int vertex, int position) {
+      float key = keys[vertex];
+      int half = size >>> 1;
+      while (position < half) {
+        int child = 2 * position + 1;
+        int right = child + 1;
+        if (right < size && keys[heap[right]] < keys[heap[child]]) {
+          child = right;
+        }
+        if (key <= keys[heap[child]]) {
+          break;
+        }
+        place(heap[child], position);
+        position = child;
+      }
+      place(vertex, position);
+    }
+
+    private void place(int vertex, int position) {
+      heap[position] = vertex;
+      positions[vertex] = position;
+    }
+  }
+
+  private static final class IntList {
+    private int[] values = new int[8];
+    private int size;
+
+    IntList add(int value) {
+      if (size == values.length) {
+        values = Arrays.copyOf(values, 2 * size);
+      }
+      values[size++] = value;
+      return this;
+    }
+  }
+}
@@ -0,0 +1,199 @@
+package graph;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Client of a {@link ShardServer} over one connection. Requests of concurrent callers take turns
+ * on the connection; {@link #forEachEdge(EdgeConsumer)} holds it while the edges stream in, so
+ * its consumer must not call back into this shard.
+ */
+final class SocketShard implements Shard {
+  private final Socket socket;
+  private final DataInputStream input;
+  private final DataOutputStream output;
+  /** Runs after the connection is closed, for a transport that also owns the server. */
+  private final Runnable onClose;
+  private boolean closed;
+
+  SocketShard(InetSocketAddress address, Runnable onClose) throws IOException {
+    Socket socket = new Socket();
+    try {
+      socket.setTcpNoDelay(true);
+      socket.connect(address);
+      this.input = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+      this.output = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+    } catch (IOException e) {
+      socket.close();
+      throw e;
+    }
+    this.socket = socket;
+    this.onClose = onClose;
+  }
+
+  @Override
+  public synchronized int size() {
+    try {
+      output.writeByte(ShardServer.SIZE);
+      output.flush();
+      return input.readInt();
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  @Override
+  public synchronized Optional<Float> getEdgeValue(int vertex1, int vertex2) {
+    try {
+      request(ShardServer.GET, vertex1, vertex2);
+      boolean found = input.readBoolean();
+      float value = input.readFloat();
+      return found ? Optional.of(value) : Optional.empty();
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  @Override
+  public synchronized boolean containsEdge(int vertex1, int vertex2) {
+    try {
+      request(ShardServer.CONTAINS, vertex1, vertex2);
+      return input.readBoolean();
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  /** Sends at most {@link ShardServer#BATCH_PROBES} probes per request. */
+  @Override
+  public synchronized void getEdgeValues(int[] vertices1, int[] vertices2, float[] values,
+      boolean[] found) {
+    try {
+      int batch = Math.min(vertices1.length, ShardServer.BATCH_PROBES);
+      ByteBuffer probes = ByteBuffer.allocate(batch * ShardServer.PROBE_BYTES);
+      ByteBuffer results = ByteBuffer.allocate(batch * ShardServer.RESULT_BYTES);
+      for (int from = 0; from < vertices1.length; from += batch) {
+        int to = Math.min(vertices1.length, from + batch);
+        probes.clear();
+        for (int i = from; i < to; i++) {
+          probes.putInt(vertices1[i]).putInt(vertices2[i]);
+        }
+        output.writeByte(ShardServer.GET_BATCH);
+        output.writeInt(to - from);
+        output.write(probes.array(), 0, probes.position());
+        output.flush();
+        results.clear();
+        input.readFully(results.array(), 0, (to - from) * ShardServer.RESULT_BYTES);
+        for (int i = from; i < to; i++) {
+          found[i] = results.get() != 0;
+          float value = results.getFloat();
+          if (found[i]) {
+            values[i] = value;
+          }
+        }
+      }
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  @Override
+  public synchronized int outDegree(int vertex) {
+    try {
+      output.writeByte(ShardServer.OUT_DEGREE);
+      output.writeInt(vertex);
+      output.flush();
+      return input.readInt();
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  /** Fetches the whole row at once, the iterator does not go back to the server. */
+  @Override
+  public synchronized Iterator<Edge> vertexIterator(int vertex) {
+    try {
+      output.writeByte(ShardServer.ROW);
+      output.writeInt(vertex);
+      output.flush();
+      int degree = input.readInt();
+      List<Edge> edges = new ArrayList<>(degree);
+      for (int i = 0; i < degree; i++) {
+        edges.add(new Edge(vertex, input.readInt(), input.readFloat()));
+      }
+      return edges.iterator();
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  @Override
+  public synchronized void forEachEdge(EdgeConsumer consumer) {
+    try {
+      output.writeByte(ShardServer.SCAN);
+      output.flush();
+      RuntimeException failure = null;
+      ByteBuffer block = ByteBuffer.allocate(ShardServer.SCAN_BLOCK_EDGES
+          * ShardServer.SCAN_EDGE_BYTES);
+      for (int remaining = input.readInt(); remaining > 0; ) {
+        int edges = Math.min(remaining, ShardServer.SCAN_BLOCK_EDGES);
+        input.readFully(block.array(), 0, edges * ShardServer.SCAN_EDGE_BYTES);
+        block.clear();
+        for (int i = 0; i < edges && failure == null; i++) {
+          try {
+            consumer.accept(block.getInt(), block.getInt(), block.getFloat());
+          } catch (RuntimeException e) {
+            // Drains the rest of the scan, so the connection stays usable
+            failure = e;
+          }
+        }
+        remaining -= edges;
+      }
+      if (failure != null) {
+        throw failure;
+      }
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  @Override
+  public synchronized void close() {
+    if (closed) {
+      return;
+    }
+    closed = true;
+    try {
+      socket.close();
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    } finally {
+      onClose.run();
+    }
+  }
+
+  private void request(int request, int vertex1, int vertex2) throws IOException {
+    output.writeByte(request);
+    output.writeInt(vertex1);
+    output.writeInt(vertex2);
+    output.flush();
+  }
+
+  @Override
+  public String toString() {
+    return "SocketShard{" +
+        "address=" + socket.getRemoteSocketAddress() +
+        '}';
+  }
+}
@@ -0,0 +1,20 @@
+package graph;
+
+/**
+ * Strategy used by {@link Graph} to locate the range of out-edges of a source vertex.
+ */
+public enum SourceIndex {
+  /** No index, the range is found with binary searches over the whole source column. */
+  NONE,
+  /** Sorted array of distinct sources plus row offsets, one binary search over distinct sources. */
+  SPARSE,
+  /** Row offsets for every id between the smallest and the largest source, constant time. */
+  DENSE,
+  /** {@link #DENSE} when the source ids are compact enough, {@link #SPARSE} otherwise. */
+  AUTO,
+  /**
+   * {@link #SPARSE} offsets whose distinct sources are searched through a static B-tree of
+   * cache-line sized nodes, a few cache misses per lookup instead of one per binary search step.
+   */
+  BTREE
+}
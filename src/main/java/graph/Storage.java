@@ -0,0 +1,96 @@
+package graph;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+
+/**
+ * Where {@link Graph} keeps its columns and source index once built.
+ */
+public enum Storage {
+  /** Java arrays on the heap. */
+  HEAP {
+    @Override
+    IntColumn ints(int[] array, int length) {
+      return IntColumn.of(array);
+    }
+
+    @Override
+    FloatColumn floats(float[] array, int length) {
+      return FloatColumn.of(array);
+    }
+  },
+
+  /**
+   * Direct byte buffers outside of the heap, in segments of 2^28 elements. The memory counts
+   * against {@code -XX:MaxDirectMemorySize} and is freed when the graph is garbage collected.
+   */
+  OFF_HEAP {
+    @Override
+    IntColumn ints(int[] array, int length) {
+      return IntColumn.offHeap(array, length);
+    }
+
+    @Override
+    FloatColumn floats(float[] array, int length) {
+      return FloatColumn.offHeap(array, length);
+    }
+  };
+
+  private static final Releaser RELEASER = releaser();
+
+  abstract IntColumn ints(int[] array, int length);
+
+  abstract FloatColumn floats(float[] array, int length);
+
+  /**
+   * Frees direct or memory-mapped buffers now rather than when they are garbage collected. The
+   * buffers must not be accessed afterwards. Does nothing when the JDK offers no way to do so.
+   */
+  static void release(ByteBuffer[] buffers) {
+    for (ByteBuffer buffer : buffers) {
+      if (buffer.isDirect()) {
+        RELEASER.release(buffer);
+      }
+    }
+  }
+
+  @FunctionalInterface
+  private interface Releaser {
+    void release(ByteBuffer buffer);
+  }
+
+  /** {@code Unsafe.invokeCleaner} since Java 9, the buffer's cleaner before. */
+  private static Releaser releaser() {
+    try {
+      Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+      Method invokeCleaner = unsafeClass.getMethod("invokeCleaner", ByteBuffer.class);
+      Field field = unsafeClass.getDeclaredField("theUnsafe");
+      field.setAccessible(true);
+      Object unsafe = field.get(null);
+      return buffer -> invoke(invokeCleaner, unsafe, buffer);
+    } catch (ReflectiveOperationException | RuntimeException e) {
+      // Java 8
+    }
+    try {
+      Method cleaner = Class.forName("sun.nio.ch.DirectBuffer").getMethod("cleaner");
+      Method clean = Class.forName("sun.misc.Cleaner").getMethod("clean");
+      return buffer -> {
+        Object bufferCleaner = invoke(cleaner, buffer);
+        if (bufferCleaner != null) {
+          invoke(clean, bufferCleaner);
+        }
+      };
+    } catch (ReflectiveOperationException | RuntimeException e) {
+      return buffer -> { };
+    }
+  }
+
+  private static Object invoke(Method method, Object target, Object... arguments) {
+    try {
+      return method.invoke(target, arguments);
+    } catch (ReflectiveOperationException e) {
+      throw new IllegalStateException("Can not release buffer", e);
+    }
+  }
+}
@@ -0,0 +1,193 @@
+package graph;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * {@link VertexDictionary} of {@code String} keys. Every table slot holds the hash code of a key
+ * next to its id, so keys are only compared when their hash codes are equal.
+ */
+public final class StringVertexDictionary extends VertexDictionary {
+  private static final int GOLDEN_RATIO = 0x9E3779B9;
+
+  /** Pairs of the hash code of a key and its id plus one, empty slots have a 0 id. */
+  private int[] table;
+  private int shift;
+  private int threshold;
+  private String[] keys;
+
+  public StringVertexDictionary() {
+    this(0);
+  }
+
+  public StringVertexDictionary(int expectedSize) {
+    int slots = slots(expectedSize);
+    this.table = new int[slots * 2];
+    this.shift = Integer.numberOfLeadingZeros(slots) + 1;
+    this.threshold = threshold(slots);
+    this.keys = new String[Math.max(MIN_SLOTS, expectedSize)];
+  }
+
+  /**
+   * Reads the dictionary stored with a graph by {@link Graph#writeTo(Path, VertexDictionary)}.
+   * The keys are copied onto the heap.
+   */
+  public static StringVertexDictionary read(Path path) throws IOException {
+    VertexDictionary dictionary = GraphFile.readDictionary(path);
+    if (!(dictionary instanceof StringVertexDictionary)) {
+      throw new IOException("No string vertex dictionary in graph file: " + path);
+    }
+    return (StringVertexDictionary) dictionary;
+  }
+
+  /** Returns the id of {@code key}, adding it with the next id when it is not in the dictionary. */
+  public int add(String key) {
+    Objects.requireNonNull(key, "Null key at size = " + size);
+    int hash = key.hashCode();
+    int mask = table.length - 1;
+    int index = index(hash);
+    for (int id = table[index + 1]; id != 0; id = table[index + 1]) {
+      if (table[index] == hash && keys[id - 1].equals(key)) {
+        return id - 1;
+      }
+      index = (index + 2) & mask;
+    }
+
+    checkSizeLimit();
+    if (size == keys.length) {
+      keys = Arrays.copyOf(keys, grow(size));
+    }
+    int id = size++;
+    keys[id] = key;
+    table[index] = hash;
+    table[index + 1] = id + 1;
+    if (size > threshold) {
+      rehash();
+    }
+    return id;
+  }
+
+  /** Returns the id of {@code key}, or -1 when it is not in the dictionary. */
+  public int id(String key) {
+    Objects.requireNonNull(key, "Null key");
+    int hash = key.hashCode();
+    int mask = table.length - 1;
+    int index = index(hash);
+    for (int id = table[index + 1]; id != 0; id = table[index + 1]) {
+      if (table[index] == hash && keys[id - 1].equals(key)) {
+        return id - 1;
+      }
+      index = (index + 2) & mask;
+    }
+    return -1;
+  }
+
+  public String key(int id) {
+    checkId(id);
+    return keys[id];
+  }
+
+  /** Index of the first slot probed for a key with the hash code {@code hash}. */
+  private int index(int hash) {
+    return (hash * GOLDEN_RATIO) >>> shift << 1;
+  }
+
+  private void rehash() {
+    int slots = table.length;
+    int[] old = table;
+    table = new int[slots * 2];
+    shift--;
+    threshold = threshold(slots);
+    int mask = table.length - 1;
+    for (int i = 0; i < old.length; i += 2) {
+      if (old[i + 1] != 0) {
+        int index = index(old[i]);
+        while (table[index + 1] != 0) {
+          index = (index + 2) & mask;
+        }
+        table[index] = old[i];
+        table[index + 1] = old[i + 1];
+      }
+    }
+  }
+
+  /** Every key is stored as its UTF-8 length, an int, followed by its UTF-8 bytes. */
+  @Override
+  int sectionType() {
+    return GraphFile.STRING_KEYS;
+  }
+
+  @Override
+  long sectionLength() {
+    long length = (long) size * Integer.BYTES;
+    for (int id = 0; id < size; id++) {
+      length += utf8Length(keys[id]);
+    }
+    return length;
+  }
+
+  @Override
+  void write(FileChannel channel, ByteBuffer buffer) throws IOException {
+    for (int id = 0; id < size; id++) {
+      byte[] bytes = keys[id].getBytes(StandardCharsets.UTF_8);
+      if (buffer.remaining() < Integer.BYTES) {
+        GraphFile.flush(channel, buffer);
+      }
+      buffer.putInt(bytes.length);
+      for (int written = 0; written < bytes.length; ) {
+        if (!buffer.hasRemaining()) {
+          GraphFile.flush(channel, buffer);
+        }
+        int length = Math.min(bytes.length - written, buffer.remaining());
+        buffer.put(bytes, written, length);
+        written += length;
+      }
+    }
+  }
+
+  static StringVertexDictionary read(GraphFile.SectionReader reader, int size)
+      throws IOException {
+    StringVertexDictionary dictionary = new StringVertexDictionary(size);
+    for (int id = 0; id < size; id++) {
+      int length = reader.getInt();
+      if (length < 0) {
+        throw new IOException("Negative key length " + length + " in vertex dictionary");
+      }
+      String key = new String(reader.getBytes(length), StandardCharsets.UTF_8);
+      if (dictionary.add(key) != id) {
+        throw new IOException("Duplicate key " + key + " in vertex dictionary");
+      }
+    }
+    return dictionary;
+  }
+
+  /**
+   * Length of {@code key} encoded by {@link String#getBytes}, which replaces unpaired surrogates
+   * with a one-byte {@code '?'}.
+   */
+  static int utf8Length(String key) {
+    int length = 0;
+    for (int i = 0; i < key.length(); i++) {
+      char c = key.charAt(i);
+      if (c < 0x80) {
+        length++;
+      } else if (c < 0x800) {
+        length += 2;
+      } else if (!Character.isSurrogate(c)) {
+        length += 3;
+      } else if (Character.isHighSurrogate(c) && i + 1 < key.length()
+          && Character.isLowSurrogate(key.charAt(i + 1))) {
+        length += 4;
+        i++;
+      } else {
+        length++;
+      }
+    }
+    return length;
+  }
+}
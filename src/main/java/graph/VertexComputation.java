@@ -0,0 +1,249 @@
+package graph;
+
+import java.util.Objects;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.IntConsumer;
+import java.util.stream.IntStream;
+
+/**
+ * The result of running a {@link VertexProgram} over the sorted columns of a {@link Graph} with
+ * a {@link Builder}. Values are kept in two primitive arrays indexed by vertex id, one read and
+ * one written by an iteration, so vertex ids must be dense and non-negative. The computation
+ * stops when the sum of the absolute changes of all values drops to the tolerance, or after the
+ * maximum number of iterations.
+ */
+public final class VertexComputation {
+  private final double[] values;
+  private final int iterations;
+  private final double residual;
+  private final boolean converged;
+
+  private VertexComputation(double[] values, int iterations, double residual,
+      boolean converged) {
+    this.values = values;
+    this.iterations = iterations;
+    this.residual = residual;
+    this.converged = converged;
+  }
+
+  public double value(int vertex) {
+    return vertex >= 0 && vertex < values.length ? values[vertex] : Double.NaN;
+  }
+
+  /** Values indexed by vertex id. The array is not copied. */
+  public double[] values() {
+    return values;
+  }
+
+  public int iterations() {
+    return iterations;
+  }
+
+  /** Sum of the absolute changes of all values in the last iteration. */
+  public double residual() {
+    return residual;
+  }
+
+  public boolean converged() {
+    return converged;
+  }
+
+  /** How messages travel from the sources of edges to their targets. */
+  public enum Direction {
+    /**
+     * Every partition of the sorted edges sends the messages of its sources and adds them to
+     * the targets with a compare-and-set. Works on every graph.
+     */
+    PUSH,
+    /**
+     * Every partition of the incoming edge index sums the messages of its targets without any
+     * synchronization. Needs a graph built with {@link Graph.Builder#incomingIndex(boolean)}.
+     */
+    PULL
+  }
+
+  public static final class Builder {
+    private final Graph graph;
+    private Direction direction;
+    private int maxIterations = 100;
+    private double tolerance = 1e-6;
+    private int partitions = 4 * ForkJoinPool.getCommonPoolParallelism();
+
+    public Builder(Graph graph) {
+      this.graph = Objects.requireNonNull(graph, "Null graph");
+    }
+
+    /** Defaults to {@link Direction#PULL} when the graph has an incoming edge index. */
+    public Builder direction(Direction direction) {
+      this.direction = Objects.requireNonNull(direction, "Null direction");
+      return this;
+    }
+
+    public Builder maxIterations(int maxIterations) {
+      if (maxIterations < 0) {
+        throw new IllegalArgumentException("Max iterations should be >= 0, given max iterations = "
+            + maxIterations);
+      }
+      this.maxIterations = maxIterations;
+      return this;
+    }
+
+    public Builder tolerance(double tolerance) {
+      if (!(tolerance >= 0)) {
+        throw new IllegalArgumentException("Tolerance should be >= 0, given tolerance = "
+            + tolerance);
+      }
+      this.tolerance = tolerance;
+      return this;
+    }
+
+    /**
+     * Number of partitions of the edges, each processed by one fork-join task. Partitions end
+     * on vertex boundaries, so a vertex with many edges makes its partition larger.
+     */
+    public Builder partitions(int partitions) {
+      if (partitions < 1) {
+        throw new IllegalArgumentException("Partitions should be >= 1, given partitions = "
+            + partitions);
+      }
+      this.partitions = partitions;
+      return this;
+    }
+
+    /**
+     * Runs the program. On a relabeled graph it is called with the original ids, see
+     * {@link VertexOrder}, unless it asks for the internal ones with
+     * {@link VertexProgram#internalIds()}; the iterations run over the internal ids.
+     */
+    public VertexComputation run(VertexProgram program) {
+      Objects.requireNonNull(program, "Null vertex program");
+      VertexPermutation permutation = graph.permutation();
+      return run(permutation == null || program.internalIds() ? program
+          : permutation.toExternal(program), permutation);
+    }
+
+    private VertexComputation run(VertexProgram program, VertexPermutation permutation) {
+      Graph incoming = graph.incoming();
+      Direction direction = this.direction != null ? this.direction
+          : incoming != null ? Direction.PULL : Direction.PUSH;
+      if (direction == Direction.PULL && incoming == null) {
+        throw new IllegalStateException("Graph was built without an incoming edge index");
+      }
+
+      int vertices = graph.vertexBound();
+      Graph edges = direction == Direction.PULL ? incoming : graph;
+      int[] edgeBounds = partition(edges.vertices1(), edges.size(), partitions);
+      int[] vertexBounds = new int[partitions + 1];
+      for (int p = 1; p <= partitions; p++) {
+        vertexBounds[p] = direction == Direction.PUSH ? (int) ((long) vertices * p / partitions)
+            : edgeBounds[p] < edges.size() ? edges.vertices1().get(edgeBounds[p]) : vertices;
+      }
+
+      double[][] buffers = {new double[vertices], new double[vertices]};
+      forEachPartition(partitions, p -> {
+        for (int vertex = vertexBounds[p]; vertex < vertexBounds[p + 1]; vertex++) {
+          buffers[0][vertex] = program.initialValue(vertex);
+        }
+      });
+
+      AtomicLongArray sums = direction == Direction.PUSH ? new AtomicLongArray(vertices) : null;
+      double[] residuals = new double[partitions];
+      double residual = Double.POSITIVE_INFINITY;
+      int iteration = 0;
+      while (iteration < maxIterations && !(residual <= tolerance)) {
+        double[] values = buffers[iteration & 1];
+        double[] next = buffers[~iteration & 1];
+        program.beforeIteration(values);
+        if (direction == Direction.PULL) {
+          forEachPartition(partitions, p -> residuals[p] = pull(program, incoming, values, next,
+              edgeBounds[p], edgeBounds[p + 1], vertexBounds[p], vertexBounds[p + 1]));
+        } else {
+          forEachPartition(partitions, p ->
+              push(program, graph, values, sums, edgeBounds[p], edgeBounds[p + 1]));
+          forEachPartition(partitions, p -> residuals[p] = apply(program, values, next, sums,
+              vertexBounds[p], vertexBounds[p + 1]));
+        }
+
+        residual = 0;
+        for (double partitionResidual : residuals) {
+          residual += partitionResidual;
+        }
+        iteration++;
+      }
+
+      double[] values = buffers[iteration & 1];
+      return new VertexComputation(permutation == null ? values : permutation.toExternal(values),
+          iteration, residual, residual <= tolerance);
+    }
+  }
+
+  private static double pull(VertexProgram program, Graph incoming, double[] values,
+      double[] next, int from, int to, int fromVertex, int toVertex) {
+    IntColumn targets = incoming.vertices1();
+    IntColumn sources = incoming.vertices2();
+    FloatColumn edgeValues = incoming.values();
+    double residual = 0;
+    int i = from;
+    for (int vertex = fromVertex; vertex < toVertex; vertex++) {
+      double messages = 0;
+      for (; i < to && targets.get(i) == vertex; i++) {
+        int source = sources.get(i);
+        messages += program.message(source, values[source], edgeValues.get(i));
+      }
+      double value = program.apply(vertex, messages, values[vertex]);
+      next[vertex] = value;
+      residual += Math.abs(value - values[vertex]);
+    }
+    return residual;
+  }
+
+  private static void push(VertexProgram program, Graph graph, double[] values,
+      AtomicLongArray sums, int from, int to) {
+    IntColumn sources = graph.vertices1();
+    IntColumn targets = graph.vertices2();
+    FloatColumn edgeValues = graph.values();
+    for (int i = from; i < to; i++) {
+      int source = sources.get(i);
+      double message = program.message(source, values[source], edgeValues.get(i));
+      int target = targets.get(i);
+      long current = sums.get(target);
+      while (!sums.compareAndSet(target, current,
+          Double.doubleToRawLongBits(Double.longBitsToDouble(current) + message))) {
+        current = sums.get(target);
+      }
+    }
+  }
+
+  private static double apply(VertexProgram program, double[] values, double[] next,
+      AtomicLongArray sums, int fromVertex, int toVertex) {
+    double residual = 0;
+    for (int vertex = fromVertex; vertex < toVertex; vertex++) {
+      double messages = Double.longBitsToDouble(sums.get(vertex));
+      sums.lazySet(vertex, 0);
+      double value = program.apply(vertex, messages, values[vertex]);
+      next[vertex] = value;
+      residual += Math.abs(value - values[vertex]);
+    }
+    return residual;
+  }
+
+  /** Splits the edges into ranges of about the same size that end on vertex boundaries. */
+  static int[] partition(IntColumn vertices1, int size, int partitions) {
+    int[] bounds = new int[partitions + 1];
+    bounds[partitions] = size;
+    for (int p = 1; p < partitions; p++) {
+      int bound = Math.max(bounds[p - 1], (int) ((long) size * p / partitions));
+      while (bound > 0 && bound < size && vertices1.get(bound) == vertices1.get(bound - 1)) {
+        bound++;
+      }
+      bounds[p] = bound;
+    }
+    return bounds;
+  }
+
+  private static void forEachPartition(int partitions, IntConsumer action) {
+    IntStream range = IntStream.range(0, partitions);
+    (partitions > 1 ? range.parallel() : range).forEach(action);
+  }
+}
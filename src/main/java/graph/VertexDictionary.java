@@ -0,0 +1,74 @@
+package graph;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+
+/**
+ * Maps external vertex keys to the dense ids {@code 0, 1, ..., size() - 1}, in the order the keys
+ * are first added, and the ids back to their keys. Graphs built with dense ids instead of sparse
+ * keys, like 64-bit hashes or names, get compact {@link SourceIndex#DENSE} row offsets and can
+ * keep per-vertex state in arrays of {@link #size()} elements. Keys are found in an
+ * open-addressing table of primitives, with linear probing and Fibonacci hashing. A dictionary
+ * is stored in the file of its graph by {@link Graph#writeTo(Path, VertexDictionary)}.
+ *
+ * <p>Adding keys is not thread-safe. Once all keys are added, lookups may run concurrently.
+ */
+public abstract class VertexDictionary {
+  /** Largest size, at which the table of a quarter empty slots still fits an array. */
+  static final int MAX_SIZE = 3 << 27;
+  static final int MIN_SLOTS = 16;
+
+  int size;
+
+  VertexDictionary() {
+  }
+
+  /** Number of keys, which is also the smallest id bound of the graphs built with them. */
+  public int size() {
+    return size;
+  }
+
+  /** Number of table slots, a power of two, to hold {@code size} keys. */
+  static int slots(int size) {
+    if (size < 0) {
+      throw new IllegalArgumentException("Expected size should be >= 0, given expected size = "
+          + size);
+    }
+    int slots = MIN_SLOTS;
+    while (slots < (long) size * 4 / 3 + 1 && slots < 1 << 29) {
+      slots <<= 1;
+    }
+    return slots;
+  }
+
+  /** The table is grown when adding keys beyond three quarters of its slots. */
+  static int threshold(int slots) {
+    return slots / 4 * 3;
+  }
+
+  void checkSizeLimit() {
+    if (size == MAX_SIZE) {
+      throw new CapacityExceededException("Vertex dictionary size exceeds " + MAX_SIZE);
+    }
+  }
+
+  static int grow(int length) {
+    return (int) Math.min(MAX_SIZE, Math.max(MIN_SLOTS, (long) length * 2));
+  }
+
+  void checkId(int id) {
+    if (id < 0 || id >= size) {
+      throw new IndexOutOfBoundsException("Id " + id + " out of bounds for size " + size);
+    }
+  }
+
+  /** Type of the {@link GraphFile} section holding the keys. */
+  abstract int sectionType();
+
+  abstract long sectionLength();
+
+  /** Writes the keys section through {@code buffer}, which is flushed to the channel. */
+  abstract void write(FileChannel channel, ByteBuffer buffer) throws IOException;
+}
@@ -0,0 +1,26 @@
+package graph;
+
+/**
+ * Order in which {@link Graph.Builder#vertexOrder(VertexOrder)} renumbers the vertices before the
+ * edges are sorted, so that vertices traversed together get nearby ids and their rows and
+ * per-vertex state share cache lines and pages. The graph keeps the permutation and translates
+ * ids at its boundary: lookups, iterators and algorithms take and return the original ids, only
+ * the order of the edges over the whole graph follows the new ids.
+ */
+public enum VertexOrder {
+  /** Keeps the given ids. */
+  NONE,
+  /** By decreasing degree, counting out- and in-edges, so the hubs share the first pages. */
+  DEGREE,
+  /**
+   * Breadth-first over the edges in both directions, every component from its vertex of highest
+   * degree, so the neighbors of a vertex get consecutive ids.
+   */
+  BFS,
+  /**
+   * Reverse Cuthill-McKee: breadth-first over the edges in both directions from a vertex of
+   * lowest degree, neighbors by increasing degree, then reversed. Keeps the ids of both ends of
+   * every edge close, which narrows the band of the adjacency matrix.
+   */
+  RCM
+}
@@ -0,0 +1,300 @@
+package graph;
+
+import java.util.Arrays;
+
+/**
+ * Renumbering of the vertex ids {@code [0, size())} of a graph built with a {@link VertexOrder}.
+ * The columns of the graph hold internal ids; {@link #internal(int)} and {@link #external(int)}
+ * translate them and leave ids outside of the range unchanged, which are missing from the graph
+ * either way. Ids without edges inside the range are numbered last.
+ */
+final class VertexPermutation {
+  private final VertexOrder order;
+  /** External id of every internal id. */
+  private final IntColumn externals;
+  /** Internal id of every external id. */
+  private final IntColumn internals;
+  private final int size;
+
+  VertexPermutation(VertexOrder order, IntColumn externals, IntColumn internals, int size) {
+    this.order = order;
+    this.externals = externals;
+    this.internals = internals;
+    this.size = size;
+  }
+
+  /**
+   * Computes the order of the vertices of the edges and replaces their ids by internal ones in
+   * place. Vertex ids must be non-negative and dense enough for arrays indexed by id.
+   */
+  static VertexPermutation relabel(VertexOrder order, int[] vertices1, int[] vertices2, int size,
+      Storage storage) {
+    int vertices = bound(vertices1, vertices2, size);
+    int[] degrees = new int[vertices];
+    for (int i = 0; i < size; i++) {
+      degrees[vertices1[i]]++;
+      degrees[vertices2[i]]++;
+    }
+    int distinct = 0;
+    for (int degree : degrees) {
+      distinct += degree > 0 ? 1 : 0;
+    }
+    checkDensity(vertices, distinct, size);
+
+    int[] externals;
+    switch (order) {
+      case DEGREE:
+        externals = byDegree(degrees, true);
+        break;
+      case BFS:
+        externals = new int[vertices];
+        breadthFirst(new Adjacency(vertices1, vertices2, size, vertices), degrees,
+            byDegree(degrees, true), false, externals);
+        break;
+      case RCM:
+        externals = reverseCuthillMcKee(new Adjacency(vertices1, vertices2, size, vertices),
+            degrees, distinct);
+        break;
+      default:
+        throw new IllegalArgumentException("Unknown vertex order " + order);
+    }
+
+    int[] internals = new int[vertices];
+    for (int i = 0; i < vertices; i++) {
+      internals[externals[i]] = i;
+    }
+    EdgeSorter.Blocks blocks = new EdgeSorter.Blocks(size, size >= EdgeSorter.PARALLEL_THRESHOLD);
+    blocks.forEach(block -> {
+      for (int i = blocks.from(block), to = blocks.to(block); i < to; i++) {
+        vertices1[i] = internals[vertices1[i]];
+        vertices2[i] = internals[vertices2[i]];
+      }
+    });
+    return new VertexPermutation(order, storage.ints(externals, vertices),
+        storage.ints(internals, vertices), vertices);
+  }
+
+  VertexOrder order() {
+    return order;
+  }
+
+  /** Number of renumbered ids, one more than the largest external id. */
+  int size() {
+    return size;
+  }
+
+  IntColumn externals() {
+    return externals;
+  }
+
+  IntColumn internals() {
+    return internals;
+  }
+
+  int internal(int vertex) {
+    return vertex >= 0 && vertex < size ? internals.get(vertex) : vertex;
+  }
+
+  int external(int vertex) {
+    return vertex >= 0 && vertex < size ? externals.get(vertex) : vertex;
+  }
+
+  /**
+   * Re-indexes per-vertex results computed over internal ids by external id, translating the
+   * results too when they are vertex ids. Ids past the end of {@code values} get {@code missing}.
+   */
+  int[] toExternal(int[] values, boolean ids, int missing) {
+    int[] result = new int[Math.max(values.length, size)];
+    Arrays.fill(result, missing);
+    for (int vertex = 0; vertex < values.length; vertex++) {
+      int value = values[vertex];
+      result[external(vertex)] = ids && value >= 0 ? external(value) : value;
+    }
+    return result;
+  }
+
+  float[] toExternal(float[] values, float missing) {
+    float[] result = new float[Math.max(values.length, size)];
+    Arrays.fill(result, missing);
+    for (int vertex = 0; vertex < values.length; vertex++) {
+      result[external(vertex)] = values[vertex];
+    }
+    return result;
+  }
+
+  double[] toExternal(double[] values) {
+    double[] result = new double[values.length];
+    for (int vertex = 0; vertex < values.length; vertex++) {
+      result[external(vertex)] = values[vertex];
+    }
+    return result;
+  }
+
+  /**
+   * Runs {@code program} over internal ids: the ids it is called with are translated back, and
+   * {@link VertexProgram#beforeIteration} gets a copy of the values indexed by external id.
+   */
+  VertexProgram toExternal(VertexProgram program) {
+    return new VertexProgram() {
+      @Override
+      public double initialValue(int vertex) {
+        return program.initialValue(external(vertex));
+      }
+
+      @Override
+      public void beforeIteration(double[] values) {
+        program.beforeIteration(toExternal(values));
+      }
+
+      @Override
+      public double message(int source, double value, float edgeValue) {
+        return program.message(external(source), value, edgeValue);
+      }
+
+      @Override
+      public double apply(int vertex, double messages, double value) {
+        return program.apply(external(vertex), messages, value);
+      }
+    };
+  }
+
+  void release() {
+    externals.release();
+    internals.release();
+  }
+
+  private static int bound(int[] vertices1, int[] vertices2, int size) {
+    int min = 0;
+    int max = -1;
+    for (int i = 0; i < size; i++) {
+      min = Math.min(min, Math.min(vertices1[i], vertices2[i]));
+      max = Math.max(max, Math.max(vertices1[i], vertices2[i]));
+    }
+    if (min < 0) {
+      throw new IllegalArgumentException("Vertex ids should be >= 0, given vertex = " + min);
+    }
+    if (max == Integer.MAX_VALUE) {
+      throw new IllegalArgumentException("Vertex id " + max + " is too large");
+    }
+    checkDensity(max + 1, 2L * size, size);
+    return max + 1;
+  }
+
+  /** Rejects ids too sparse for arrays indexed by id, like the rule of {@link SourceIndex#AUTO}. */
+  private static void checkDensity(int vertices, long distinct, int size) {
+    if (vertices > RowIndex.DENSE_MAX_OVERHEAD * distinct) {
+      throw new IllegalArgumentException("Vertex ids span " + vertices + " values for " + size
+          + " edges, too sparse to relabel; map them to dense ids with a VertexDictionary");
+    }
+  }
+
+  /** Vertices by degree, ties by id. */
+  private static int[] byDegree(int[] degrees, boolean decreasing) {
+    long[] keys = new long[degrees.length];
+    for (int vertex = 0; vertex < degrees.length; vertex++) {
+      long degree = decreasing ? Integer.MAX_VALUE - degrees[vertex] : degrees[vertex];
+      keys[vertex] = degree << 32 | vertex;
+    }
+    Arrays.parallelSort(keys);
+    int[] vertices = new int[degrees.length];
+    for (int i = 0; i < vertices.length; i++) {
+      vertices[i] = (int) keys[i];
+    }
+    return vertices;
+  }
+
+  /**
+   * Appends the vertices to {@code order} breadth-first, starting a new search from the next
+   * unvisited seed whenever the queue runs empty. The queue is {@code order} itself. Returns the
+   * number of vertices appended.
+   */
+  private static int breadthFirst(Adjacency adjacency, int[] degrees, int[] seeds,
+      boolean byDegree, int[] order) {
+    boolean[] visited = new boolean[degrees.length];
+    long[] neighbors = new long[16];
+    int tail = 0;
+    for (int seed : seeds) {
+      if (visited[seed]) {
+        continue;
+      }
+      visited[seed] = true;
+      order[tail++] = seed;
+      for (int head = tail - 1; head < tail; head++) {
+        int vertex = order[head];
+        int found = 0;
+        for (int pass = 0; pass < 2; pass++) {
+          int[] offsets = pass == 0 ? adjacency.outOffsets : adjacency.inOffsets;
+          int[] targets = pass == 0 ? adjacency.targets : adjacency.sources;
+          for (int i = offsets[vertex], end = offsets[vertex + 1]; i < end; i++) {
+            int neighbor = targets[i];
+            if (visited[neighbor]) {
+              continue;
+            }
+            visited[neighbor] = true;
+            if (!byDegree) {
+              order[tail++] = neighbor;
+              continue;
+            }
+            if (found == neighbors.length) {
+              neighbors = Arrays.copyOf(neighbors, 2 * found);
+            }
+            neighbors[found++] = (long) degrees[neighbor] << 32 | neighbor;
+          }
+        }
+        Arrays.sort(neighbors, 0, found);
+        for (int i = 0; i < found; i++) {
+          order[tail++] = (int) neighbors[i];
+        }
+      }
+    }
+    return tail;
+  }
+
+  /**
+   * Cuthill-McKee order of the vertices with edges, every component from a vertex of lowest
+   * degree, reversed, followed by the ids without edges.
+   */
+  private static int[] reverseCuthillMcKee(Adjacency adjacency, int[] degrees, int distinct) {
+    int vertices = degrees.length;
+    int[] seeds = byDegree(degrees, false);
+    int[] order = new int[vertices];
+    breadthFirst(adjacency, degrees, Arrays.copyOfRange(seeds, vertices - distinct, vertices),
+        true, order);
+    for (int i = 0, j = distinct - 1; i < j; i++, j--) {
+      int vertex = order[i];
+      order[i] = order[j];
+      order[j] = vertex;
+    }
+    System.arraycopy(seeds, 0, order, distinct, vertices - distinct);
+    return order;
+  }
+
+  /** Out- and in-neighbors of every vertex, grouped with row offsets like the sorted columns. */
+  private static final class Adjacency {
+    final int[] outOffsets;
+    final int[] targets;
+    final int[] inOffsets;
+    final int[] sources;
+
+    Adjacency(int[] vertices1, int[] vertices2, int size, int vertices) {
+      outOffsets = new int[vertices + 1];
+      inOffsets = new int[vertices + 1];
+      for (int i = 0; i < size; i++) {
+        outOffsets[vertices1[i] + 1]++;
+        inOffsets[vertices2[i] + 1]++;
+      }
+      for (int vertex = 0; vertex < vertices; vertex++) {
+        outOffsets[vertex + 1] += outOffsets[vertex];
+        inOffsets[vertex + 1] += inOffsets[vertex];
+      }
+      targets = new int[size];
+      sources = new int[size];
+      int[] outNext = Arrays.copyOf(outOffsets, vertices);
+      int[] inNext = Arrays.copyOf(inOffsets, vertices);
+      for (int i = 0; i < size; i++) {
+        targets[outNext[vertices1[i]]++] = vertices2[i];
+        sources[inNext[vertices2[i]]++] = vertices1[i];
+      }
+    }
+  }
+}
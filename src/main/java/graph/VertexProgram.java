@@ -0,0 +1,33 @@
+package graph;
+
+/**
+ * An iterative per-vertex computation run by {@link VertexComputation}. Every iteration each
+ * edge sends a message computed from the current value of its source, the messages of the
+ * in-edges of a vertex are summed, and the sum is applied to the current value of the vertex to
+ * give its next value. Methods are called concurrently for different vertices and edges.
+ */
+public interface VertexProgram {
+
+  double initialValue(int vertex);
+
+  /**
+   * Whether the program is called with the internal ids of a graph relabeled by
+   * {@link Graph.Builder#vertexOrder(VertexOrder)} rather than with the original ones. Defaults
+   * to false: the ids are translated back and {@link #beforeIteration} gets a copy of the values
+   * indexed by original id, one lookup per call and one copy per iteration. A program that does
+   * not depend on the ids, or that was built from the graph's own columns, can skip both.
+   */
+  default boolean internalIds() {
+    return false;
+  }
+
+  /** Called once before every iteration with the current values, which must not be changed. */
+  default void beforeIteration(double[] values) {
+  }
+
+  /** The message sent along an edge from {@code source}, whose current value is given. */
+  double message(int source, double value, float edgeValue);
+
+  /** The next value of the vertex from the sum of its messages and its current value. */
+  double apply(int vertex, double messages, double value);
+}
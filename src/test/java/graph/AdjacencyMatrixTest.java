@@ -0,0 +1,146 @@
+package graph;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+class AdjacencyMatrixTest {
+  private static final int VERTICES = 500;
+
+  private static Stream<Arguments> partitionsAndIndexes() {
+    List<Arguments> arguments = new ArrayList<>();
+    for (int partitions : new int[] {1, 7}) {
+      for (boolean incomingIndex : new boolean[] {false, true}) {
+        for (int vectors : new int[] {1, 3}) {
+          arguments.add(Arguments.of(partitions, incomingIndex, vectors));
+        }
+      }
+    }
+    return arguments.stream();
+  }
+
+  @ParameterizedTest
+  @MethodSource("partitionsAndIndexes")
+  void testMatchesEdgeSums(int partitions, boolean incomingIndex, int vectors) {
+    Graph graph = randomGraph(incomingIndex);
+    AdjacencyMatrix matrix = new AdjacencyMatrix(graph, partitions);
+    int dimension = VERTICES + 20;
+    assertEquals(dimension, matrix.dimension());
+    assertEquals(graph.size(), matrix.nonZeros());
+
+    Random random = new Random(5);
+    double[] x = new double[dimension * vectors];
+    for (int i = 0; i < x.length; i++) {
+      x[i] = random.nextDouble() - 0.5;
+    }
+    double[] expected = new double[dimension * vectors];
+    double[] expectedTransposed = new double[dimension * vectors];
+    graph.forEachEdge((vertex1, vertex2, value) -> {
+      for (int j = 0; j < vectors; j++) {
+        expected[vertex1 * vectors + j] += value * x[vertex2 * vectors + j];
+        expectedTransposed[vertex2 * vectors + j] += value * x[vertex1 * vectors + j];
+      }
+    });
+
+    // Stale output, every element up to the dimension has to be written
+    double[] y = new double[dimension * vectors + 1];
+    Arrays.fill(y, 9);
+    matrix.multiply(x, y, vectors);
+    assertArrayEquals(expected, Arrays.copyOf(y, expected.length), 1e-9);
+    assertEquals(9, y[y.length - 1]);
+    Arrays.fill(y, 9);
+    matrix.multiplyTransposed(x, y, vectors);
+    assertArrayEquals(expectedTransposed, Arrays.copyOf(y, expected.length), 1e-9);
+
+    float[] floatX = new float[x.length];
+    for (int i = 0; i < x.length; i++) {
+      floatX[i] = (float) x[i];
+    }
+    float[] floatY = new float[expected.length];
+    Arrays.fill(floatY, 9);
+    matrix.multiply(floatX, floatY, vectors);
+    assertArrayEquals(toFloats(expected), floatY, 1e-4f);
+    Arrays.fill(floatY, 9);
+    matrix.multiplyTransposed(floatX, floatY, vectors);
+    assertArrayEquals(toFloats(expectedTransposed), floatY, 1e-4f);
+
+    if (vectors == 1) {
+      double[] single = new double[dimension];
+      matrix.multiply(x, single);
+      assertArrayEquals(expected, single, 1e-9);
+      matrix.multiplyTransposed(x, single);
+      assertArrayEquals(expectedTransposed, single, 1e-9);
+      matrix.multiply(floatX, floatY);
+      assertArrayEquals(toFloats(expected), floatY, 1e-4f);
+      matrix.multiplyTransposed(floatX, floatY);
+      assertArrayEquals(toFloats(expectedTransposed), floatY, 1e-4f);
+    }
+  }
+
+  @Test
+  void testEmptyGraph() {
+    AdjacencyMatrix matrix = new AdjacencyMatrix(new Graph.Builder().build(), 3);
+    assertEquals(0, matrix.dimension());
+    matrix.multiply(new float[0], new float[0]);
+    matrix.multiplyTransposed(new double[0], new double[0], 2);
+  }
+
+  @Test
+  void testInvalidArguments() {
+    Graph graph = new Graph.Builder().addEdge(0, 3, 1).build();
+    AdjacencyMatrix matrix = new AdjacencyMatrix(graph);
+
+    assertThrows(NullPointerException.class, () -> new AdjacencyMatrix(null));
+    assertThrows(IllegalArgumentException.class, () -> new AdjacencyMatrix(graph, 0));
+    assertThrows(IllegalArgumentException.class, () -> new AdjacencyMatrix(new Graph.Builder()
+        .vertexOrder(VertexOrder.DEGREE).addEdge(0, 1, 1).build()));
+    assertThrows(IllegalArgumentException.class,
+        () -> new AdjacencyMatrix(new Graph.Builder().addEdge(-1, 1, 1).build()));
+    assertThrows(NullPointerException.class, () -> matrix.multiply(null, new float[4]));
+    assertThrows(IllegalArgumentException.class, () -> matrix.multiply(new float[3],
+        new float[4]));
+    assertThrows(IllegalArgumentException.class, () -> matrix.multiply(new double[4],
+        new double[4], 0));
+    assertThrows(IllegalArgumentException.class, () -> matrix.multiplyTransposed(new double[4],
+        new double[7], 2));
+    float[] vector = new float[4];
+    assertThrows(IllegalArgumentException.class, () -> matrix.multiply(vector, vector));
+    assertThrows(CapacityExceededException.class, () -> matrix.multiply(new float[4],
+        new float[4], Integer.MAX_VALUE / 2));
+  }
+
+  /** Random edges from the sources {@code [0, VERTICES)}, empty rows included, to 20 more. */
+  private static Graph randomGraph(boolean incomingIndex) {
+    Random random = new Random(4);
+    Graph.Builder builder = new Graph.Builder().incomingIndex(incomingIndex)
+        .duplicatePolicy(DuplicatePolicy.KEEP_FIRST);
+    for (int i = 0; i < 5000; i++) {
+      int vertex1 = random.nextInt(VERTICES);
+      if (vertex1 % 10 != 3) {
+        builder.addEdge(vertex1, random.nextInt(VERTICES), random.nextFloat());
+      }
+    }
+    for (int vertex1 = 0; vertex1 < 20; vertex1++) {
+      builder.addEdge(vertex1, VERTICES + vertex1, 1 + vertex1);
+    }
+    return builder.build();
+  }
+
+  private static float[] toFloats(double[] values) {
+    float[] floats = new float[values.length];
+    for (int i = 0; i < values.length; i++) {
+      floats[i] = (float) values[i];
+    }
+    return floats;
+  }
+}
@@ -0,0 +1,100 @@
+package graph;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+class BreadthFirstSearchTest {
+
+  private static Stream<Arguments> graphs() {
+    return Stream.of(
+        Arguments.of(10, 20, false),
+        Arguments.of(10, 20, true),
+        Arguments.of(5000, 40_000, false),
+        Arguments.of(5000, 40_000, true),
+        Arguments.of(100_000, 300_000, true)
+    );
+  }
+
+  @ParameterizedTest
+  @MethodSource("graphs")
+  void testMatchesSequentialSearch(int vertices, int edges, boolean incomingIndex) {
+    Graph.Builder builder = new Graph.Builder().incomingIndex(incomingIndex);
+    for (int i = 0; i < edges; i++) {
+      int source = (int) ((long) i * 31 % vertices);
+      builder.addEdge(source, (int) ((source * 3L + 1 + i / vertices * 7919L) % vertices), 1);
+    }
+    Graph graph = builder.build();
+
+    BreadthFirstSearch search = BreadthFirstSearch.search(graph, 0);
+
+    assertArrayEquals(sequentialDepths(graph, vertices, 0), search.depths());
+    for (int vertex = 1; vertex < vertices; vertex++) {
+      int parent = search.parent(vertex);
+      if (search.depth(vertex) < 0) {
+        assertEquals(-1, parent);
+      } else {
+        assertEquals(search.depth(vertex) - 1, search.depth(parent));
+        assertTrue(graph.containsEdge(parent, vertex));
+      }
+    }
+  }
+
+  @Test
+  void testSmallGraph() {
+    Graph graph = new Graph.Builder(5)
+        .incomingIndex(true)
+        .addEdge(new Edge(0, 1, 0))
+        .addEdge(new Edge(1, 2, 0))
+        .addEdge(new Edge(0, 2, 0))
+        .addEdge(new Edge(2, 3, 0))
+        .addEdge(new Edge(4, 0, 0))
+        .build();
+
+    BreadthFirstSearch search = BreadthFirstSearch.search(graph, 0);
+
+    assertEquals(0, search.source());
+    assertArrayEquals(new int[] {0, 1, 1, 2, -1}, search.depths());
+    assertArrayEquals(new int[] {-1, 0, 0, 2, -1}, search.parents());
+    assertEquals(-1, search.depth(70));
+    assertEquals(-1, search.parent(-1));
+  }
+
+  @Test
+  void testSourceOutsideGraph() {
+    BreadthFirstSearch search = BreadthFirstSearch.search(new Graph.Builder(0).build(), 100);
+
+    assertEquals(0, search.depth(100));
+    assertEquals(-1, search.depth(99));
+    assertThrows(IllegalArgumentException.class,
+        () -> BreadthFirstSearch.search(new Graph.Builder(0).build(), -1));
+  }
+
+  private static int[] sequentialDepths(Graph graph, int vertices, int source) {
+    int[] depths = new int[Math.max(vertices, graph.vertexBound())];
+    Arrays.fill(depths, -1);
+    depths[source] = 0;
+    Deque<Integer> queue = new ArrayDeque<>();
+    queue.add(source);
+    while (!queue.isEmpty()) {
+      int vertex = queue.poll();
+      graph.forEachNeighbor(vertex, (vertex1, vertex2, value) -> {
+        if (depths[vertex2] < 0) {
+          depths[vertex2] = depths[vertex1] + 1;
+          queue.add(vertex2);
+        }
+      });
+    }
+    return depths;
+  }
+}
@@ -0,0 +1,150 @@
+package graph;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Optional;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+class CompressedGraphTest {
+
+  /** Mostly small local ids, some hubs with long rows and a few extreme ids. */
+  private static Graph randomGraph(int size, long seed) {
+    Random random = new Random(seed);
+    Graph.Builder builder = new Graph.Builder(size + 3);
+    for (int i = 0; i < size; i++) {
+      int source;
+      int target;
+      switch (i % 10) {
+        case 0:
+          source = random.nextInt(3);
+          target = -i - 1000;
+          break;
+        case 1:
+          source = random.nextInt();
+          target = random.nextInt();
+          break;
+        default:
+          source = i / 20;
+          target = source + i % 20 * 4 + random.nextInt(3) - 40;
+      }
+      builder.addEdge(source, target, random.nextFloat() * 100 - 50);
+    }
+    builder.addEdge(Integer.MIN_VALUE, Integer.MAX_VALUE, 1);
+    builder.addEdge(Integer.MIN_VALUE, Integer.MIN_VALUE, 2);
+    builder.addEdge(Integer.MAX_VALUE, Integer.MIN_VALUE, 3);
+    return builder.build();
+  }
+
+  @Test
+  void testMatchesGraph() {
+    Graph graph = randomGraph(100_000, 1);
+    CompressedGraph compressed = CompressedGraph.compress(graph);
+
+    assertEquals(graph.size(), compressed.size());
+    assertEquals(toList(graph.iterator()), toList(compressed.iterator()));
+    List<Edge> visited = new ArrayList<>();
+    compressed.forEachEdge((vertex1, vertex2, value) -> visited.add(new Edge(vertex1, vertex2,
+        value)));
+    assertEquals(toList(graph.iterator()), visited);
+    assertEquals(toList(graph.iterator()), toList(compressed.toGraph().iterator()));
+
+    for (Edge edge : graph) {
+      int source = edge.getVertex1();
+      assertEquals(Optional.of(edge.getValue()),
+          compressed.getEdgeValue(source, edge.getVertex2()));
+      assertFalse(compressed.containsEdge(source, edge.getVertex2() + 1)
+          != graph.containsEdge(source, edge.getVertex2() + 1));
+      assertFalse(compressed.containsEdge(source, edge.getVertex2() - 1)
+          != graph.containsEdge(source, edge.getVertex2() - 1));
+    }
+  }
+
+  @Test
+  void testVertexAccess() {
+    Graph graph = randomGraph(50_000, 2);
+    CompressedGraph compressed = CompressedGraph.compress(graph);
+
+    for (int vertex : new int[] {0, 1, 2, 7, 500, 2499, 2500, Integer.MIN_VALUE,
+        Integer.MAX_VALUE, -5}) {
+      assertEquals(toList(graph.vertexIterator(vertex)),
+          toList(compressed.vertexIterator(vertex)));
+      assertEquals(graph.outDegree(vertex), compressed.outDegree(vertex));
+      List<Edge> neighbors = new ArrayList<>();
+      compressed.forEachNeighbor(vertex, (vertex1, vertex2, value) ->
+          neighbors.add(new Edge(vertex1, vertex2, value)));
+      assertEquals(toList(graph.vertexIterator(vertex)), neighbors);
+    }
+    assertTrue(compressed.outDegree(0) > 1000);
+    assertEquals(-1f, compressed.getEdgeValueOrDefault(-5, 0, -1f));
+    assertThrows(NoSuchElementException.class, () -> compressed.vertexIterator(-5).next());
+  }
+
+  @Test
+  void testQuantizedValues() {
+    Graph graph = randomGraph(20_000, 3);
+
+    for (int bits : new int[] {8, 16}) {
+      CompressedGraph compressed = CompressedGraph.compress(graph, bits);
+      float step = 100f / ((1 << bits) - 1);
+      assertEquals(bits, compressed.valueBits());
+
+      Iterator<Edge> expected = graph.iterator();
+      for (Edge edge : compressed) {
+        Edge original = expected.next();
+        assertEquals(original.getVertex2(), edge.getVertex2());
+        assertEquals(original.getValue(), edge.getValue(), step / 2 + 1e-4);
+      }
+    }
+  }
+
+  @Test
+  void testSizeInBytes() {
+    Graph.Builder builder = new Graph.Builder(100_000);
+    for (int i = 0; i < 100_000; i++) {
+      builder.addEdge(i / 16, i / 16 + i % 16 * 3, 1);
+    }
+    Graph graph = builder.build();
+
+    long floats = CompressedGraph.compress(graph).sizeInBytes();
+    long bytes = CompressedGraph.compress(graph, 8).sizeInBytes();
+
+    assertTrue(floats < 6L * graph.size(), "Bytes " + floats);
+    assertTrue(bytes < 3L * graph.size(), "Bytes " + bytes);
+  }
+
+  @Test
+  void testConstantAndEmpty() {
+    Graph constant = new Graph.Builder(2).addEdge(0, 1, 7).addEdge(1, 0, 7).build();
+    CompressedGraph empty = CompressedGraph.compress(new Graph.Builder(0).build(), 8);
+
+    assertEquals(7f, CompressedGraph.compress(constant, 8).getEdgeValueOrDefault(1, 0, 0));
+    assertEquals(0, empty.size());
+    assertFalse(empty.iterator().hasNext());
+    assertFalse(empty.containsEdge(0, 0));
+    assertEquals(0, empty.toGraph().size());
+  }
+
+  @Test
+  void testInvalidInput() {
+    Graph graph = new Graph.Builder(1).addEdge(0, 1, Float.NaN).build();
+
+    assertThrows(IllegalArgumentException.class, () -> CompressedGraph.compress(graph, 8));
+    assertThrows(IllegalArgumentException.class, () -> CompressedGraph.compress(graph, 12));
+    assertThrows(NullPointerException.class, () -> CompressedGraph.compress(null));
+    assertTrue(Float.isNaN(CompressedGraph.compress(graph).getEdgeValueOrDefault(0, 1, 0)));
+  }
+
+  private static List<Edge> toList(Iterator<Edge> iterator) {
+    List<Edge> edges = new ArrayList<>();
+    iterator.forEachRemaining(edges::add);
+    return edges;
+  }
+}
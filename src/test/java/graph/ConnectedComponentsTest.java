@@ -0,0 +1,84 @@
+package graph;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.Random;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+class ConnectedComponentsTest {
+
+  private static Stream<Arguments> graphs() {
+    return Stream.of(
+        Arguments.of(10, 6, false),
+        Arguments.of(10, 6, true),
+        Arguments.of(50_000, 40_000, false),
+        Arguments.of(50_000, 40_000, true),
+        Arguments.of(50_000, 200_000, true)
+    );
+  }
+
+  @ParameterizedTest
+  @MethodSource("graphs")
+  void testMatchesSequentialUnionFind(int vertices, int edges, boolean incomingIndex) {
+    Random random = new Random(edges);
+    Graph.Builder builder = new Graph.Builder().incomingIndex(incomingIndex);
+    for (int i = 0; i < edges; i++) {
+      builder.addEdge(i % vertices, random.nextInt(vertices) + (i / vertices) * vertices, 1);
+    }
+    Graph graph = builder.build();
+
+    int[] components = ConnectedComponents.weak(graph);
+
+    int[] parents = new int[graph.vertexBound()];
+    for (int vertex = 0; vertex < parents.length; vertex++) {
+      parents[vertex] = vertex;
+    }
+    for (Edge edge : graph) {
+      int root1 = root(parents, edge.getVertex1());
+      int root2 = root(parents, edge.getVertex2());
+      parents[Math.max(root1, root2)] = Math.min(root1, root2);
+    }
+    int[] expected = new int[parents.length];
+    for (int vertex = 0; vertex < parents.length; vertex++) {
+      expected[vertex] = root(parents, vertex);
+    }
+
+    assertArrayEquals(expected, components);
+  }
+
+  @Test
+  void testSmallGraph() {
+    Graph graph = new Graph.Builder(4)
+        .addEdge(new Edge(0, 1, 0))
+        .addEdge(new Edge(3, 1, 0))
+        .addEdge(new Edge(5, 4, 0))
+        .addEdge(new Edge(6, 6, 0))
+        .build();
+
+    int[] components = ConnectedComponents.weak(graph);
+
+    assertArrayEquals(new int[] {0, 0, 2, 0, 4, 4, 6}, components);
+    assertEquals(4, ConnectedComponents.count(components));
+    assertEquals(0, ConnectedComponents.weak(new Graph.Builder(0).build()).length);
+  }
+
+  @Test
+  void testNegativeVertexIds() {
+    Graph graph = new Graph.Builder(1).addEdge(new Edge(-1, 1, 0)).build();
+
+    assertThrows(IllegalArgumentException.class, () -> ConnectedComponents.weak(graph));
+  }
+
+  private static int root(int[] parents, int vertex) {
+    while (parents[vertex] != vertex) {
+      vertex = parents[vertex];
+    }
+    return vertex;
+  }
+}
@@ -0,0 +1,133 @@
+package graph;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+import org.junit.jupiter.params.provider.ValueSource;
+
+class EdgeFilterTest {
+  private static final int EDGES = 100_000;
+  private static final int MISSES = 200_000;
+
+  private Path path;
+
+  @BeforeEach
+  void createFile() throws IOException {
+    path = Files.createTempFile("graph", ".bin");
+  }
+
+  @AfterEach
+  void deleteFile() throws IOException {
+    Files.deleteIfExists(path);
+  }
+
+  @ParameterizedTest
+  @ValueSource(doubles = {0.1, 0.01, 0.001})
+  void testFalsePositiveRate(double rate) {
+    Graph graph = randomGraph(new Graph.Builder().edgeFilter(rate));
+
+    assertTrue(graph.hasEdgeFilter());
+    assertMisses(graph, rate);
+  }
+
+  @ParameterizedTest
+  @EnumSource(Storage.class)
+  void testExistingEdgesPass(Storage storage) {
+    Random random = new Random(1);
+    Graph.Builder builder = new Graph.Builder().edgeFilter(8).storage(storage);
+    for (int i = 0; i < EDGES; i++) {
+      builder.addEdge(random.nextInt(), random.nextInt(), i);
+    }
+    Graph graph = builder.build();
+
+    graph.forEachEdge((vertex1, vertex2, value) ->
+        assertEquals(value, graph.getEdgeValueOrDefault(vertex1, vertex2, -1)));
+    Graph.FilterMetrics metrics = graph.filterMetrics();
+    assertEquals(EDGES, metrics.lookups());
+    assertEquals(EDGES, metrics.passed());
+    assertEquals(0, metrics.rejected());
+    assertEquals(0, metrics.falsePositives());
+    assertEquals(6, metrics.hashes());
+    assertTrue(metrics.bits() >= 8L * EDGES);
+  }
+
+  @Test
+  void testWriteAndMap() throws IOException {
+    Graph graph = randomGraph(new Graph.Builder().edgeFilter(10).incomingIndex(true));
+
+    graph.writeTo(path);
+    Graph mapped = Graph.map(path);
+
+    assertTrue(mapped.hasEdgeFilter());
+    assertEquals(graph.filterMetrics().bits(), mapped.filterMetrics().bits());
+    assertEquals(graph.filterMetrics().hashes(), mapped.filterMetrics().hashes());
+    assertMisses(mapped, 0.01);
+    assertTrue(mapped.hasIncomingIndex());
+    graph.forEachEdge((vertex1, vertex2, value) ->
+        assertEquals(value, mapped.getEdgeValueOrDefault(vertex1, vertex2, -1)));
+  }
+
+  @Test
+  void testWithoutFilter() throws IOException {
+    Graph graph = new Graph.Builder().addEdge(1, 2, 3).build();
+    graph.writeTo(path);
+
+    assertFalse(graph.hasEdgeFilter());
+    assertFalse(Graph.map(path).hasEdgeFilter());
+    assertThrows(IllegalStateException.class, graph::filterMetrics);
+    assertFalse(new Graph.Builder().edgeFilter(8).build().containsEdge(1, 2));
+  }
+
+  @Test
+  void testBitsPerEdge() {
+    assertEquals(5, EdgeFilter.bitsPerEdge(0.1));
+    assertEquals(10, EdgeFilter.bitsPerEdge(0.01));
+    assertEquals(16, EdgeFilter.bitsPerEdge(0.001));
+    assertEquals(EdgeFilter.MAX_BITS_PER_EDGE, EdgeFilter.bitsPerEdge(1e-9));
+    assertEquals(0.0096, EdgeFilter.falsePositiveRate(10), 0.0001);
+  }
+
+  @Test
+  void testInvalidSizes() {
+    Graph.Builder builder = new Graph.Builder();
+
+    assertThrows(IllegalArgumentException.class, () -> builder.edgeFilter(-1));
+    assertThrows(IllegalArgumentException.class,
+        () -> builder.edgeFilter(EdgeFilter.MAX_BITS_PER_EDGE + 1));
+    assertThrows(IllegalArgumentException.class, () -> builder.edgeFilter(0.0));
+    assertThrows(IllegalArgumentException.class, () -> builder.edgeFilter(1.0));
+    assertThrows(IllegalArgumentException.class, () -> builder.edgeFilter(Double.NaN));
+  }
+
+  /** Edges between the even vertices of {@code [0, 2 * EDGES)}. */
+  private static Graph randomGraph(Graph.Builder builder) {
+    Random random = new Random(2);
+    for (int i = 0; i < EDGES; i++) {
+      builder.addEdge(random.nextInt(EDGES) * 2, i * 2, i);
+    }
+    return builder.build();
+  }
+
+  /** Looks up absent edges with an odd vertex, the filter has to reject most of them. */
+  private static void assertMisses(Graph graph, double rate) {
+    Random random = new Random(3);
+    for (int i = 0; i < MISSES; i++) {
+      assertFalse(graph.containsEdge(random.nextInt(EDGES) * 2, random.nextInt(EDGES) * 2 + 1));
+    }
+    Graph.FilterMetrics metrics = graph.filterMetrics();
+    assertEquals(MISSES, metrics.lookups());
+    assertEquals(MISSES, metrics.rejected() + metrics.falsePositives());
+    assertTrue(metrics.falsePositiveRate() < rate * 1.5, metrics.toString());
+  }
+}
@@ -0,0 +1,144 @@
+package graph;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+class EdgeListReaderTest {
+  private Path path;
+
+  @BeforeEach
+  void createFile() throws IOException {
+    path = Files.createTempFile("edges", ".tsv");
+  }
+
+  @AfterEach
+  void deleteFile() throws IOException {
+    Files.deleteIfExists(path);
+  }
+
+  @Test
+  void testFormats() throws IOException {
+    write("# comment\n"
+        + "1\t2\t0.5\n"
+        + "\n"
+        + "% other comment\n"
+        + "  -3 , 4 , -1.25e2  \r\n"
+        + "5 6\n"
+        + "+7,-2147483648,1E-3\n"
+        + "8\t9\t.5\n"
+        + "10 11 NaN\n"
+        + "2147483647 0 Infinity");
+
+    Graph graph = new EdgeListReader().defaultValue(42).read(path);
+
+    assertEquals(Arrays.asList(
+        new Edge(-3, 4, -125f),
+        new Edge(1, 2, 0.5f),
+        new Edge(5, 6, 42f),
+        new Edge(7, Integer.MIN_VALUE, 0.001f),
+        new Edge(8, 9, 0.5f),
+        new Edge(10, 11, Float.NaN),
+        new Edge(Integer.MAX_VALUE, 0, Float.POSITIVE_INFINITY)), toList(graph));
+  }
+
+  @ParameterizedTest
+  @ValueSource(ints = {1, 7, 64, 4096, EdgeListReader.DEFAULT_CHUNK_SIZE})
+  void testChunks(int chunkSize) throws IOException {
+    Random random = new Random(chunkSize);
+    StringBuilder text = new StringBuilder();
+    List<Edge> expected = new ArrayList<>();
+    for (int i = 0; i < 3000; i++) {
+      float value = random.nextFloat() * 100 - 50;
+      String formatted = i % 3 == 0 ? Float.toString(value)
+          : String.format(Locale.ROOT, "%.6f", value);
+      int vertex1 = random.nextInt(100) - 50;
+      text.append(vertex1).append(i % 2 == 0 ? '\t' : ',').append(i)
+          .append(i % 2 == 0 ? '\t' : ',').append(formatted).append('\n');
+      expected.add(new Edge(vertex1, i, Float.parseFloat(formatted)));
+    }
+    write(text.toString());
+
+    Graph graph = new EdgeListReader().chunkSize(chunkSize).read(path);
+
+    expected.sort((edge1, edge2) -> edge1.getVertex1() != edge2.getVertex1()
+        ? Integer.compare(edge1.getVertex1(), edge2.getVertex1())
+        : Integer.compare(edge1.getVertex2(), edge2.getVertex2()));
+    assertEquals(expected, toList(graph));
+  }
+
+  @Test
+  void testValuesRoundLikeParseFloat() throws IOException {
+    Random random = new Random(3);
+    StringBuilder text = new StringBuilder();
+    float[] expected = new float[20000];
+    for (int i = 0; i < expected.length; i++) {
+      String value;
+      if (i % 4 == 0) {
+        value = Double.toString(random.nextDouble() * Math.pow(10, random.nextInt(30) - 15));
+      } else if (i % 4 == 1) {
+        value = (random.nextLong() % 100000000000000L) + "." + random.nextInt(1000000);
+      } else if (i % 4 == 2) {
+        value = "1.00000005960464477539" + random.nextInt(10);
+      } else {
+        value = random.nextInt(1 << 25) + "e" + (random.nextInt(40) - 20);
+      }
+      text.append(0).append(' ').append(i).append(' ').append(value).append('\n');
+      expected[i] = Float.parseFloat(value);
+    }
+    write(text.toString());
+
+    List<Edge> edges = toList(new EdgeListReader().read(path));
+    for (int i = 0; i < expected.length; i++) {
+      assertEquals(expected[i], edges.get(i).getValue());
+    }
+  }
+
+  @Test
+  void testEmptyFile() throws IOException {
+    write("");
+
+    assertEquals(0, new EdgeListReader().read(path).size());
+  }
+
+  @Test
+  void testMalformedLines() throws IOException {
+    for (String line : new String[] {"1", "1 x 2", "1 2 3 4", "1 2 x", "1 2147483648 1",
+        "-2147483649 1", "1 2 3\r4 5 6", "1-2 3"}) {
+      write("0 0 0\n" + line + "\n");
+      assertThrows(IOException.class, () -> new EdgeListReader().read(path), line);
+    }
+  }
+
+  @Test
+  void testIntoBuilder() throws IOException {
+    write("1 2 3\n");
+    Graph.Builder builder = new Graph.Builder().addEdge(0, 1, 2);
+
+    assertEquals(2, new EdgeListReader().read(path, builder).build().size());
+  }
+
+  private void write(String text) throws IOException {
+    Files.write(path, text.getBytes(StandardCharsets.US_ASCII));
+  }
+
+  private static List<Edge> toList(Graph graph) {
+    List<Edge> edges = new ArrayList<>();
+    graph.forEach(edges::add);
+    return edges;
+  }
+}
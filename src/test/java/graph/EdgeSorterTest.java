@@ -0,0 +1,116 @@
+package graph;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Random;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+class EdgeSorterTest {
+
+  private static Stream<Arguments> sizesAndThresholds() {
+    return Stream.of(
+        Arguments.of(0, EdgeSorter.PARALLEL_THRESHOLD),
+        Arguments.of(1, EdgeSorter.PARALLEL_THRESHOLD),
+        Arguments.of(17, EdgeSorter.PARALLEL_THRESHOLD),
+        Arguments.of(1000, EdgeSorter.PARALLEL_THRESHOLD),
+        Arguments.of(1000, 0),
+        Arguments.of(200_000, 0)
+    );
+  }
+
+  @ParameterizedTest
+  @MethodSource("sizesAndThresholds")
+  void testRandomInput(int size, int parallelThreshold) {
+    Random random = new Random(size);
+    int[] vertices1 = new int[size];
+    int[] vertices2 = new int[size];
+    for (int i = 0; i < size; i++) {
+      vertices1[i] = random.nextInt();
+      vertices2[i] = random.nextInt(100) - 50;
+    }
+
+    assertSortsStably(vertices1, vertices2, parallelThreshold);
+  }
+
+  @ParameterizedTest
+  @MethodSource("sizesAndThresholds")
+  void testHubVertexWithDuplicates(int size, int parallelThreshold) {
+    Random random = new Random(size);
+    int[] vertices1 = new int[size];
+    int[] vertices2 = new int[size];
+    for (int i = 0; i < size; i++) {
+      vertices1[i] = random.nextInt(10) == 0 ? i : 7;
+      vertices2[i] = random.nextInt(1 << 20);
+    }
+
+    assertSortsStably(vertices1, vertices2, parallelThreshold);
+  }
+
+  @ParameterizedTest
+  @MethodSource("sizesAndThresholds")
+  void testSortedInputIsUnchanged(int size, int parallelThreshold) {
+    int[] vertices1 = IntStream.range(0, size).map(i -> i / 3).toArray();
+    int[] vertices2 = IntStream.range(0, size).map(i -> i % 3 - 1).toArray();
+
+    assertSortsStably(vertices1, vertices2, parallelThreshold);
+  }
+
+  @ParameterizedTest
+  @MethodSource("sizesAndThresholds")
+  void testReverseSortedInput(int size, int parallelThreshold) {
+    int[] vertices1 = IntStream.range(0, size).map(i -> (size - i) / 2).toArray();
+    int[] vertices2 = IntStream.range(0, size).map(i -> (size - i) % 2).toArray();
+
+    assertSortsStably(vertices1, vertices2, parallelThreshold);
+  }
+
+  @Test
+  void testExtremeVertexIds() {
+    int[] vertices1 = {Integer.MAX_VALUE, 0, Integer.MIN_VALUE, -1, 1, Integer.MIN_VALUE};
+    int[] vertices2 = {0, Integer.MIN_VALUE, Integer.MAX_VALUE, 5, -5, Integer.MIN_VALUE};
+
+    assertSortsStably(vertices1, vertices2, EdgeSorter.PARALLEL_THRESHOLD);
+  }
+
+  @Test
+  void testSortsOnlyPrefixOfSize() {
+    int[] vertices1 = {3, 2, 1, 0};
+    int[] vertices2 = {0, 0, 0, 0};
+    float[] values = {3, 2, 1, 0};
+
+    EdgeSorter.sort(vertices1, vertices2, values, 3);
+
+    assertArrayEquals(new int[] {1, 2, 3, 0}, vertices1);
+    assertArrayEquals(new float[] {1, 2, 3, 0}, values);
+  }
+
+  private static void assertSortsStably(int[] vertices1, int[] vertices2, int parallelThreshold) {
+    int size = vertices1.length;
+    float[] values = new float[size];
+    for (int i = 0; i < size; i++) {
+      values[i] = i;
+    }
+
+    Integer[] expected = IntStream.range(0, size).boxed().toArray(Integer[]::new);
+    Arrays.sort(expected, Comparator.<Integer>comparingInt(i -> vertices1[i])
+        .thenComparingInt(i -> vertices2[i]));
+    int[] expected1 = Arrays.stream(expected).mapToInt(i -> vertices1[i]).toArray();
+    int[] expected2 = Arrays.stream(expected).mapToInt(i -> vertices2[i]).toArray();
+
+    EdgeSorter.sort(vertices1, vertices2, values, size, parallelThreshold);
+
+    assertArrayEquals(expected1, vertices1);
+    assertArrayEquals(expected2, vertices2);
+    for (int i = 0; i < size; i++) {
+      assertEquals((float) expected[i], values[i]);
+    }
+  }
+}
@@ -0,0 +1,150 @@
+package graph;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Spliterator;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.Test;
+
+class EdgeSpliteratorTest {
+
+  private static Graph randomGraph(int size, int sources, long seed) {
+    Random random = new Random(seed);
+    Graph.Builder builder = new Graph.Builder(size);
+    for (int i = 0; i < size; i++) {
+      builder.addEdge(random.nextInt(sources), i, random.nextFloat());
+    }
+    return builder.build();
+  }
+
+  @Test
+  void testCharacteristics() {
+    Spliterator<Edge> spliterator = randomGraph(10, 3, 1).spliterator();
+
+    assertTrue(spliterator.hasCharacteristics(Spliterator.SIZED | Spliterator.SUBSIZED
+        | Spliterator.ORDERED | Spliterator.IMMUTABLE | Spliterator.NONNULL));
+    assertEquals(10, spliterator.estimateSize());
+    assertEquals(10, spliterator.getExactSizeIfKnown());
+  }
+
+  @Test
+  void testSplitsFallOnSourceBoundaries() {
+    Graph graph = randomGraph(10_000, 300, 2);
+    List<Spliterator<Edge>> parts = new ArrayList<>();
+    splitFully(graph.spliterator(), parts, 8);
+
+    List<Edge> edges = new ArrayList<>();
+    int lastSource = Integer.MIN_VALUE;
+    for (Spliterator<Edge> part : parts) {
+      List<Edge> partEdges = new ArrayList<>();
+      long size = part.estimateSize();
+      part.forEachRemaining(partEdges::add);
+      assertEquals(size, partEdges.size());
+      assertFalse(partEdges.isEmpty());
+      assertNotEquals(lastSource, partEdges.get(0).getVertex1());
+      lastSource = partEdges.get(partEdges.size() - 1).getVertex1();
+      edges.addAll(partEdges);
+    }
+
+    List<Edge> expected = new ArrayList<>();
+    graph.forEach(expected::add);
+    assertEquals(expected, edges);
+  }
+
+  @Test
+  void testSplitsSingleSource() {
+    Graph graph = randomGraph(100, 1, 3);
+    Spliterator<Edge> spliterator = graph.spliterator();
+
+    Spliterator<Edge> prefix = spliterator.trySplit();
+
+    assertEquals(50, prefix.estimateSize());
+    assertEquals(50, spliterator.estimateSize());
+  }
+
+  @Test
+  void testSplitPrefersNearestBoundary() {
+    IntColumn vertices1 = IntColumn.of(new int[] {0, 1, 1, 1, 1, 1, 1, 2, 2, 3});
+
+    assertEquals(3, EdgeSpliterator.split(IntColumn.of(new int[] {0, 1, 2, 3, 4, 5}), 0, 6));
+    assertEquals(7, EdgeSpliterator.split(vertices1, 0, 10));
+    assertEquals(1, EdgeSpliterator.split(vertices1, 0, 7));
+    assertEquals(4, EdgeSpliterator.split(vertices1, 1, 7));
+    assertEquals(-1, EdgeSpliterator.split(vertices1, 3, 4));
+  }
+
+  @Test
+  void testSingleEdgeDoesNotSplit() {
+    Spliterator<Edge> spliterator = randomGraph(1, 1, 4).spliterator();
+
+    assertNull(spliterator.trySplit());
+    assertTrue(spliterator.tryAdvance(edge -> assertEquals(0, edge.getVertex2())));
+    assertFalse(spliterator.tryAdvance(edge -> { }));
+  }
+
+  @Test
+  void testParallelEdgesMatchSequential() {
+    Graph graph = randomGraph(100_000, 1000, 5);
+
+    Map<Integer, Double> sequential = graph.edges().collect(
+        Collectors.groupingBy(Edge::getVertex1, Collectors.summingDouble(Edge::getValue)));
+    Map<Integer, Double> parallel = graph.parallelEdges().collect(
+        Collectors.groupingByConcurrent(Edge::getVertex1,
+            Collectors.summingDouble(Edge::getValue)));
+
+    assertEquals(sequential.keySet(), parallel.keySet());
+    for (Map.Entry<Integer, Double> entry : sequential.entrySet()) {
+      assertEquals(entry.getValue(), parallel.get(entry.getKey()), 1e-3);
+    }
+    assertEquals(graph.size(), graph.parallelEdges().count());
+  }
+
+  @Test
+  void testSourcesAndTargets() {
+    Graph graph = randomGraph(10_000, 100, 6);
+    int[] expectedSources = new int[graph.size()];
+    int[] expectedTargets = new int[graph.size()];
+    int i = 0;
+    for (Edge edge : graph) {
+      expectedSources[i] = edge.getVertex1();
+      expectedTargets[i] = edge.getVertex2();
+      i++;
+    }
+
+    assertArrayEquals(expectedSources, graph.sources().toArray());
+    assertArrayEquals(expectedTargets, graph.targets().toArray());
+    assertArrayEquals(expectedSources, graph.sources().parallel().toArray());
+    assertArrayEquals(expectedTargets, graph.targets().parallel().toArray());
+    assertEquals(100, graph.sources().parallel().distinct().count());
+  }
+
+  @Test
+  void testEmptyGraph() {
+    Graph graph = new Graph.Builder(0).build();
+
+    assertEquals(0, graph.edges().count());
+    assertEquals(0, graph.parallelEdges().count());
+    assertEquals(0, graph.sources().count());
+    assertNull(graph.spliterator().trySplit());
+  }
+
+  private static <T> void splitFully(Spliterator<T> spliterator, List<Spliterator<T>> parts,
+      int depth) {
+    Spliterator<T> prefix = depth > 0 ? spliterator.trySplit() : null;
+    if (prefix == null) {
+      parts.add(spliterator);
+      return;
+    }
+    splitFully(prefix, parts, depth - 1);
+    splitFully(spliterator, parts, depth - 1);
+  }
+}
@@ -0,0 +1,222 @@
+package graph;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+class ExternalGraphBuilderTest {
+  private static final long BUDGET = ExternalGraphBuilder.MIN_MEMORY_BUDGET;
+
+  private Path directory;
+  private Path path;
+
+  @BeforeEach
+  void createFiles() throws IOException {
+    directory = Files.createTempDirectory("runs");
+    path = Files.createTempFile("graph", ".bin");
+  }
+
+  @AfterEach
+  void deleteFiles() throws IOException {
+    Files.deleteIfExists(path);
+    Files.deleteIfExists(directory);
+  }
+
+  @ParameterizedTest
+  @EnumSource(SourceIndex.class)
+  void testBuildFromRuns(SourceIndex sourceIndex) throws IOException {
+    List<Edge> edges = randomEdges(200_000, 1000);
+    Graph expected = new Graph.Builder().addEdges(edges).sourceIndex(sourceIndex).build();
+
+    Graph actual;
+    try (ExternalGraphBuilder builder = newBuilder().sourceIndex(sourceIndex)) {
+      builder.addEdges(edges);
+      assertTrue(builder.runs() > 1);
+      actual = builder.build();
+    }
+
+    assertSameGraph(expected, actual);
+    assertEquals(expected.rowIndex().type(), actual.rowIndex().type());
+    assertNoTemporaryFiles();
+  }
+
+  @Test
+  void testMergeRunsInGroups() throws IOException {
+    List<Edge> edges = randomEdges(800_000, 1 << 20);
+    Graph expected = new Graph.Builder().addEdges(edges).build();
+
+    int[] vertices1 = new int[edges.size()];
+    int[] vertices2 = new int[edges.size()];
+    float[] values = new float[edges.size()];
+    for (int i = 0; i < edges.size(); i++) {
+      vertices1[i] = edges.get(i).getVertex1();
+      vertices2[i] = edges.get(i).getVertex2();
+      values[i] = edges.get(i).getValue();
+    }
+    try (ExternalGraphBuilder builder = newBuilder()) {
+      builder.addEdges(vertices1, vertices2, values, 0, edges.size());
+      assertTrue(builder.runs() > BUDGET / (1 << 16));
+      assertSameGraph(expected, builder.build());
+    }
+    assertNoTemporaryFiles();
+  }
+
+  @ParameterizedTest
+  @EnumSource(SourceIndex.class)
+  void testBuildInMemory(SourceIndex sourceIndex) throws IOException {
+    List<Edge> edges = randomEdges(5000, 100);
+    Graph expected = new Graph.Builder().addEdges(edges).sourceIndex(sourceIndex).build();
+
+    try (ExternalGraphBuilder builder = newBuilder().sourceIndex(sourceIndex)) {
+      builder.addEdges(edges);
+      assertEquals(0, builder.runs());
+      assertSameGraph(expected, builder.build());
+    }
+  }
+
+  @Test
+  void testEmptyGraph() throws IOException {
+    Graph graph = newBuilder().build();
+
+    assertEquals(0, graph.size());
+    assertFalse(graph.iterator().hasNext());
+    assertFalse(graph.containsEdge(0, 0));
+  }
+
+  @Test
+  void testEdgesWithSameVerticesInDifferentRuns() throws IOException {
+    List<Edge> edges = randomEdges(100_000, 1000);
+    Edge edge = edges.get(7);
+    edges.add(new Edge(edge.getVertex1(), edge.getVertex2(), 1));
+
+    try (ExternalGraphBuilder builder = newBuilder()) {
+      builder.addEdges(edges);
+      assertTrue(builder.runs() > 1);
+      IllegalArgumentException e = assertThrows(IllegalArgumentException.class, builder::build);
+      assertTrue(e.getMessage().startsWith("Edges with same vertices are not allowed"));
+    }
+    assertNoTemporaryFiles();
+    assertFalse(Files.exists(path));
+
+    try (ExternalGraphBuilder builder = newBuilder()) {
+      builder.addEdge(1, 2, 3).addEdge(1, 2, 4);
+      assertEquals(0, builder.runs());
+      assertThrows(IllegalArgumentException.class, builder::build);
+    }
+    assertFalse(Files.exists(path));
+  }
+
+  @Test
+  void testDuplicatePolicyAcrossRuns() throws IOException {
+    List<Edge> edges = new ArrayList<>();
+    for (int copy = 0; copy < 3; copy++) {
+      for (int i = 0; i < 50_000; i++) {
+        edges.add(new Edge(i % 100, i, copy * 10 + i % 7));
+      }
+    }
+    Graph expected = new Graph.Builder().addEdges(edges)
+        .duplicatePolicy(DuplicatePolicy.KEEP_FIRST).build();
+
+    try (ExternalGraphBuilder builder = newBuilder().duplicatePolicy(DuplicatePolicy.KEEP_FIRST)) {
+      builder.addEdges(edges);
+      assertTrue(builder.runs() > 2);
+      assertSameGraph(expected, builder.build());
+    }
+    try (ExternalGraphBuilder builder = newBuilder().duplicatePolicy(DuplicatePolicy.SUM)) {
+      builder.addEdges(edges);
+      Graph graph = builder.build();
+      assertEquals(50_000, graph.size());
+      assertEquals(30 + 3 * (1234 % 7), graph.getEdgeValueOrDefault(1234 % 100, 1234, -1));
+    }
+  }
+
+  @Test
+  void testTruncatedRun() throws IOException {
+    try (ExternalGraphBuilder builder = newBuilder()) {
+      builder.addEdges(randomEdges(200_000, 1000));
+      assertTrue(builder.runs() > 1);
+      // Cut the last edge of every run short of a whole edge but not of an int
+      try (Stream<Path> files = Files.list(directory)) {
+        for (Path file : (Iterable<Path>) files::iterator) {
+          try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.truncate(channel.size() - 8);
+          }
+        }
+      }
+      IOException e = assertThrows(IOException.class, builder::build);
+      assertEquals("Truncated run", e.getMessage());
+    }
+    assertNoTemporaryFiles();
+  }
+
+  @Test
+  void testInvalidUse() throws IOException {
+    assertThrows(NullPointerException.class, () -> new ExternalGraphBuilder(null));
+    try (ExternalGraphBuilder builder = newBuilder()) {
+      assertThrows(IllegalArgumentException.class, () -> builder.memoryBudget(BUDGET - 1));
+      assertThrows(NullPointerException.class, () -> builder.addEdge(null));
+      assertThrows(IndexOutOfBoundsException.class,
+          () -> builder.addEdges(new int[1], new int[1], new float[1], 0, 2));
+      builder.addEdge(1, 2, 3);
+      assertThrows(IllegalStateException.class, () -> builder.memoryBudget(BUDGET));
+      builder.build();
+      assertThrows(IllegalStateException.class, () -> builder.addEdge(2, 3, 4));
+      assertThrows(IllegalStateException.class, builder::build);
+    }
+  }
+
+  private ExternalGraphBuilder newBuilder() {
+    return new ExternalGraphBuilder(path).memoryBudget(BUDGET).temporaryDirectory(directory);
+  }
+
+  private void assertNoTemporaryFiles() throws IOException {
+    try (Stream<Path> files = Files.list(directory)) {
+      assertEquals(0, files.count());
+    }
+  }
+
+  /** Distinct edges in random order, sources in {@code [-sources / 2, sources / 2)}. */
+  private static List<Edge> randomEdges(int size, int sources) {
+    Random random = new Random(size);
+    List<Edge> edges = new ArrayList<>(size);
+    for (int i = 0; i < size; i++) {
+      edges.add(new Edge(random.nextInt(sources) - sources / 2, i, random.nextFloat()));
+    }
+    Collections.shuffle(edges, random);
+    return edges;
+  }
+
+  private static void assertSameGraph(Graph expected, Graph actual) {
+    assertEquals(expected.size(), actual.size());
+    List<Edge> expectedEdges = new ArrayList<>();
+    expected.forEach(expectedEdges::add);
+    List<Edge> actualEdges = new ArrayList<>();
+    actual.forEach(actualEdges::add);
+    assertEquals(expectedEdges, actualEdges);
+
+    for (int i = 0; i < expectedEdges.size(); i += 97) {
+      Edge edge = expectedEdges.get(i);
+      assertEquals(edge.getValue(),
+          actual.getEdgeValueOrDefault(edge.getVertex1(), edge.getVertex2(), Float.NaN));
+      assertEquals(expected.outDegree(edge.getVertex1()), actual.outDegree(edge.getVertex1()));
+      assertFalse(actual.containsEdge(edge.getVertex1(), -1));
+    }
+  }
+}
@@ -4,6 +4,7 @@ import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 
 import graph.Graph.Builder;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashSet;
 import java.util.List;
@@ -107,4 +108,201 @@ class GraphBuilderTest {
   void testCreateBuilderWithNegativeCapacity() {
     assertThrows(IllegalArgumentException.class, () -> new Graph.Builder(-1));
   }
+
+  @Test
+  void testGrowableBuilder() {
+    Graph.Builder builder = new Graph.Builder();
+    int size = 100_000;
+    for (int i = size - 1; i >= 0; i--) {
+      builder.addEdge(i % 100, i, i);
+    }
+    Graph graph = builder.build();
+
+    assertEquals(size, graph.size());
+    for (int i = 0; i < size; i += 997) {
+      assertEquals(i, graph.getEdgeValueOrDefault(i % 100, i, -1));
+    }
+  }
+
+  @Test
+  void testAddEdgesFromArrays() {
+    int[] vertices1 = {9, 3, 1, 2, 9};
+    int[] vertices2 = {9, 4, 2, 3, 9};
+    float[] values = {9, 3, 1, 2, 9};
+
+    Graph graph = new Graph.Builder()
+        .addEdges(vertices1, vertices2, values, 1, 3)
+        .addEdges(vertices1, vertices2, values, 0, 0)
+        .build();
+
+    List<Edge> graphEdges = new ArrayList<>();
+    graph.forEach(graphEdges::add);
+    assertEquals(Arrays.asList(
+        new Edge(1, 2, 1),
+        new Edge(2, 3, 2),
+        new Edge(3, 4, 3)
+    ), graphEdges);
+  }
+
+  @Test
+  void testAddEdgesFromArraysAcrossChunks() {
+    int size = 50_000;
+    int[] vertices1 = new int[size];
+    int[] vertices2 = new int[size];
+    float[] values = new float[size];
+    for (int i = 0; i < size; i++) {
+      vertices1[i] = i / 10;
+      vertices2[i] = i % 10;
+      values[i] = i;
+    }
+
+    Graph.Builder builder = new Graph.Builder().addEdge(-1, 0, -1);
+    for (int offset = 0; offset < size; offset += 3000) {
+      builder.addEdges(vertices1, vertices2, values, offset, Math.min(3000, size - offset));
+    }
+    Graph graph = builder.build();
+
+    assertEquals(size + 1, graph.size());
+    assertEquals(-1, graph.getEdgeValueOrDefault(-1, 0, 0));
+    for (int i = 0; i < size; i++) {
+      assertEquals(i, graph.getEdgeValueOrDefault(i / 10, i % 10, -1));
+    }
+  }
+
+  @Test
+  void testAddEdgesFromArraysOutOfBounds() {
+    Graph.Builder builder = new Graph.Builder();
+    int[] vertices = new int[3];
+    float[] values = new float[2];
+
+    assertThrows(IndexOutOfBoundsException.class,
+        () -> builder.addEdges(vertices, vertices, values, 0, 3));
+    assertThrows(IndexOutOfBoundsException.class,
+        () -> builder.addEdges(vertices, vertices, values, -1, 1));
+    assertThrows(IndexOutOfBoundsException.class,
+        () -> builder.addEdges(vertices, vertices, values, 1, Integer.MAX_VALUE));
+    assertThrows(NullPointerException.class,
+        () -> builder.addEdges(vertices, null, values, 0, 1));
+  }
+
+  @Test
+  void testAddEdgesFromArraysExceedCapacity() {
+    Graph.Builder builder = new Graph.Builder(2);
+    int[] vertices = {1, 2, 3};
+    float[] values = {1, 2, 3};
+
+    assertThrows(CapacityExceededException.class,
+        () -> builder.addEdges(vertices, vertices, values, 0, 3));
+    builder.addEdges(vertices, vertices, values, 0, 2);
+    assertEquals(2, builder.build().size());
+  }
+
+  @Test
+  void testSubBuilders() throws InterruptedException {
+    Graph.Builder builder = new Graph.Builder(1).addEdge(-1, -1, -1);
+    int threads = 4;
+    int edgesPerThread = 20_000;
+
+    List<Thread> workers = new ArrayList<>();
+    for (int t = 0; t < threads; t++) {
+      Graph.Builder subBuilder = builder.newSubBuilder();
+      int thread = t;
+      workers.add(new Thread(() -> {
+        for (int i = 0; i < edgesPerThread; i++) {
+          subBuilder.addEdge(i, thread, thread + i);
+        }
+      }));
+    }
+    for (Thread worker : workers) {
+      worker.start();
+    }
+    for (Thread worker : workers) {
+      worker.join();
+    }
+    Graph graph = builder.build();
+
+    assertEquals(threads * edgesPerThread + 1, graph.size());
+    for (int t = 0; t < threads; t++) {
+      for (int i = 0; i < edgesPerThread; i += 101) {
+        assertEquals(t + i, graph.getEdgeValueOrDefault(i, t, -1));
+      }
+    }
+  }
+
+  @Test
+  void testSubBuilderLifecycle() {
+    Graph.Builder builder = new Graph.Builder();
+    Graph.Builder subBuilder = builder.newSubBuilder().addEdge(1, 2, 3);
+    Graph.Builder nestedSubBuilder = subBuilder.newSubBuilder().addEdge(2, 3, 4);
+
+    assertThrows(IllegalStateException.class, subBuilder::build);
+
+    Graph graph = builder.build();
+    assertEquals(2, graph.size());
+    assertThrows(IllegalStateException.class, () -> subBuilder.addEdge(someEdge));
+    assertThrows(IllegalStateException.class, () -> nestedSubBuilder.addEdge(someEdge));
+    assertThrows(IllegalStateException.class, builder::newSubBuilder);
+    assertThrows(IllegalStateException.class, builder::build);
+  }
+
+  private static Stream<Arguments> duplicatePolicies() {
+    return Stream.of(
+        Arguments.of(DuplicatePolicy.KEEP_FIRST, 3f, 7f),
+        Arguments.of(DuplicatePolicy.KEEP_LAST, 2f, 6f),
+        Arguments.of(DuplicatePolicy.SUM, 6f, 13f),
+        Arguments.of(DuplicatePolicy.MIN, 1f, 6f),
+        Arguments.of(DuplicatePolicy.MAX, 3f, 7f),
+        Arguments.of((DuplicatePolicy) (kept, duplicate) -> kept * 10 + duplicate, 312f, 76f));
+  }
+
+  @ParameterizedTest
+  @MethodSource("duplicatePolicies")
+  void testDuplicatePolicy(DuplicatePolicy duplicatePolicy, float value1, float value2) {
+    Graph graph = new Builder()
+        .addEdge(5, 1, 7)
+        .addEdge(1, 2, 3)
+        .addEdge(0, 9, 8)
+        .addEdge(1, 2, 1)
+        .addEdge(5, 1, 6)
+        .addEdge(1, 2, 2)
+        .duplicatePolicy(duplicatePolicy)
+        .incomingIndex(true)
+        .build();
+
+    List<Edge> expected = Arrays.asList(new Edge(0, 9, 8), new Edge(1, 2, value1),
+        new Edge(5, 1, value2));
+    List<Edge> actual = new ArrayList<>();
+    graph.forEach(actual::add);
+    assertEquals(expected, actual);
+    assertEquals(3, graph.size());
+    assertEquals(value1, graph.getEdgeValueOrDefault(1, 2, -1));
+    assertEquals(1, graph.inDegree(2));
+    List<Edge> incoming = new ArrayList<>();
+    graph.forEachIncoming(2, (vertex1, vertex2, value) -> incoming.add(new Edge(vertex1, vertex2,
+        value)));
+    assertEquals(Arrays.asList(new Edge(1, 2, value1)), incoming);
+  }
+
+  @Test
+  void testDuplicatePolicyAcrossSubBuilders() {
+    Builder builder = new Builder(2).duplicatePolicy(DuplicatePolicy.KEEP_LAST);
+    Builder subBuilder1 = builder.newSubBuilder().addEdge(1, 2, 2);
+    builder.newSubBuilder().addEdge(1, 2, 3).addEdge(2, 3, 1);
+    subBuilder1.addEdge(2, 3, 2);
+    builder.addEdge(1, 2, 1).addEdge(3, 4, 1);
+
+    Graph graph = builder.build();
+
+    assertEquals(3, graph.size());
+    assertEquals(3, graph.getEdgeValueOrDefault(1, 2, -1));
+    assertEquals(1, graph.getEdgeValueOrDefault(2, 3, -1));
+  }
+
+  @Test
+  void testRejectDuplicatesByDefault() {
+    Builder builder = new Builder().addEdge(1, 2, 3).addEdge(1, 2, 4);
+
+    assertThrows(IllegalArgumentException.class, builder::build);
+    assertThrows(NullPointerException.class, () -> new Builder().duplicatePolicy(null));
+  }
 }
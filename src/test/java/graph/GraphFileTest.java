@@ -0,0 +1,198 @@
+package graph;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+class GraphFileTest {
+  private Path path;
+
+  @BeforeEach
+  void createFile() throws IOException {
+    path = Files.createTempFile("graph", ".bin");
+  }
+
+  @AfterEach
+  void deleteFile() throws IOException {
+    Files.deleteIfExists(path);
+  }
+
+  @ParameterizedTest
+  @EnumSource(SourceIndex.class)
+  void testWriteAndMap(SourceIndex sourceIndex) throws IOException {
+    Graph graph = randomGraph(5000, sourceIndex);
+
+    graph.writeTo(path);
+    Graph mapped = Graph.map(path);
+
+    assertSameGraph(graph, mapped);
+  }
+
+  @ParameterizedTest
+  @EnumSource(SourceIndex.class)
+  void testMapAcrossSegments(SourceIndex sourceIndex) throws IOException {
+    Graph graph = randomGraph(5000, sourceIndex);
+
+    graph.writeTo(path);
+    Graph mapped = GraphFile.map(path, 6);
+
+    assertSameGraph(graph, mapped);
+  }
+
+  @ParameterizedTest
+  @EnumSource(SourceIndex.class)
+  void testWriteAndMapIncomingIndex(SourceIndex sourceIndex) throws IOException {
+    Random random = new Random(9);
+    Graph.Builder builder = new Graph.Builder().sourceIndex(sourceIndex).incomingIndex(true);
+    for (int i = 0; i < 3000; i++) {
+      builder.addEdge(i, random.nextInt(500), random.nextFloat());
+    }
+    Graph graph = builder.build();
+
+    graph.writeTo(path);
+    Graph mapped = GraphFile.map(path, 6);
+
+    assertSameGraph(graph, mapped);
+    assertTrue(mapped.hasIncomingIndex());
+    for (int vertex = -1; vertex <= 500; vertex++) {
+      List<Edge> expected = new ArrayList<>();
+      graph.incomingIterator(vertex).forEachRemaining(expected::add);
+      List<Edge> actual = new ArrayList<>();
+      mapped.incomingIterator(vertex).forEachRemaining(actual::add);
+      assertEquals(expected, actual);
+      assertEquals(graph.inDegree(vertex), mapped.inDegree(vertex));
+    }
+  }
+
+  @Test
+  void testMapWithoutIncomingIndex() throws IOException {
+    randomGraph(100, SourceIndex.AUTO).writeTo(path);
+
+    assertFalse(Graph.map(path).hasIncomingIndex());
+  }
+
+  @Test
+  void testWriteMappedGraph() throws IOException {
+    Graph graph = randomGraph(1000, SourceIndex.AUTO);
+    graph.writeTo(path);
+
+    Path copy = Files.createTempFile("graph", ".bin");
+    try {
+      Graph.map(path).writeTo(copy);
+      assertSameGraph(graph, Graph.map(copy));
+    } finally {
+      Files.delete(copy);
+    }
+  }
+
+  @Test
+  void testEmptyGraph() throws IOException {
+    new Graph.Builder(0).build().writeTo(path);
+    Graph mapped = Graph.map(path);
+
+    assertEquals(0, mapped.size());
+    assertFalse(mapped.iterator().hasNext());
+    assertFalse(mapped.getEdgeValue(0, 0).isPresent());
+    assertFalse(mapped.vertexIterator(0).hasNext());
+  }
+
+  @Test
+  void testNotAGraphFile() throws IOException {
+    Files.write(path, new byte[100]);
+
+    assertThrows(IOException.class, () -> Graph.map(path));
+  }
+
+  @Test
+  void testTruncatedFile() throws IOException {
+    Files.write(path, new byte[10]);
+
+    assertThrows(IOException.class, () -> Graph.map(path));
+  }
+
+  @Test
+  void testUnsupportedVersion() throws IOException {
+    randomGraph(10, SourceIndex.AUTO).writeTo(path);
+    overwriteInt(8, GraphFile.VERSION + 1);
+
+    assertThrows(IOException.class, () -> Graph.map(path));
+  }
+
+  @Test
+  void testSectionOutOfBounds() throws IOException {
+    randomGraph(10, SourceIndex.AUTO).writeTo(path);
+    overwriteInt(24 + 8, Integer.MAX_VALUE);
+
+    assertThrows(IOException.class, () -> Graph.map(path));
+
+    // Offset plus length overflows to a negative end
+    randomGraph(10, SourceIndex.AUTO).writeTo(path);
+    overwriteLong(24 + 8, Long.MAX_VALUE);
+
+    assertThrows(IOException.class, () -> Graph.map(path));
+  }
+
+  private void overwriteInt(long position, int value) throws IOException {
+    try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+      ByteBuffer buffer = ByteBuffer.allocate(Integer.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+      buffer.putInt(value).flip();
+      channel.write(buffer, position);
+    }
+  }
+
+  private void overwriteLong(long position, long value) throws IOException {
+    try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+      ByteBuffer buffer = ByteBuffer.allocate(Long.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+      buffer.putLong(value).flip();
+      channel.write(buffer, position);
+    }
+  }
+
+  private static Graph randomGraph(int size, SourceIndex sourceIndex) {
+    Random random = new Random(size);
+    Graph.Builder builder = new Graph.Builder(size).sourceIndex(sourceIndex);
+    for (int i = 0; i < size; i++) {
+      builder.addEdge(random.nextInt(size / 4 + 1) - size / 8, i, random.nextFloat());
+    }
+    return builder.build();
+  }
+
+  private static void assertSameGraph(Graph expected, Graph actual) {
+    assertEquals(expected.size(), actual.size());
+
+    List<Edge> expectedEdges = new ArrayList<>();
+    expected.forEach(expectedEdges::add);
+    List<Edge> actualEdges = new ArrayList<>();
+    actual.forEach(actualEdges::add);
+    assertEquals(expectedEdges, actualEdges);
+
+    for (Edge edge : expectedEdges) {
+      assertEquals(edge.getValue(),
+          actual.getEdgeValueOrDefault(edge.getVertex1(), edge.getVertex2(), Float.NaN));
+      assertFalse(actual.containsEdge(edge.getVertex1(), -1));
+
+      List<Edge> expectedNeighbors = new ArrayList<>();
+      expected.vertexIterator(edge.getVertex1()).forEachRemaining(expectedNeighbors::add);
+      List<Edge> actualNeighbors = new ArrayList<>();
+      actual.vertexIterator(edge.getVertex1()).forEachRemaining(actualNeighbors::add);
+      assertEquals(expectedNeighbors, actualNeighbors);
+    }
+  }
+}
@@ -0,0 +1,152 @@
+package graph;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+
+class GraphHolderTest {
+
+  private static ReleaseCountingGraph graph(float value) {
+    Graph graph = new Graph.Builder(3)
+        .addEdge(1, 2, value)
+        .addEdge(1, 3, value)
+        .addEdge(2, 3, value)
+        .storage(Storage.OFF_HEAP)
+        .build();
+    return new ReleaseCountingGraph(graph);
+  }
+
+  @Test
+  void testReleaseAfterLastSnapshotClosed() {
+    ReleaseCountingGraph first = graph(1);
+    ReleaseCountingGraph second = graph(2);
+    try (GraphHolder holder = new GraphHolder(first)) {
+      GraphHolder.Snapshot snapshot1 = holder.acquire();
+      GraphHolder.Snapshot snapshot2 = holder.acquire();
+      assertSame(snapshot1, snapshot2);
+      assertEquals(0, snapshot1.version());
+
+      assertEquals(1, holder.publish(second));
+      assertEquals(1, holder.version());
+      assertEquals(Optional.of(1f), snapshot1.graph().getEdgeValue(1, 2));
+      assertEquals(Optional.of(2f), holder.read(graph -> graph.getEdgeValue(1, 2)));
+      assertEquals(0, first.releases.get());
+      assertEquals(1, holder.metrics().retainedVersions());
+
+      snapshot1.close();
+      assertEquals(0, first.releases.get());
+      snapshot2.close();
+      assertEquals(1, first.releases.get());
+      assertEquals(0, holder.metrics().retainedVersions());
+      assertEquals(0, second.releases.get());
+    }
+    assertEquals(1, first.releases.get());
+    assertEquals(1, second.releases.get());
+  }
+
+  @Test
+  void testReleaseWithoutReaders() {
+    ReleaseCountingGraph first = graph(1);
+    try (GraphHolder holder = new GraphHolder(first)) {
+      holder.read(Graph::size);
+      holder.publish(() -> graph(2));
+      assertEquals(1, first.releases.get());
+
+      GraphHolder.Metrics metrics = holder.metrics();
+      assertEquals(1, metrics.publishes());
+      assertTrue(metrics.lastBuildNanos() > 0);
+      assertEquals(metrics.lastBuildNanos(), metrics.totalBuildNanos());
+      assertEquals(0, metrics.retainedVersions());
+    }
+  }
+
+  @Test
+  void testClosed() {
+    GraphHolder holder = new GraphHolder(graph(1));
+    holder.close();
+    holder.close();
+    assertThrows(IllegalStateException.class, holder::acquire);
+    assertThrows(IllegalStateException.class, holder::version);
+    assertThrows(IllegalStateException.class, () -> holder.publish(graph(2)));
+  }
+
+  @Test
+  void testInvalidArguments() {
+    assertThrows(NullPointerException.class, () -> new GraphHolder(null));
+    Graph graph = graph(1);
+    try (GraphHolder holder = new GraphHolder(graph)) {
+      assertThrows(NullPointerException.class, () -> holder.publish((Graph) null));
+      assertThrows(IllegalArgumentException.class, () -> holder.publish(graph));
+    }
+  }
+
+  @Test
+  void testConcurrentReadersAndPublishes() throws InterruptedException {
+    int versions = 50;
+    List<ReleaseCountingGraph> graphs = new ArrayList<>();
+    for (int i = 0; i <= versions; i++) {
+      graphs.add(graph(i));
+    }
+    ConcurrentLinkedQueue<Throwable> failures = new ConcurrentLinkedQueue<>();
+    AtomicBoolean done = new AtomicBoolean();
+    try (GraphHolder holder = new GraphHolder(graphs.get(0))) {
+      List<Thread> readers = new ArrayList<>();
+      for (int t = 0; t < 4; t++) {
+        Thread reader = new Thread(() -> {
+          while (!done.get()) {
+            try (GraphHolder.Snapshot snapshot = holder.acquire()) {
+              ReleaseCountingGraph graph = (ReleaseCountingGraph) snapshot.graph();
+              float value = graph.getEdgeValueOrDefault(2, 3, -1);
+              if (graph.releases.get() != 0 || value != snapshot.version()) {
+                failures.add(new AssertionError("Snapshot " + snapshot + " read " + value
+                    + " after " + graph.releases.get() + " releases"));
+              }
+            } catch (Throwable e) {
+              failures.add(e);
+            }
+          }
+        });
+        reader.start();
+        readers.add(reader);
+      }
+      for (int i = 1; i <= versions; i++) {
+        holder.publish(graphs.get(i));
+        Thread.yield();
+      }
+      done.set(true);
+      for (Thread reader : readers) {
+        reader.join();
+      }
+      assertEquals(0, holder.metrics().retainedVersions());
+    }
+
+    assertTrue(failures.isEmpty(), failures.toString());
+    for (ReleaseCountingGraph graph : graphs) {
+      assertEquals(1, graph.releases.get());
+    }
+  }
+
+  private static final class ReleaseCountingGraph extends Graph {
+    private final AtomicInteger releases = new AtomicInteger();
+
+    ReleaseCountingGraph(Graph graph) {
+      super(graph.vertices1(), graph.vertices2(), graph.values(), graph.size(),
+          graph.rowIndex());
+    }
+
+    @Override
+    void release() {
+      releases.incrementAndGet();
+      super.release();
+    }
+  }
+}
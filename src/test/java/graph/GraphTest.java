@@ -9,12 +9,18 @@ import java.util.Iterator;
 import java.util.List;
 import java.util.NoSuchElementException;
 import java.util.Optional;
+import java.util.Random;
 import java.util.stream.Stream;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.EnumSource;
 import org.junit.jupiter.params.provider.MethodSource;
 
+/**
+ * Runs against {@link Storage#HEAP} graphs, {@link OffHeapGraphTest} runs the same tests against
+ * {@link Storage#OFF_HEAP} ones.
+ */
 class GraphTest {
   private static List<Edge> edges1 = Arrays.asList(
       new Edge(1, 2, (float) 2.53),
@@ -55,6 +61,11 @@ class GraphTest {
       new Edge(11, 1, (float) 11.1)
   );
 
+  /** Storage of every graph built by the tests. */
+  Storage storage() {
+    return Storage.HEAP;
+  }
+
   private static Stream<Arguments> edgesForTest() {
     return Stream.of(
         Arguments.of(edges1),
@@ -81,7 +92,7 @@ class GraphTest {
   @ParameterizedTest
   @MethodSource("edgesForTest")
   void testGetEdgeValue(List<Edge> edges) {
-    Graph graph = new Graph.Builder(edges.size())
+    Graph graph = new Graph.Builder(edges.size()).storage(storage())
         .addEdges(edges)
         .build();
 
@@ -95,7 +106,7 @@ class GraphTest {
 
   @Test
   void testGetNotPresentEdgeValue() {
-    Graph graph = new Graph.Builder(0).build();
+    Graph graph = new Graph.Builder(0).storage(storage()).build();
 
     assertFalse(graph.getEdgeValue(0, 1).isPresent());
     assertFalse(graph.getEdgeValue(5, 2).isPresent());
@@ -104,7 +115,7 @@ class GraphTest {
 
   @Test
   void testGetEdgeValueFirstVertexIsPresentSecondIsNot() {
-    Graph graph = new Graph.Builder(3)
+    Graph graph = new Graph.Builder(3).storage(storage())
         .addEdge(new Edge(0, 1, 0))
         .addEdge(new Edge(1, 0, (float) 1.0))
         .addEdge(new Edge(2, 4, (float) 2.0))
@@ -118,7 +129,7 @@ class GraphTest {
   @ParameterizedTest
   @MethodSource("edgesForSortedTest")
   void testGraphSorted(List<Edge> edgesSorted, List<Edge> edgesShuffled) {
-    Graph graph = new Graph.Builder(edgesShuffled.size())
+    Graph graph = new Graph.Builder(edgesShuffled.size()).storage(storage())
         .addEdges(edgesShuffled)
         .build();
 
@@ -136,7 +147,7 @@ class GraphTest {
     Edge edge2 = new Edge(1, 0, (float) 1.0);
     Edge edge3 = new Edge(2, 4, (float) 2.0);
 
-    Graph graph = new Graph.Builder(3)
+    Graph graph = new Graph.Builder(3).storage(storage())
         .addEdge(edge1)
         .addEdge(edge2)
         .addEdge(edge3)
@@ -154,7 +165,7 @@ class GraphTest {
 
   @Test
   void testIteratorOnEmptyGraph() {
-    Graph graph = new Graph.Builder(0).build();
+    Graph graph = new Graph.Builder(0).storage(storage()).build();
 
     Iterator<Edge> it = graph.iterator();
 
@@ -170,7 +181,7 @@ class GraphTest {
   void testIteratorOnOneItem() {
     Edge edge = new Edge(0, 1, 0);
 
-    Graph graph = new Graph.Builder(1)
+    Graph graph = new Graph.Builder(1).storage(storage())
         .addEdge(edge)
         .build();
 
@@ -184,7 +195,7 @@ class GraphTest {
 
   @Test
   void testIteratorRemoveUnsupported() {
-    Graph graph = new Graph.Builder(0).build();
+    Graph graph = new Graph.Builder(0).storage(storage()).build();
 
     Iterator<Edge> it = graph.iterator();
     assertThrows(UnsupportedOperationException.class, it::remove);
@@ -208,7 +219,7 @@ class GraphTest {
         edge45
     );
 
-    Graph.Builder builder = new Graph.Builder(edges.size());
+    Graph.Builder builder = new Graph.Builder(edges.size()).storage(storage());
 
     for (Edge edge : edges) {
       builder.addEdge(edge);
@@ -242,7 +253,7 @@ class GraphTest {
 
   @Test
   void testVertexIteratorOnAbsentVertex() {
-    Graph graph = new Graph.Builder(0).build();
+    Graph graph = new Graph.Builder(0).storage(storage()).build();
 
     Iterator<Edge> it = graph.vertexIterator(1);
     assertFalse(it.hasNext());
@@ -257,7 +268,7 @@ class GraphTest {
   void testVertexIteratorOnOneItem() {
     Edge edge = new Edge(0, 1, 0);
 
-    Graph graph = new Graph.Builder(1)
+    Graph graph = new Graph.Builder(1).storage(storage())
         .addEdge(edge)
         .build();
 
@@ -273,7 +284,7 @@ class GraphTest {
 
   @Test
   void testVertexIteratorRemoveUnsupported() {
-    Graph graph = new Graph.Builder(0).build();
+    Graph graph = new Graph.Builder(0).storage(storage()).build();
 
     Iterator<Edge> it = graph.vertexIterator(0);
     assertThrows(UnsupportedOperationException.class, it::remove);
@@ -282,7 +293,7 @@ class GraphTest {
   @ParameterizedTest
   @MethodSource("edgesForTest")
   void testSize(List<Edge> edges) {
-    Graph graph = new Graph.Builder(edges.size())
+    Graph graph = new Graph.Builder(edges.size()).storage(storage())
         .addEdges(edges)
         .build();
 
@@ -293,10 +304,316 @@ class GraphTest {
   void testBuildGraphWithEdgesWithSameVertices() {
     Edge edge1 = new Edge(0, 1, (float) 0.11);
     Edge edge2 = new Edge(0, 1, (float) 0.12);
-    Graph.Builder builder = new Graph.Builder(2);
+    Graph.Builder builder = new Graph.Builder(2).storage(storage());
 
     builder.addEdge(edge1);
     builder.addEdge(edge2);
     assertThrows(IllegalArgumentException.class, builder::build);
   }
-}
\ No newline at end of file
+
+  @ParameterizedTest
+  @MethodSource("edgesForTest")
+  void testGetEdgeValueOrDefault(List<Edge> edges) {
+    Graph graph = new Graph.Builder(edges.size()).storage(storage())
+        .addEdges(edges)
+        .build();
+
+    for (Edge edge : edges) {
+      assertEquals(edge.getValue(),
+          graph.getEdgeValueOrDefault(edge.getVertex1(), edge.getVertex2(), -1));
+      assertTrue(graph.containsEdge(edge.getVertex1(), edge.getVertex2()));
+    }
+    assertEquals(-1, graph.getEdgeValueOrDefault(1, 1, -1));
+    assertEquals(-1, graph.getEdgeValueOrDefault(100, 1, -1));
+    assertFalse(graph.containsEdge(1, 1));
+    assertFalse(graph.containsEdge(100, 1));
+  }
+
+  @ParameterizedTest
+  @MethodSource("edgesForSortedTest")
+  void testForEachEdge(List<Edge> edgesSorted, List<Edge> edgesShuffled) {
+    Graph graph = new Graph.Builder(edgesShuffled.size()).storage(storage())
+        .addEdges(edgesShuffled)
+        .build();
+
+    List<Edge> visited = new ArrayList<>();
+    graph.forEachEdge((vertex1, vertex2, value) -> visited.add(new Edge(vertex1, vertex2, value)));
+
+    assertEquals(edgesSorted, visited);
+  }
+
+  @ParameterizedTest
+  @MethodSource("edgesForTest")
+  void testForEachNeighbor(List<Edge> edges) {
+    Graph graph = new Graph.Builder(edges.size()).storage(storage())
+        .addEdges(edges)
+        .build();
+
+    for (int vertex = 0; vertex <= 12; vertex++) {
+      List<Edge> expected = new ArrayList<>();
+      graph.vertexIterator(vertex).forEachRemaining(expected::add);
+
+      List<Edge> visited = new ArrayList<>();
+      graph.forEachNeighbor(vertex,
+          (vertex1, vertex2, value) -> visited.add(new Edge(vertex1, vertex2, value)));
+
+      assertEquals(expected, visited);
+    }
+  }
+
+  @ParameterizedTest
+  @MethodSource("edgesForSortedTest")
+  void testCursor(List<Edge> edgesSorted, List<Edge> edgesShuffled) {
+    Graph graph = new Graph.Builder(edgesShuffled.size()).storage(storage())
+        .addEdges(edgesShuffled)
+        .build();
+    Graph.Cursor cursor = graph.cursor();
+
+    for (int pass = 0; pass < 2; pass++) {
+      List<Edge> visited = new ArrayList<>();
+      while (cursor.next()) {
+        visited.add(new Edge(cursor.vertex1(), cursor.vertex2(), cursor.value()));
+      }
+      assertFalse(cursor.next());
+      assertEquals(edgesSorted, visited);
+      cursor.reset();
+    }
+  }
+
+  @ParameterizedTest
+  @MethodSource("edgesForTest")
+  void testCursorReset(List<Edge> edges) {
+    Graph graph = new Graph.Builder(edges.size()).storage(storage())
+        .addEdges(edges)
+        .build();
+    Graph.Cursor cursor = graph.cursor();
+
+    for (int vertex = 0; vertex <= 12; vertex++) {
+      List<Edge> expected = new ArrayList<>();
+      graph.vertexIterator(vertex).forEachRemaining(expected::add);
+
+      List<Edge> visited = new ArrayList<>();
+      cursor.reset(vertex);
+      while (cursor.next()) {
+        visited.add(new Edge(cursor.vertex1(), cursor.vertex2(), cursor.value()));
+      }
+
+      assertEquals(expected, visited);
+    }
+  }
+
+  @Test
+  void testCursorOutsideRange() {
+    Graph graph = new Graph.Builder(2).storage(storage())
+        .addEdge(new Edge(0, 1, 0))
+        .addEdge(new Edge(1, 0, (float) 1.0))
+        .build();
+    Graph.Cursor cursor = graph.cursor().reset(1);
+
+    assertThrows(NoSuchElementException.class, cursor::vertex1);
+    assertTrue(cursor.next());
+    assertEquals(1, cursor.vertex1());
+    assertFalse(cursor.next());
+    assertThrows(NoSuchElementException.class, cursor::value);
+
+    cursor.reset(5);
+    assertFalse(cursor.next());
+    assertThrows(NoSuchElementException.class, cursor::vertex2);
+  }
+
+  private static Stream<Arguments> batchSourceIndexesAndThresholds() {
+    List<Arguments> arguments = new ArrayList<>();
+    for (SourceIndex sourceIndex : SourceIndex.values()) {
+      arguments.add(Arguments.of(sourceIndex, EdgeSorter.PARALLEL_THRESHOLD));
+      arguments.add(Arguments.of(sourceIndex, 0));
+    }
+    return arguments.stream();
+  }
+
+  @ParameterizedTest
+  @MethodSource("batchSourceIndexesAndThresholds")
+  void testGetEdgeValues(SourceIndex sourceIndex, int parallelThreshold) {
+    Random random = new Random(3);
+    Graph.Builder builder = new Graph.Builder().storage(storage()).sourceIndex(sourceIndex);
+    for (int vertex1 = 0; vertex1 < 100; vertex1 += 2) {
+      for (int vertex2 = vertex1 % 7; vertex2 < 300; vertex2 += 1 + vertex1 % 5) {
+        builder.addEdge(vertex1, vertex2, random.nextFloat());
+      }
+    }
+    Graph graph = builder.build();
+
+    int count = 50_000;
+    int[] vertices1 = new int[count];
+    int[] vertices2 = new int[count];
+    for (int i = 0; i < count; i++) {
+      vertices1[i] = random.nextInt(104) - 2;
+      vertices2[i] = random.nextInt(304) - 2;
+    }
+    float[] values = new float[count];
+    Arrays.fill(values, -1);
+    boolean[] found = new boolean[count];
+
+    graph.getEdgeValues(vertices1, vertices2, values, found, parallelThreshold);
+
+    for (int i = 0; i < count; i++) {
+      Optional<Float> expected = graph.getEdgeValue(vertices1[i], vertices2[i]);
+      assertEquals(expected.isPresent(), found[i]);
+      assertEquals((float) expected.orElse((float) -1), values[i]);
+    }
+  }
+
+  @ParameterizedTest
+  @EnumSource(value = SourceIndex.class, names = {"NONE", "SPARSE", "AUTO"})
+  void testGetEdgeValuesInGroups(SourceIndex sourceIndex) {
+    Random random = new Random(5);
+    int size = 300_000;
+    int[] sources = new int[size];
+    int[] targets = new int[size];
+    float[] edgeValues = new float[size];
+    for (int i = 0; i < size; i++) {
+      sources[i] = i % 3 == 0 ? random.nextInt() : i / 8;
+      targets[i] = i;
+      edgeValues[i] = i;
+    }
+    sources[0] = Integer.MIN_VALUE;
+    sources[1] = Integer.MAX_VALUE;
+    Graph graph = new Graph.Builder(size).storage(storage()).sourceIndex(sourceIndex)
+        .addEdges(sources, targets, edgeValues, 0, size)
+        .build();
+
+    int count = 20_000;
+    int[] vertices1 = new int[count];
+    int[] vertices2 = new int[count];
+    for (int i = 0; i < count; i++) {
+      int edge = random.nextInt(size);
+      vertices1[i] = sources[edge];
+      vertices2[i] = random.nextBoolean() ? edge : edge + 1;
+    }
+    vertices1[0] = Integer.MIN_VALUE;
+    vertices2[0] = 0;
+    vertices1[1] = Integer.MAX_VALUE;
+    vertices2[1] = 1;
+    float[] values = new float[count];
+    boolean[] found = new boolean[count];
+
+    graph.getEdgeValues(vertices1, vertices2, values, found, 0);
+
+    for (int i = 0; i < count; i++) {
+      assertEquals(graph.containsEdge(vertices1[i], vertices2[i]), found[i]);
+      assertEquals(graph.getEdgeValueOrDefault(vertices1[i], vertices2[i], 0), values[i]);
+    }
+    assertTrue(found[0]);
+    assertTrue(found[1]);
+  }
+
+  @Test
+  void testGetEdgeValuesWithDuplicateProbes() {
+    Graph graph = new Graph.Builder(3).storage(storage())
+        .addEdge(new Edge(1, 2, (float) 1.0))
+        .addEdge(new Edge(1, 5, (float) 2.0))
+        .addEdge(new Edge(3, 2, (float) 3.0))
+        .build();
+    int[] vertices1 = {3, 1, 1, 1, 1, 2, 1};
+    int[] vertices2 = {2, 5, 2, 5, 3, 2, 2};
+    float[] values = new float[7];
+    boolean[] found = new boolean[7];
+
+    graph.getEdgeValues(vertices1, vertices2, values, found);
+
+    assertArrayEquals(new boolean[] {true, true, true, true, false, false, true}, found);
+    assertArrayEquals(new float[] {3, 2, 1, 2, 0, 0, 1}, values);
+    assertArrayEquals(new int[] {3, 1, 1, 1, 1, 2, 1}, vertices1);
+  }
+
+  @Test
+  void testGetEdgeValuesOnEmptyBatchAndGraph() {
+    Graph graph = new Graph.Builder(0).storage(storage()).build();
+    boolean[] found = {true};
+
+    graph.getEdgeValues(new int[0], new int[0], new float[0], new boolean[0]);
+    graph.getEdgeValues(new int[] {1}, new int[] {1}, new float[1], found);
+
+    assertFalse(found[0]);
+  }
+
+  @Test
+  void testGetEdgeValuesWithDifferentLengths() {
+    Graph graph = new Graph.Builder(0).storage(storage()).build();
+
+    assertThrows(IllegalArgumentException.class,
+        () -> graph.getEdgeValues(new int[2], new int[2], new float[1], new boolean[2]));
+    assertThrows(NullPointerException.class,
+        () -> graph.getEdgeValues(new int[2], new int[2], new float[2], null));
+  }
+
+  @ParameterizedTest
+  @EnumSource(SourceIndex.class)
+  void testIncomingIndex(SourceIndex sourceIndex) {
+    Graph.Builder builder = new Graph.Builder().storage(storage()).sourceIndex(sourceIndex)
+        .incomingIndex(true);
+    for (int i = 0; i < 20_000; i++) {
+      builder.addEdge((i * 7) % 20_000 / 10, (i * 7) % 20_000 * 37 % 1000 - 500, i);
+    }
+    Graph graph = builder.build();
+
+    assertTrue(graph.hasIncomingIndex());
+    for (int vertex = -501; vertex <= 500; vertex++) {
+      List<Edge> expected = new ArrayList<>();
+      for (Edge edge : graph) {
+        if (edge.getVertex2() == vertex) {
+          expected.add(edge);
+        }
+      }
+
+      List<Edge> incoming = new ArrayList<>();
+      graph.incomingIterator(vertex).forEachRemaining(incoming::add);
+      assertEquals(expected, incoming);
+
+      List<Edge> visited = new ArrayList<>();
+      graph.forEachIncoming(vertex, (vertex1, vertex2, value) ->
+          visited.add(new Edge(vertex1, vertex2, value)));
+      assertEquals(expected, visited);
+      assertEquals(expected.size(), graph.inDegree(vertex));
+    }
+  }
+
+  @Test
+  void testDegrees() {
+    Graph graph = new Graph.Builder(4).storage(storage())
+        .incomingIndex(true)
+        .addEdge(new Edge(1, 2, 0))
+        .addEdge(new Edge(1, 3, 0))
+        .addEdge(new Edge(2, 3, 0))
+        .addEdge(new Edge(3, 3, 0))
+        .build();
+
+    assertEquals(2, graph.outDegree(1));
+    assertEquals(1, graph.outDegree(3));
+    assertEquals(0, graph.outDegree(4));
+    assertEquals(0, graph.inDegree(1));
+    assertEquals(1, graph.inDegree(2));
+    assertEquals(3, graph.inDegree(3));
+  }
+
+  @Test
+  void testWithoutIncomingIndex() {
+    Graph graph = new Graph.Builder(1).storage(storage()).addEdge(new Edge(1, 2, 0)).build();
+
+    assertFalse(graph.hasIncomingIndex());
+    assertEquals(1, graph.outDegree(1));
+    assertThrows(IllegalStateException.class, () -> graph.incomingIterator(2));
+    assertThrows(IllegalStateException.class, () -> graph.inDegree(2));
+    assertThrows(IllegalStateException.class,
+        () -> graph.forEachIncoming(2, (vertex1, vertex2, value) -> { }));
+  }
+
+  @Test
+  void testIncomingIndexWithDuplicateEdges() {
+    Graph.Builder builder = new Graph.Builder(2).storage(storage())
+        .incomingIndex(true)
+        .addEdge(new Edge(1, 2, 0))
+        .addEdge(new Edge(1, 2, 1));
+
+    assertThrows(IllegalArgumentException.class, builder::build);
+  }
+}
@@ -0,0 +1,291 @@
+package graph;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+
+class MutableGraphTest {
+
+  private static Graph baseGraph() {
+    return new Graph.Builder(5)
+        .addEdge(1, 2, 1)
+        .addEdge(1, 5, 2)
+        .addEdge(-3, 7, 3)
+        .addEdge(4, -1, 4)
+        .addEdge(4, 3, 5)
+        .build();
+  }
+
+  @Test
+  void testUpdatesOverrideBase() {
+    try (MutableGraph graph = new MutableGraph(baseGraph())) {
+      graph.putEdge(1, 3, 10);
+      graph.putEdge(1, 5, 20);
+      graph.removeEdge(4, -1);
+      graph.removeEdge(9, 9);
+
+      assertEquals(Optional.of(10f), graph.getEdgeValue(1, 3));
+      assertEquals(Optional.of(20f), graph.getEdgeValue(1, 5));
+      assertEquals(Optional.of(1f), graph.getEdgeValue(1, 2));
+      assertFalse(graph.getEdgeValue(4, -1).isPresent());
+      assertFalse(graph.containsEdge(9, 9));
+      assertTrue(graph.containsEdge(-3, 7));
+      assertEquals(-1f, graph.getEdgeValueOrDefault(4, -1, -1f));
+      assertEquals(5, graph.size());
+      assertEquals(4, graph.deltaSize());
+
+      assertEquals(edges(new Edge(-3, 7, 3), new Edge(1, 2, 1), new Edge(1, 3, 10),
+          new Edge(1, 5, 20), new Edge(4, 3, 5)), toList(graph.iterator()));
+      assertEquals(edges(new Edge(1, 2, 1), new Edge(1, 3, 10), new Edge(1, 5, 20)),
+          toList(graph.vertexIterator(1)));
+      assertEquals(edges(new Edge(4, 3, 5)), toList(graph.vertexIterator(4)));
+      assertEquals(edges(), toList(graph.vertexIterator(9)));
+
+      graph.putEdge(4, -1, 30);
+      graph.putEdge(Integer.MIN_VALUE, Integer.MIN_VALUE, 40);
+      assertEquals(edges(new Edge(4, -1, 30), new Edge(4, 3, 5)),
+          toList(graph.vertexIterator(4)));
+      assertEquals(new Edge(Integer.MIN_VALUE, Integer.MIN_VALUE, 40), graph.iterator().next());
+    }
+  }
+
+  @Test
+  void testCompact() {
+    try (MutableGraph graph = new MutableGraph(baseGraph())) {
+      Graph base = graph.base();
+      assertSame(base, graph.compact());
+
+      graph.putEdge(0, 0, 10);
+      graph.putEdge(4, 3, 20);
+      graph.removeEdge(1, 2);
+      List<Edge> expected = toList(graph.iterator());
+
+      Graph compacted = graph.compact();
+
+      assertNotSame(base, compacted);
+      assertSame(compacted, graph.base());
+      assertEquals(0, graph.deltaSize());
+      assertEquals(expected, toList(compacted.iterator()));
+      assertEquals(expected, toList(graph.iterator()));
+      assertEquals(5, compacted.size());
+      assertEquals(Optional.of(20f), compacted.getEdgeValue(4, 3));
+      assertEquals(edges(new Edge(1, 5, 2)), toList(compacted.vertexIterator(1)));
+    }
+  }
+
+  @Test
+  void testCompactionKeepsSettings() {
+    Graph.Builder builder = new Graph.Builder().storage(Storage.OFF_HEAP).edgeFilter(10);
+    for (int vertex1 = 0; vertex1 < 100; vertex1++) {
+      builder.addEdge(vertex1, 0, vertex1);
+    }
+    Graph base = builder.build();
+    assertEquals(SourceIndex.DENSE, base.rowIndex().type());
+
+    try (MutableGraph graph = new MutableGraph(base)) {
+      graph.putEdge(1_000_000_000, 1, 1);
+      Graph compacted = graph.compact();
+
+      // AUTO is applied again instead of a dense index over a billion sources
+      assertEquals(SourceIndex.SPARSE, compacted.rowIndex().type());
+      assertEquals(Storage.OFF_HEAP, compacted.vertices1().storage());
+      assertTrue(compacted.hasEdgeFilter());
+      assertEquals(10, compacted.filter().bitsPerEdge());
+      assertEquals(Optional.of(1f), compacted.getEdgeValue(1_000_000_000, 1));
+      assertFalse(compacted.containsEdge(1_000_000_000, 2));
+      assertEquals(101, compacted.size());
+    }
+  }
+
+  @Test
+  void testBackgroundCompactionFailure() throws InterruptedException {
+    Graph base = new Graph.Builder().sourceIndex(SourceIndex.DENSE).addEdge(0, 0, 1).build();
+    MutableGraph graph = new MutableGraph(base, 1, SourceIndex.DENSE);
+    Throwable failure;
+    try {
+      // Sources 0 to Integer.MAX_VALUE are too many for a dense index
+      graph.putEdge(Integer.MAX_VALUE, 0, 2);
+      long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+      while (!graph.compactionFailure().isPresent() && System.nanoTime() < deadline) {
+        Thread.sleep(10);
+      }
+      failure = graph.compactionFailure().get();
+      assertEquals(IllegalArgumentException.class, failure.getClass());
+
+      for (int i = 1; i <= 10; i++) {
+        graph.putEdge(i, 0, i);
+      }
+    } finally {
+      graph.close();
+    }
+
+    // Not scheduled again, a new attempt would have failed with a new exception
+    assertSame(failure, graph.compactionFailure().get());
+    assertSame(base, graph.base());
+    assertEquals(11, graph.deltaSize());
+    assertEquals(Optional.of(2f), graph.getEdgeValue(Integer.MAX_VALUE, 0));
+
+    graph.removeEdge(Integer.MAX_VALUE, 0);
+    assertEquals(11, graph.compact().size());
+    assertFalse(graph.compactionFailure().isPresent());
+  }
+
+  @Test
+  void testMatchesReference() {
+    Random random = new Random(1);
+    Graph.Builder builder = new Graph.Builder(2000);
+    TreeMap<Long, Float> reference = new TreeMap<>();
+    for (int i = 0; i < 2000; i++) {
+      int vertex1 = i % 100;
+      int vertex2 = i / 100 * 3;
+      builder.addEdge(vertex1, vertex2, i);
+      reference.put(MutableGraph.key(vertex1, vertex2), (float) i);
+    }
+
+    MutableGraph graph = new MutableGraph(builder.build(), 500);
+    try {
+      for (int i = 0; i < 20_000; i++) {
+        int vertex1 = random.nextInt(120) - 10;
+        int vertex2 = random.nextInt(70) - 5;
+        if (random.nextInt(3) == 0) {
+          graph.removeEdge(vertex1, vertex2);
+          reference.remove(MutableGraph.key(vertex1, vertex2));
+        } else {
+          graph.putEdge(vertex1, vertex2, i);
+          reference.put(MutableGraph.key(vertex1, vertex2), (float) i);
+        }
+        if (i % 5000 == 0) {
+          graph.compact();
+        }
+      }
+    } finally {
+      // Waits for the background compaction, the graph stays usable
+      graph.close();
+    }
+
+    List<Edge> expected = new ArrayList<>();
+    for (Map.Entry<Long, Float> entry : reference.entrySet()) {
+      expected.add(new Edge(MutableGraph.vertex1(entry.getKey()),
+          MutableGraph.vertex2(entry.getKey()), entry.getValue()));
+    }
+    assertEquals(expected, toList(graph.iterator()));
+    assertEquals(expected.size(), graph.size());
+    for (int vertex = -10; vertex < 110; vertex += 7) {
+      long from = MutableGraph.key(vertex, Integer.MIN_VALUE);
+      long to = MutableGraph.key(vertex, Integer.MAX_VALUE);
+      assertEquals(reference.subMap(from, true, to, true).size(),
+          toList(graph.vertexIterator(vertex)).size());
+    }
+    assertEquals(expected, toList(graph.compact().iterator()));
+  }
+
+  @Test
+  void testBackgroundCompaction() throws InterruptedException {
+    try (MutableGraph graph = new MutableGraph(baseGraph(), 100)) {
+      for (int i = 0; i < 100; i++) {
+        graph.putEdge(1000 + i, i, i);
+      }
+      long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+      while (graph.base().size() == 5 && System.nanoTime() < deadline) {
+        Thread.sleep(10);
+      }
+
+      assertEquals(105, graph.base().size());
+      assertEquals(105, graph.size());
+    }
+  }
+
+  @Test
+  void testConcurrentReadersAndWriters() throws InterruptedException {
+    Graph.Builder builder = new Graph.Builder(10_000);
+    for (int i = 0; i < 10_000; i++) {
+      builder.addEdge(i / 100, i % 100, 1);
+    }
+
+    try (MutableGraph graph = new MutableGraph(builder.build(), 1000)) {
+      int writers = 2;
+      CountDownLatch done = new CountDownLatch(writers);
+      ConcurrentLinkedQueue<Throwable> failures = new ConcurrentLinkedQueue<>();
+      for (int w = 0; w < writers; w++) {
+        int writer = w;
+        new Thread(() -> {
+          try {
+            for (int i = 0; i < 10_000; i++) {
+              graph.putEdge(i / 100, 100 + writer, 2);
+            }
+          } catch (Throwable e) {
+            failures.add(e);
+          } finally {
+            done.countDown();
+          }
+        }).start();
+      }
+
+      while (done.getCount() > 0) {
+        Iterator<Edge> it = graph.vertexIterator(50);
+        int count = 0;
+        while (it.hasNext()) {
+          assertEquals(50, it.next().getVertex1());
+          count++;
+        }
+        assertTrue(count >= 100 && count <= 102, "Count " + count);
+        assertEquals(1f, graph.getEdgeValueOrDefault(99, 99, 0));
+      }
+
+      assertTrue(failures.isEmpty(), failures.toString());
+      assertEquals(10_200, graph.size());
+      assertEquals(10_200, graph.compact().size());
+    }
+  }
+
+  @Test
+  void testInvalidInput() {
+    assertThrows(NullPointerException.class, () -> new MutableGraph(null));
+    assertThrows(IllegalArgumentException.class, () -> new MutableGraph(baseGraph(), 0));
+    assertThrows(NullPointerException.class, () -> new MutableGraph(baseGraph(), 1, null));
+  }
+
+  @Test
+  void testKeysOrderLikeColumns() {
+    int[] vertices = {Integer.MIN_VALUE, -1, 0, 1, Integer.MAX_VALUE};
+    for (int vertex1 : vertices) {
+      for (int vertex2 : vertices) {
+        long key = MutableGraph.key(vertex1, vertex2);
+        assertEquals(vertex1, MutableGraph.vertex1(key));
+        assertEquals(vertex2, MutableGraph.vertex2(key));
+        assertTrue(key < MutableGraph.key(vertex1, vertex2 + 1) || vertex2 == Integer.MAX_VALUE);
+        assertTrue(key < MutableGraph.key(vertex1 + 1, Integer.MIN_VALUE)
+            || vertex1 == Integer.MAX_VALUE);
+      }
+    }
+  }
+
+  private static List<Edge> edges(Edge... edges) {
+    List<Edge> list = new ArrayList<>();
+    for (Edge edge : edges) {
+      list.add(edge);
+    }
+    return list;
+  }
+
+  private static List<Edge> toList(Iterator<Edge> iterator) {
+    List<Edge> edges = new ArrayList<>();
+    iterator.forEachRemaining(edges::add);
+    return edges;
+  }
+}
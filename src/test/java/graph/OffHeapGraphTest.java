@@ -0,0 +1,10 @@
+package graph;
+
+/** The {@link GraphTest} suite against graphs built with {@link Storage#OFF_HEAP}. */
+class OffHeapGraphTest extends GraphTest {
+
+  @Override
+  Storage storage() {
+    return Storage.OFF_HEAP;
+  }
+}
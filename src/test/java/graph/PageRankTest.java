@@ -0,0 +1,111 @@
+package graph;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+class PageRankTest {
+
+  private static Graph randomGraph(int vertices, int edges, boolean incomingIndex, long seed) {
+    Random random = new Random(seed);
+    Graph.Builder builder = new Graph.Builder(edges).incomingIndex(incomingIndex);
+    for (int i = 0; i < edges; i++) {
+      int source = i % (vertices / 2) * 2;
+      int target = (int) ((source + 1 + (long) i / (vertices / 2) * 7919) % vertices);
+      builder.addEdge(source, target, random.nextFloat());
+    }
+    return builder.build();
+  }
+
+  @ParameterizedTest
+  @EnumSource(VertexComputation.Direction.class)
+  void testMatchesPowerIteration(VertexComputation.Direction direction) {
+    Graph graph = randomGraph(2000, 30_000, true, 1);
+    double[] expected = powerIteration(graph, 2000, 0.85, 200);
+
+    VertexComputation ranks = new VertexComputation.Builder(graph)
+        .direction(direction)
+        .tolerance(1e-12)
+        .run(new PageRank(graph, 0.85));
+
+    assertTrue(ranks.converged());
+    assertEquals(1, Arrays.stream(ranks.values()).sum(), 1e-9);
+    for (int vertex = 0; vertex < 2000; vertex++) {
+      assertEquals(expected[vertex], ranks.value(vertex), 1e-12);
+    }
+  }
+
+  @Test
+  void testDefaultComputation() {
+    Graph graph = randomGraph(1000, 10_000, false, 2);
+
+    VertexComputation ranks = PageRank.compute(graph);
+
+    assertTrue(ranks.converged());
+    assertTrue(ranks.residual() <= 1e-6);
+    assertEquals(1, Arrays.stream(ranks.values()).sum(), 1e-9);
+  }
+
+  @Test
+  void testWeightsAndDanglingVertices() {
+    Graph graph = new Graph.Builder(3)
+        .addEdge(0, 1, 3)
+        .addEdge(0, 2, 1)
+        .addEdge(1, 0, 0)
+        .build();
+
+    VertexComputation ranks = new VertexComputation.Builder(graph)
+        .tolerance(0)
+        .maxIterations(1)
+        .run(new PageRank(graph, 0.5));
+
+    double base = (0.5 + 0.5 * 2 / 3.0) / 3;
+    assertEquals(base, ranks.value(0), 1e-12);
+    assertEquals(base + 0.5 * 0.75 / 3, ranks.value(1), 1e-12);
+    assertEquals(base + 0.5 * 0.25 / 3, ranks.value(2), 1e-12);
+  }
+
+  @Test
+  void testInvalidInput() {
+    Graph graph = new Graph.Builder(1).addEdge(0, 1, 1).build();
+
+    assertThrows(IllegalArgumentException.class, () -> new PageRank(graph, 1.5));
+    assertThrows(IllegalArgumentException.class, () -> new PageRank(graph, Double.NaN));
+    assertThrows(IllegalArgumentException.class,
+        () -> new PageRank(new Graph.Builder(1).addEdge(0, 1, -1).build(), 0.85));
+    assertThrows(IllegalArgumentException.class,
+        () -> new PageRank(new Graph.Builder(1).addEdge(-1, 1, 1).build(), 0.85));
+  }
+
+  private static double[] powerIteration(Graph graph, int vertices, double damping,
+      int iterations) {
+    double[] weights = new double[vertices];
+    for (Edge edge : graph) {
+      weights[edge.getVertex1()] += edge.getValue();
+    }
+    double[] ranks = new double[vertices];
+    Arrays.fill(ranks, 1.0 / vertices);
+    for (int iteration = 0; iteration < iterations; iteration++) {
+      double dangling = 0;
+      for (int vertex = 0; vertex < vertices; vertex++) {
+        if (weights[vertex] == 0) {
+          dangling += ranks[vertex];
+        }
+      }
+      double[] next = new double[vertices];
+      Arrays.fill(next, (1 - damping + damping * dangling) / vertices);
+      for (Edge edge : graph) {
+        next[edge.getVertex2()] +=
+            damping * ranks[edge.getVertex1()] * edge.getValue() / weights[edge.getVertex1()];
+      }
+      ranks = next;
+    }
+    return ranks;
+  }
+}
@@ -0,0 +1,129 @@
+package graph;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Iterator;
+import java.util.Optional;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+class RowIndexTest {
+  private static final int[] SOURCES = {-7, -7, 0, 3, 3, 3, 10, 12, 12};
+
+  @ParameterizedTest
+  @EnumSource(SourceIndex.class)
+  void testFindRows(SourceIndex type) {
+    RowIndex index = RowIndex.build(type, SOURCES, SOURCES.length);
+
+    assertRange(index, -7, 0, 2);
+    assertRange(index, 0, 2, 3);
+    assertRange(index, 3, 3, 6);
+    assertRange(index, 10, 6, 7);
+    assertRange(index, 12, 7, 9);
+  }
+
+  @ParameterizedTest
+  @EnumSource(SourceIndex.class)
+  void testFindAbsentVertex(SourceIndex type) {
+    RowIndex index = RowIndex.build(type, SOURCES, SOURCES.length);
+
+    assertEquals(-1, index.find(-8));
+    assertEquals(-1, index.find(1));
+    assertEquals(-1, index.find(11));
+    assertEquals(-1, index.find(13));
+    assertEquals(-1, index.find(Integer.MIN_VALUE));
+    assertEquals(-1, index.find(Integer.MAX_VALUE));
+  }
+
+  @ParameterizedTest
+  @EnumSource(SourceIndex.class)
+  void testEmpty(SourceIndex type) {
+    RowIndex index = RowIndex.build(type, new int[0], 0);
+
+    assertEquals(-1, index.find(0));
+    assertEquals(-1, index.find(1));
+  }
+
+  @ParameterizedTest
+  @EnumSource(SourceIndex.class)
+  void testGraphLookups(SourceIndex type) {
+    Graph graph = new Graph.Builder(5)
+        .sourceIndex(type)
+        .addEdge(100, 1, (float) 1.0)
+        .addEdge(-100, 2, (float) 2.0)
+        .addEdge(100, 3, (float) 3.0)
+        .addEdge(5, 4, (float) 4.0)
+        .addEdge(-100, 5, (float) 5.0)
+        .build();
+
+    assertEquals(Optional.of((float) 3.0), graph.getEdgeValue(100, 3));
+    assertEquals(Optional.of((float) 5.0), graph.getEdgeValue(-100, 5));
+    assertFalse(graph.getEdgeValue(5, 5).isPresent());
+    assertFalse(graph.getEdgeValue(6, 4).isPresent());
+
+    Iterator<Edge> it = graph.vertexIterator(-100);
+    assertTrue(it.hasNext());
+    assertEquals(new Edge(-100, 2, (float) 2.0), it.next());
+    assertEquals(new Edge(-100, 5, (float) 5.0), it.next());
+    assertFalse(it.hasNext());
+    assertFalse(graph.vertexIterator(0).hasNext());
+  }
+
+  @Test
+  void testDenseRejectsHugeIdRange() {
+    int[] sources = {Integer.MIN_VALUE, Integer.MAX_VALUE};
+
+    assertThrows(IllegalArgumentException.class,
+        () -> RowIndex.build(SourceIndex.DENSE, sources, sources.length));
+    assertRange(RowIndex.build(SourceIndex.AUTO, sources, sources.length),
+        Integer.MAX_VALUE, 1, 2);
+  }
+
+  @Test
+  void testBTreeLevels() {
+    for (int rows : new int[] {1, 16, 17, 256, 257, 5000}) {
+      int[] sources = new int[rows * 2];
+      for (int i = 0; i < sources.length; i++) {
+        sources[i] = Integer.MIN_VALUE + (i / 2) * 3;
+      }
+      sources[sources.length - 2] = Integer.MAX_VALUE;
+      sources[sources.length - 1] = Integer.MAX_VALUE;
+      RowIndex index = RowIndex.build(SourceIndex.BTREE, sources, sources.length);
+
+      assertEquals(rows, index.rows());
+      for (int i = 0; i < sources.length - 2; i += 2) {
+        assertEquals(i / 2, index.find(sources[i]));
+        assertEquals(-1, index.find(sources[i] + 1));
+      }
+      assertRange(index, Integer.MAX_VALUE, sources.length - 2, sources.length);
+      assertEquals(-1, index.find(Integer.MAX_VALUE - 1));
+    }
+  }
+
+  @Test
+  void testFromRows() {
+    RowIndex dense = RowIndex.fromRows(new int[] {-7, 0, 3, 10, 12}, new int[] {0, 2, 3, 6, 7, 9},
+        5);
+    RowIndex sparse = RowIndex.fromRows(new int[] {0, 1000}, new int[] {0, 2, 3}, 2);
+
+    assertEquals(SourceIndex.DENSE, dense.type());
+    assertRange(dense, -7, 0, 2);
+    assertRange(dense, 3, 3, 6);
+    assertRange(dense, 12, 7, 9);
+    assertEquals(-1, dense.find(11));
+    assertEquals(SourceIndex.SPARSE, sparse.type());
+    assertRange(sparse, 1000, 2, 3);
+    assertEquals(-1, RowIndex.fromRows(new int[0], new int[] {0}, 0).find(0));
+  }
+
+  private static void assertRange(RowIndex index, int vertex, int start, int end) {
+    int row = index.find(vertex);
+    assertTrue(row >= 0, "Vertex " + vertex + " not found");
+    assertEquals(start, index.start(row));
+    assertEquals(end, index.end(row));
+  }
+}
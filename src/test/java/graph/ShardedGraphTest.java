@@ -0,0 +1,298 @@
+package graph;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+class ShardedGraphTest {
+  private static final int VERTICES = 2000;
+  private static final int EDGES = 20_000;
+
+  private static Stream<Arguments> partitionersAndTransports() {
+    List<Arguments> arguments = new ArrayList<>();
+    for (ShardPartitioner partitioner : new ShardPartitioner[] {ShardPartitioner.hash(1),
+        ShardPartitioner.hash(4), ShardPartitioner.range(-100, 500, 1500)}) {
+      arguments.add(Arguments.of(partitioner, false));
+      arguments.add(Arguments.of(partitioner, true));
+    }
+    return arguments.stream();
+  }
+
+  @ParameterizedTest
+  @MethodSource("partitionersAndTransports")
+  void testMatchesGraph(ShardPartitioner partitioner, boolean loopback) throws IOException {
+    List<Edge> randomEdges = randomEdges();
+    Graph expected = new Graph.Builder().duplicatePolicy(DuplicatePolicy.KEEP_FIRST)
+        .addEdges(randomEdges).build();
+    ShardedGraph.Builder builder = new ShardedGraph.Builder(partitioner,
+        () -> new Graph.Builder().duplicatePolicy(DuplicatePolicy.KEEP_FIRST))
+        .transport(loopback ? ShardTransport.loopback() : ShardTransport.inProcess())
+        .addEdges(randomEdges);
+    try (ShardedGraph graph = builder.build()) {
+      assertEquals(expected.size(), graph.size());
+      assertEquals(partitioner.shards(), graph.shards());
+
+      Set<Edge> edges = ConcurrentHashMap.newKeySet();
+      graph.forEachEdge((vertex1, vertex2, value) -> edges.add(new Edge(vertex1, vertex2, value)));
+      assertEquals(expected.edges().collect(Collectors.toSet()), edges);
+
+      List<Edge> scanned = new ArrayList<>();
+      for (int shard = 0; shard < graph.shards(); shard++) {
+        int owner = shard;
+        graph.shard(shard).forEachEdge((vertex1, vertex2, value) -> {
+          assertEquals(owner, partitioner.shard(vertex1));
+          scanned.add(new Edge(vertex1, vertex2, value));
+        });
+      }
+      if (partitioner.toString().startsWith("range")) {
+        List<Edge> sorted = new ArrayList<>();
+        expected.forEach(sorted::add);
+        assertEquals(sorted, scanned);
+      }
+
+      Random random = new Random(6);
+      int[] vertices1 = new int[5000];
+      int[] vertices2 = new int[5000];
+      for (int i = 0; i < vertices1.length; i++) {
+        vertices1[i] = random.nextInt(VERTICES + 400) - 300;
+        vertices2[i] = random.nextInt(VERTICES);
+        if (i % 2 == 0) {
+          Iterator<Edge> row = expected.vertexIterator(vertices1[i]);
+          vertices2[i] = row.hasNext() ? row.next().getVertex2() : vertices2[i];
+        }
+        assertEquals(expected.getEdgeValue(vertices1[i], vertices2[i]),
+            graph.getEdgeValue(vertices1[i], vertices2[i]));
+        assertEquals(expected.containsEdge(vertices1[i], vertices2[i]),
+            graph.containsEdge(vertices1[i], vertices2[i]));
+        assertEquals(expected.getEdgeValueOrDefault(vertices1[i], vertices2[i], -1),
+            graph.getEdgeValueOrDefault(vertices1[i], vertices2[i], -1));
+      }
+      float[] values = new float[vertices1.length];
+      boolean[] found = new boolean[vertices1.length];
+      float[] expectedValues = new float[vertices1.length];
+      boolean[] expectedFound = new boolean[vertices1.length];
+      Arrays.fill(values, -1);
+      Arrays.fill(expectedValues, -1);
+      graph.getEdgeValues(vertices1, vertices2, values, found);
+      expected.getEdgeValues(vertices1, vertices2, expectedValues, expectedFound);
+      assertArrayEquals(expectedValues, values);
+      assertArrayEquals(expectedFound, found);
+
+      for (int vertex = -310; vertex < VERTICES + 10; vertex += 3) {
+        assertEquals(expected.outDegree(vertex), graph.outDegree(vertex));
+        assertEquals(edges(expected.vertexIterator(vertex)), edges(graph.vertexIterator(vertex)));
+      }
+    }
+  }
+
+  @Test
+  void testSubBuilders() throws Exception {
+    ShardedGraph.Builder builder = new ShardedGraph.Builder(ShardPartitioner.hash(3));
+    List<Thread> threads = new ArrayList<>();
+    for (int t = 0; t < 4; t++) {
+      ShardedGraph.Builder subBuilder = builder.newSubBuilder();
+      int first = t;
+      threads.add(new Thread(() -> {
+        for (int vertex1 = first; vertex1 < 1000; vertex1 += 4) {
+          for (int vertex2 = 0; vertex2 < 5; vertex2++) {
+            subBuilder.addEdge(vertex1, vertex2, vertex1 + vertex2);
+          }
+        }
+      }));
+      assertThrows(IllegalStateException.class, subBuilder::build);
+    }
+    for (Thread thread : threads) {
+      thread.start();
+    }
+    for (Thread thread : threads) {
+      thread.join();
+    }
+    builder.addEdge(-5, 3, 1);
+
+    try (ShardedGraph graph = builder.build()) {
+      assertEquals(5001, graph.size());
+      assertEquals(5, graph.outDegree(999));
+      assertEquals(Float.valueOf(1003), graph.getEdgeValue(999, 4).get());
+      assertTrue(graph.containsEdge(-5, 3));
+    }
+  }
+
+  @Test
+  void testConnectToServers() throws IOException {
+    ShardPartitioner partitioner = ShardPartitioner.range(50);
+    Graph.Builder[] builders = {new Graph.Builder(), new Graph.Builder()};
+    for (int vertex1 = 0; vertex1 < 100; vertex1++) {
+      builders[partitioner.shard(vertex1)].addEdge(vertex1, vertex1 + 1, vertex1);
+    }
+    Graph[] graphs = {builders[0].build(), builders[1].build()};
+    InetSocketAddress address = new InetSocketAddress(InetAddress.getLoopbackAddress(), 0);
+    ShardServer server0 = ShardServer.start(graphs[0], address);
+    try (ShardServer server1 = ShardServer.start(graphs[1], address)) {
+      List<Shard> shards = Arrays.asList(ShardServer.connect(server0.address()),
+          ShardServer.connect(server1.address()));
+      assertThrows(IllegalArgumentException.class,
+          () -> ShardedGraph.connect(ShardPartitioner.hash(3), shards));
+
+      try (ShardedGraph graph = ShardedGraph.connect(partitioner, shards)) {
+        assertEquals(100, graph.size());
+        assertEquals(Float.valueOf(70), graph.getEdgeValue(70, 71).get());
+        assertFalse(graph.containsEdge(70, 72));
+
+        RuntimeException failure = new IllegalStateException();
+        assertEquals(failure, assertThrows(IllegalStateException.class,
+            () -> graph.shard(1).forEachEdge((vertex1, vertex2, value) -> {
+              throw failure;
+            })));
+        assertEquals(Float.valueOf(99), graph.getEdgeValue(99, 100).get());
+
+        // Split into requests of at most BATCH_PROBES probes
+        int[] vertices1 = new int[ShardServer.BATCH_PROBES * 2 + 3];
+        int[] vertices2 = new int[vertices1.length];
+        for (int i = 0; i < vertices1.length; i++) {
+          vertices1[i] = i % 101;
+          vertices2[i] = i % 101 + 1;
+        }
+        float[] values = new float[vertices1.length];
+        boolean[] found = new boolean[vertices1.length];
+        graph.getEdgeValues(vertices1, vertices2, values, found);
+        for (int i = 0; i < vertices1.length; i++) {
+          assertEquals(vertices1[i] < 100, found[i]);
+          assertEquals(vertices1[i] < 100 ? vertices1[i] : 0, values[i]);
+        }
+      }
+
+      // An invalid request drops its connection only
+      for (int count : new int[] {-1, ShardServer.BATCH_PROBES + 1}) {
+        try (Socket socket = new Socket(server1.address().getAddress(),
+            server1.address().getPort())) {
+          DataOutputStream output = new DataOutputStream(socket.getOutputStream());
+          output.writeByte(ShardServer.GET_BATCH);
+          output.writeInt(count);
+          output.flush();
+          assertEquals(-1, socket.getInputStream().read());
+        }
+      }
+      try (Shard shard = ShardServer.connect(server1.address())) {
+        assertEquals(50, shard.size());
+      }
+
+      Shard shard = ShardServer.connect(server0.address());
+      server0.close();
+      assertThrows(UncheckedIOException.class, () -> shard.getEdgeValue(1, 2));
+      shard.close();
+    } finally {
+      server0.close();
+    }
+  }
+
+  @Test
+  void testBuildFailureClosesShards() {
+    AtomicInteger closed = new AtomicInteger();
+    ShardTransport transport = (shard, graph) -> counting(new LocalShard(graph), closed);
+    ShardedGraph.Builder builder = new ShardedGraph.Builder(ShardPartitioner.range(10, 20))
+        .transport(transport)
+        .addEdge(1, 2, 0).addEdge(15, 2, 0).addEdge(15, 2, 1).addEdge(25, 2, 0);
+    assertThrows(IllegalArgumentException.class, builder::build);
+    assertEquals(2, closed.get());
+
+    AtomicInteger opened = new AtomicInteger();
+    ShardedGraph.Builder failing = new ShardedGraph.Builder(ShardPartitioner.hash(4))
+        .transport((shard, graph) -> {
+          if (shard == 2) {
+            throw new IOException("Shard " + shard);
+          }
+          opened.incrementAndGet();
+          return counting(new LocalShard(graph), closed);
+        });
+    assertEquals("Shard 2", assertThrows(IOException.class, failing::build).getMessage());
+    assertEquals(2 + opened.get(), closed.get());
+  }
+
+  @Test
+  void testPartitioners() {
+    ShardPartitioner hash = ShardPartitioner.hash(4);
+    int[] counts = new int[hash.shards()];
+    for (int vertex = 0; vertex < 10_000; vertex++) {
+      counts[hash.shard(vertex)]++;
+    }
+    for (int count : counts) {
+      assertTrue(count > 2000 && count < 3000, Arrays.toString(counts));
+    }
+    assertTrue(hash.shard(Integer.MIN_VALUE) >= 0 && hash.shard(-1) < hash.shards());
+
+    ShardPartitioner range = ShardPartitioner.range(10, 20);
+    assertEquals(3, range.shards());
+    assertEquals(0, range.shard(Integer.MIN_VALUE));
+    assertEquals(0, range.shard(9));
+    assertEquals(1, range.shard(10));
+    assertEquals(1, range.shard(19));
+    assertEquals(2, range.shard(20));
+    assertEquals(2, range.shard(Integer.MAX_VALUE));
+    assertEquals(0, ShardPartitioner.range().shard(7));
+
+    assertThrows(IllegalArgumentException.class, () -> ShardPartitioner.hash(0));
+    assertThrows(IllegalArgumentException.class, () -> ShardPartitioner.range(5, 5));
+    assertThrows(NullPointerException.class, () -> ShardPartitioner.range((int[]) null));
+    assertThrows(NullPointerException.class,
+        () -> new ShardedGraph.Builder(range).transport(null));
+  }
+
+  /** Random edges with duplicates, from sources in {@code [-200, VERTICES)}. */
+  private static List<Edge> randomEdges() {
+    Random random = new Random(4);
+    List<Edge> edges = new ArrayList<>();
+    for (int i = 0; i < EDGES; i++) {
+      edges.add(new Edge(random.nextInt(VERTICES + 200) - 200, random.nextInt(VERTICES),
+          random.nextFloat()));
+    }
+    return edges;
+  }
+
+  /** Delegates to {@code shard} and counts the calls to {@link Shard#close()}. */
+  private static Shard counting(Shard shard, AtomicInteger closed) {
+    return (Shard) Proxy.newProxyInstance(Shard.class.getClassLoader(),
+        new Class<?>[] {Shard.class}, (proxy, method, arguments) -> {
+          if (method.getName().equals("close")) {
+            closed.incrementAndGet();
+          }
+          try {
+            return method.invoke(shard, arguments);
+          } catch (InvocationTargetException e) {
+            throw e.getCause();
+          }
+        });
+  }
+
+  private static Set<Edge> edges(Iterator<Edge> iterator) {
+    Set<Edge> edges = new HashSet<>();
+    iterator.forEachRemaining(edges::add);
+    return Collections.unmodifiableSet(edges);
+  }
+}
@@ -0,0 +1,150 @@
+package graph;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+class ShortestPathsTest {
+
+  private static Stream<Arguments> graphSizes() {
+    return Stream.of(
+        Arguments.of(10, 30),
+        Arguments.of(1000, 5000),
+        Arguments.of(20_000, 200_000)
+    );
+  }
+
+  @ParameterizedTest
+  @MethodSource("graphSizes")
+  void testMatchesBellmanFord(int vertices, int edges) {
+    Graph graph = randomGraph(vertices, edges, vertices);
+    float[] expected = bellmanFord(graph, vertices, 0);
+
+    ShortestPaths dijkstra = ShortestPaths.dijkstra(graph, 0);
+    ShortestPaths deltaStepping = ShortestPaths.deltaStepping(graph, 0);
+    ShortestPaths narrowBuckets = ShortestPaths.deltaStepping(graph, 0, 0.01f);
+
+    for (ShortestPaths paths : Arrays.asList(dijkstra, deltaStepping, narrowBuckets)) {
+      for (int vertex = 0; vertex < vertices; vertex++) {
+        assertEquals(expected[vertex], paths.distance(vertex), 1e-4);
+        assertValidPath(graph, paths, vertex);
+      }
+    }
+  }
+
+  @Test
+  void testSmallGraph() {
+    Graph graph = new Graph.Builder(6)
+        .addEdge(new Edge(0, 1, 4))
+        .addEdge(new Edge(0, 2, 1))
+        .addEdge(new Edge(2, 1, 2))
+        .addEdge(new Edge(1, 3, 1))
+        .addEdge(new Edge(2, 3, 5))
+        .addEdge(new Edge(4, 0, 1))
+        .build();
+
+    for (ShortestPaths paths : Arrays.asList(ShortestPaths.dijkstra(graph, 0),
+        ShortestPaths.deltaStepping(graph, 0))) {
+      assertEquals(0, paths.source());
+      assertArrayEquals(new float[] {0, 3, 1, 4, Float.POSITIVE_INFINITY}, paths.distances());
+      assertArrayEquals(new int[] {-1, 2, 0, 1, -1}, paths.predecessors());
+      assertArrayEquals(new int[] {0, 2, 1, 3}, paths.path(3));
+      assertArrayEquals(new int[] {0}, paths.path(0));
+      assertArrayEquals(new int[0], paths.path(4));
+      assertArrayEquals(new int[0], paths.path(100));
+      assertEquals(Float.POSITIVE_INFINITY, paths.distance(-1));
+      assertEquals(-1, paths.predecessor(100));
+    }
+  }
+
+  @Test
+  void testZeroWeights() {
+    Graph graph = new Graph.Builder(3)
+        .addEdge(new Edge(0, 1, 0))
+        .addEdge(new Edge(1, 2, 0))
+        .addEdge(new Edge(2, 0, 0))
+        .build();
+
+    assertArrayEquals(new float[] {0, 0, 0}, ShortestPaths.deltaStepping(graph, 0).distances());
+    assertArrayEquals(new float[] {0, 0, 0}, ShortestPaths.dijkstra(graph, 0).distances());
+  }
+
+  @Test
+  void testSourceOutsideGraph() {
+    Graph graph = new Graph.Builder(1).addEdge(new Edge(0, 1, 1)).build();
+
+    ShortestPaths paths = ShortestPaths.dijkstra(graph, 5);
+
+    assertEquals(6, paths.distances().length);
+    assertEquals(0, paths.distance(5));
+    assertEquals(Float.POSITIVE_INFINITY, paths.distance(1));
+    assertEquals(0, ShortestPaths.deltaStepping(new Graph.Builder(0).build(), 0).distance(0));
+  }
+
+  @Test
+  void testInvalidInput() {
+    Graph negativeValue = new Graph.Builder(1).addEdge(new Edge(0, 1, -1)).build();
+    Graph negativeVertex = new Graph.Builder(1).addEdge(new Edge(0, -1, 1)).build();
+    Graph graph = new Graph.Builder(1).addEdge(new Edge(0, 1, 1)).build();
+
+    assertThrows(IllegalArgumentException.class, () -> ShortestPaths.dijkstra(negativeValue, 0));
+    assertThrows(IllegalArgumentException.class,
+        () -> ShortestPaths.deltaStepping(negativeVertex, 0));
+    assertThrows(IllegalArgumentException.class, () -> ShortestPaths.dijkstra(graph, -1));
+    assertThrows(IllegalArgumentException.class,
+        () -> ShortestPaths.deltaStepping(graph, 0, 0));
+    assertThrows(IllegalArgumentException.class,
+        () -> ShortestPaths.deltaStepping(graph, 0, Float.NaN));
+  }
+
+  private static Graph randomGraph(int vertices, int edges, long seed) {
+    Random random = new Random(seed);
+    Graph.Builder builder = new Graph.Builder(edges);
+    for (int i = 0; i < edges; i++) {
+      int source = i % vertices;
+      int target = (int) ((source + 1 + (long) i / vertices * 7919) % vertices);
+      builder.addEdge(source, target, random.nextFloat());
+    }
+    return builder.build();
+  }
+
+  private static float[] bellmanFord(Graph graph, int vertices, int source) {
+    float[] distances = new float[vertices];
+    Arrays.fill(distances, Float.POSITIVE_INFINITY);
+    distances[source] = 0;
+    boolean changed = true;
+    while (changed) {
+      changed = false;
+      for (Edge edge : graph) {
+        float candidate = distances[edge.getVertex1()] + edge.getValue();
+        if (candidate < distances[edge.getVertex2()]) {
+          distances[edge.getVertex2()] = candidate;
+          changed = true;
+        }
+      }
+    }
+    return distances;
+  }
+
+  private static void assertValidPath(Graph graph, ShortestPaths paths, int target) {
+    int[] path = paths.path(target);
+    if (path.length == 0) {
+      assertEquals(Float.POSITIVE_INFINITY, paths.distance(target));
+      return;
+    }
+    assertEquals(paths.source(), path[0]);
+    assertEquals(target, path[path.length - 1]);
+    for (int i = 1; i < path.length; i++) {
+      float value = graph.getEdgeValueOrDefault(path[i - 1], path[i], Float.NaN);
+      assertEquals(paths.distance(path[i - 1]) + value, paths.distance(path[i]), 1e-4);
+    }
+  }
+}
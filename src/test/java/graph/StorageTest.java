@@ -0,0 +1,86 @@
+package graph;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Random;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+class StorageTest {
+
+  private static Stream<Arguments> sourceIndexesAndSizes() {
+    List<Arguments> arguments = new ArrayList<>();
+    for (SourceIndex sourceIndex : SourceIndex.values()) {
+      for (int size : new int[] {0, 1, 1000}) {
+        arguments.add(Arguments.of(sourceIndex, size));
+      }
+    }
+    return arguments.stream();
+  }
+
+  @ParameterizedTest
+  @MethodSource("sourceIndexesAndSizes")
+  void testOffHeapGraphMatchesHeapGraph(SourceIndex sourceIndex, int size) {
+    Random random = new Random(size);
+    Graph.Builder heapBuilder = new Graph.Builder(size).sourceIndex(sourceIndex);
+    Graph.Builder offHeapBuilder = new Graph.Builder(size).sourceIndex(sourceIndex)
+        .storage(Storage.OFF_HEAP);
+    for (int i = 0; i < size; i++) {
+      int vertex1 = random.nextInt(50);
+      int vertex2 = i;
+      float value = random.nextFloat();
+      heapBuilder.addEdge(vertex1, vertex2, value);
+      offHeapBuilder.addEdge(vertex1, vertex2, value);
+    }
+    Graph heap = heapBuilder.build();
+    Graph offHeap = offHeapBuilder.build();
+
+    assertEquals(heap.size(), offHeap.size());
+    List<Edge> heapEdges = new ArrayList<>();
+    List<Edge> offHeapEdges = new ArrayList<>();
+    heap.iterator().forEachRemaining(heapEdges::add);
+    offHeap.iterator().forEachRemaining(offHeapEdges::add);
+    assertEquals(heapEdges, offHeapEdges);
+
+    for (Edge edge : heapEdges) {
+      assertEquals(Optional.of(edge.getValue()),
+          offHeap.getEdgeValue(edge.getVertex1(), edge.getVertex2()));
+    }
+    for (int vertex = -1; vertex <= 50; vertex++) {
+      List<Edge> expected = new ArrayList<>();
+      List<Edge> actual = new ArrayList<>();
+      heap.vertexIterator(vertex).forEachRemaining(expected::add);
+      offHeap.vertexIterator(vertex).forEachRemaining(actual::add);
+      assertEquals(expected, actual);
+    }
+    assertFalse(offHeap.containsEdge(50, 0));
+  }
+
+  @Test
+  void testOffHeapColumns() {
+    int[] ints = {5, -1, Integer.MAX_VALUE, Integer.MIN_VALUE, 7};
+    float[] floats = {1.5f, -2f, Float.NaN, 0f, 3f};
+
+    IntColumn intColumn = Storage.OFF_HEAP.ints(ints, 4);
+    FloatColumn floatColumn = Storage.OFF_HEAP.floats(floats, 4);
+
+    for (int i = 0; i < 4; i++) {
+      assertEquals(ints[i], intColumn.get(i));
+      assertEquals(floats[i], floatColumn.get(i));
+    }
+    assertThrows(IndexOutOfBoundsException.class, () -> intColumn.get(4));
+  }
+
+  @Test
+  void testNullStorage() {
+    assertThrows(NullPointerException.class, () -> new Graph.Builder().storage(null));
+  }
+}
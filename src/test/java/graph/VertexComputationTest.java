@@ -0,0 +1,181 @@
+package graph;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+class VertexComputationTest {
+
+  /** One iteration gives the sum of the values of the in-edges of every vertex. */
+  private static final VertexProgram IN_WEIGHTS = new VertexProgram() {
+    @Override
+    public double initialValue(int vertex) {
+      return 0;
+    }
+
+    @Override
+    public double message(int source, double value, float edgeValue) {
+      return edgeValue;
+    }
+
+    @Override
+    public double apply(int vertex, double messages, double value) {
+      return messages;
+    }
+  };
+
+  /** Propagates the smallest vertex id along edges, settling after the longest shortest path. */
+  private static final VertexProgram MIN_LABEL = new VertexProgram() {
+    @Override
+    public double initialValue(int vertex) {
+      return vertex;
+    }
+
+    @Override
+    public double message(int source, double value, float edgeValue) {
+      return value;
+    }
+
+    @Override
+    public double apply(int vertex, double messages, double value) {
+      return Math.min(value, messages);
+    }
+  };
+
+  private static Graph randomGraph(int vertices, int edges, long seed) {
+    Random random = new Random(seed);
+    Graph.Builder builder = new Graph.Builder(edges).incomingIndex(true);
+    for (int i = 0; i < edges; i++) {
+      int source = i % vertices;
+      int target = (int) ((source + 1 + (long) i / vertices * 7919) % vertices);
+      builder.addEdge(source, target, random.nextInt(10));
+    }
+    return builder.build();
+  }
+
+  @ParameterizedTest
+  @EnumSource(VertexComputation.Direction.class)
+  void testSingleIteration(VertexComputation.Direction direction) {
+    Graph graph = randomGraph(1000, 20_000, 1);
+    double[] expected = new double[1000];
+    for (Edge edge : graph) {
+      expected[edge.getVertex2()] += edge.getValue();
+    }
+
+    for (int partitions : new int[] {1, 3, 64, 5000}) {
+      VertexComputation computation = new VertexComputation.Builder(graph)
+          .direction(direction)
+          .partitions(partitions)
+          .maxIterations(1)
+          .run(IN_WEIGHTS);
+
+      assertArrayEquals(expected, computation.values(), 1e-9);
+      assertEquals(1, computation.iterations());
+      assertFalse(computation.converged());
+    }
+  }
+
+  @Test
+  void testStopsWhenValuesSettle() {
+    Graph graph = new Graph.Builder(5).incomingIndex(true)
+        .addEdge(0, 1, 1)
+        .addEdge(1, 2, 1)
+        .addEdge(2, 3, 1)
+        .addEdge(4, 3, 1)
+        .build();
+
+    for (VertexComputation.Direction direction : VertexComputation.Direction.values()) {
+      VertexComputation computation = new VertexComputation.Builder(graph)
+          .direction(direction)
+          .tolerance(0)
+          .run(new VertexProgram() {
+            @Override
+            public double initialValue(int vertex) {
+              return vertex;
+            }
+
+            @Override
+            public double message(int source, double value, float edgeValue) {
+              return 1;
+            }
+
+            @Override
+            public double apply(int vertex, double messages, double value) {
+              return messages > 0 ? Math.min(value, vertex - 1) : value;
+            }
+          });
+
+      assertArrayEquals(new double[] {0, 0, 1, 2, 4}, computation.values());
+      assertEquals(2, computation.iterations());
+      assertEquals(0, computation.residual());
+      assertTrue(computation.converged());
+    }
+  }
+
+  @Test
+  void testPushMatchesPull() {
+    Graph graph = randomGraph(5000, 100_000, 2);
+
+    VertexComputation push = new VertexComputation.Builder(graph)
+        .direction(VertexComputation.Direction.PUSH)
+        .run(MIN_LABEL);
+    VertexComputation pull = new VertexComputation.Builder(graph).run(MIN_LABEL);
+
+    assertArrayEquals(pull.values(), push.values());
+    assertEquals(pull.iterations(), push.iterations());
+    assertTrue(pull.converged());
+  }
+
+  @Test
+  void testMaxIterations() {
+    Graph graph = randomGraph(100, 1000, 3);
+
+    VertexComputation none = new VertexComputation.Builder(graph).maxIterations(0).run(MIN_LABEL);
+
+    assertEquals(0, none.iterations());
+    assertEquals(42, none.value(42));
+    assertEquals(Double.NaN, none.value(100));
+    assertFalse(none.converged());
+  }
+
+  @Test
+  void testPartitionsEndOnVertexBoundaries() {
+    IntColumn vertices1 = IntColumn.of(new int[] {0, 1, 1, 1, 1, 1, 1, 2, 2, 3});
+
+    assertArrayEquals(new int[] {0, 10}, VertexComputation.partition(vertices1, 10, 1));
+    assertArrayEquals(new int[] {0, 7, 10}, VertexComputation.partition(vertices1, 10, 2));
+    assertArrayEquals(new int[] {0, 7, 7, 7, 10},
+        VertexComputation.partition(vertices1, 10, 4));
+    assertArrayEquals(new int[] {0, 0, 0}, VertexComputation.partition(vertices1, 0, 2));
+  }
+
+  @Test
+  void testEmptyGraph() {
+    VertexComputation computation = new VertexComputation.Builder(new Graph.Builder(0).build())
+        .run(MIN_LABEL);
+
+    assertEquals(0, computation.values().length);
+    assertTrue(computation.converged());
+  }
+
+  @Test
+  void testInvalidInput() {
+    Graph graph = new Graph.Builder(1).addEdge(0, 1, 1).build();
+    VertexComputation.Builder builder = new VertexComputation.Builder(graph);
+
+    assertThrows(IllegalStateException.class,
+        () -> builder.direction(VertexComputation.Direction.PULL).run(MIN_LABEL));
+    assertThrows(NullPointerException.class, () -> builder.run(null));
+    assertThrows(NullPointerException.class, () -> builder.direction(null));
+    assertThrows(IllegalArgumentException.class, () -> builder.maxIterations(-1));
+    assertThrows(IllegalArgumentException.class, () -> builder.tolerance(Double.NaN));
+    assertThrows(IllegalArgumentException.class, () -> builder.partitions(0));
+  }
+}
@@ -0,0 +1,130 @@
+package graph;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class VertexDictionaryTest {
+  private Path path;
+
+  @BeforeEach
+  void createFile() throws IOException {
+    path = Files.createTempFile("graph", ".bin");
+  }
+
+  @AfterEach
+  void deleteFile() throws IOException {
+    Files.deleteIfExists(path);
+  }
+
+  @Test
+  void testLongKeys() {
+    Random random = new Random(1);
+    long[] keys = new long[100_000];
+    for (int i = 0; i < keys.length; i++) {
+      keys[i] = i % 3 == 0 ? random.nextLong() : (long) i << 32;
+    }
+    LongVertexDictionary dictionary = new LongVertexDictionary();
+
+    for (int i = 0; i < keys.length; i++) {
+      assertEquals(i, dictionary.add(keys[i]));
+    }
+    for (int i = 0; i < keys.length; i++) {
+      assertEquals(i, dictionary.add(keys[i]));
+      assertEquals(i, dictionary.id(keys[i]));
+      assertEquals(keys[i], dictionary.key(i));
+    }
+    assertEquals(keys.length, dictionary.size());
+    assertEquals(-1, dictionary.id(-1));
+    assertThrows(IndexOutOfBoundsException.class, () -> dictionary.key(keys.length));
+    assertThrows(IndexOutOfBoundsException.class, () -> dictionary.key(-1));
+  }
+
+  @Test
+  void testStringKeys() {
+    StringVertexDictionary dictionary = new StringVertexDictionary(2);
+    List<String> keys = new ArrayList<>();
+    for (int i = 0; i < 50_000; i++) {
+      keys.add("vertex-" + i);
+    }
+    // Strings with equal hash codes
+    keys.add("Aa");
+    keys.add("BB");
+
+    for (int i = 0; i < keys.size(); i++) {
+      assertEquals(i, dictionary.add(keys.get(i)));
+    }
+    for (int i = 0; i < keys.size(); i++) {
+      assertEquals(i, dictionary.add(new String(keys.get(i))));
+      assertEquals(i, dictionary.id(keys.get(i)));
+      assertEquals(keys.get(i), dictionary.key(i));
+    }
+    assertEquals(-1, dictionary.id("vertex"));
+    assertThrows(NullPointerException.class, () -> dictionary.add(null));
+  }
+
+  @Test
+  void testBuildAndWriteWithGraph() throws IOException {
+    LongVertexDictionary dictionary = new LongVertexDictionary();
+    Graph.Builder builder = new Graph.Builder();
+    long[][] edges = {{Long.MIN_VALUE, 42}, {42, 7L << 40}, {7L << 40, Long.MIN_VALUE}};
+    for (long[] edge : edges) {
+      builder.addEdge(dictionary.add(edge[0]), dictionary.add(edge[1]), 1);
+    }
+    Graph graph = builder.sourceIndex(SourceIndex.AUTO).build();
+    assertEquals(SourceIndex.DENSE, graph.rowIndex().type());
+
+    graph.writeTo(path, dictionary);
+    Graph mapped = Graph.map(path);
+    LongVertexDictionary read = LongVertexDictionary.read(path);
+
+    assertEquals(3, read.size());
+    for (long[] edge : edges) {
+      assertEquals(1, mapped.getEdgeValueOrDefault(read.id(edge[0]), read.id(edge[1]), 0));
+    }
+    mapped.forEachEdge((vertex1, vertex2, value) ->
+        assertEquals(dictionary.key(vertex1), read.key(vertex1)));
+    assertThrows(IOException.class, () -> StringVertexDictionary.read(path));
+  }
+
+  @Test
+  void testWriteStringKeys() throws IOException {
+    StringVertexDictionary dictionary = new StringVertexDictionary();
+    String[] keys = {"", "a", "\u00e9t\u00e9", "\u4e2d\u6587", "\ud83d\ude00", "tab\tkey",
+        new String(new char[100_000]).replace('\0', 'x')};
+    Graph.Builder builder = new Graph.Builder();
+    for (int i = 0; i < keys.length; i++) {
+      builder.addEdge(dictionary.add(keys[i]), dictionary.add(keys[(i + 1) % keys.length]), i);
+      assertEquals(keys[i].getBytes(StandardCharsets.UTF_8).length,
+          StringVertexDictionary.utf8Length(keys[i]));
+    }
+    assertEquals(1, StringVertexDictionary.utf8Length("\ud83d"));
+
+    builder.build().writeTo(path, dictionary);
+    StringVertexDictionary read = StringVertexDictionary.read(path);
+
+    assertEquals(keys.length, read.size());
+    for (int i = 0; i < keys.length; i++) {
+      assertEquals(keys[i], read.key(i));
+      assertEquals(i, read.id(keys[i]));
+    }
+  }
+
+  @Test
+  void testGraphFileWithoutDictionary() throws IOException {
+    new Graph.Builder().addEdge(1, 2, 3).build().writeTo(path);
+
+    assertThrows(IOException.class, () -> LongVertexDictionary.read(path));
+    assertThrows(IllegalArgumentException.class, () -> new LongVertexDictionary(-1));
+  }
+}
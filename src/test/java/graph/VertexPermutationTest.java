@@ -0,0 +1,259 @@
+package graph;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+class VertexPermutationTest {
+  private static final int VERTICES = 2000;
+  private static final int EDGES = 10_000;
+
+  private Path path;
+
+  @BeforeEach
+  void createFile() throws IOException {
+    path = Files.createTempFile("graph", ".bin");
+  }
+
+  @AfterEach
+  void deleteFile() throws IOException {
+    Files.deleteIfExists(path);
+  }
+
+  @ParameterizedTest
+  @EnumSource(value = VertexOrder.class, names = "NONE", mode = EnumSource.Mode.EXCLUDE)
+  void testLookupsUseExternalIds(VertexOrder order) {
+    Graph expected = randomGraph(VertexOrder.NONE);
+    Graph graph = randomGraph(order);
+
+    assertEquals(order, graph.vertexOrder());
+    assertSameGraph(expected, graph);
+  }
+
+  @ParameterizedTest
+  @EnumSource(value = VertexOrder.class, names = "NONE", mode = EnumSource.Mode.EXCLUDE)
+  void testAlgorithmsUseExternalIds(VertexOrder order) {
+    Graph expected = randomGraph(VertexOrder.NONE);
+    Graph graph = randomGraph(order);
+
+    assertArrayEquals(BreadthFirstSearch.search(expected, 3).depths(),
+        BreadthFirstSearch.search(graph, 3).depths());
+    assertArrayEquals(BreadthFirstSearch.search(expected, VERTICES + 5).depths(),
+        BreadthFirstSearch.search(graph, VERTICES + 5).depths());
+    assertArrayEquals(BreadthFirstSearch.search(expected, VERTICES + 50).parents(),
+        BreadthFirstSearch.search(graph, VERTICES + 50).parents());
+    assertArrayEquals(ConnectedComponents.weak(expected), ConnectedComponents.weak(graph));
+    assertArrayEquals(ShortestPaths.dijkstra(expected, 3).distances(),
+        ShortestPaths.dijkstra(graph, 3).distances());
+    assertArrayEquals(ShortestPaths.deltaStepping(expected, 3).distances(),
+        ShortestPaths.deltaStepping(graph, 3).distances());
+    assertArrayEquals(PageRank.compute(expected).values(), PageRank.compute(graph).values(),
+        1e-12);
+
+    VertexProgram program = new VertexProgram() {
+      @Override
+      public double initialValue(int vertex) {
+        return vertex;
+      }
+
+      @Override
+      public double message(int source, double value, float edgeValue) {
+        return source % 7 * edgeValue;
+      }
+
+      @Override
+      public double apply(int vertex, double messages, double value) {
+        return vertex + messages;
+      }
+    };
+    assertArrayEquals(new VertexComputation.Builder(expected).maxIterations(3).run(program)
+        .values(), new VertexComputation.Builder(graph).maxIterations(3).run(program).values(),
+        1e-9);
+
+    VertexProgram internal = new VertexProgram() {
+      @Override
+      public boolean internalIds() {
+        return true;
+      }
+
+      @Override
+      public double initialValue(int vertex) {
+        return vertex;
+      }
+
+      @Override
+      public double message(int source, double value, float edgeValue) {
+        return 0;
+      }
+
+      @Override
+      public double apply(int vertex, double messages, double value) {
+        return value;
+      }
+    };
+    VertexComputation ids = new VertexComputation.Builder(graph).maxIterations(0).run(internal);
+    for (int vertex = 0; vertex < VERTICES; vertex++) {
+      assertEquals(graph.permutation().internal(vertex), ids.value(vertex));
+    }
+  }
+
+  @Test
+  void testWriteAndMap() throws IOException {
+    Graph graph = randomGraph(VertexOrder.RCM);
+    graph.writeTo(path);
+    Graph mapped = Graph.map(path);
+
+    assertEquals(VertexOrder.RCM, mapped.vertexOrder());
+    assertSameGraph(randomGraph(VertexOrder.NONE), mapped);
+  }
+
+  @Test
+  void testOrders() {
+    int length = 1000;
+    List<Integer> ids = new ArrayList<>();
+    for (int i = 0; i < length; i++) {
+      ids.add(i);
+    }
+    Collections.shuffle(ids, new Random(5));
+
+    for (VertexOrder order : new VertexOrder[] {VertexOrder.BFS, VertexOrder.RCM}) {
+      Graph.Builder builder = new Graph.Builder().vertexOrder(order);
+      for (int i = 0; i + 1 < length; i++) {
+        builder.addEdge(ids.get(i), ids.get(i + 1), i);
+      }
+      Graph path = builder.build();
+      VertexPermutation permutation = path.permutation();
+      int bandwidth = 0;
+      for (int i = 0; i + 1 < length; i++) {
+        bandwidth = Math.max(bandwidth, Math.abs(permutation.internal(ids.get(i))
+            - permutation.internal(ids.get(i + 1))));
+      }
+      // BFS grows from an inner vertex in both directions, RCM from an end
+      assertEquals(order == VertexOrder.BFS ? 2 : 1, bandwidth, order.name());
+    }
+
+    Graph star = new Graph.Builder().vertexOrder(VertexOrder.DEGREE)
+        .addEdge(5, 9, 0).addEdge(7, 9, 0).addEdge(9, 2, 0).addEdge(2, 7, 0).build();
+    VertexPermutation permutation = star.permutation();
+    assertEquals(10, permutation.size());
+    assertEquals(0, permutation.internal(9));
+    assertEquals(1, permutation.internal(2));
+    assertEquals(2, permutation.internal(7));
+    assertEquals(3, permutation.internal(5));
+    assertEquals(4, permutation.internal(0));
+    assertEquals(9, permutation.external(permutation.internal(9)));
+    assertEquals(-1, permutation.internal(-1));
+    assertEquals(10, permutation.external(10));
+  }
+
+  @Test
+  void testInvalidIds() {
+    assertThrows(NullPointerException.class, () -> new Graph.Builder().vertexOrder(null));
+    assertThrows(IllegalArgumentException.class, () -> new Graph.Builder()
+        .vertexOrder(VertexOrder.BFS).addEdge(-1, 2, 0).build());
+    assertThrows(IllegalArgumentException.class, () -> new Graph.Builder()
+        .vertexOrder(VertexOrder.BFS).addEdge(1, 1_000_000, 0).addEdge(2, 3, 0).build());
+    IllegalArgumentException duplicate = assertThrows(IllegalArgumentException.class,
+        () -> new Graph.Builder().vertexOrder(VertexOrder.DEGREE).addEdge(1, 3, 0)
+            .addEdge(0, 2, 0).addEdge(1, 3, 1).build());
+    assertTrue(duplicate.getMessage().contains("vertex1=1, vertex2=3"), duplicate.getMessage());
+
+    Graph graph = randomGraph(VertexOrder.DEGREE);
+    assertThrows(IllegalArgumentException.class, () -> new MutableGraph(graph));
+    assertThrows(IllegalArgumentException.class, () -> CompressedGraph.compress(graph));
+    assertEquals(0, new Graph.Builder().vertexOrder(VertexOrder.RCM).build().size());
+  }
+
+  /** Random edges between the vertices {@code [0, VERTICES)} but the first few. */
+  private static Graph randomGraph(VertexOrder order) {
+    Random random = new Random(4);
+    Graph.Builder builder = new Graph.Builder().vertexOrder(order).incomingIndex(true)
+        .duplicatePolicy(DuplicatePolicy.KEEP_FIRST);
+    for (int i = 0; i < EDGES; i++) {
+      builder.addEdge(3 + random.nextInt(VERTICES - 3), 3 + random.nextInt(VERTICES - 3),
+          random.nextFloat());
+    }
+    builder.addEdge(VERTICES + 9, 1, 1);
+    return builder.build();
+  }
+
+  private static void assertSameGraph(Graph expected, Graph graph) {
+    assertEquals(expected.size(), graph.size());
+    assertEquals(edges(expected.iterator()), edges(graph.iterator()));
+    assertEquals(expected.edges().collect(Collectors.toSet()),
+        graph.parallelEdges().collect(Collectors.toSet()));
+    assertEquals(expected.sources().sum(), graph.sources().sum());
+    assertEquals(expected.targets().sum(), graph.targets().sum());
+    graph.forEachEdge((vertex1, vertex2, value) ->
+        assertEquals(value, expected.getEdgeValueOrDefault(vertex1, vertex2, -1)));
+
+    Random random = new Random(6);
+    int[] vertices1 = new int[1000];
+    int[] vertices2 = new int[1000];
+    for (int i = 0; i < vertices1.length; i++) {
+      vertices1[i] = random.nextInt(VERTICES + 20) - 5;
+      vertices2[i] = random.nextInt(VERTICES + 20) - 5;
+      assertEquals(expected.getEdgeValue(vertices1[i], vertices2[i]),
+          graph.getEdgeValue(vertices1[i], vertices2[i]));
+    }
+    float[] values = new float[vertices1.length];
+    boolean[] found = new boolean[vertices1.length];
+    float[] expectedValues = new float[vertices1.length];
+    boolean[] expectedFound = new boolean[vertices1.length];
+    graph.getEdgeValues(vertices1, vertices2, values, found);
+    expected.getEdgeValues(vertices1, vertices2, expectedValues, expectedFound);
+    assertArrayEquals(expectedValues, values);
+    assertArrayEquals(expectedFound, found);
+
+    for (int vertex = -2; vertex < VERTICES + 12; vertex++) {
+      assertEquals(expected.outDegree(vertex), graph.outDegree(vertex));
+      assertEquals(expected.inDegree(vertex), graph.inDegree(vertex));
+      assertEquals(edges(expected.vertexIterator(vertex)), edges(graph.vertexIterator(vertex)));
+      assertEquals(edges(expected.incomingIterator(vertex)),
+          edges(graph.incomingIterator(vertex)));
+
+      Set<Edge> neighbors = new HashSet<>();
+      graph.forEachNeighbor(vertex, (vertex1, vertex2, value) ->
+          neighbors.add(new Edge(vertex1, vertex2, value)));
+      graph.forEachIncoming(vertex, (vertex1, vertex2, value) ->
+          neighbors.add(new Edge(vertex1, vertex2, value)));
+      Set<Edge> expectedNeighbors = edges(expected.vertexIterator(vertex));
+      expectedNeighbors.addAll(edges(expected.incomingIterator(vertex)));
+      assertEquals(expectedNeighbors, neighbors);
+
+      Set<Edge> cursorEdges = new HashSet<>();
+      Graph.Cursor cursor = graph.cursor().reset(vertex);
+      while (cursor.next()) {
+        cursorEdges.add(new Edge(cursor.vertex1(), cursor.vertex2(), cursor.value()));
+      }
+      assertEquals(edges(expected.vertexIterator(vertex)), cursorEdges);
+    }
+    assertFalse(graph.containsEdge(VERTICES + 9, 2));
+    assertTrue(graph.containsEdge(VERTICES + 9, 1));
+  }
+
+  private static Set<Edge> edges(Iterator<Edge> iterator) {
+    Set<Edge> edges = new HashSet<>();
+    iterator.forEachRemaining(edges::add);
+    return edges;
+  }
+}